@@ -98,6 +98,9 @@ public enum OpType {
   CountRowsFunction(CountRowsFunctionExpr.class),
   GeneralSetFunction(GeneralSetFunctionExpr.class),
 
+  // Window Functions
+  WindowFunction(WindowFunctionExpr.class),
+
   // Literal
   DataType(DataTypeExpr.class),
   Cast(CastExpr.class),
@@ -96,6 +96,10 @@ public class Sort extends UnaryOperator {
       return this.key;
     }
 
+    public final void setKey(Expr key) {
+      this.key = key;
+    }
+
     @Override
     public int hashCode() {
       return Objects.hashCode(asc, key, nullFirst);
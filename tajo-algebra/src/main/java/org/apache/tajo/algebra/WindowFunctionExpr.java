@@ -0,0 +1,59 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.algebra;
+
+import com.google.common.base.Objects;
+
+/**
+ * Describes a window function call, which is a function followed by an OVER clause.
+ */
+public class WindowFunctionExpr extends Expr {
+  private FunctionExpr function;
+  private WindowSpec windowSpec;
+
+  /**
+   *
+   * @param function An aggregation function or a ranking function (e.g., row_number and rank)
+   * @param windowSpec A window specification
+   */
+  public WindowFunctionExpr(FunctionExpr function, WindowSpec windowSpec) {
+    super(OpType.WindowFunction);
+    this.function = function;
+    this.windowSpec = windowSpec;
+  }
+
+  public FunctionExpr getFunction() {
+    return function;
+  }
+
+  public WindowSpec getWindowSpec() {
+    return windowSpec;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(function, windowSpec);
+  }
+
+  @Override
+  boolean equalsTo(Expr expr) {
+    WindowFunctionExpr another = (WindowFunctionExpr) expr;
+    return function.equals(another.function) && windowSpec.equals(another.windowSpec);
+  }
+}
@@ -0,0 +1,190 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.algebra;
+
+import com.google.common.base.Objects;
+import org.apache.tajo.util.TUtil;
+
+/**
+ * Describes a window specification in an OVER clause, which consists of partition keys, sort specifications
+ * and a window frame. Each of them is optional.
+ */
+public class WindowSpec {
+  private Expr [] partitionKeys;
+  private Sort.SortSpec [] sortSpecs;
+  private WindowFrame frame;
+
+  public boolean hasPartitionKeys() {
+    return partitionKeys != null;
+  }
+
+  public Expr [] getPartitionKeys() {
+    return partitionKeys;
+  }
+
+  public void setPartitionKeys(Expr [] partitionKeys) {
+    this.partitionKeys = partitionKeys;
+  }
+
+  public boolean hasSortSpecs() {
+    return sortSpecs != null;
+  }
+
+  public Sort.SortSpec [] getSortSpecs() {
+    return sortSpecs;
+  }
+
+  public void setSortSpecs(Sort.SortSpec [] sortSpecs) {
+    this.sortSpecs = sortSpecs;
+  }
+
+  public boolean hasFrame() {
+    return frame != null;
+  }
+
+  public WindowFrame getFrame() {
+    return frame;
+  }
+
+  public void setFrame(WindowFrame frame) {
+    this.frame = frame;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(Objects.hashCode(partitionKeys), Objects.hashCode(sortSpecs), frame);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj instanceof WindowSpec) {
+      WindowSpec another = (WindowSpec) obj;
+      return TUtil.checkEquals(partitionKeys, another.partitionKeys) &&
+          TUtil.checkEquals(sortSpecs, another.sortSpecs) &&
+          TUtil.checkEquals(frame, another.frame);
+    }
+    return false;
+  }
+
+  public static enum WindowFrameUnit {
+    ROW,
+    RANGE
+  }
+
+  public static enum WindowFrameBoundType {
+    UNBOUNDED_PRECEDING,
+    PRECEDING,
+    CURRENT_ROW,
+    FOLLOWING,
+    UNBOUNDED_FOLLOWING
+  }
+
+  /**
+   * A window frame bound. An offset is meaningful only for PRECEDING and FOLLOWING.
+   */
+  public static class WindowFrameBound {
+    private WindowFrameBoundType boundType;
+    private long offset;
+
+    public WindowFrameBound(WindowFrameBoundType boundType) {
+      this(boundType, 0);
+    }
+
+    public WindowFrameBound(WindowFrameBoundType boundType, long offset) {
+      this.boundType = boundType;
+      this.offset = offset;
+    }
+
+    public WindowFrameBoundType getBoundType() {
+      return boundType;
+    }
+
+    public long getOffset() {
+      return offset;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(boundType, offset);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj instanceof WindowFrameBound) {
+        WindowFrameBound another = (WindowFrameBound) obj;
+        return boundType == another.boundType && offset == another.offset;
+      }
+      return false;
+    }
+
+    @Override
+    public String toString() {
+      switch (boundType) {
+      case PRECEDING: return offset + " PRECEDING";
+      case FOLLOWING: return offset + " FOLLOWING";
+      default: return boundType.name().replace('_', ' ');
+      }
+    }
+  }
+
+  public static class WindowFrame {
+    private WindowFrameUnit unit;
+    private WindowFrameBound startBound;
+    private WindowFrameBound endBound;
+
+    public WindowFrame(WindowFrameUnit unit, WindowFrameBound startBound, WindowFrameBound endBound) {
+      this.unit = unit;
+      this.startBound = startBound;
+      this.endBound = endBound;
+    }
+
+    public WindowFrameUnit getUnit() {
+      return unit;
+    }
+
+    public WindowFrameBound getStartBound() {
+      return startBound;
+    }
+
+    public WindowFrameBound getEndBound() {
+      return endBound;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(unit, startBound, endBound);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj instanceof WindowFrame) {
+        WindowFrame another = (WindowFrame) obj;
+        return unit == another.unit &&
+            TUtil.checkEquals(startBound, another.startBound) &&
+            TUtil.checkEquals(endBound, another.endBound);
+      }
+      return false;
+    }
+
+    @Override
+    public String toString() {
+      return unit + " BETWEEN " + startBound + " AND " + endBound;
+    }
+  }
+}
@@ -24,6 +24,7 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.tajo.annotation.Nullable;
 import org.apache.tajo.catalog.CatalogProtocol.CatalogProtocolService;
 import org.apache.tajo.catalog.exception.NoSuchFunctionException;
+import org.apache.tajo.catalog.partition.PartitionDesc;
 import org.apache.tajo.catalog.partition.PartitionMethodDesc;
 import org.apache.tajo.catalog.proto.CatalogProtos.*;
 import org.apache.tajo.common.TajoDataTypes.DataType;
@@ -285,6 +286,52 @@ public abstract class AbstractCatalogClient implements CatalogService {
     }
   }
 
+  @Override
+  public final boolean addPartitions(final String databaseName, final String tableName,
+                                     final Collection<PartitionDesc> partitions) {
+    try {
+      return new ServerCallable<Boolean>(this.pool, catalogServerAddr, CatalogProtocol.class, false) {
+        public Boolean call(NettyClientBase client) throws ServiceException {
+
+          PartitionsProto.Builder builder = PartitionsProto.newBuilder();
+          builder.setTableIdentifier(CatalogUtil.buildTableIdentifier(databaseName, tableName));
+          for (PartitionDesc partition : partitions) {
+            builder.addPartition(partition.getProto());
+          }
+
+          CatalogProtocolService.BlockingInterface stub = getStub(client);
+          return stub.addPartitions(null, builder.build()).getValue();
+        }
+      }.withRetries();
+    } catch (ServiceException e) {
+      LOG.error(e.getMessage(), e);
+      return false;
+    }
+  }
+
+  @Override
+  public final List<PartitionDesc> getPartitions(final String databaseName, final String tableName) {
+    try {
+      return new ServerCallable<List<PartitionDesc>>(this.pool, catalogServerAddr, CatalogProtocol.class, false) {
+        public List<PartitionDesc> call(NettyClientBase client) throws ServiceException {
+
+          CatalogProtocolService.BlockingInterface stub = getStub(client);
+          PartitionsProto response = stub.getPartitionsByTableName(null,
+              CatalogUtil.buildTableIdentifier(databaseName, tableName));
+
+          List<PartitionDesc> partitions = new ArrayList<PartitionDesc>();
+          for (PartitionDescProto proto : response.getPartitionList()) {
+            partitions.add(new PartitionDesc(proto));
+          }
+          return partitions;
+        }
+      }.withRetries();
+    } catch (ServiceException e) {
+      LOG.error(e.getMessage(), e);
+      return new ArrayList<PartitionDesc>();
+    }
+  }
+
   @Override
   public final Collection<String> getAllTableNames(final String databaseName) {
     try {
@@ -18,11 +18,13 @@
 
 package org.apache.tajo.catalog;
 
+import org.apache.tajo.catalog.partition.PartitionDesc;
 import org.apache.tajo.catalog.partition.PartitionMethodDesc;
 import org.apache.tajo.catalog.proto.CatalogProtos;
 import org.apache.tajo.common.TajoDataTypes.DataType;
 
 import java.util.Collection;
+import java.util.List;
 
 import static org.apache.tajo.catalog.proto.CatalogProtos.AlterTablespaceProto;
 import static org.apache.tajo.catalog.proto.CatalogProtos.FunctionType;
@@ -151,6 +153,19 @@ public interface CatalogService {
 
   boolean existPartitionMethod(String databaseName, String tableName);
 
+  /**
+   * Adds partitions to a column-partitioned table. A partition replaces the existing one of the same name.
+   *
+   * @return True if the partitions are added
+   */
+  boolean addPartitions(String databaseName, String tableName, Collection<PartitionDesc> partitions);
+
+  /**
+   * @return the partitions registered for a table in the order of their names. It is empty if no partition
+   * is registered.
+   */
+  List<PartitionDesc> getPartitions(String databaseName, String tableName);
+
   boolean createIndex(IndexDesc index);
 
   boolean existIndexByName(String databaseName, String indexName);
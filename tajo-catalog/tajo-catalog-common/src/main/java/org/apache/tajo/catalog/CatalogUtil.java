@@ -292,6 +292,8 @@ public class CatalogUtil {
       return StoreType.SEQUENCEFILE;
     } else if (typeStr.equalsIgnoreCase(StoreType.AVRO.name())) {
       return StoreType.AVRO;
+    } else if (typeStr.equalsIgnoreCase(StoreType.COLUMNFILE.name())) {
+      return StoreType.COLUMNFILE;
     } else {
       return null;
     }
@@ -33,6 +33,8 @@ public class PartitionDesc implements ProtoObject<CatalogProtos.PartitionDescPro
   @Expose protected int ordinalPosition;                       // required
   @Expose protected String partitionValue;                     // optional
   @Expose protected String path;                               // optional
+  @Expose protected long numBytes;                             // optional
+  @Expose protected long numRows;                              // optional
 
   private CatalogProtos.PartitionDescProto.Builder builder = CatalogProtos.PartitionDescProto.newBuilder();
 
@@ -44,6 +46,8 @@ public class PartitionDesc implements ProtoObject<CatalogProtos.PartitionDescPro
     this.ordinalPosition = partition.ordinalPosition;
     this.partitionValue = partition.partitionValue;
     this.path = partition.path;
+    this.numBytes = partition.numBytes;
+    this.numRows = partition.numRows;
   }
 
   public PartitionDesc(CatalogProtos.PartitionDescProto proto) {
@@ -57,6 +61,12 @@ public class PartitionDesc implements ProtoObject<CatalogProtos.PartitionDescPro
     if(proto.hasPath()) {
       this.path = proto.getPath();
     }
+    if(proto.hasNumBytes()) {
+      this.numBytes = proto.getNumBytes();
+    }
+    if(proto.hasNumRows()) {
+      this.numRows = proto.getNumRows();
+    }
   }
 
   public void setName(String partitionName) {
@@ -88,8 +98,22 @@ public class PartitionDesc implements ProtoObject<CatalogProtos.PartitionDescPro
     return path;
   }
 
+  public void setNumBytes(long numBytes) {
+    this.numBytes = numBytes;
+  }
+  public long getNumBytes() {
+    return numBytes;
+  }
+
+  public void setNumRows(long numRows) {
+    this.numRows = numRows;
+  }
+  public long getNumRows() {
+    return numRows;
+  }
+
   public int hashCode() {
-    return Objects.hashCode(partitionName, ordinalPosition, partitionValue, path);
+    return Objects.hashCode(partitionName, ordinalPosition, partitionValue, path, numBytes, numRows);
   }
 
   public boolean equals(Object o) {
@@ -104,6 +128,7 @@ public class PartitionDesc implements ProtoObject<CatalogProtos.PartitionDescPro
                  || (partitionValue == null && another.partitionValue == null));
       eq = eq && ((path != null && another.path != null && path.equals(another.path)) ||
           (path == null && another.path == null));
+      eq = eq && (numBytes == another.numBytes) && (numRows == another.numRows);
       return eq;
     }
     return false;
@@ -130,6 +155,9 @@ public class PartitionDesc implements ProtoObject<CatalogProtos.PartitionDescPro
       builder.setPath(this.path);
     }
 
+    builder.setNumBytes(this.numBytes);
+    builder.setNumRows(this.numRows);
+
     return builder.build();
   }
 
@@ -154,6 +182,8 @@ public class PartitionDesc implements ProtoObject<CatalogProtos.PartitionDescPro
     desc.ordinalPosition = ordinalPosition;
     desc.partitionValue = partitionValue;
     desc.path = path;
+    desc.numBytes = numBytes;
+    desc.numRows = numRows;
 
     return desc;
   }
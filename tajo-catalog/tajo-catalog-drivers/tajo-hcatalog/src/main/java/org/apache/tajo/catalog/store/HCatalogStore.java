@@ -701,7 +701,8 @@ public class HCatalogStore extends CatalogConstants implements CatalogStore {
   }
 
   @Override
-  public CatalogProtos.PartitionsProto getPartitions(String tableName) throws CatalogException {
+  public CatalogProtos.PartitionsProto getPartitions(String databaseName, String tableName)
+      throws CatalogException {
     return null; // TODO - not implemented yet
   }
 
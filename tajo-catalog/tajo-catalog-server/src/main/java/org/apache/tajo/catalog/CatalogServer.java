@@ -667,6 +667,31 @@ public class CatalogServer extends AbstractService {
 
     @Override
     public BoolProto addPartitions(RpcController controller, PartitionsProto request) throws ServiceException {
+      String databaseName = request.getTableIdentifier().getDatabaseName();
+      String tableName = request.getTableIdentifier().getTableName();
+
+      wlock.lock();
+      try {
+        if (!store.existDatabase(databaseName)) {
+          throw new NoSuchDatabaseException(databaseName);
+        }
+        if (!store.existTable(databaseName, tableName)) {
+          throw new NoSuchTableException(databaseName, tableName);
+        }
+        if (!store.existPartitionMethod(databaseName, tableName)) {
+          throw new NoPartitionedTableException(databaseName, tableName);
+        }
+
+        store.addPartitions(request);
+        LOG.info(String.format("%d partitions of \"%s\" are added to the catalog", request.getPartitionCount(),
+            CatalogUtil.getCanonicalTableName(databaseName, tableName)));
+      } catch (Exception e) {
+        LOG.error(e.getMessage(), e);
+        return ProtoUtil.FALSE;
+      } finally {
+        wlock.unlock();
+      }
+
       return ProtoUtil.TRUE;
     }
 
@@ -683,9 +708,32 @@ public class CatalogServer extends AbstractService {
 
     @Override
     public PartitionsProto getPartitionsByTableName(RpcController controller,
-                                                    StringProto request)
+                                                    TableIdentifierProto request)
         throws ServiceException {
-      return null;
+      String databaseName = request.getDatabaseName();
+      String tableName = request.getTableName();
+
+      rlock.lock();
+      try {
+        if (!store.existDatabase(databaseName)) {
+          throw new NoSuchDatabaseException(databaseName);
+        }
+        if (!store.existTable(databaseName, tableName)) {
+          throw new NoSuchTableException(databaseName, tableName);
+        }
+
+        PartitionsProto partitions = store.getPartitions(databaseName, tableName);
+        if (partitions == null) {
+          // the store does not keep partitions.
+          partitions = PartitionsProto.newBuilder().setTableIdentifier(request).build();
+        }
+        return partitions;
+      } catch (Exception e) {
+        LOG.error(e);
+        throw new ServiceException(e);
+      } finally {
+        rlock.unlock();
+      }
     }
 
     @Override
@@ -43,6 +43,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.*;
 
 import static org.apache.tajo.catalog.proto.CatalogProtos.AlterTablespaceProto.AlterTablespaceCommand;
@@ -180,6 +181,10 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
       boolean noVersion = !result.next();
 
       int schemaVersion = result.getInt(1);
+      if (!noVersion && schemaVersion < getDriverVersion() && getUpgradeStatements(schemaVersion) != null) {
+        upgradeSchema(schemaVersion);
+        schemaVersion = getDriverVersion();
+      }
       if (noVersion || schemaVersion != getDriverVersion()) {
         LOG.error(String.format("Catalog version (%d) and current driver version (%d) are mismatch to each other",
             schemaVersion, getDriverVersion()));
@@ -203,6 +208,57 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
         getDriverVersion()));
   }
 
+  /**
+   * Returns the statements which upgrade the catalog schema of an older version to the version of this driver.
+   *
+   * @param schemaVersion the version of the existing catalog schema
+   * @return the upgrade statements, or null if the schema of the version cannot be upgraded by the driver
+   */
+  protected List<String> getUpgradeStatements(int schemaVersion) {
+    return null;
+  }
+
+  /**
+   * Upgrades the catalog schema of an older version, and updates the schema version.
+   */
+  private void upgradeSchema(int schemaVersion) throws CatalogException {
+    Connection conn = null;
+    Statement stmt = null;
+    PreparedStatement pstmt = null;
+
+    try {
+      conn = getConnection();
+      conn.setAutoCommit(false);
+      stmt = conn.createStatement();
+      for (String sql : getUpgradeStatements(schemaVersion)) {
+        if (LOG.isDebugEnabled()) {
+          LOG.debug(sql);
+        }
+        stmt.executeUpdate(sql);
+      }
+
+      pstmt = conn.prepareStatement("UPDATE " + TB_META + " SET VERSION = ?");
+      pstmt.setInt(1, getDriverVersion());
+      pstmt.executeUpdate();
+      conn.commit();
+    } catch (SQLException se) {
+      if (conn != null) {
+        try {
+          conn.rollback();
+        } catch (SQLException e) {
+          LOG.error(e);
+        }
+      }
+      throw new CatalogException("cannot upgrade the catalog schema from version " + schemaVersion, se);
+    } finally {
+      CatalogUtil.closeQuietly(stmt);
+      CatalogUtil.closeQuietly(pstmt);
+    }
+
+    LOG.info(String.format("The catalog schema is upgraded from version %d to %d.", schemaVersion,
+        getDriverVersion()));
+  }
+
   /**
    * Insert the version of the current catalog schema
    */
@@ -1334,12 +1390,17 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
   }
 
   private static final String ADD_PARTITION_SQL =
-      "INSERT INTO " + TB_PARTTIONS + " (TID, PARTITION_NAME, ORDINAL_POSITION, PATH) VALUES (?,?,?,?)";
+      "INSERT INTO " + TB_PARTTIONS + " (TID, PARTITION_NAME, ORDINAL_POSITION, PARTITION_VALUE, PATH, " +
+          "NUM_BYTES, NUM_ROWS) VALUES (?,?,?,?,?,?,?)";
+
+  private static final String DEL_PARTITION_BY_NAME_SQL =
+      "DELETE FROM " + TB_PARTTIONS + " WHERE " + COL_TABLES_PK + " = ? AND PARTITION_NAME = ?";
 
 
   @Override
   public void addPartitions(CatalogProtos.PartitionsProto partitionsProto) throws CatalogException {
     Connection conn = null;
+    PreparedStatement delPstmt = null;
     PreparedStatement pstmt = null;
 
     try {
@@ -1354,8 +1415,19 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
       int tableId = getTableId(databaseId, databaseName, tableName);
 
       conn = getConnection();
-      pstmt = conn.prepareStatement(ADD_PARTITION_SQL);
+      conn.setAutoCommit(false);
+
+      // a partition replaces the existing one of the same name.
+      delPstmt = conn.prepareStatement(DEL_PARTITION_BY_NAME_SQL);
+      for (CatalogProtos.PartitionDescProto partition : partitionsProto.getPartitionList()) {
+        delPstmt.setInt(1, tableId);
+        delPstmt.setString(2, partition.getPartitionName());
+        delPstmt.addBatch();
+        delPstmt.clearParameters();
+      }
+      delPstmt.executeBatch();
 
+      pstmt = conn.prepareStatement(ADD_PARTITION_SQL);
       for (CatalogProtos.PartitionDescProto partition : partitionsProto.getPartitionList()) {
         addPartitionInternal(pstmt, tableId, partition);
       }
@@ -1371,6 +1443,7 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
       }
       throw new CatalogException(se);
     } finally {
+      CatalogUtil.closeQuietly(delPstmt);
       CatalogUtil.closeQuietly(pstmt);
     }
   }
@@ -1380,7 +1453,10 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
     pstmt.setInt(1, tableId);
     pstmt.setString(2, partition.getPartitionName());
     pstmt.setInt(3, partition.getOrdinalPosition());
-    pstmt.setString(4, partition.getPath());
+    pstmt.setString(4, partition.hasPartitionValue() ? partition.getPartitionValue() : null);
+    pstmt.setString(5, partition.getPath());
+    pstmt.setLong(6, partition.getNumBytes());
+    pstmt.setLong(7, partition.getNumRows());
     pstmt.addBatch();
     pstmt.clearParameters();
   }
@@ -1536,9 +1612,49 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
 
 
   @Override
-  public CatalogProtos.PartitionsProto getPartitions(String tableName) throws CatalogException {
-    // TODO
-    throw new UnimplementedException("getPartitions is not implemented");
+  public CatalogProtos.PartitionsProto getPartitions(String databaseName, String tableName)
+      throws CatalogException {
+    Connection conn = null;
+    ResultSet res = null;
+    PreparedStatement pstmt = null;
+
+    try {
+      String sql = "SELECT PARTITION_NAME, ORDINAL_POSITION, PARTITION_VALUE, PATH, NUM_BYTES, NUM_ROWS FROM " +
+          TB_PARTTIONS + " WHERE " + COL_TABLES_PK + " = ? ORDER BY PARTITION_NAME";
+
+      if (LOG.isDebugEnabled()) {
+        LOG.debug(sql);
+      }
+
+      int databaseId = getDatabaseId(databaseName);
+      int tableId = getTableId(databaseId, databaseName, tableName);
+
+      conn = getConnection();
+      pstmt = conn.prepareStatement(sql);
+      pstmt.setInt(1, tableId);
+      res = pstmt.executeQuery();
+
+      CatalogProtos.PartitionsProto.Builder builder = CatalogProtos.PartitionsProto.newBuilder();
+      builder.setTableIdentifier(CatalogUtil.buildTableIdentifier(databaseName, tableName));
+      while (res.next()) {
+        PartitionDescProto.Builder partition = PartitionDescProto.newBuilder();
+        partition.setPartitionName(res.getString("PARTITION_NAME"));
+        partition.setOrdinalPosition(res.getInt("ORDINAL_POSITION"));
+        String partitionValue = res.getString("PARTITION_VALUE");
+        if (partitionValue != null) {
+          partition.setPartitionValue(partitionValue);
+        }
+        partition.setPath(res.getString("PATH"));
+        partition.setNumBytes(res.getLong("NUM_BYTES"));
+        partition.setNumRows(res.getLong("NUM_ROWS"));
+        builder.addPartition(partition);
+      }
+      return builder.build();
+    } catch (SQLException se) {
+      throw new CatalogException(se);
+    } finally {
+      CatalogUtil.closeQuietly(pstmt, res);
+    }
   }
 
 
@@ -80,6 +80,9 @@ public interface CatalogStore extends Closeable {
 
 
   /************************** PARTITIONS *****************************/
+  /**
+   * Add partitions of a table. A partition replaces the existing one of the same name.
+   */
   void addPartitions(CatalogProtos.PartitionsProto partitionsProto) throws CatalogException;
 
   void addPartition(String databaseName, String tableName,
@@ -87,11 +90,12 @@ public interface CatalogStore extends Closeable {
 
   /**
    * Get all partitions of a table
+   * @param databaseName the database name
    * @param tableName the table name
-   * @return
+   * @return the partitions in the order of their names
    * @throws CatalogException
    */
-  CatalogProtos.PartitionsProto getPartitions(String tableName) throws CatalogException;
+  CatalogProtos.PartitionsProto getPartitions(String databaseName, String tableName) throws CatalogException;
 
   CatalogProtos.PartitionDescProto getPartition(String partitionName) throws CatalogException;
 
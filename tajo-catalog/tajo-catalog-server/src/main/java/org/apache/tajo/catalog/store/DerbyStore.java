@@ -25,13 +25,17 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.tajo.catalog.CatalogUtil;
 import org.apache.tajo.catalog.exception.CatalogException;
 import org.apache.tajo.exception.InternalException;
+import org.apache.tajo.util.TUtil;
 
 import java.sql.*;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class DerbyStore extends AbstractDBStore {
 
+  /** 2026-10-16: Partition sizes and row counts */
+  private static final int DERBY_STORE_VERSION_3 = 3;
   /** 2014-03-20: First versioning */
   private static final int DERBY_STORE_VERSION_2 = 2;
   /** Before 2013-03-20 */
@@ -47,7 +51,17 @@ public class DerbyStore extends AbstractDBStore {
   }
 
   public int getDriverVersion() {
-    return DERBY_STORE_VERSION_2;
+    return DERBY_STORE_VERSION_3;
+  }
+
+  @Override
+  protected List<String> getUpgradeStatements(int schemaVersion) {
+    if (schemaVersion == DERBY_STORE_VERSION_2) {
+      return TUtil.newList(
+          "ALTER TABLE " + TB_PARTTIONS + " ADD COLUMN NUM_BYTES BIGINT",
+          "ALTER TABLE " + TB_PARTTIONS + " ADD COLUMN NUM_ROWS BIGINT");
+    }
+    return null;
   }
 
   protected Connection createConnection(Configuration conf) throws SQLException {
@@ -47,6 +47,8 @@ public class MemStore implements CatalogStore {
   private final Map<String, CatalogProtos.FunctionDescProto> functions = Maps.newHashMap();
   private final Map<String, Map<String, IndexDescProto>> indexes = Maps.newHashMap();
   private final Map<String, Map<String, IndexDescProto>> indexesByColumn = Maps.newHashMap();
+  /** partitions by canonical table names, and then by partition names */
+  private final Map<String, SortedMap<String, CatalogProtos.PartitionDescProto>> partitions = Maps.newHashMap();
 
   public MemStore(Configuration conf) {
   }
@@ -132,6 +134,9 @@ public class MemStore implements CatalogStore {
     if (!databases.containsKey(databaseName)) {
       throw new NoSuchDatabaseException(databaseName);
     }
+    for (String tableName : databases.get(databaseName).keySet()) {
+      partitions.remove(CatalogUtil.buildFQName(databaseName, tableName));
+    }
     databases.remove(databaseName);
   }
 
@@ -184,6 +189,7 @@ public class MemStore implements CatalogStore {
 
     if (database.containsKey(tbName)) {
       database.remove(tbName);
+      partitions.remove(CatalogUtil.buildFQName(dbName, tbName));
     } else {
       throw new NoSuchTableException(tbName);
     }
@@ -325,7 +331,16 @@ public class MemStore implements CatalogStore {
 
   @Override
   public void addPartitions(CatalogProtos.PartitionsProto partitionDescList) throws CatalogException {
-    throw new RuntimeException("not supported!");
+    CatalogProtos.TableIdentifierProto identifier = partitionDescList.getTableIdentifier();
+    String tableName = CatalogUtil.buildFQName(identifier.getDatabaseName(), identifier.getTableName());
+    SortedMap<String, CatalogProtos.PartitionDescProto> tablePartitions = partitions.get(tableName);
+    if (tablePartitions == null) {
+      tablePartitions = new TreeMap<String, CatalogProtos.PartitionDescProto>();
+      partitions.put(tableName, tablePartitions);
+    }
+    for (CatalogProtos.PartitionDescProto partition : partitionDescList.getPartitionList()) {
+      tablePartitions.put(partition.getPartitionName(), partition);
+    }
   }
 
   @Override
@@ -335,8 +350,16 @@ public class MemStore implements CatalogStore {
   }
 
   @Override
-  public CatalogProtos.PartitionsProto getPartitions(String tableName) throws CatalogException {
-    throw new RuntimeException("not supported!");
+  public CatalogProtos.PartitionsProto getPartitions(String databaseName, String tableName)
+      throws CatalogException {
+    CatalogProtos.PartitionsProto.Builder builder = CatalogProtos.PartitionsProto.newBuilder();
+    builder.setTableIdentifier(CatalogUtil.buildTableIdentifier(databaseName, tableName));
+    SortedMap<String, CatalogProtos.PartitionDescProto> tablePartitions =
+        partitions.get(CatalogUtil.buildFQName(databaseName, tableName));
+    if (tablePartitions != null) {
+      builder.addAllPartition(tablePartitions.values());
+    }
+    return builder.build();
   }
 
   @Override
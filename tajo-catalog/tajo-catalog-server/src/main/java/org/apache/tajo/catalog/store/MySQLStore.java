@@ -25,12 +25,16 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.tajo.catalog.CatalogUtil;
 import org.apache.tajo.catalog.exception.CatalogException;
 import org.apache.tajo.exception.InternalException;
+import org.apache.tajo.util.TUtil;
 
 import java.sql.*;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class MySQLStore extends AbstractDBStore  {
+  /** 2026-10-16: Partition sizes and row counts */
+  private static final int MYSQL_CATALOG_STORE_VERSION_3 = 3;
   /** 2014-03-20: First versioning */
   private static final int MYSQL_CATALOG_STORE_VERSION_2 = 2;
   /** Before 2013-03-20 */
@@ -47,7 +51,19 @@ public class MySQLStore extends AbstractDBStore  {
 
   @Override
   public int getDriverVersion() {
-    return MYSQL_CATALOG_STORE_VERSION_2;
+    return MYSQL_CATALOG_STORE_VERSION_3;
+  }
+
+  @Override
+  protected List<String> getUpgradeStatements(int schemaVersion) {
+    if (schemaVersion == MYSQL_CATALOG_STORE_VERSION_2) {
+      // partition ids were never generated before the partitions were kept by the catalog.
+      return TUtil.newList(
+          "ALTER TABLE " + TB_PARTTIONS + " MODIFY PID INT NOT NULL AUTO_INCREMENT",
+          "ALTER TABLE " + TB_PARTTIONS + " ADD COLUMN NUM_BYTES BIGINT",
+          "ALTER TABLE " + TB_PARTTIONS + " ADD COLUMN NUM_ROWS BIGINT");
+    }
+    return null;
   }
 
   protected Connection createConnection(Configuration conf) throws SQLException {
@@ -1,10 +1,12 @@
 CREATE TABLE PARTITIONS (
-  PID INT NOT NULL PRIMARY KEY,
+  PID INT NOT NULL AUTO_INCREMENT PRIMARY KEY,
   TID INT NOT NULL,
   PARTITION_NAME VARCHAR(128),
   ORDINAL_POSITION INT NOT NULL,
   PARTITION_VALUE VARCHAR(1024),
   PATH VARCHAR(4096),
+  NUM_BYTES BIGINT,
+  NUM_ROWS BIGINT,
   FOREIGN KEY (TID) REFERENCES TABLES (TID) ON DELETE CASCADE,
   CONSTRAINT C_PARTITION_UNIQUE UNIQUE (TID, PARTITION_NAME),
   INDEX IDX_TID (TID),
@@ -18,12 +18,14 @@
 
 package org.apache.tajo.catalog;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import org.apache.hadoop.fs.Path;
 import org.apache.tajo.TajoConstants;
 import org.apache.tajo.catalog.exception.CatalogException;
 import org.apache.tajo.catalog.exception.NoSuchFunctionException;
 import org.apache.tajo.catalog.function.Function;
+import org.apache.tajo.catalog.partition.PartitionDesc;
 import org.apache.tajo.catalog.partition.PartitionMethodDesc;
 import org.apache.tajo.catalog.proto.CatalogProtos;
 import org.apache.tajo.catalog.proto.CatalogProtos.FunctionType;
@@ -744,6 +746,61 @@ public class TestCatalog {
     assertFalse(catalog.existsTable(tableName));
   }
 
+  private static PartitionDesc newPartition(String name, Path tablePath, long numBytes, long numRows) {
+    PartitionDesc partition = new PartitionDesc();
+    partition.setName(name);
+    partition.setPartitionValue(name.substring(name.indexOf('=') + 1));
+    partition.setPath(new Path(tablePath, name).toString());
+    partition.setNumBytes(numBytes);
+    partition.setNumRows(numRows);
+    return partition;
+  }
+
+  @Test
+  public final void testAddAndGetPartitions() throws Exception {
+    Schema schema = new Schema();
+    schema.addColumn("id", Type.INT4)
+        .addColumn("name", Type.TEXT)
+        .addColumn("age", Type.INT4);
+
+    String tableName = CatalogUtil.buildFQName(DEFAULT_DATABASE_NAME, "partitionedtable");
+    TableMeta meta = CatalogUtil.newTableMeta(StoreType.CSV);
+
+    Schema partSchema = new Schema();
+    partSchema.addColumn("age", Type.INT4);
+
+    PartitionMethodDesc partitionDesc =
+        new PartitionMethodDesc(DEFAULT_DATABASE_NAME, tableName,
+            CatalogProtos.PartitionType.COLUMN, "age", partSchema);
+
+    Path tablePath = new Path(CommonTestingUtil.getTestDir(), "partitionedtable");
+    TableDesc desc = new TableDesc(tableName, schema, meta, tablePath);
+    desc.setPartitionMethod(partitionDesc);
+    catalog.createTable(desc);
+    assertTrue(catalog.getPartitions(DEFAULT_DATABASE_NAME, "partitionedtable").isEmpty());
+
+    assertTrue(catalog.addPartitions(DEFAULT_DATABASE_NAME, "partitionedtable", Lists.newArrayList(
+        newPartition("age=30", tablePath, 300, 3),
+        newPartition("age=10", tablePath, 100, 1))));
+
+    // a partition of the same name replaces the existing one.
+    assertTrue(catalog.addPartitions(DEFAULT_DATABASE_NAME, "partitionedtable", Lists.newArrayList(
+        newPartition("age=20", tablePath, 200, 2),
+        newPartition("age=30", tablePath, 600, 6))));
+
+    List<PartitionDesc> partitions = catalog.getPartitions(DEFAULT_DATABASE_NAME, "partitionedtable");
+    assertEquals(3, partitions.size());
+    assertEquals(newPartition("age=10", tablePath, 100, 1), partitions.get(0));
+    assertEquals(newPartition("age=20", tablePath, 200, 2), partitions.get(1));
+    assertEquals(newPartition("age=30", tablePath, 600, 6), partitions.get(2));
+
+    // partitions are dropped with the table.
+    catalog.dropTable(tableName);
+    catalog.createTable(desc);
+    assertTrue(catalog.getPartitions(DEFAULT_DATABASE_NAME, "partitionedtable").isEmpty());
+    catalog.dropTable(tableName);
+  }
+
   @Test
   public void testAlterTableName () throws Exception {
 
@@ -0,0 +1,83 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.catalog.store;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.catalog.exception.CatalogException;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.apache.tajo.catalog.CatalogConstants.CATALOG_URI;
+import static org.junit.Assert.*;
+
+public class TestDerbyStore {
+
+  private static int getSchemaVersion(Connection conn) throws Exception {
+    Statement stmt = conn.createStatement();
+    ResultSet res = stmt.executeQuery("SELECT VERSION FROM META");
+    assertTrue(res.next());
+    int version = res.getInt(1);
+    res.close();
+    stmt.close();
+    return version;
+  }
+
+  @Test
+  public void testUpgradeFromVersion2() throws Exception {
+    Path path = CommonTestingUtil.getTestDir();
+    TajoConf conf = new TajoConf();
+    conf.set(CATALOG_URI, String.format("jdbc:derby:%s/db;create=true", path.toUri().getPath()));
+
+    DerbyStore store = new DerbyStore(conf);
+    Connection conn = store.getConnection();
+    conn.setAutoCommit(true);
+    assertEquals(store.getDriverVersion(), getSchemaVersion(conn));
+
+    // turns the catalog back into version 2, whose partitions have no sizes and row counts.
+    Statement stmt = conn.createStatement();
+    stmt.executeUpdate("ALTER TABLE PARTITIONS DROP COLUMN NUM_BYTES");
+    stmt.executeUpdate("ALTER TABLE PARTITIONS DROP COLUMN NUM_ROWS");
+    stmt.executeUpdate("UPDATE META SET VERSION = 2");
+    stmt.close();
+
+    DerbyStore upgraded = new DerbyStore(conf);
+    conn = upgraded.getConnection();
+    assertEquals(upgraded.getDriverVersion(), getSchemaVersion(conn));
+    stmt = conn.createStatement();
+    ResultSet res = stmt.executeQuery("SELECT NUM_BYTES, NUM_ROWS FROM PARTITIONS");
+    assertFalse(res.next());
+    res.close();
+
+    // a catalog of version 1 cannot be upgraded.
+    conn.setAutoCommit(true);
+    stmt.executeUpdate("UPDATE META SET VERSION = 1");
+    stmt.close();
+    try {
+      new DerbyStore(conf);
+      fail("A catalog of version 1 must be migrated manually");
+    } catch (CatalogException e) {
+      // expected
+    }
+  }
+}
@@ -139,14 +139,26 @@ public class TajoConf extends Configuration {
     SHUFFLE_SSL_ENABLED_KEY("tajo.pullserver.ssl.enabled", false),
     SHUFFLE_FILE_FORMAT("tajo.shuffle.file-format", "RAW"),
     SHUFFLE_FETCHER_PARALLEL_EXECUTION_MAX_NUM("tajo.shuffle.fetcher.parallel-execution.max-num", 2),
+    SHUFFLE_HASH_CONSOLIDATED_ENABLED("tajo.shuffle.hash.consolidated.enabled", true),
+    SHUFFLE_HASH_CONSOLIDATED_BUFFER_SIZE("tajo.shuffle.hash.consolidated.buffer-mb", 64L),
+    SHUFFLE_FETCHER_STREAMING_ENABLED("tajo.shuffle.fetcher.streaming.enabled", false),
+    SHUFFLE_FETCHER_KEEPALIVE_ENABLED("tajo.shuffle.fetcher.keep-alive.enabled", true),
+    SHUFFLE_FETCHER_KEEPALIVE_MAX_IDLE_CONNECTIONS("tajo.shuffle.fetcher.keep-alive.max-idle-connections-per-host", 4),
+    // a compression codec class for hash shuffle outputs and sort spill files. It can be set per session.
+    SHUFFLE_COMPRESSION_CODEC("tajo.shuffle.compression.codec", ""),
 
     //////////////////////////////////
     // Storage Configuration
     //////////////////////////////////
     RAWFILE_SYNC_INTERVAL("rawfile.sync.interval", null),
     MINIMUM_SPLIT_SIZE("tajo.min.split.size", (long) 1),
+    // Small splits of a leaf scan are combined into a task of the target size.
+    COMBINE_SPLITS_ENABLED("tajo.storage.combine-splits.enabled", true),
+    COMBINE_SPLITS_TARGET_SIZE("tajo.storage.combine-splits.target-size-mb", 128),
     // for RCFile
     HIVEUSEEXPLICITRCFILEHEADER("tajo.exec.rcfile.use.explicit.header", true),
+    // for CSVFile
+    CSVFILE_PARSER_THREAD_NUM("tajo.storage.csvfile.parser.thread-num", 1),
 
     // for Storage Manager v2
     STORAGE_MANAGER_VERSION_2("tajo.storage-manager.v2", false),
@@ -168,20 +180,51 @@ public class TajoConf extends Configuration {
     DIST_QUERY_SORT_PARTITION_VOLUME("tajo.dist-query.sort.partition-volume-mb", 256),
     DIST_QUERY_GROUPBY_PARTITION_VOLUME("tajo.dist-query.groupby.partition-volume-mb", 256),
 
+    DIST_QUERY_JOIN_RUNTIME_FILTER_ENABLED("tajo.dist-query.join.runtime-filter.enabled", false),
+    // The bloom filter is sized for the estimated rows of the build side, but at most for the max keys.
+    DIST_QUERY_JOIN_RUNTIME_FILTER_BITS_PER_KEY("tajo.dist-query.join.runtime-filter.bits-per-key", 8),
+    DIST_QUERY_JOIN_RUNTIME_FILTER_MAX_KEYS("tajo.dist-query.join.runtime-filter.max-keys", 1000000L),
+
+    // A shuffled partition is skewed if it is bigger than both the factor times the median partition and
+    // the task volume. A skewed join partition is split into multiple tasks.
+    DIST_QUERY_SKEW_JOIN_ENABLED("tajo.dist-query.join.skew-split.enabled", true),
+    DIST_QUERY_SKEW_PARTITION_FACTOR("tajo.dist-query.skew.partition-factor", 4.0f),
+    // Small join partitions are coalesced into a task of the join task volume.
+    DIST_QUERY_SHUFFLE_COALESCE_ENABLED("tajo.dist-query.shuffle.coalesce.enabled", true),
+
     //////////////////////////////////
     // Physical Executors
     //////////////////////////////////
     EXECUTOR_EXTERNAL_SORT_THREAD_NUM("tajo.executor.external-sort.thread-num", 1),
     EXECUTOR_EXTERNAL_SORT_BUFFER_SIZE("tajo.executor.external-sort.buffer-mb", 200L),
     EXECUTOR_EXTERNAL_SORT_FANOUT("tajo.executor.external-sort.fanout-num", 8),
+    EXECUTOR_SORT_TOPN_THRESHOLD("tajo.executor.sort.top-n.threshold", 100000L),
+    EXECUTOR_SORT_NORMALIZED_KEY_ENABLED("tajo.executor.sort.normalized-key.enabled", true),
 
     EXECUTOR_INNER_JOIN_INMEMORY_HASH_TABLE_SIZE("tajo.executor.join.inner.in-memory-table-num", (long)1000000),
     EXECUTOR_INNER_JOIN_INMEMORY_HASH_THRESHOLD("tajo.executor.join.inner.in-memory-hash-threshold-bytes",
         (long)256 * 1048576),
     EXECUTOR_OUTER_JOIN_INMEMORY_HASH_THRESHOLD("tajo.executor.join.outer.in-memory-hash-threshold-bytes",
         (long)256 * 1048576),
+    EXECUTOR_HASH_JOIN_SPILL_ENABLED("tajo.executor.join.hash-spill.enabled", true),
+    EXECUTOR_HASH_JOIN_SPILL_BUFFER_SIZE("tajo.executor.join.hash-spill.buffer-mb", 200L),
+    EXECUTOR_HASH_JOIN_SPILL_PARTITION_NUM("tajo.executor.join.hash-spill.partition-num", 32),
+    EXECUTOR_BROADCAST_JOIN_SHARED_HASH_TABLE_ENABLED("tajo.executor.join.broadcast.shared-hash-table.enabled", true),
+    EXECUTOR_BROADCAST_CACHE_SIZE("tajo.executor.join.broadcast.cache-mb", 1024L),
     EXECUTOR_GROUPBY_INMEMORY_HASH_THRESHOLD("tajo.executor.groupby.in-memory-hash-threshold-bytes",
         (long)256 * 1048576),
+    EXECUTOR_GROUPBY_HASH_SPILL_ENABLED("tajo.executor.groupby.hash-spill.enabled", true),
+    EXECUTOR_GROUPBY_HASH_SPILL_BUFFER_SIZE("tajo.executor.groupby.hash-spill.buffer-mb", 200L),
+    EXECUTOR_GROUPBY_HASH_SPILL_PARTITION_NUM("tajo.executor.groupby.hash-spill.partition-num", 32),
+    EXECUTOR_GROUPBY_PARTIAL_ENABLED("tajo.executor.groupby.partial.enabled", true),
+    EXECUTOR_GROUPBY_PARTIAL_BUFFER_SIZE("tajo.executor.groupby.partial.buffer-mb", 64L),
+    EXECUTOR_GROUPBY_PARTIAL_CHECK_ROWS("tajo.executor.groupby.partial.check-rows", 100000L),
+    EXECUTOR_GROUPBY_PARTIAL_MAX_RATIO("tajo.executor.groupby.partial.max-reduction-ratio", 0.5f),
+    EXECUTOR_WINDOW_AGG_BUFFER_SIZE("tajo.executor.window-agg.buffer-mb", 200L),
+    EXECUTOR_VECTORIZED_ENABLED("tajo.executor.vectorized.enabled", false),
+    EXECUTOR_VECTORIZED_BATCH_SIZE("tajo.executor.vectorized.batch-size", 1024),
+    EXECUTOR_EXPR_COMPILE_ENABLED("tajo.executor.expr.compile.enabled", true),
+    EXECUTOR_COMPACT_TUPLE_ENABLED("tajo.executor.compact-tuple.enabled", true),
 
     //////////////////////////////////
     // RPC
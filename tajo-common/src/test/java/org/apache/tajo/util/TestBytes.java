@@ -85,6 +85,28 @@ public class TestBytes {
 
   }
 
+  @Test
+  public void testParseLong() {
+    byte[] bytes1 = Long.toString(Long.MAX_VALUE).getBytes();
+    assertEquals(Long.MAX_VALUE, Bytes.parseLong(bytes1, 0, bytes1.length));
+
+    byte[] bytes2 = Long.toString(Long.MIN_VALUE).getBytes();
+    assertEquals(Long.MIN_VALUE, Bytes.parseLong(bytes2, 0, bytes2.length));
+
+    byte[] bytes3 = "+12345678901.0".getBytes();
+    assertEquals(12345678901L, Bytes.parseLong(bytes3, 0, bytes3.length));
+
+    byte[] bytes4 = "0123-456789".getBytes();
+    assertEquals(-456, Bytes.parseLong(bytes4, 4, 4));
+
+    byte[] bytes5 = "9223372036854775808".getBytes();
+    try {
+      Bytes.parseLong(bytes5, 0, bytes5.length);
+      fail("overflow must not be parsed");
+    } catch (NumberFormatException e) {
+    }
+  }
+
   @Test
   public void testParseDouble() {
     double double1 = 2.0015E7;
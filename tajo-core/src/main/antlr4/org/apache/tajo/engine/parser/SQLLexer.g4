@@ -203,6 +203,7 @@ COALESCE : C O A L E S C E;
 COLUMN : C O L U M N;
 COUNT : C O U N T;
 CUBE : C U B E;
+CURRENT : C U R R E N T;
 
 DAY : D A Y;
 DATABASE : D A T A B A S E;
@@ -221,6 +222,7 @@ EXTRACT : E X T R A C T;
 
 FILTER : F I L T E R;
 FIRST : F I R S T;
+FOLLOWING : F O L L O W I N G;
 FORMAT : F O R M A T;
 FUSION : F U S I O N;
 
@@ -253,10 +255,12 @@ MONTH : M O N T H;
 NATIONAL : N A T I O N A L;
 NULLIF : N U L L I F;
 
+OVER : O V E R;
 OVERWRITE : O V E R W R I T E;
 
 PARTITION : P A R T I T I O N;
 PARTITIONS : P A R T I T I O N S;
+PRECEDING : P R E C E D I N G;
 PRECISION : P R E C I S I O N;
 PURGE : P U R G E;
 
@@ -266,6 +270,8 @@ RANGE : R A N G E;
 REGEXP : R E G E X P;
 RLIKE : R L I K E;
 ROLLUP : R O L L U P;
+ROW : R O W;
+ROWS : R O W S;
 RENAME : R E N A M E;
 
 SECOND : S E C O N D;
@@ -284,6 +290,7 @@ TIMEZONE_MINUTE: T I M E Z O N E UNDERLINE M I N U T E;
 TRIM : T R I M;
 TO : T O;
 
+UNBOUNDED : U N B O U N D E D;
 UNKNOWN : U N K N O W N;
 
 VALUES : V A L U E S;
@@ -222,6 +222,7 @@ nonreserved_keywords
   | COLUMN
   | COUNT
   | CUBE
+  | CURRENT
   | DAY
   | DEC
   | DECADE
@@ -236,6 +237,7 @@ nonreserved_keywords
   | EXTRACT
   | FILTER
   | FIRST
+  | FOLLOWING
   | FORMAT
   | FUSION
   | GROUPING
@@ -259,9 +261,11 @@ nonreserved_keywords
   | MONTH
   | NATIONAL
   | NULLIF
+  | OVER
   | OVERWRITE
   | PARTITION
   | PARTITIONS
+  | PRECEDING
   | PRECISION
   | PURGE
   | QUARTER
@@ -270,6 +274,8 @@ nonreserved_keywords
   | RENAME
   | RLIKE
   | ROLLUP
+  | ROW
+  | ROWS
   | SECOND
   | SET
   | SIMILAR
@@ -284,6 +290,7 @@ nonreserved_keywords
   | TIMEZONE_MINUTE
   | TRIM
   | TO
+  | UNBOUNDED
   | UNKNOWN
   | VALUES
   | VAR_POP
@@ -499,6 +506,7 @@ parenthesized_value_expression
 nonparenthesized_value_expression_primary
   : unsigned_value_specification
   | column_reference
+  | window_function
   | set_function_specification
   | scalar_subquery
   | case_expression
@@ -571,6 +579,51 @@ grouping_operation
   : GROUPING LEFT_PAREN column_reference_list RIGHT_PAREN
   ;
 
+/*
+===============================================================================
+  6.10 <window function>
+===============================================================================
+*/
+
+window_function
+  : window_function_type OVER window_specification
+  ;
+
+window_function_type
+  : aggregate_function
+  | routine_invocation
+  ;
+
+window_specification
+  : LEFT_PAREN window_partition_clause? orderby_clause? window_frame_clause? RIGHT_PAREN
+  ;
+
+window_partition_clause
+  : PARTITION BY row_value_predicand_list
+  ;
+
+window_frame_clause
+  : window_frame_units window_frame_extent
+  ;
+
+window_frame_units
+  : ROWS
+  | RANGE
+  ;
+
+window_frame_extent
+  : window_frame_bound
+  | BETWEEN lower=window_frame_bound AND upper=window_frame_bound
+  ;
+
+window_frame_bound
+  : UNBOUNDED PRECEDING
+  | UNBOUNDED FOLLOWING
+  | CURRENT ROW
+  | unsigned_numeric_literal PRECEDING
+  | unsigned_numeric_literal FOLLOWING
+  ;
+
 /*
 ===============================================================================
   6.11 <case expression>
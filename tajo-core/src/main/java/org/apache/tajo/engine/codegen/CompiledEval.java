@@ -0,0 +1,195 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.codegen;
+
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.storage.Tuple;
+
+/**
+ * An expression compiled by {@link EvalCompiler}. It is bound to an input schema, and it evaluates a tuple
+ * without walking the original {@link org.apache.tajo.engine.eval.EvalNode} tree.
+ *
+ * <p>Typed subclasses compute primitive values and report nulls via {@link #wasNull()}, so intermediate
+ * results of numeric and boolean expressions do not create datums. A compiled expression keeps the null flag
+ * of the last evaluation, so it must not be shared by multiple threads.</p>
+ */
+public abstract class CompiledEval {
+  /** the type of datums returned by {@link #eval(Tuple)} */
+  protected final Type type;
+  protected boolean wasNull;
+
+  public CompiledEval(Type type) {
+    this.type = type;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * @return true if the last evaluation of a primitive value resulted in null
+   */
+  public boolean wasNull() {
+    return wasNull;
+  }
+
+  /**
+   * @return the result as a datum, which is the same as the result of the original expression
+   */
+  public abstract Datum eval(Tuple tuple);
+
+  public long evalLong(Tuple tuple) {
+    Datum datum = eval(tuple);
+    wasNull = datum == null || datum.isNull();
+    return wasNull ? 0 : datum.asInt8();
+  }
+
+  public double evalDouble(Tuple tuple) {
+    Datum datum = eval(tuple);
+    wasNull = datum == null || datum.isNull();
+    return wasNull ? 0 : datum.asFloat8();
+  }
+
+  public boolean evalBool(Tuple tuple) {
+    Datum datum = eval(tuple);
+    wasNull = datum == null || datum.isNull();
+    return !wasNull && datum.asBool();
+  }
+
+  /**
+   * @return true if the result is not null
+   */
+  public boolean evalNotNull(Tuple tuple) {
+    Datum datum = eval(tuple);
+    return datum != null && !datum.isNull();
+  }
+
+  /**
+   * It is the same as <code>eval(tuple).isTrue()</code>.
+   */
+  public boolean isTrue(Tuple tuple) {
+    Datum datum = eval(tuple);
+    return datum != null && datum.isTrue();
+  }
+
+  /**
+   * A compiled expression which results in INT2, INT4 or INT8 values.
+   */
+  public static abstract class LongEval extends CompiledEval {
+    public LongEval(Type type) {
+      super(type);
+    }
+
+    @Override
+    public abstract long evalLong(Tuple tuple);
+
+    @Override
+    public Datum eval(Tuple tuple) {
+      long value = evalLong(tuple);
+      if (wasNull) {
+        return NullDatum.get();
+      }
+
+      switch (type) {
+      case INT2:
+        return DatumFactory.createInt2((short) value);
+      case INT4:
+        return DatumFactory.createInt4((int) value);
+      default:
+        return DatumFactory.createInt8(value);
+      }
+    }
+
+    @Override
+    public double evalDouble(Tuple tuple) {
+      return evalLong(tuple);
+    }
+
+    @Override
+    public boolean evalNotNull(Tuple tuple) {
+      evalLong(tuple);
+      return !wasNull;
+    }
+  }
+
+  /**
+   * A compiled expression which results in FLOAT4 or FLOAT8 values.
+   */
+  public static abstract class DoubleEval extends CompiledEval {
+    public DoubleEval(Type type) {
+      super(type);
+    }
+
+    @Override
+    public abstract double evalDouble(Tuple tuple);
+
+    @Override
+    public Datum eval(Tuple tuple) {
+      double value = evalDouble(tuple);
+      if (wasNull) {
+        return NullDatum.get();
+      }
+
+      if (type == Type.FLOAT4) {
+        return DatumFactory.createFloat4((float) value);
+      } else {
+        return DatumFactory.createFloat8(value);
+      }
+    }
+
+    @Override
+    public boolean evalNotNull(Tuple tuple) {
+      evalDouble(tuple);
+      return !wasNull;
+    }
+  }
+
+  /**
+   * A compiled predicate which follows the three-valued logic.
+   */
+  public static abstract class BoolEval extends CompiledEval {
+    public BoolEval() {
+      super(Type.BOOLEAN);
+    }
+
+    @Override
+    public abstract boolean evalBool(Tuple tuple);
+
+    @Override
+    public Datum eval(Tuple tuple) {
+      boolean value = evalBool(tuple);
+      return wasNull ? NullDatum.get() : DatumFactory.createBool(value);
+    }
+
+    @Override
+    public boolean evalNotNull(Tuple tuple) {
+      evalBool(tuple);
+      return !wasNull;
+    }
+
+    @Override
+    public boolean isTrue(Tuple tuple) {
+      boolean value = evalBool(tuple);
+      return !wasNull && value;
+    }
+  }
+}
@@ -0,0 +1,739 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.codegen;
+
+import com.google.common.collect.Maps;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.engine.codegen.CompiledEval.BoolEval;
+import org.apache.tajo.engine.codegen.CompiledEval.DoubleEval;
+import org.apache.tajo.engine.codegen.CompiledEval.LongEval;
+import org.apache.tajo.engine.eval.*;
+import org.apache.tajo.engine.vector.LongArithmeticExpression;
+import org.apache.tajo.storage.Tuple;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * It compiles an {@link EvalNode} tree bound to an input schema into a tree of specialized
+ * {@link CompiledEval} nodes.
+ *
+ * <p>Column ids are resolved at compile time. Numeric arithmetic and comparisons are computed on primitive
+ * values, AND and OR are short-circuited, and CASE WHEN conditions are evaluated without creating boolean datums.
+ * Expressions which are not specialized, such as function calls, are evaluated by the original nodes, while
+ * their parents are still compiled. Results are always the same as those of the original trees.</p>
+ *
+ * <p>Compiled expressions are cached per expression and input schema. Since compiled expressions are stateful,
+ * a compiler must be used by only one task.</p>
+ */
+public class EvalCompiler {
+  private final boolean enabled;
+  private final Map<CacheKey, CompiledEval> cache = Maps.newHashMap();
+
+  public EvalCompiler(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /**
+   * @return a compiled expression. If compilation is disabled, it just wraps the given expression.
+   */
+  public CompiledEval compile(Schema schema, EvalNode eval) {
+    if (!enabled) {
+      return new InterpretedEval(schema, eval);
+    }
+
+    CacheKey key = new CacheKey(schema, eval);
+    CompiledEval compiled = cache.get(key);
+    if (compiled == null) {
+      compiled = compileNode(schema, eval);
+      cache.put(key, compiled);
+    }
+    return compiled;
+  }
+
+  private static boolean isIntegral(Type type) {
+    return type == Type.INT2 || type == Type.INT4 || type == Type.INT8;
+  }
+
+  private static CompiledEval compileNode(Schema schema, EvalNode eval) {
+    switch (eval.getType()) {
+    case FIELD:
+      return compileField(schema, (FieldEval) eval);
+
+    case CONST:
+      return compileConst(((ConstEval) eval).getValue());
+
+    case PLUS:
+    case MINUS:
+    case MULTIPLY:
+    case DIVIDE:
+    case MODULAR:
+      return compileArithmetic(eval.getType(),
+          compileNode(schema, eval.getLeftExpr()), compileNode(schema, eval.getRightExpr()));
+
+    case EQUAL:
+    case NOT_EQUAL:
+    case LTH:
+    case LEQ:
+    case GTH:
+    case GEQ:
+      return compileComparison(eval.getType(),
+          compileNode(schema, eval.getLeftExpr()), compileNode(schema, eval.getRightExpr()));
+
+    case CONCATENATE:
+      return new DatumBinaryEval(eval.getType(), Type.TEXT,
+          compileNode(schema, eval.getLeftExpr()), compileNode(schema, eval.getRightExpr()));
+
+    case AND:
+      return new AndEval(compileNode(schema, eval.getLeftExpr()), compileNode(schema, eval.getRightExpr()));
+
+    case OR:
+      return new OrEval(compileNode(schema, eval.getLeftExpr()), compileNode(schema, eval.getRightExpr()));
+
+    case NOT:
+      return new NotCompiledEval(compileNode(schema, ((NotEval) eval).getChild()));
+
+    case IS_NULL: {
+      IsNullEval isNull = (IsNullEval) eval;
+      return new IsNullCompiledEval(isNull.isNot(), compileNode(schema, isNull.getLeftExpr()));
+    }
+
+    case CASE:
+      return compileCaseWhen(schema, (CaseWhenEval) eval);
+
+    default:
+      return new InterpretedEval(schema, eval);
+    }
+  }
+
+  private static CompiledEval compileField(Schema schema, FieldEval field) {
+    int fieldId = schema.getColumnId(field.getColumnRef().getQualifiedName());
+    if (fieldId < 0) {
+      // the original node reports the missing column when it is evaluated.
+      return new InterpretedEval(schema, field);
+    }
+
+    Type type = schema.getColumn(fieldId).getDataType().getType();
+    if (isIntegral(type)) {
+      return new LongFieldEval(type, fieldId);
+    } else if (type == Type.FLOAT4 || type == Type.FLOAT8) {
+      return new DoubleFieldEval(type, fieldId);
+    } else {
+      return new DatumFieldEval(type, fieldId);
+    }
+  }
+
+  private static CompiledEval compileConst(Datum value) {
+    Type type = value.type();
+    if (isIntegral(type)) {
+      return new LongConstEval(value);
+    } else if (type == Type.FLOAT4 || type == Type.FLOAT8) {
+      return new DoubleConstEval(value);
+    } else {
+      return new DatumConstEval(value);
+    }
+  }
+
+  private static CompiledEval compileArithmetic(EvalType op, CompiledEval left, CompiledEval right) {
+    Type leftType = left.getType();
+    Type rightType = right.getType();
+    if (left instanceof LongEval && right instanceof LongEval) {
+      return new LongArithmeticEval(op, LongArithmeticExpression.getResultType(op, leftType, rightType),
+          (LongEval) left, (LongEval) right);
+    }
+    // an operation with a FLOAT8 value is computed as a double. FLOAT4 results depend on operand types,
+    // so they are left to datums.
+    if ((leftType == Type.FLOAT8 && (left instanceof DoubleEval) && isNumeric(right))
+        || (rightType == Type.FLOAT8 && (right instanceof DoubleEval) && isNumeric(left))) {
+      return new DoubleArithmeticEval(op, left, right);
+    }
+    return new DatumBinaryEval(op, leftType, left, right);
+  }
+
+  private static boolean isNumeric(CompiledEval eval) {
+    return eval instanceof LongEval || eval instanceof DoubleEval;
+  }
+
+  private static CompiledEval compileComparison(EvalType op, CompiledEval left, CompiledEval right) {
+    Type leftType = left.getType();
+    Type rightType = right.getType();
+    if (left instanceof LongEval && right instanceof LongEval) {
+      return new LongComparisonEval(op, left, right);
+    }
+    // an integral value is compared with a FLOAT4 value as a float, so it is left to datums.
+    if (isNumeric(left) && isNumeric(right)
+        && (leftType == Type.FLOAT8 || rightType == Type.FLOAT8 || (leftType == Type.FLOAT4 && rightType == Type.FLOAT4))) {
+      return new DoubleComparisonEval(op, left, right);
+    }
+    return new DatumComparisonEval(op, left, right);
+  }
+
+  private static CompiledEval compileCaseWhen(Schema schema, CaseWhenEval caseWhen) {
+    List<CaseWhenEval.IfThenEval> ifThens = caseWhen.getIfThenEvals();
+    CompiledEval [] conditions = new CompiledEval[ifThens.size()];
+    CompiledEval [] results = new CompiledEval[ifThens.size()];
+    for (int i = 0; i < conditions.length; i++) {
+      conditions[i] = compileNode(schema, ifThens.get(i).getCondition());
+      results[i] = compileNode(schema, ifThens.get(i).getResult());
+    }
+    CompiledEval elseResult = caseWhen.getElse() != null ? compileNode(schema, caseWhen.getElse()) : null;
+    return new CaseWhenCompiledEval(caseWhen.getValueType().getType(), conditions, results, elseResult);
+  }
+
+  private static class CacheKey {
+    private final Schema schema;
+    private final EvalNode eval;
+
+    CacheKey(Schema schema, EvalNode eval) {
+      this.schema = schema;
+      this.eval = eval;
+    }
+
+    @Override
+    public int hashCode() {
+      return System.identityHashCode(eval);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj instanceof CacheKey) {
+        CacheKey other = (CacheKey) obj;
+        // expressions can be modified after they are compared, so they are compared by their identities.
+        return eval == other.eval && schema.equals(other.schema);
+      }
+      return false;
+    }
+  }
+
+  ///////////////////////////////////////////////////
+  // compiled nodes
+  ///////////////////////////////////////////////////
+
+  /**
+   * It evaluates an expression which is not specialized by walking the original tree.
+   */
+  private static class InterpretedEval extends CompiledEval {
+    private final Schema schema;
+    private final EvalNode eval;
+
+    InterpretedEval(Schema schema, EvalNode eval) {
+      super(eval.getValueType() != null ? eval.getValueType().getType() : Type.ANY);
+      this.schema = schema;
+      this.eval = eval;
+    }
+
+    @Override
+    public Datum eval(Tuple tuple) {
+      return eval.eval(schema, tuple);
+    }
+  }
+
+  private static class LongFieldEval extends LongEval {
+    private final int fieldId;
+
+    LongFieldEval(Type type, int fieldId) {
+      super(type);
+      this.fieldId = fieldId;
+    }
+
+    @Override
+    public Datum eval(Tuple tuple) {
+      return tuple.get(fieldId);
+    }
+
+    @Override
+    public long evalLong(Tuple tuple) {
+      Datum datum = tuple.get(fieldId);
+      wasNull = datum == null || datum.isNull();
+      return wasNull ? 0 : datum.asInt8();
+    }
+  }
+
+  private static class DoubleFieldEval extends DoubleEval {
+    private final int fieldId;
+
+    DoubleFieldEval(Type type, int fieldId) {
+      super(type);
+      this.fieldId = fieldId;
+    }
+
+    @Override
+    public Datum eval(Tuple tuple) {
+      return tuple.get(fieldId);
+    }
+
+    @Override
+    public double evalDouble(Tuple tuple) {
+      Datum datum = tuple.get(fieldId);
+      wasNull = datum == null || datum.isNull();
+      return wasNull ? 0 : datum.asFloat8();
+    }
+  }
+
+  private static class DatumFieldEval extends CompiledEval {
+    private final int fieldId;
+
+    DatumFieldEval(Type type, int fieldId) {
+      super(type);
+      this.fieldId = fieldId;
+    }
+
+    @Override
+    public Datum eval(Tuple tuple) {
+      return tuple.get(fieldId);
+    }
+  }
+
+  private static class LongConstEval extends LongEval {
+    private final Datum datum;
+    private final long value;
+
+    LongConstEval(Datum datum) {
+      super(datum.type());
+      this.datum = datum;
+      this.value = datum.asInt8();
+    }
+
+    @Override
+    public Datum eval(Tuple tuple) {
+      return datum;
+    }
+
+    @Override
+    public long evalLong(Tuple tuple) {
+      wasNull = false;
+      return value;
+    }
+  }
+
+  private static class DoubleConstEval extends DoubleEval {
+    private final Datum datum;
+    private final double value;
+
+    DoubleConstEval(Datum datum) {
+      super(datum.type());
+      this.datum = datum;
+      this.value = datum.asFloat8();
+    }
+
+    @Override
+    public Datum eval(Tuple tuple) {
+      return datum;
+    }
+
+    @Override
+    public double evalDouble(Tuple tuple) {
+      wasNull = false;
+      return value;
+    }
+  }
+
+  private static class DatumConstEval extends CompiledEval {
+    private final Datum datum;
+
+    DatumConstEval(Datum datum) {
+      super(datum.type());
+      this.datum = datum;
+    }
+
+    @Override
+    public Datum eval(Tuple tuple) {
+      return datum;
+    }
+  }
+
+  private static class LongArithmeticEval extends LongEval {
+    private final EvalType op;
+    private final LongEval left;
+    private final LongEval right;
+
+    LongArithmeticEval(EvalType op, Type type, LongEval left, LongEval right) {
+      super(type);
+      this.op = op;
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    public long evalLong(Tuple tuple) {
+      long lhs = left.evalLong(tuple);
+      long rhs = right.evalLong(tuple);
+      if (left.wasNull || right.wasNull) {
+        wasNull = true;
+        return 0;
+      }
+      wasNull = false;
+
+      long value;
+      switch (op) {
+      case PLUS:
+        value = lhs + rhs;
+        break;
+      case MINUS:
+        value = lhs - rhs;
+        break;
+      case MULTIPLY:
+        value = lhs * rhs;
+        break;
+      case DIVIDE:
+        value = lhs / rhs;
+        break;
+      case MODULAR:
+        value = lhs % rhs;
+        break;
+      default:
+        throw new InvalidEvalException("Not supported compiled operation: " + op);
+      }
+
+      // it follows the overflow behavior of datums.
+      switch (type) {
+      case INT2:
+        return (short) value;
+      case INT4:
+        return (int) value;
+      default:
+        return value;
+      }
+    }
+  }
+
+  private static class DoubleArithmeticEval extends DoubleEval {
+    private final EvalType op;
+    private final CompiledEval left;
+    private final CompiledEval right;
+
+    DoubleArithmeticEval(EvalType op, CompiledEval left, CompiledEval right) {
+      super(Type.FLOAT8);
+      this.op = op;
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    public double evalDouble(Tuple tuple) {
+      double lhs = left.evalDouble(tuple);
+      double rhs = right.evalDouble(tuple);
+      if (left.wasNull || right.wasNull) {
+        wasNull = true;
+        return 0;
+      }
+      wasNull = false;
+
+      switch (op) {
+      case PLUS:
+        return lhs + rhs;
+      case MINUS:
+        return lhs - rhs;
+      case MULTIPLY:
+        return lhs * rhs;
+      case DIVIDE:
+        return lhs / rhs;
+      case MODULAR:
+        return lhs % rhs;
+      default:
+        throw new InvalidEvalException("Not supported compiled operation: " + op);
+      }
+    }
+  }
+
+  /**
+   * A binary operation which is computed by datums of compiled child expressions.
+   */
+  private static class DatumBinaryEval extends CompiledEval {
+    private final EvalType op;
+    private final CompiledEval left;
+    private final CompiledEval right;
+
+    DatumBinaryEval(EvalType op, Type type, CompiledEval left, CompiledEval right) {
+      super(type);
+      this.op = op;
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    public Datum eval(Tuple tuple) {
+      Datum lhs = left.eval(tuple);
+      Datum rhs = right.eval(tuple);
+
+      switch (op) {
+      case PLUS:
+        return lhs.plus(rhs);
+      case MINUS:
+        return lhs.minus(rhs);
+      case MULTIPLY:
+        return lhs.multiply(rhs);
+      case DIVIDE:
+        return lhs.divide(rhs);
+      case MODULAR:
+        return lhs.modular(rhs);
+      case CONCATENATE:
+        if (lhs.type() == Type.NULL_TYPE || rhs.type() == Type.NULL_TYPE) {
+          return NullDatum.get();
+        }
+        return DatumFactory.createText(lhs.asChars() + rhs.asChars());
+      default:
+        throw new InvalidEvalException("Not supported compiled operation: " + op);
+      }
+    }
+  }
+
+  private static abstract class ComparisonEval extends BoolEval {
+    protected final EvalType op;
+    protected final CompiledEval left;
+    protected final CompiledEval right;
+
+    ComparisonEval(EvalType op, CompiledEval left, CompiledEval right) {
+      this.op = op;
+      this.left = left;
+      this.right = right;
+    }
+
+    protected boolean compare(int cmp) {
+      switch (op) {
+      case EQUAL:
+        return cmp == 0;
+      case NOT_EQUAL:
+        return cmp != 0;
+      case LTH:
+        return cmp < 0;
+      case LEQ:
+        return cmp <= 0;
+      case GTH:
+        return cmp > 0;
+      case GEQ:
+        return cmp >= 0;
+      default:
+        throw new InvalidEvalException("Not supported compiled operation: " + op);
+      }
+    }
+  }
+
+  private static class LongComparisonEval extends ComparisonEval {
+    LongComparisonEval(EvalType op, CompiledEval left, CompiledEval right) {
+      super(op, left, right);
+    }
+
+    @Override
+    public boolean evalBool(Tuple tuple) {
+      long lhs = left.evalLong(tuple);
+      long rhs = right.evalLong(tuple);
+      if (left.wasNull || right.wasNull) {
+        wasNull = true;
+        return false;
+      }
+      wasNull = false;
+      return compare(lhs < rhs ? -1 : (lhs == rhs ? 0 : 1));
+    }
+  }
+
+  private static class DoubleComparisonEval extends ComparisonEval {
+    DoubleComparisonEval(EvalType op, CompiledEval left, CompiledEval right) {
+      super(op, left, right);
+    }
+
+    @Override
+    public boolean evalBool(Tuple tuple) {
+      double lhs = left.evalDouble(tuple);
+      double rhs = right.evalDouble(tuple);
+      if (left.wasNull || right.wasNull) {
+        wasNull = true;
+        return false;
+      }
+      wasNull = false;
+
+      // primitive operators are used because the comparison of datums follows them including NaN.
+      switch (op) {
+      case EQUAL:
+        return lhs == rhs;
+      case NOT_EQUAL:
+        return lhs != rhs;
+      case LTH:
+        return lhs < rhs;
+      case LEQ:
+        return lhs <= rhs;
+      case GTH:
+        return lhs > rhs;
+      case GEQ:
+        return lhs >= rhs;
+      default:
+        throw new InvalidEvalException("Not supported compiled operation: " + op);
+      }
+    }
+  }
+
+  private static class DatumComparisonEval extends ComparisonEval {
+    DatumComparisonEval(EvalType op, CompiledEval left, CompiledEval right) {
+      super(op, left, right);
+    }
+
+    @Override
+    public boolean evalBool(Tuple tuple) {
+      Datum lhs = left.eval(tuple);
+      Datum rhs = right.eval(tuple);
+
+      Datum result;
+      switch (op) {
+      case EQUAL:
+        result = lhs.equalsTo(rhs);
+        break;
+      case NOT_EQUAL:
+        result = lhs.notEqualsTo(rhs);
+        break;
+      case LTH:
+        result = lhs.lessThan(rhs);
+        break;
+      case LEQ:
+        result = lhs.lessThanEqual(rhs);
+        break;
+      case GTH:
+        result = lhs.greaterThan(rhs);
+        break;
+      case GEQ:
+        result = lhs.greaterThanEqual(rhs);
+        break;
+      default:
+        throw new InvalidEvalException("Not supported compiled operation: " + op);
+      }
+
+      wasNull = result.isNull();
+      return !wasNull && result.asBool();
+    }
+  }
+
+  private static class AndEval extends BoolEval {
+    private final CompiledEval left;
+    private final CompiledEval right;
+
+    AndEval(CompiledEval left, CompiledEval right) {
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    public boolean evalBool(Tuple tuple) {
+      boolean lhs = left.evalBool(tuple);
+      boolean lhsNull = left.wasNull;
+      if (!lhsNull && !lhs) {
+        wasNull = false;
+        return false;
+      }
+
+      boolean rhs = right.evalBool(tuple);
+      if (!right.wasNull && !rhs) {
+        wasNull = false;
+        return false;
+      }
+
+      wasNull = lhsNull || right.wasNull;
+      return !wasNull;
+    }
+  }
+
+  private static class OrEval extends BoolEval {
+    private final CompiledEval left;
+    private final CompiledEval right;
+
+    OrEval(CompiledEval left, CompiledEval right) {
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    public boolean evalBool(Tuple tuple) {
+      boolean lhs = left.evalBool(tuple);
+      boolean lhsNull = left.wasNull;
+      if (!lhsNull && lhs) {
+        wasNull = false;
+        return true;
+      }
+
+      boolean rhs = right.evalBool(tuple);
+      if (!right.wasNull && rhs) {
+        wasNull = false;
+        return true;
+      }
+
+      wasNull = lhsNull || right.wasNull;
+      return false;
+    }
+  }
+
+  private static class NotCompiledEval extends BoolEval {
+    private final CompiledEval child;
+
+    NotCompiledEval(CompiledEval child) {
+      this.child = child;
+    }
+
+    @Override
+    public boolean evalBool(Tuple tuple) {
+      boolean value = child.evalBool(tuple);
+      wasNull = child.wasNull;
+      return !wasNull && !value;
+    }
+  }
+
+  private static class IsNullCompiledEval extends BoolEval {
+    private final boolean isNot;
+    private final CompiledEval child;
+
+    IsNullCompiledEval(boolean isNot, CompiledEval child) {
+      this.isNot = isNot;
+      this.child = child;
+    }
+
+    @Override
+    public boolean evalBool(Tuple tuple) {
+      wasNull = false;
+      return isNot == child.evalNotNull(tuple);
+    }
+  }
+
+  private static class CaseWhenCompiledEval extends CompiledEval {
+    private final CompiledEval [] conditions;
+    private final CompiledEval [] results;
+    private final CompiledEval elseResult;
+
+    CaseWhenCompiledEval(Type type, CompiledEval [] conditions, CompiledEval [] results, CompiledEval elseResult) {
+      super(type);
+      this.conditions = conditions;
+      this.results = results;
+      this.elseResult = elseResult;
+    }
+
+    @Override
+    public Datum eval(Tuple tuple) {
+      for (int i = 0; i < conditions.length; i++) {
+        if (conditions[i].isTrue(tuple)) {
+          return results[i].eval(tuple);
+        }
+      }
+
+      if (elseResult != null) {
+        return elseResult.eval(tuple);
+      }
+      return NullDatum.get();
+    }
+  }
+}
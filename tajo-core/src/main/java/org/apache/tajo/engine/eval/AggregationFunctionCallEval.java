@@ -43,6 +43,25 @@ public class AggregationFunctionCallEval extends FunctionEval implements Cloneab
   }
 
   public void merge(FunctionContext context, Schema schema, Tuple tuple) {
+    evalParams(schema, tuple);
+
+    if (firstPhase) {
+      instance.eval(context, params);
+    } else {
+      instance.merge(context, params);
+    }
+  }
+
+  /**
+   * Accumulates a raw input row into the given context regardless of the aggregation phase.
+   * It is used for window functions, which always aggregate raw rows in a single phase.
+   */
+  public void accumulate(FunctionContext context, Schema schema, Tuple tuple) {
+    evalParams(schema, tuple);
+    instance.eval(context, params);
+  }
+
+  private void evalParams(Schema schema, Tuple tuple) {
     if (params == null) {
       this.params = new VTuple(argEvals.length);
     }
@@ -52,12 +71,22 @@ public class AggregationFunctionCallEval extends FunctionEval implements Cloneab
         params.put(i, argEvals[i].eval(schema, tuple));
       }
     }
+  }
 
-    if (firstPhase) {
-      instance.eval(context, params);
-    } else {
-      instance.merge(context, params);
-    }
+  /**
+   * Merges a partial result, which was produced by {@link #getPartialResult(FunctionContext)},
+   * into the given context. It is used to restore contexts from spilled intermediate data.
+   */
+  public void mergePartial(FunctionContext context, Tuple partial) {
+    instance.merge(context, partial);
+  }
+
+  public Datum getPartialResult(FunctionContext context) {
+    return instance.getPartialResult(context);
+  }
+
+  public DataType getPartialResultType() {
+    return instance.getPartialResultType();
   }
 
   @Override
@@ -89,4 +118,8 @@ public class AggregationFunctionCallEval extends FunctionEval implements Cloneab
   public void setFirstPhase() {
     this.firstPhase = true;
   }
+
+  public boolean isFirstPhase() {
+    return firstPhase;
+  }
 }
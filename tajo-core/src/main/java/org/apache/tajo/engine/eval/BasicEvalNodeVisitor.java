@@ -123,6 +123,9 @@ public class BasicEvalNodeVisitor<CONTEXT, RESULT> implements EvalNodeVisitor2<C
       case AGG_FUNCTION:
         result = visitAggrFuncCall(context, (AggregationFunctionCallEval) evalNode, stack);
         break;
+      case WINDOW_FUNCTION:
+        result = visitWindowFunction(context, (WindowFunctionEval) evalNode, stack);
+        break;
 
       case SIGNED:
         result = visitSigned(context, (SignedEval) evalNode, stack);
@@ -321,6 +324,17 @@ public class BasicEvalNodeVisitor<CONTEXT, RESULT> implements EvalNodeVisitor2<C
     return visitDefaultFunctionEval(context, stack, evalNode);
   }
 
+  @Override
+  public RESULT visitWindowFunction(CONTEXT context, WindowFunctionEval evalNode, Stack<EvalNode> stack) {
+    RESULT result = null;
+    if (evalNode.hasAggFunction()) {
+      stack.push(evalNode);
+      result = visitDefaultFunctionEval(context, stack, evalNode.getAggFunction());
+      stack.pop();
+    }
+    return result;
+  }
+
   @Override
   public RESULT visitSigned(CONTEXT context, SignedEval signedEval, Stack<EvalNode> stack) {
     RESULT result;
@@ -26,6 +26,7 @@ import org.apache.tajo.common.TajoDataTypes.DataType;
 import org.apache.tajo.datum.Datum;
 import org.apache.tajo.engine.planner.Target;
 import org.apache.tajo.exception.InternalException;
+import org.apache.tajo.storage.ColumnPredicate;
 import org.apache.tajo.util.TUtil;
 
 import java.util.*;
@@ -398,6 +399,76 @@ public class EvalTreeUtil {
     }
   }
 
+  /**
+   * Finds the comparisons between a column and a constant among the conjuncts of a search condition, so that
+   * a selectable scanner can skip rows which never satisfy the search condition.
+   *
+   * @param qual a search condition
+   * @return the column predicates which are implied by the search condition
+   */
+  public static ColumnPredicate [] findColumnPredicates(EvalNode qual) {
+    List<ColumnPredicate> predicates = new ArrayList<ColumnPredicate>();
+    for (EvalNode conjunct : AlgebraicUtil.toConjunctiveNormalFormArray(qual)) {
+      switch (conjunct.getType()) {
+        case EQUAL:
+        case NOT_EQUAL:
+        case LTH:
+        case LEQ:
+        case GTH:
+        case GEQ:
+          EvalNode left = conjunct.getLeftExpr();
+          EvalNode right = conjunct.getRightExpr();
+          if (left.getType() == EvalType.FIELD && right.getType() == EvalType.CONST) {
+            addColumnPredicate(predicates, left, conjunct.getType(), right);
+          } else if (left.getType() == EvalType.CONST && right.getType() == EvalType.FIELD) {
+            addColumnPredicate(predicates, right, mirrorComparison(conjunct.getType()), left);
+          }
+          break;
+
+        case BETWEEN:
+          BetweenPredicateEval between = (BetweenPredicateEval) conjunct;
+          if (!between.isNot() && !between.isSymmetric() && between.getPredicand().getType() == EvalType.FIELD &&
+              between.getBegin().getType() == EvalType.CONST && between.getEnd().getType() == EvalType.CONST) {
+            addColumnPredicate(predicates, between.getPredicand(), EvalType.GEQ, between.getBegin());
+            addColumnPredicate(predicates, between.getPredicand(), EvalType.LEQ, between.getEnd());
+          }
+          break;
+
+        default:
+          break;
+      }
+    }
+    return predicates.toArray(new ColumnPredicate[predicates.size()]);
+  }
+
+  private static void addColumnPredicate(List<ColumnPredicate> predicates, EvalNode field, EvalType type,
+                                         EvalNode constant) {
+    Datum value = ((ConstEval) constant).getValue();
+    if (value.isNull()) {
+      return;
+    }
+    Column column = ((FieldEval) field).getColumnRef();
+    predicates.add(new ColumnPredicate(column, ColumnPredicate.Op.valueOf(type.name()), value));
+  }
+
+  /**
+   * @return the comparison operator of which operands are swapped, e.g., '&lt;' for '&gt;'
+   */
+  private static EvalType mirrorComparison(EvalType type) {
+    switch (type) {
+      case LTH:
+        return EvalType.GTH;
+      case LEQ:
+        return EvalType.GEQ;
+      case GTH:
+        return EvalType.LTH;
+      case GEQ:
+        return EvalType.LEQ;
+      default:
+        return type;
+    }
+  }
+
   public static boolean checkIfCanBeConstant(EvalNode evalNode) {
     return findUniqueColumns(evalNode).size() == 0 && findDistinctAggFunction(evalNode).size() == 0;
   }
@@ -41,6 +41,7 @@ public enum EvalType {
   // Function
   AGG_FUNCTION(AggregationFunctionCallEval.class),
   FUNCTION(GeneralFunctionEval.class),
+  WINDOW_FUNCTION(WindowFunctionEval.class),
 
   // String operator or pattern matching predicates
   LIKE(LikePredicateEval.class),
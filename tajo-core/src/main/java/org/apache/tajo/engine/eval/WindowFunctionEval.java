@@ -0,0 +1,230 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.eval;
+
+import com.google.common.base.Objects;
+import com.google.gson.annotations.Expose;
+import org.apache.tajo.algebra.WindowSpec.WindowFrameBoundType;
+import org.apache.tajo.algebra.WindowSpec.WindowFrameUnit;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.DataType;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.util.TUtil;
+
+/**
+ * A window function call. It is either a ranking function (i.e., row_number, rank, and dense_rank) or
+ * an aggregation function evaluated over a window frame. It cannot be evaluated against a single tuple.
+ * Instead, WindowAggExec computes its value for each row of a window partition.
+ */
+public class WindowFunctionEval extends EvalNode implements Cloneable {
+  public static enum WindowFunctionType {
+    ROW_NUMBER,
+    RANK,
+    DENSE_RANK,
+    AGGREGATION
+  }
+
+  @Expose private WindowFunctionType funcType;
+  @Expose private AggregationFunctionCallEval aggEval;
+  @Expose private WindowFrame frame;
+
+  /**
+   * Creates a ranking function.
+   */
+  public WindowFunctionEval(WindowFunctionType funcType) {
+    super(EvalType.WINDOW_FUNCTION);
+    this.funcType = funcType;
+  }
+
+  /**
+   * Creates an aggregation function evaluated over a window frame.
+   */
+  public WindowFunctionEval(AggregationFunctionCallEval aggEval, WindowFrame frame) {
+    super(EvalType.WINDOW_FUNCTION);
+    this.funcType = WindowFunctionType.AGGREGATION;
+    this.aggEval = aggEval;
+    this.frame = frame;
+  }
+
+  public WindowFunctionType getFuncType() {
+    return funcType;
+  }
+
+  public boolean hasAggFunction() {
+    return aggEval != null;
+  }
+
+  public AggregationFunctionCallEval getAggFunction() {
+    return aggEval;
+  }
+
+  public WindowFrame getFrame() {
+    return frame;
+  }
+
+  @Override
+  public DataType getValueType() {
+    if (funcType == WindowFunctionType.AGGREGATION) {
+      return aggEval.getValueType();
+    } else {
+      return CatalogUtil.newSimpleDataType(Type.INT8);
+    }
+  }
+
+  @Override
+  public String getName() {
+    if (funcType == WindowFunctionType.AGGREGATION) {
+      return aggEval.getName();
+    } else {
+      return funcType.name().toLowerCase();
+    }
+  }
+
+  @Override
+  public Datum eval(Schema schema, Tuple tuple) {
+    throw new UnsupportedOperationException("Cannot execute eval() of window function");
+  }
+
+  @Override
+  public String toString() {
+    if (funcType == WindowFunctionType.AGGREGATION) {
+      return aggEval + " over (" + frame + ")";
+    } else {
+      return getName() + "() over ()";
+    }
+  }
+
+  @Override
+  public void preOrder(EvalNodeVisitor visitor) {
+    visitor.visit(this);
+    if (aggEval != null) {
+      for (EvalNode arg : aggEval.getArgs()) {
+        arg.preOrder(visitor);
+      }
+    }
+  }
+
+  @Override
+  public void postOrder(EvalNodeVisitor visitor) {
+    if (aggEval != null) {
+      for (EvalNode arg : aggEval.getArgs()) {
+        arg.postOrder(visitor);
+      }
+    }
+    visitor.visit(this);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj instanceof WindowFunctionEval) {
+      WindowFunctionEval other = (WindowFunctionEval) obj;
+      return funcType == other.funcType &&
+          TUtil.checkEquals(aggEval, other.aggEval) &&
+          TUtil.checkEquals(frame, other.frame);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(funcType, aggEval, frame);
+  }
+
+  @Override
+  public Object clone() throws CloneNotSupportedException {
+    WindowFunctionEval eval = (WindowFunctionEval) super.clone();
+    eval.funcType = funcType;
+    if (aggEval != null) {
+      eval.aggEval = (AggregationFunctionCallEval) aggEval.clone();
+    }
+    eval.frame = frame;
+    return eval;
+  }
+
+  /**
+   * A window frame. Offsets are meaningful only for PRECEDING and FOLLOWING bounds.
+   */
+  public static class WindowFrame {
+    @Expose private WindowFrameUnit unit;
+    @Expose private WindowFrameBoundType startType;
+    @Expose private long startOffset;
+    @Expose private WindowFrameBoundType endType;
+    @Expose private long endOffset;
+
+    public WindowFrame(WindowFrameUnit unit, WindowFrameBoundType startType, long startOffset,
+                       WindowFrameBoundType endType, long endOffset) {
+      this.unit = unit;
+      this.startType = startType;
+      this.startOffset = startOffset;
+      this.endType = endType;
+      this.endOffset = endOffset;
+    }
+
+    public WindowFrameUnit getUnit() {
+      return unit;
+    }
+
+    public WindowFrameBoundType getStartType() {
+      return startType;
+    }
+
+    public long getStartOffset() {
+      return startOffset;
+    }
+
+    public WindowFrameBoundType getEndType() {
+      return endType;
+    }
+
+    public long getEndOffset() {
+      return endOffset;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj instanceof WindowFrame) {
+        WindowFrame other = (WindowFrame) obj;
+        return unit == other.unit && startType == other.startType && startOffset == other.startOffset &&
+            endType == other.endType && endOffset == other.endOffset;
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(unit, startType, startOffset, endType, endOffset);
+    }
+
+    @Override
+    public String toString() {
+      return unit + " BETWEEN " + boundToString(startType, startOffset) + " AND " + boundToString(endType, endOffset);
+    }
+
+    private static String boundToString(WindowFrameBoundType type, long offset) {
+      switch (type) {
+      case PRECEDING: return offset + " PRECEDING";
+      case FOLLOWING: return offset + " FOLLOWING";
+      default: return type.name().replace('_', ' ');
+      }
+    }
+  }
+}
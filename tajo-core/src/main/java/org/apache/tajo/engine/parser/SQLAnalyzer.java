@@ -888,6 +888,62 @@ public class SQLAnalyzer extends SQLParserBaseVisitor<Expr> {
     return function;
   }
 
+  @Override
+  public WindowFunctionExpr visitWindow_function(SQLParser.Window_functionContext ctx) {
+    FunctionExpr function;
+    if (ctx.window_function_type().aggregate_function() != null) {
+      function = visitAggregate_function(ctx.window_function_type().aggregate_function());
+    } else {
+      function = visitRoutine_invocation(ctx.window_function_type().routine_invocation());
+    }
+    return new WindowFunctionExpr(function, buildWindowSpec(ctx.window_specification()));
+  }
+
+  private WindowSpec buildWindowSpec(SQLParser.Window_specificationContext ctx) {
+    WindowSpec windowSpec = new WindowSpec();
+    if (checkIfExist(ctx.window_partition_clause())) {
+      windowSpec.setPartitionKeys(getRowValuePredicands(ctx.window_partition_clause().row_value_predicand_list()));
+    }
+    if (checkIfExist(ctx.orderby_clause())) {
+      windowSpec.setSortSpecs(visitOrderby_clause(ctx.orderby_clause()).getSortSpecs());
+    }
+    if (checkIfExist(ctx.window_frame_clause())) {
+      windowSpec.setFrame(buildWindowFrame(ctx.window_frame_clause()));
+    }
+    return windowSpec;
+  }
+
+  private WindowSpec.WindowFrame buildWindowFrame(SQLParser.Window_frame_clauseContext ctx) {
+    WindowSpec.WindowFrameUnit unit = checkIfExist(ctx.window_frame_units().ROWS()) ?
+        WindowSpec.WindowFrameUnit.ROW : WindowSpec.WindowFrameUnit.RANGE;
+
+    Window_frame_extentContext extent = ctx.window_frame_extent();
+    if (checkIfExist(extent.BETWEEN())) {
+      return new WindowSpec.WindowFrame(unit, buildWindowFrameBound(extent.lower),
+          buildWindowFrameBound(extent.upper));
+    } else {
+      // A single bound is the start of the frame, and the frame ends with the current row.
+      return new WindowSpec.WindowFrame(unit, buildWindowFrameBound(extent.window_frame_bound(0)),
+          new WindowSpec.WindowFrameBound(WindowSpec.WindowFrameBoundType.CURRENT_ROW));
+    }
+  }
+
+  private WindowSpec.WindowFrameBound buildWindowFrameBound(SQLParser.Window_frame_boundContext ctx) {
+    if (checkIfExist(ctx.CURRENT())) {
+      return new WindowSpec.WindowFrameBound(WindowSpec.WindowFrameBoundType.CURRENT_ROW);
+    } else if (checkIfExist(ctx.UNBOUNDED())) {
+      return new WindowSpec.WindowFrameBound(checkIfExist(ctx.PRECEDING()) ?
+          WindowSpec.WindowFrameBoundType.UNBOUNDED_PRECEDING : WindowSpec.WindowFrameBoundType.UNBOUNDED_FOLLOWING);
+    } else {
+      if (ctx.unsigned_numeric_literal().NUMBER() == null) {
+        throw new SQLSyntaxError("window frame offset must be an integer: " + ctx.unsigned_numeric_literal().getText());
+      }
+      long offset = Long.parseLong(ctx.unsigned_numeric_literal().getText());
+      return new WindowSpec.WindowFrameBound(checkIfExist(ctx.PRECEDING()) ?
+          WindowSpec.WindowFrameBoundType.PRECEDING : WindowSpec.WindowFrameBoundType.FOLLOWING, offset);
+    }
+  }
+
   @Override
   public NamedExpr visitDerived_column(Derived_columnContext ctx) {
     NamedExpr target = new NamedExpr(visitValue_expression(ctx.value_expression()));
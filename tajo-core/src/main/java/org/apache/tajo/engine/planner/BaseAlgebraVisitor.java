@@ -227,6 +227,9 @@ public class BaseAlgebraVisitor<CONTEXT, RESULT> implements AlgebraVisitor<CONTE
     case GeneralSetFunction:
       current = visitGeneralSetFunction(ctx, stack, (GeneralSetFunctionExpr) expr);
       break;
+    case WindowFunction:
+      current = visitWindowFunction(ctx, stack, (WindowFunctionExpr) expr);
+      break;
 
     case DataType:
       current = visitDataType(ctx, stack, (DataTypeExpr) expr);
@@ -695,6 +698,30 @@ public class BaseAlgebraVisitor<CONTEXT, RESULT> implements AlgebraVisitor<CONTE
     return result;
   }
 
+  ///////////////////////////////////////////////////////////////////////////////////////////////////////////
+  // Window Function Section
+  ///////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  @Override
+  public RESULT visitWindowFunction(CONTEXT ctx, Stack<Expr> stack, WindowFunctionExpr expr)
+      throws PlanningException {
+    stack.push(expr);
+    RESULT result = visit(ctx, stack, expr.getFunction());
+    WindowSpec windowSpec = expr.getWindowSpec();
+    if (windowSpec.hasPartitionKeys()) {
+      for (Expr key : windowSpec.getPartitionKeys()) {
+        result = visit(ctx, stack, key);
+      }
+    }
+    if (windowSpec.hasSortSpecs()) {
+      for (Sort.SortSpec sortSpec : windowSpec.getSortSpecs()) {
+        result = visit(ctx, stack, sortSpec.getKey());
+      }
+    }
+    stack.pop();
+    return result;
+  }
+
   ///////////////////////////////////////////////////////////////////////////////////////////////////////////
   // Literal Section
   ///////////////////////////////////////////////////////////////////////////////////////////////////////////
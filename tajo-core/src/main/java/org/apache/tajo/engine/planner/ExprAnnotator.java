@@ -475,6 +475,102 @@ public class ExprAnnotator extends BaseAlgebraVisitor<ExprAnnotator.Context, Eva
     }
   }
 
+  ///////////////////////////////////////////////////////////////////////////////////////////////////////////
+  // Window Function Section
+  ///////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * It annotates only a function and a window frame of a window function. Partition keys and sort keys are
+   * annotated by {@link LogicalPlanner} when it builds a {@link org.apache.tajo.engine.planner.logical.WindowAggNode}.
+   */
+  @Override
+  public EvalNode visitWindowFunction(Context ctx, Stack<Expr> stack, WindowFunctionExpr expr)
+      throws PlanningException {
+    FunctionExpr function = expr.getFunction();
+    WindowSpec windowSpec = expr.getWindowSpec();
+
+    if (function.getType() == OpType.Function && !function.hasParams()) {
+      WindowFunctionEval.WindowFunctionType rankingType = getRankingFunctionType(function.getSignature());
+      if (rankingType != null) {
+        if (windowSpec.hasFrame()) {
+          throw new PlanningException(function.getSignature() + "() cannot have a window frame");
+        }
+        return new WindowFunctionEval(rankingType);
+      }
+    }
+
+    // An aggregation function in a window function does not require GROUP BY.
+    boolean aggregationRequired = ctx.currentBlock.isAggregationRequired();
+    stack.push(expr);
+    EvalNode funcEval = visit(ctx, stack, function);
+    stack.pop();
+    if (!aggregationRequired) {
+      ctx.currentBlock.unsetAggregationRequire();
+    }
+
+    if (funcEval.getType() != EvalType.AGG_FUNCTION) {
+      throw new PlanningException(function.getSignature() + "() is neither an aggregation function nor " +
+          "a ranking function, so it cannot be used as a window function");
+    }
+    AggregationFunctionCallEval aggEval = (AggregationFunctionCallEval) funcEval;
+    if (aggEval.isDistinct()) {
+      throw new PlanningException("DISTINCT is not supported in window functions yet");
+    }
+
+    return new WindowFunctionEval(aggEval, annotateWindowFrame(windowSpec));
+  }
+
+  private static WindowFunctionEval.WindowFunctionType getRankingFunctionType(String signature) {
+    if (signature.equalsIgnoreCase("row_number")) {
+      return WindowFunctionEval.WindowFunctionType.ROW_NUMBER;
+    } else if (signature.equalsIgnoreCase("rank")) {
+      return WindowFunctionEval.WindowFunctionType.RANK;
+    } else if (signature.equalsIgnoreCase("dense_rank")) {
+      return WindowFunctionEval.WindowFunctionType.DENSE_RANK;
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * If a window frame is not given, a frame is from the first row of a partition to the last peer of the current
+   * row when sort keys are given. Otherwise, a frame is an entire partition.
+   */
+  private static WindowFunctionEval.WindowFrame annotateWindowFrame(WindowSpec windowSpec)
+      throws PlanningException {
+    if (!windowSpec.hasFrame()) {
+      if (windowSpec.hasSortSpecs()) {
+        return new WindowFunctionEval.WindowFrame(WindowSpec.WindowFrameUnit.RANGE,
+            WindowSpec.WindowFrameBoundType.UNBOUNDED_PRECEDING, 0, WindowSpec.WindowFrameBoundType.CURRENT_ROW, 0);
+      } else {
+        return new WindowFunctionEval.WindowFrame(WindowSpec.WindowFrameUnit.ROW,
+            WindowSpec.WindowFrameBoundType.UNBOUNDED_PRECEDING, 0,
+            WindowSpec.WindowFrameBoundType.UNBOUNDED_FOLLOWING, 0);
+      }
+    }
+
+    WindowSpec.WindowFrame frame = windowSpec.getFrame();
+    WindowSpec.WindowFrameBound start = frame.getStartBound();
+    WindowSpec.WindowFrameBound end = frame.getEndBound();
+
+    if (start.getBoundType() == WindowSpec.WindowFrameBoundType.UNBOUNDED_FOLLOWING ||
+        end.getBoundType() == WindowSpec.WindowFrameBoundType.UNBOUNDED_PRECEDING ||
+        start.getBoundType().ordinal() > end.getBoundType().ordinal()) {
+      throw new PlanningException("Invalid window frame: " + frame);
+    }
+    if (frame.getUnit() == WindowSpec.WindowFrameUnit.RANGE && (isOffsetBound(start) || isOffsetBound(end))) {
+      throw new PlanningException("RANGE with an offset is not supported yet: " + frame);
+    }
+
+    return new WindowFunctionEval.WindowFrame(frame.getUnit(), start.getBoundType(), start.getOffset(),
+        end.getBoundType(), end.getOffset());
+  }
+
+  private static boolean isOffsetBound(WindowSpec.WindowFrameBound bound) {
+    return bound.getBoundType() == WindowSpec.WindowFrameBoundType.PRECEDING ||
+        bound.getBoundType() == WindowSpec.WindowFrameBoundType.FOLLOWING;
+  }
+
   ///////////////////////////////////////////////////////////////////////////////////////////////////////////
   // Literal Section
   ///////////////////////////////////////////////////////////////////////////////////////////////////////////
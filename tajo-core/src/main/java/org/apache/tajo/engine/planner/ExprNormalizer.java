@@ -85,6 +85,7 @@ class ExprNormalizer extends SimpleAlgebraVisitor<ExprNormalizer.ExprNormalizedR
                    // function.
     List<NamedExpr> aggExprs = new ArrayList<NamedExpr>(); // aggregation functions
     List<NamedExpr> scalarExprs = new ArrayList<NamedExpr>(); // scalar expressions which can be referred
+    List<NamedExpr> windowExprs = new ArrayList<NamedExpr>(); // window functions
 
     private ExprNormalizedResult(LogicalPlanner.PlanContext context) {
       this.plan = context.plan;
@@ -93,7 +94,8 @@ class ExprNormalizer extends SimpleAlgebraVisitor<ExprNormalizer.ExprNormalizedR
 
     @Override
     public String toString() {
-      return baseExpr.toString() + ", agg=" + aggExprs.size() + ", scalar=" + scalarExprs.size();
+      return baseExpr.toString() + ", agg=" + aggExprs.size() + ", scalar=" + scalarExprs.size()
+          + ", window=" + windowExprs.size();
     }
   }
 
@@ -147,6 +149,8 @@ class ExprNormalizer extends SimpleAlgebraVisitor<ExprNormalizer.ExprNormalizedR
       String refName = ctx.block.namedExprsMgr.addExpr(expr.getChild());
       ctx.aggExprs.add(new NamedExpr(expr.getChild(), refName));
       expr.setChild(new ColumnReferenceExpr(refName));
+    } else if (expr.getChild().getType() == OpType.WindowFunction) {
+      expr.setChild(dissectWindowFunction(ctx, expr.getChild()));
     }
 
     return expr;
@@ -164,6 +168,8 @@ class ExprNormalizer extends SimpleAlgebraVisitor<ExprNormalizer.ExprNormalizedR
       String leftRefName = ctx.block.namedExprsMgr.addExpr(expr.getLeft());
       ctx.aggExprs.add(new NamedExpr(expr.getLeft(), leftRefName));
       expr.setLeft(new ColumnReferenceExpr(leftRefName));
+    } else if (expr.getLeft().getType() == OpType.WindowFunction) {
+      expr.setLeft(dissectWindowFunction(ctx, expr.getLeft()));
     }
 
 
@@ -174,6 +180,8 @@ class ExprNormalizer extends SimpleAlgebraVisitor<ExprNormalizer.ExprNormalizedR
       String rightRefName = ctx.block.namedExprsMgr.addExpr(expr.getRight());
       ctx.aggExprs.add(new NamedExpr(expr.getRight(), rightRefName));
       expr.setRight(new ColumnReferenceExpr(rightRefName));
+    } else if (expr.getRight().getType() == OpType.WindowFunction) {
+      expr.setRight(dissectWindowFunction(ctx, expr.getRight()));
     }
 
     return expr;
@@ -196,6 +204,8 @@ class ExprNormalizer extends SimpleAlgebraVisitor<ExprNormalizer.ExprNormalizedR
         String referenceName = ctx.plan.generateUniqueColumnName(param);
         ctx.aggExprs.add(new NamedExpr(param, referenceName));
         expr.getParams()[i] = new ColumnReferenceExpr(referenceName);
+      } else if (param.getType() == OpType.WindowFunction) {
+        expr.getParams()[i] = dissectWindowFunction(ctx, param);
       }
     }
 
@@ -227,6 +237,73 @@ class ExprNormalizer extends SimpleAlgebraVisitor<ExprNormalizer.ExprNormalizedR
     return expr;
   }
 
+  ///////////////////////////////////////////////////////////////////////////////////////////////////////////
+  // Window Function Section
+  ///////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * Arguments of a window function and keys of its window specification are replaced by column references, so that
+   * they can be evaluated before the window aggregation.
+   */
+  @Override
+  public Expr visitWindowFunction(ExprNormalizedResult ctx, Stack<Expr> stack, WindowFunctionExpr expr)
+      throws PlanningException {
+    stack.push(expr);
+
+    FunctionExpr function = expr.getFunction();
+    if (function.hasParams()) {
+      for (int i = 0; i < function.getParams().length; i++) {
+        function.getParams()[i] = normalizeWindowOperand(ctx, stack, function.getParams()[i], false);
+      }
+    }
+
+    WindowSpec windowSpec = expr.getWindowSpec();
+    if (windowSpec.hasPartitionKeys()) {
+      for (int i = 0; i < windowSpec.getPartitionKeys().length; i++) {
+        windowSpec.getPartitionKeys()[i] = normalizeWindowOperand(ctx, stack, windowSpec.getPartitionKeys()[i], true);
+      }
+    }
+    if (windowSpec.hasSortSpecs()) {
+      for (Sort.SortSpec sortSpec : windowSpec.getSortSpecs()) {
+        sortSpec.setKey(normalizeWindowOperand(ctx, stack, sortSpec.getKey(), true));
+      }
+    }
+
+    stack.pop();
+    return expr;
+  }
+
+  /**
+   * @param isKey True if the operand is a partition key or a sort key. Column references used as keys are also
+   *              added as scalar expressions, so that they are projected to the window aggregation.
+   */
+  private Expr normalizeWindowOperand(ExprNormalizedResult ctx, Stack<Expr> stack, Expr operand, boolean isKey)
+      throws PlanningException {
+    visit(ctx, stack, operand);
+
+    if (OpType.isAggregationFunction(operand.getType())) {
+      String referenceName = ctx.block.namedExprsMgr.addExpr(operand);
+      ctx.aggExprs.add(new NamedExpr(operand, referenceName));
+      return new ColumnReferenceExpr(referenceName);
+    } else if (!OpType.isLiteral(operand.getType()) && operand.getType() != OpType.Column) {
+      String referenceName = ctx.block.namedExprsMgr.addExpr(operand);
+      ctx.scalarExprs.add(new NamedExpr(operand, referenceName));
+      return new ColumnReferenceExpr(referenceName);
+    } else {
+      if (isKey && operand.getType() == OpType.Column) {
+        String referenceName = ctx.block.namedExprsMgr.addExpr(operand);
+        ctx.scalarExprs.add(new NamedExpr(operand, referenceName));
+      }
+      return operand;
+    }
+  }
+
+  private Expr dissectWindowFunction(ExprNormalizedResult ctx, Expr windowFunction) throws PlanningException {
+    String referenceName = ctx.block.namedExprsMgr.addExpr(windowFunction);
+    ctx.windowExprs.add(new NamedExpr(windowFunction, referenceName));
+    return new ColumnReferenceExpr(referenceName);
+  }
+
   ///////////////////////////////////////////////////////////////////////////////////////////////////////////
   // Literal Section
   ///////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -22,6 +22,7 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import org.apache.hadoop.classification.InterfaceStability;
 import org.apache.tajo.algebra.JoinType;
+import org.apache.tajo.catalog.CatalogService;
 import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.engine.eval.AlgebraicUtil;
 import org.apache.tajo.engine.eval.EvalNode;
@@ -53,12 +54,19 @@ public class LogicalOptimizer {
   private JoinOrderAlgorithm joinOrderAlgorithm = new GreedyHeuristicJoinOrderAlgorithm();
 
   public LogicalOptimizer(TajoConf systemConf) {
+    this(systemConf, null);
+  }
+
+  /**
+   * @param catalog the catalog used to prune the partitions of tables by their registered partitions
+   */
+  public LogicalOptimizer(TajoConf systemConf, CatalogService catalog) {
     rulesBeforeJoinOpt = new BasicQueryRewriteEngine();
     rulesBeforeJoinOpt.addRewriteRule(new FilterPushDownRule());
 
     rulesAfterToJoinOpt = new BasicQueryRewriteEngine();
     rulesAfterToJoinOpt.addRewriteRule(new ProjectionPushDownRule());
-    rulesAfterToJoinOpt.addRewriteRule(new PartitionedTableRewriter(systemConf));
+    rulesAfterToJoinOpt.addRewriteRule(new PartitionedTableRewriter(systemConf, catalog));
   }
 
   public LogicalNode optimize(LogicalPlan plan) throws PlanningException {
@@ -188,6 +188,9 @@ public class LogicalPlan {
       FunctionExpr function = (FunctionExpr) expr;
       prefix = function.getSignature();
       break;
+    case WindowFunction:
+      prefix = ((WindowFunctionExpr) expr).getFunction().getSignature();
+      break;
     default:
       prefix = expr.getType().name();
     }
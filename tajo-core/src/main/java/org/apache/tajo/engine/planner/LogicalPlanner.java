@@ -207,6 +207,9 @@ public class LogicalPlanner extends BaseAlgebraVisitor<LogicalPlanner.PlanContex
     if (block.isAggregationRequired()) {
       child = insertGroupbyNode(context, child, stack);
     }
+    if (isWindowAggRequired(block)) {
+      child = insertWindowAggNode(context, child, stack);
+    }
     stack.pop();
     ////////////////////////////////////////////////////////
 
@@ -305,9 +308,10 @@ public class LogicalPlanner extends BaseAlgebraVisitor<LogicalPlanner.PlanContex
         referenceNames[i] = block.namedExprsMgr.addExpr(normalizedExprList[i].baseExpr);
       }
 
-      // Add sub-expressions (i.e., aggregation part and scalar part) from dissected parts.
+      // Add sub-expressions (i.e., aggregation part, scalar part and window part) from dissected parts.
       block.namedExprsMgr.addNamedExprArray(normalizedExprList[i].aggExprs);
       block.namedExprsMgr.addNamedExprArray(normalizedExprList[i].scalarExprs);
+      block.namedExprsMgr.addNamedExprArray(normalizedExprList[i].windowExprs);
     }
 
     return referenceNames;
@@ -392,6 +396,27 @@ public class LogicalPlanner extends BaseAlgebraVisitor<LogicalPlanner.PlanContex
           }
         }
       }
+    } else if (projectable instanceof WindowAggNode) {
+      WindowAggNode windowAggNode = (WindowAggNode) projectable;
+      // It checks if all keys and arguments of window functions can be evaluated with the input schema.
+      Set<Column> columns = new LinkedHashSet<Column>();
+      if (windowAggNode.hasPartitionKeys()) {
+        Collections.addAll(columns, windowAggNode.getPartitionKeys());
+      }
+      if (windowAggNode.hasSortSpecs()) {
+        for (SortSpec sortSpec : windowAggNode.getSortSpecs()) {
+          columns.add(sortSpec.getSortKey());
+        }
+      }
+      for (WindowFunctionEval windowFunc : windowAggNode.getWindowFunctions()) {
+        columns.addAll(EvalTreeUtil.findUniqueColumns(windowFunc));
+      }
+      for (Column c : columns) {
+        if (!projectable.getInSchema().contains(c)) {
+          throw new PlanningException(String.format("Cannot get the field \"%s\" at node (%d)",
+              c, projectable.getPID()));
+        }
+      }
     } else if (projectable instanceof RelationNode) {
       RelationNode relationNode = (RelationNode) projectable;
       for (Target target : projectable.getTargets()) {
@@ -460,6 +485,98 @@ public class LogicalPlanner extends BaseAlgebraVisitor<LogicalPlanner.PlanContex
     return groupbyNode;
   }
 
+  /*===============================================================================================
+    WINDOW FUNCTION SECTION
+  ===============================================================================================*/
+
+  private static boolean isWindowAggRequired(QueryBlock block) {
+    for (Iterator<NamedExpr> it = block.namedExprsMgr.getIteratorForUnevaluatedExprs(); it.hasNext();) {
+      if (it.next().getExpr().getType() == OpType.WindowFunction) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Insert a window aggregation operator before a sort, a limit or a projection operator.
+   * All window functions in a query block are evaluated in one operator, so they must have the same partition keys
+   * and sort specifications.
+   */
+  private LogicalNode insertWindowAggNode(PlanContext context, LogicalNode child, Stack<Expr> stack)
+      throws PlanningException {
+    QueryBlock block = context.queryBlock;
+
+    WindowSpec windowSpec = null;
+    List<String> windowFuncNames = TUtil.newList();
+    List<WindowFunctionEval> windowFuncs = TUtil.newList();
+    for (Iterator<NamedExpr> it = block.namedExprsMgr.getIteratorForUnevaluatedExprs(); it.hasNext();) {
+      NamedExpr namedExpr = it.next();
+      if (namedExpr.getExpr().getType() != OpType.WindowFunction) {
+        continue;
+      }
+
+      WindowFunctionExpr windowFunction = (WindowFunctionExpr) namedExpr.getExpr();
+      if (windowSpec == null) {
+        windowSpec = windowFunction.getWindowSpec();
+      } else if (!TUtil.checkEquals(windowSpec.getPartitionKeys(), windowFunction.getWindowSpec().getPartitionKeys())
+          || !TUtil.checkEquals(windowSpec.getSortSpecs(), windowFunction.getWindowSpec().getSortSpecs())) {
+        throw new PlanningException("Window functions with different PARTITION BY or ORDER BY clauses " +
+            "are not supported yet");
+      }
+
+      windowFuncNames.add(namedExpr.getAlias());
+      windowFuncs.add((WindowFunctionEval) exprAnnotator.createEvalNode(context.plan, block, windowFunction));
+    }
+
+    WindowAggNode windowAggNode = context.plan.createNode(WindowAggNode.class);
+    windowAggNode.setChild(child);
+    windowAggNode.setInSchema(child.getOutSchema());
+
+    if (windowSpec.hasPartitionKeys()) {
+      Column [] partitionKeys = new Column[windowSpec.getPartitionKeys().length];
+      for (int i = 0; i < partitionKeys.length; i++) {
+        partitionKeys[i] = getEvaluatedWindowKey(block, windowSpec.getPartitionKeys()[i]);
+      }
+      windowAggNode.setPartitionKeys(partitionKeys);
+    }
+
+    if (windowSpec.hasSortSpecs()) {
+      Sort.SortSpec [] rawSortSpecs = windowSpec.getSortSpecs();
+      SortSpec [] sortSpecs = new SortSpec[rawSortSpecs.length];
+      for (int i = 0; i < sortSpecs.length; i++) {
+        sortSpecs[i] = new SortSpec(getEvaluatedWindowKey(block, rawSortSpecs[i].getKey()),
+            rawSortSpecs[i].isAscending(), rawSortSpecs[i].isNullFirst());
+      }
+      windowAggNode.setSortSpecs(sortSpecs);
+    }
+
+    windowAggNode.setWindowFunctions(windowFuncs.toArray(new WindowFunctionEval[windowFuncs.size()]));
+
+    // In target, input columns will be followed by window functions.
+    List<Target> targets = TUtil.newList(PlannerUtil.schemaToTargets(child.getOutSchema()));
+    for (int i = 0; i < windowFuncs.size(); i++) {
+      block.namedExprsMgr.markAsEvaluated(windowFuncNames.get(i), windowFuncs.get(i));
+      targets.add(new Target(new FieldEval(windowFuncNames.get(i), windowFuncs.get(i).getValueType())));
+    }
+    windowAggNode.setTargets(targets.toArray(new Target[targets.size()]));
+
+    // this inserted window aggregation node doesn't pass through preprocessor. So manually added.
+    block.registerNode(windowAggNode);
+    postHook(context, stack, null, windowAggNode);
+    verifyProjectedFields(block, windowAggNode);
+    return windowAggNode;
+  }
+
+  private static Column getEvaluatedWindowKey(QueryBlock block, Expr key) throws PlanningException {
+    String referenceName = block.namedExprsMgr.addExpr(key);
+    if (block.namedExprsMgr.isEvaluated(referenceName)) {
+      return block.namedExprsMgr.getTarget(referenceName).getNamedColumn();
+    } else {
+      throw new PlanningException("Each key of a window specification must be a scalar expression: " + key);
+    }
+  }
+
   /*===============================================================================================
     SORT SECTION
   ===============================================================================================*/
@@ -477,6 +594,9 @@ public class LogicalPlanner extends BaseAlgebraVisitor<LogicalPlanner.PlanContex
       ////////////////////////////////////////////////////////
       stack.push(limit);
       child = visit(context, stack, limit.getChild());
+      if (!block.isAggregationRequired() && isWindowAggRequired(block)) {
+        child = insertWindowAggNode(context, child, stack);
+      }
       stack.pop();
       ////////////////////////////////////////////////////////
     } else {
@@ -490,6 +610,9 @@ public class LogicalPlanner extends BaseAlgebraVisitor<LogicalPlanner.PlanContex
       ////////////////////////////////////////////////////////
       stack.push(limit);
       child = visit(context, stack, limit.getChild());
+      if (!block.isAggregationRequired() && isWindowAggRequired(block)) {
+        child = insertWindowAggNode(context, child, stack);
+      }
       stack.pop();
       ////////////////////////////////////////////////////////
 
@@ -527,6 +650,7 @@ public class LogicalPlanner extends BaseAlgebraVisitor<LogicalPlanner.PlanContex
       referNames[i] = block.namedExprsMgr.addExpr(normalizedExprList[i].baseExpr);
       block.namedExprsMgr.addNamedExprArray(normalizedExprList[i].aggExprs);
       block.namedExprsMgr.addNamedExprArray(normalizedExprList[i].scalarExprs);
+      block.namedExprsMgr.addNamedExprArray(normalizedExprList[i].windowExprs);
     }
 
     ////////////////////////////////////////////////////////
@@ -537,6 +661,9 @@ public class LogicalPlanner extends BaseAlgebraVisitor<LogicalPlanner.PlanContex
     if (block.isAggregationRequired()) {
       child = insertGroupbyNode(context, child, stack);
     }
+    if (isWindowAggRequired(block)) {
+      child = insertWindowAggNode(context, child, stack);
+    }
     stack.pop();
     ////////////////////////////////////////////////////////
 
@@ -731,6 +858,9 @@ public class LogicalPlanner extends BaseAlgebraVisitor<LogicalPlanner.PlanContex
     if (normalizedResult.aggExprs.size() > 0 || normalizedResult.scalarExprs.size() > 0) {
       throw new VerifyException("Filter condition cannot include aggregation function");
     }
+    if (normalizedResult.windowExprs.size() > 0) {
+      throw new VerifyException("Filter condition cannot include window function");
+    }
 
     ////////////////////////////////////////////////////////
     // Visit and Build Child Plan
@@ -1501,6 +1631,10 @@ public class LogicalPlanner extends BaseAlgebraVisitor<LogicalPlanner.PlanContex
   public static boolean checkIfBeEvaluatedAtGroupBy(EvalNode evalNode, GroupbyNode node) {
     Set<Column> columnRefs = EvalTreeUtil.findUniqueColumns(evalNode);
 
+    if (containsWindowFunction(evalNode)) {
+      return false;
+    }
+
     if (columnRefs.size() > 0 && !node.getInSchema().containsAll(columnRefs)) {
       return false;
     }
@@ -1516,6 +1650,10 @@ public class LogicalPlanner extends BaseAlgebraVisitor<LogicalPlanner.PlanContex
       return false;
     }
 
+    if (containsWindowFunction(evalNode)) {
+      return false;
+    }
+
     if (columnRefs.size() > 0 && !node.getInSchema().containsAll(columnRefs)) {
       return false;
     }
@@ -1553,6 +1691,11 @@ public class LogicalPlanner extends BaseAlgebraVisitor<LogicalPlanner.PlanContex
       return false;
     }
 
+    // window functions can be evaluated only in window aggregation node
+    if (containsWindowFunction(evalNode)) {
+      return false;
+    }
+
     if (columnRefs.size() > 0 && !node.getTableSchema().containsAll(columnRefs)) {
       return false;
     }
@@ -1574,6 +1717,23 @@ public class LogicalPlanner extends BaseAlgebraVisitor<LogicalPlanner.PlanContex
       return false;
     }
 
+    if (containsWindowFunction(evalNode)) {
+      return false;
+    }
+
     return true;
   }
+
+  public static boolean checkIfBeEvaluatedAtWindowAgg(EvalNode evalNode, WindowAggNode node) {
+    Set<Column> columnRefs = EvalTreeUtil.findUniqueColumns(evalNode);
+    if (columnRefs.size() > 0 && !node.getInSchema().containsAll(columnRefs)) {
+      return false;
+    }
+
+    return true;
+  }
+
+  private static boolean containsWindowFunction(EvalNode evalNode) {
+    return EvalTreeUtil.findEvalsByType(evalNode, EvalType.WINDOW_FUNCTION).size() > 0;
+  }
 }
@@ -29,9 +29,11 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.fs.Path;
 import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Options;
 import org.apache.tajo.catalog.SortSpec;
 import org.apache.tajo.catalog.proto.CatalogProtos;
 import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.engine.eval.AggregationFunctionCallEval;
 import org.apache.tajo.engine.planner.enforce.Enforcer;
 import org.apache.tajo.engine.planner.global.DataChannel;
 import org.apache.tajo.engine.planner.logical.*;
@@ -39,6 +41,7 @@ import org.apache.tajo.engine.planner.physical.*;
 import org.apache.tajo.exception.InternalException;
 import org.apache.tajo.ipc.TajoWorkerProtocol;
 import org.apache.tajo.storage.AbstractStorageManager;
+import org.apache.tajo.storage.StorageConstants;
 import org.apache.tajo.storage.TupleComparator;
 import org.apache.tajo.storage.fragment.FileFragment;
 import org.apache.tajo.storage.fragment.FragmentConvertor;
@@ -108,6 +111,15 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
     shuffleFileWriteNode.setShuffle(channel.getShuffleType(), channel.getShuffleKeys(), channel.getShuffleOutputNum());
     shuffleFileWriteNode.setChild(plan);
 
+    // Only hash shuffle outputs are compressed because range shuffle outputs are served by seeking offsets.
+    String codec = context.getShuffleCompressionCodec();
+    if (codec != null && channel.getShuffleType() == TajoWorkerProtocol.ShuffleType.HASH_SHUFFLE &&
+        channel.getStoreType() == CatalogProtos.StoreType.RAW) {
+      Options options = new Options();
+      options.put(StorageConstants.COMPRESSION_CODEC, codec);
+      shuffleFileWriteNode.setOptions(options);
+    }
+
     PhysicalExec outExecPlan = createShuffleFileWritePlan(context, shuffleFileWriteNode, execPlan);
     return outExecPlan;
   }
@@ -174,6 +186,13 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
         stack.pop();
         return createGroupByPlan(ctx, grpNode, leftExec);
 
+      case WINDOW_AGG:
+        WindowAggNode windowAggNode = (WindowAggNode) logicalNode;
+        stack.push(windowAggNode);
+        leftExec = createPlanRecursive(ctx, windowAggNode.getChild(), stack);
+        stack.pop();
+        return createWindowAggPlan(ctx, windowAggNode, leftExec);
+
       case HAVING:
         HavingNode havingNode = (HavingNode) logicalNode;
         stack.push(havingNode);
@@ -206,6 +225,16 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
 
       case LIMIT:
         LimitNode limitNode = (LimitNode) logicalNode;
+        if (checkIfTopNApplicable(ctx, limitNode)) {
+          SortNode childSortNode = limitNode.getChild();
+          stack.push(limitNode);
+          stack.push(childSortNode);
+          leftExec = createPlanRecursive(ctx, childSortNode.getChild(), stack);
+          stack.pop();
+          stack.pop();
+          return createTopNPlan(ctx, limitNode, childSortNode, leftExec);
+        }
+
         stack.push(limitNode);
         leftExec = createPlanRecursive(ctx, limitNode.getChild(), stack);
         stack.pop();
@@ -226,6 +255,11 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
   public long estimateSizeRecursive(TaskAttemptContext ctx, String [] tableIds) throws IOException {
     long size = 0;
     for (String tableId : tableIds) {
+      // The volume of a table being fetched is unknown yet. It is regarded as larger than any in-memory threshold,
+      // so the table is never chosen as an in-memory build side.
+      if (ctx.hasFetchedInput(tableId)) {
+        return Long.MAX_VALUE;
+      }
       // TODO - CSV is a hack.
       List<FileFragment> fragments = FragmentConvertor.convert(ctx.getConf(), CatalogProtos.StoreType.CSV,
           ctx.getTables(tableId));
@@ -386,12 +420,29 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
     return new PhysicalExec [] {smaller, larger};
   }
 
+  /**
+   * Hash join operators can spill the build relation into local disks only if the join has equi-join keys.
+   */
+  private boolean checkIfHashJoinCanSpill(JoinNode joinNode) {
+    if (!conf.getBoolVar(ConfVars.EXECUTOR_HASH_JOIN_SPILL_ENABLED) || !joinNode.hasJoinQual()) {
+      return false;
+    }
+
+    List<Column[]> joinKeyPairs = PlannerUtil.getJoinKeyPairs(joinNode.getJoinQual(),
+        joinNode.getLeftChild().getOutSchema(), joinNode.getRightChild().getOutSchema(), false);
+    return joinKeyPairs.size() > 0;
+  }
+
   private PhysicalExec createBestInnerJoinPlan(TaskAttemptContext context, JoinNode plan,
                                                PhysicalExec leftExec, PhysicalExec rightExec) throws IOException {
     boolean inMemoryHashJoin = false;
     if (checkIfInMemoryInnerJoinIsPossible(context, plan.getLeftChild(), true)
         || checkIfInMemoryInnerJoinIsPossible(context, plan.getRightChild(), false)) {
       inMemoryHashJoin = true;
+    } else if (checkIfHashJoinCanSpill(plan)) {
+      // hash join spills some partitions of the build relation if they do not fit in memory.
+      LOG.info("Join (" + plan.getPID() +") chooses [Hash Join] with spill");
+      inMemoryHashJoin = true;
     }
 
     if (inMemoryHashJoin) {
@@ -454,7 +505,8 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
     String [] rightLineage = PlannerUtil.getRelationLineage(plan.getRightChild());
     long rightTableVolume = estimateSizeRecursive(context, rightLineage);
 
-    if (rightTableVolume < conf.getLongVar(ConfVars.EXECUTOR_OUTER_JOIN_INMEMORY_HASH_THRESHOLD)) {
+    if (rightTableVolume < conf.getLongVar(ConfVars.EXECUTOR_OUTER_JOIN_INMEMORY_HASH_THRESHOLD)
+        || checkIfHashJoinCanSpill(plan)) {
       // we can implement left outer join using hash join, using the right operand as the build relation
       LOG.info("Left Outer Join (" + plan.getPID() +") chooses [Hash Join].");
       return new HashLeftOuterJoinExec(context, plan, leftExec, rightExec);
@@ -472,7 +524,8 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
     // blocking, but merge join is blocking as well)
     String [] outerLineage4 = PlannerUtil.getRelationLineage(plan.getLeftChild());
     long outerSize = estimateSizeRecursive(context, outerLineage4);
-    if (outerSize < conf.getLongVar(ConfVars.EXECUTOR_OUTER_JOIN_INMEMORY_HASH_THRESHOLD)){
+    if (outerSize < conf.getLongVar(ConfVars.EXECUTOR_OUTER_JOIN_INMEMORY_HASH_THRESHOLD)
+        || checkIfHashJoinCanSpill(plan)) {
       LOG.info("Right Outer Join (" + plan.getPID() +") chooses [Hash Join].");
       return new HashLeftOuterJoinExec(context, plan, rightExec, leftExec);
     } else {
@@ -600,7 +653,7 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
     long outerSize2 = estimateSizeRecursive(context, leftLineage);
     long innerSize2 = estimateSizeRecursive(context, rightLineage);
     final long threshold = 1048576 * 128;
-    if (outerSize2 < threshold || innerSize2 < threshold) {
+    if (outerSize2 < threshold || innerSize2 < threshold || checkIfHashJoinCanSpill(plan)) {
       return createFullOuterHashJoinPlan(context, plan, leftExec, rightExec);
     } else {
       return createFullOuterMergeJoinPlan(context, plan, leftExec, rightExec);
@@ -833,8 +886,11 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
 
   public PhysicalExec createScanPlan(TaskAttemptContext ctx, ScanNode scanNode, Stack<LogicalNode> node)
       throws IOException {
+    if (ctx.hasFetchedInput(scanNode.getCanonicalName())) {
+      return new SeqScanExec(ctx, sm, scanNode, ctx.getFetchedInput(scanNode.getCanonicalName()));
+    }
     if (ctx.getTable(scanNode.getCanonicalName()) == null) {
-      return new SeqScanExec(ctx, sm, scanNode, null);
+      return new SeqScanExec(ctx, sm, scanNode, (FragmentProto []) null);
     }
     Preconditions.checkNotNull(ctx.getTable(scanNode.getCanonicalName()),
         "Error: There is no table matched to %s", scanNode.getCanonicalName() + "(" + scanNode.getTableName() + ")");    
@@ -893,9 +949,32 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
         return createSortAggregation(context, property, groupbyNode, subOp);
       }
     }
+
+    if (checkIfPartialAggregation(groupbyNode)) {
+      LOG.info("The planner chooses [Partial Aggregation]");
+      return new PartialAggregateExec(context, groupbyNode, subOp);
+    }
     return createBestAggregationPlan(context, groupbyNode, subOp);
   }
 
+  /**
+   * The first phase of a two-phase aggregation can emit a group more than once because the second phase merges
+   * its partial results again. So, it can be done by a partial aggregation which bounds its memory.
+   */
+  private boolean checkIfPartialAggregation(GroupbyNode groupbyNode) {
+    if (!conf.getBoolVar(ConfVars.EXECUTOR_GROUPBY_PARTIAL_ENABLED) || groupbyNode.isEmptyGrouping()
+        || !groupbyNode.hasAggFunctions()) {
+      return false;
+    }
+
+    for (AggregationFunctionCallEval aggFunction : groupbyNode.getAggFunctions()) {
+      if (!aggFunction.isFirstPhase() || aggFunction.isDistinct()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private PhysicalExec createInMemoryHashAggregation(TaskAttemptContext ctx,GroupbyNode groupbyNode, PhysicalExec subOp)
       throws IOException {
     LOG.info("The planner chooses [Hash Aggregation]");
@@ -948,6 +1027,12 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
       return createInMemoryHashAggregation(context, groupbyNode, subOp);
     }
 
+    // If the hash aggregation can spill its hash table into disks, it does not depend on an estimated size.
+    if (checkIfHashAggregationCanSpill(groupbyNode)) {
+      LOG.info("The planner chooses [Hash Aggregation] with spill");
+      return createInMemoryHashAggregation(context, groupbyNode, subOp);
+    }
+
     String [] outerLineage = PlannerUtil.getRelationLineage(groupbyNode.getChild());
     long estimatedSize = estimateSizeRecursive(context, outerLineage);
     final long threshold = conf.getLongVar(ConfVars.EXECUTOR_GROUPBY_INMEMORY_HASH_THRESHOLD);
@@ -962,6 +1047,59 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
     }
   }
 
+  private boolean checkIfHashAggregationCanSpill(GroupbyNode groupbyNode) {
+    if (!conf.getBoolVar(ConfVars.EXECUTOR_GROUPBY_HASH_SPILL_ENABLED)) {
+      return false;
+    }
+
+    if (groupbyNode.hasAggFunctions()) {
+      for (AggregationFunctionCallEval aggFunction : groupbyNode.getAggFunctions()) {
+        if (aggFunction.isDistinct()) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * A window aggregation requires its input to be sorted by partition keys followed by sort keys of the window.
+   */
+  public PhysicalExec createWindowAggPlan(TaskAttemptContext context, WindowAggNode windowAggNode,
+                                          PhysicalExec child) throws IOException {
+    List<SortSpec> sortSpecList = Lists.newArrayList();
+    if (windowAggNode.hasPartitionKeys()) {
+      for (Column partitionKey : windowAggNode.getPartitionKeys()) {
+        sortSpecList.add(new SortSpec(partitionKey, true, false));
+      }
+    }
+    if (windowAggNode.hasSortSpecs()) {
+      outer:
+      for (SortSpec sortSpec : windowAggNode.getSortSpecs()) {
+        for (SortSpec added : sortSpecList) { // a sort key already included in partition keys is meaningless.
+          if (added.getSortKey().equals(sortSpec.getSortKey())) {
+            continue outer;
+          }
+        }
+        sortSpecList.add(sortSpec);
+      }
+    }
+
+    PhysicalExec sortedChild = child;
+    if (sortSpecList.size() > 0) {
+      SortSpec [] sortSpecs = sortSpecList.toArray(new SortSpec[sortSpecList.size()]);
+      if (!(child instanceof SortExec && TUtil.checkEquals(sortSpecs, ((SortExec) child).getSortSpecs()))) {
+        SortNode sortNode = LogicalPlan.createNodeWithoutPID(SortNode.class);
+        sortNode.setSortSpecs(sortSpecs);
+        sortNode.setInSchema(child.getSchema());
+        sortNode.setOutSchema(child.getSchema());
+        sortedChild = new ExternalSortExec(context, sm, sortNode, child);
+      }
+    }
+    LOG.info("The planner chooses [Window Aggregation] with sort keys (" + TUtil.collectionToString(sortSpecList) + ")");
+    return new WindowAggExec(context, windowAggNode, sortedChild);
+  }
+
   public PhysicalExec createSortPlan(TaskAttemptContext context, SortNode sortNode,
                                      PhysicalExec child) throws IOException {
 
@@ -989,6 +1127,35 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
     return createBestSortPlan(context, sortNode, child);
   }
 
+  /**
+   * A sort followed by a limit can be executed by a top-n operator if the number of tuples to be fetched is
+   * small enough to keep in memory, and if the sort algorithm is not enforced.
+   */
+  private boolean checkIfTopNApplicable(TaskAttemptContext context, LimitNode limitNode) {
+    if (limitNode.getChild().getType() != NodeType.SORT) {
+      return false;
+    }
+
+    SortNode sortNode = limitNode.getChild();
+    long threshold = conf.getLongVar(ConfVars.EXECUTOR_SORT_TOPN_THRESHOLD);
+    return limitNode.getFetchFirstNum() <= threshold
+        && getAlgorithmEnforceProperty(context.getEnforcer(), sortNode) == null;
+  }
+
+  private PhysicalExec createTopNPlan(TaskAttemptContext context, LimitNode limitNode, SortNode sortNode,
+                                      PhysicalExec child) throws IOException {
+    // If the child is already sorted by the same keys (i.e., a distributed merge sort),
+    // the first N tuples of the child are the result.
+    if (child instanceof SortExec) {
+      SortExec childSortExec = (SortExec) child;
+      if (TUtil.checkEquals(sortNode.getSortKeys(), childSortExec.getSortSpecs())) {
+        return new LimitExec(context, limitNode.getInSchema(), limitNode.getOutSchema(), child, limitNode);
+      }
+    }
+
+    return new TopNExec(context, sortNode, limitNode, child);
+  }
+
   public SortExec createBestSortPlan(TaskAttemptContext context, SortNode sortNode,
                                      PhysicalExec child) throws IOException {
     return new ExternalSortExec(context, sm, sortNode, child);
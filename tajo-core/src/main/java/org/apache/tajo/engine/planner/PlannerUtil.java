@@ -713,6 +713,34 @@ public class PlannerUtil {
       ctx.distinctSetFunction = expr.isDistinct();
       return super.visitGeneralSetFunction(ctx, stack, expr);
     }
+
+    /**
+     * A window function itself does not require grouping. Only aggregation functions in its arguments
+     * and window specification do.
+     */
+    @Override
+    public Object visitWindowFunction(AggFunctionFoundResult ctx, Stack<Expr> stack, WindowFunctionExpr expr)
+        throws PlanningException {
+      stack.push(expr);
+      if (expr.getFunction().hasParams()) {
+        for (Expr param : expr.getFunction().getParams()) {
+          visit(ctx, stack, param);
+        }
+      }
+      WindowSpec windowSpec = expr.getWindowSpec();
+      if (windowSpec.hasPartitionKeys()) {
+        for (Expr key : windowSpec.getPartitionKeys()) {
+          visit(ctx, stack, key);
+        }
+      }
+      if (windowSpec.hasSortSpecs()) {
+        for (Sort.SortSpec sortSpec : windowSpec.getSortSpecs()) {
+          visit(ctx, stack, sortSpec.getKey());
+        }
+      }
+      stack.pop();
+      return null;
+    }
   }
 
   public static Collection<String> toQualifiedFieldNames(Collection<String> fieldNames, String qualifier) {
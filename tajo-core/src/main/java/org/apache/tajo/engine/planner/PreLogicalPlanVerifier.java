@@ -110,6 +110,26 @@ public class PreLogicalPlanVerifier extends BaseAlgebraVisitor <PreLogicalPlanVe
     return expr;
   }
 
+  @Override
+  public Expr visitFilter(Context context, Stack<Expr> stack, Selection expr) throws PlanningException {
+    super.visitFilter(context, stack, expr);
+
+    if (ExprFinder.finds(expr.getQual(), OpType.WindowFunction).size() > 0) {
+      context.state.addVerification("window functions are not allowed in WHERE clause");
+    }
+    return expr;
+  }
+
+  @Override
+  public Expr visitHaving(Context context, Stack<Expr> stack, Having expr) throws PlanningException {
+    super.visitHaving(context, stack, expr);
+
+    if (ExprFinder.finds(expr.getQual(), OpType.WindowFunction).size() > 0) {
+      context.state.addVerification("window functions are not allowed in HAVING clause");
+    }
+    return expr;
+  }
+
   @Override
   public Expr visitGroupBy(Context context, Stack<Expr> stack, Aggregation expr) throws PlanningException {
     super.visitGroupBy(context, stack, expr);
@@ -19,8 +19,10 @@
 package org.apache.tajo.engine.planner;
 
 import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.engine.codegen.CompiledEval;
 import org.apache.tajo.engine.eval.EvalNode;
 import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.worker.TaskAttemptContext;
 
 public class Projector {
   private final Schema inSchema;
@@ -28,8 +30,16 @@ public class Projector {
   // for projection
   private final int targetNum;
   private final EvalNode[] evals;
+  private final CompiledEval[] compiledEvals;
 
   public Projector(Schema inSchema, Schema outSchema, Target [] targets) {
+    this(null, inSchema, outSchema, targets);
+  }
+
+  /**
+   * If a task context is given, target expressions are compiled by the expression compiler of the task.
+   */
+  public Projector(TaskAttemptContext context, Schema inSchema, Schema outSchema, Target [] targets) {
     this.inSchema = inSchema;
     if (targets == null) {
       targets = PlannerUtil.schemaToTargets(outSchema);
@@ -39,10 +49,23 @@ public class Projector {
     for (int i = 0; i < targetNum; i++) {
       evals[i] = targets[i].getEvalTree();
     }
+
+    if (context != null) {
+      compiledEvals = new CompiledEval[targetNum];
+      for (int i = 0; i < targetNum; i++) {
+        compiledEvals[i] = context.getEvalCompiler().compile(inSchema, evals[i]);
+      }
+    } else {
+      compiledEvals = null;
+    }
   }
 
   public void eval(Tuple in, Tuple out) {
-    if (targetNum > 0) {
+    if (compiledEvals != null) {
+      for (int i = 0; i < compiledEvals.length; i++) {
+        out.put(i, compiledEvals[i].eval(in));
+      }
+    } else if (targetNum > 0) {
       for (int i = 0; i < evals.length; i++) {
         out.put(i, evals[i].eval(inSchema, in));
       }
@@ -20,6 +20,7 @@ package org.apache.tajo.engine.planner.enforce;
 
 
 import org.apache.tajo.annotation.Nullable;
+import org.apache.tajo.catalog.Column;
 import org.apache.tajo.catalog.SortSpec;
 import org.apache.tajo.catalog.proto.CatalogProtos;
 import org.apache.tajo.common.ProtoObject;
@@ -162,6 +163,29 @@ public class Enforcer implements ProtoObject<EnforcerProto> {
     TUtil.putToNestedList(properties, builder.getType(), builder.build());
   }
 
+  public void addRuntimeFilterBuild(int numBits) {
+    EnforceProperty.Builder builder = newProperty();
+    RuntimeFilterBuildEnforce.Builder enforce = RuntimeFilterBuildEnforce.newBuilder();
+    enforce.setNumBits(numBits);
+
+    builder.setType(EnforceType.RUNTIME_FILTER_BUILD);
+    builder.setRuntimeFilterBuild(enforce);
+    TUtil.putToNestedList(properties, builder.getType(), builder.build());
+  }
+
+  public void addRuntimeFilter(Column [] keys, RuntimeFilterProto filter) {
+    EnforceProperty.Builder builder = newProperty();
+    RuntimeFilterEnforce.Builder enforce = RuntimeFilterEnforce.newBuilder();
+    for (Column key : keys) {
+      enforce.addKeys(key.getProto());
+    }
+    enforce.setFilter(filter);
+
+    builder.setType(EnforceType.RUNTIME_FILTER);
+    builder.setRuntimeFilter(enforce);
+    TUtil.putToNestedList(properties, builder.getType(), builder.build());
+  }
+
   public Collection<EnforceProperty> getProperties() {
     if (proto != null) {
       return proto.getPropertiesList();
@@ -244,6 +268,23 @@ public class Enforcer implements ProtoObject<EnforcerProto> {
         sb.append("in_memory_hash");
       }
       break;
+    case RUNTIME_FILTER_BUILD:
+      sb.append("type=RuntimeFilterBuild,numBits=").append(property.getRuntimeFilterBuild().getNumBits());
+      break;
+    case RUNTIME_FILTER:
+      RuntimeFilterEnforce runtimeFilter = property.getRuntimeFilter();
+      sb.append("type=RuntimeFilter,keys=");
+      boolean firstKey = true;
+      for (CatalogProtos.ColumnProto key : runtimeFilter.getKeysList()) {
+        if (firstKey) {
+          firstKey = false;
+        } else {
+          sb.append(", ");
+        }
+        sb.append(key.getName());
+      }
+      sb.append(",numKeys=").append(runtimeFilter.getFilter().getNumKeys());
+      break;
     case OUTPUT_DISTINCT:
     case SORT:
       SortEnforce sort = property.getSort();
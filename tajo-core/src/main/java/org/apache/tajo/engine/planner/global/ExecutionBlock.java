@@ -39,6 +39,9 @@ public class ExecutionBlock {
 
   private Set<String> broadcasted = new HashSet<String>();
 
+  // the execution block which builds a runtime filter on the join keys of this block's output
+  private ExecutionBlockId runtimeFilterSource;
+
   public ExecutionBlock(ExecutionBlockId executionBlockId) {
     this.executionBlockId = executionBlockId;
   }
@@ -121,6 +124,22 @@ public class ExecutionBlock {
     return broadcasted;
   }
 
+  /**
+   * Marks that this block should filter its input rows with the runtime filter built by the given block.
+   * The given block must be executed before this block.
+   */
+  public void setRuntimeFilterSource(ExecutionBlockId source) {
+    this.runtimeFilterSource = source;
+  }
+
+  public boolean hasRuntimeFilterSource() {
+    return runtimeFilterSource != null;
+  }
+
+  public ExecutionBlockId getRuntimeFilterSource() {
+    return runtimeFilterSource;
+  }
+
   public String toString() {
     return executionBlockId.toString();
   }
@@ -47,8 +47,16 @@ public class ExecutionBlockCursor {
           stack.push(execBlock);
         }
       }
+      // a block filtered by a runtime filter comes after its sibling block which builds the filter.
       for (ExecutionBlock execBlock : stack) {
-        buildOrder(execBlock);
+        if (!execBlock.hasRuntimeFilterSource()) {
+          buildOrder(execBlock);
+        }
+      }
+      for (ExecutionBlock execBlock : stack) {
+        if (execBlock.hasRuntimeFilterSource()) {
+          buildOrder(execBlock);
+        }
       }
     }
     orderedBlocks.add(current);
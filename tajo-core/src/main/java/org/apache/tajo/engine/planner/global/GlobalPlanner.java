@@ -29,6 +29,7 @@ import org.apache.tajo.algebra.JoinType;
 import org.apache.tajo.catalog.*;
 import org.apache.tajo.catalog.partition.PartitionMethodDesc;
 import org.apache.tajo.catalog.proto.CatalogProtos;
+import org.apache.tajo.catalog.statistics.TableStats;
 import org.apache.tajo.common.TajoDataTypes;
 import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.engine.eval.AggregationFunctionCallEval;
@@ -39,6 +40,7 @@ import org.apache.tajo.engine.function.AggFunction;
 import org.apache.tajo.engine.planner.*;
 import org.apache.tajo.engine.planner.logical.*;
 import org.apache.tajo.engine.planner.rewrite.ProjectionPushDownRule;
+import org.apache.tajo.engine.utils.RuntimeFilter;
 import org.apache.tajo.exception.InternalException;
 import org.apache.tajo.util.TUtil;
 import org.apache.tajo.worker.TajoWorker;
@@ -310,12 +312,88 @@ public class GlobalPlanner {
     joinNode.setRightChild(rightScan);
     currentBlock.setPlan(joinNode);
 
+    setRuntimeFilter(masterPlan, joinNode, leftChannel, rightChannel);
+
     masterPlan.addConnect(leftChannel);
     masterPlan.addConnect(rightChannel);
 
     return currentBlock;
   }
 
+  /**
+   * If one side of an inner join is smaller than the other side which is a scan of a single table, it makes the
+   * smaller side build a runtime filter of its join keys, and the larger side discard the rows not passing the
+   * filter before the hash shuffle. The larger side is executed after the smaller side.
+   */
+  private void setRuntimeFilter(MasterPlan masterPlan, JoinNode joinNode,
+                                DataChannel leftChannel, DataChannel rightChannel) throws PlanningException {
+    if (!conf.getBoolVar(ConfVars.DIST_QUERY_JOIN_RUNTIME_FILTER_ENABLED) ||
+        joinNode.getJoinType() != JoinType.INNER ||
+        !leftChannel.hasShuffleKeys() || !rightChannel.hasShuffleKeys()) {
+      return;
+    }
+
+    ExecutionBlock leftBlock = masterPlan.getExecBlock(leftChannel.getSrcId());
+    ExecutionBlock rightBlock = masterPlan.getExecBlock(rightChannel.getSrcId());
+    long leftVolume = computeDescendentVolume(leftBlock.getPlan());
+    long rightVolume = computeDescendentVolume(rightBlock.getPlan());
+    if (leftVolume == rightVolume) {
+      return;
+    }
+
+    boolean leftBuild = leftVolume < rightVolume;
+    ExecutionBlock buildBlock = leftBuild ? leftBlock : rightBlock;
+    ExecutionBlock probeBlock = leftBuild ? rightBlock : leftBlock;
+    Column [] buildKeys = leftBuild ? leftChannel.getShuffleKeys() : rightChannel.getShuffleKeys();
+    Column [] probeKeys = leftBuild ? rightChannel.getShuffleKeys() : leftChannel.getShuffleKeys();
+
+    if (!masterPlan.isLeaf(probeBlock) || probeBlock.getScanNodes().length != 1 ||
+        !probeBlock.getBroadcastTables().isEmpty() || buildKeys.length != probeKeys.length) {
+      return;
+    }
+    for (int i = 0; i < buildKeys.length; i++) {
+      if (!RuntimeFilter.isCompatible(buildKeys[i].getDataType().getType(), probeKeys[i].getDataType().getType())) {
+        return;
+      }
+    }
+
+    int numBits = RuntimeFilter.computeNumBits(conf, estimateNumRows(masterPlan, buildBlock));
+    buildBlock.getEnforcer().addRuntimeFilterBuild(numBits);
+    probeBlock.setRuntimeFilterSource(buildBlock.getId());
+    LOG.info(probeBlock.getId() + " will be filtered by the runtime filter of " + buildBlock.getId());
+  }
+
+  /**
+   * @return the number of rows of the table scanned by a leaf block, which is the upper bound of the rows that the
+   * block outputs, or -1 if it is unknown.
+   */
+  private static long estimateNumRows(MasterPlan masterPlan, ExecutionBlock block) {
+    if (!masterPlan.isLeaf(block) || block.getScanNodes().length != 1) {
+      return -1;
+    }
+    TableStats stats = block.getScanNodes()[0].getTableDesc().getStats();
+    if (stats == null || stats.getNumRows() == null || stats.getNumRows() <= 0) {
+      return -1;
+    }
+    return stats.getNumRows();
+  }
+
+  /**
+   * It estimates the number of hash shuffle partitions from the volume of the relations which the given block reads,
+   * in the same way as the number of group-by partitions. When the block is scheduled, SubQuery determines the
+   * number again from the actual input volume and the cluster resource.
+   */
+  private int estimateShuffleOutputNum(ExecutionBlock block) throws PlanningException {
+    long volume = computeDescendentVolume(block.getPlan());
+    if (volume <= 0 || volume == Long.MAX_VALUE) {
+      // the volume is unknown, so it is left to SubQuery.
+      return 1;
+    }
+    double mb = Math.ceil((double) volume / 1048576);
+    double partitionNum = Math.ceil(mb / conf.getIntVar(ConfVars.DIST_QUERY_GROUPBY_PARTITION_VOLUME));
+    return (int) Math.max(1, Math.min(partitionNum, Integer.MAX_VALUE));
+  }
+
   private AggregationFunctionCallEval createSumFunction(EvalNode [] args) throws InternalException {
     FunctionDesc functionDesc = getCatalog().getFunction("sum", CatalogProtos.FunctionType.AGGREGATION,
         args[0].getValueType());
@@ -735,6 +813,50 @@ public class GlobalPlanner {
     return firstPhaseGroupBy;
   }
 
+  /**
+   * A window aggregation is evaluated in a new execution block. Its input is hash-shuffled by partition keys,
+   * so that all rows of each window partition are gathered into the same task. If there are no partition keys,
+   * all rows are gathered into a single task.
+   */
+  private ExecutionBlock buildWindowAggPlan(GlobalPlanContext context, ExecutionBlock childBlock,
+                                            WindowAggNode windowAggNode) throws PlanningException {
+    MasterPlan masterPlan = context.plan;
+    ExecutionBlock currentBlock;
+
+    Column [] shuffleKeys = windowAggNode.hasPartitionKeys() ? windowAggNode.getPartitionKeys() : new Column[] {};
+    int partitionNum = windowAggNode.hasPartitionKeys() ? estimateShuffleOutputNum(childBlock) : 1;
+
+    if (hasUnionChild(windowAggNode)) {
+      // The child blocks of union are already connected to the child block. So, we don't need to connect them again.
+      currentBlock = childBlock;
+      DataChannel lastDataChannel = null;
+      for (DataChannel dataChannel : masterPlan.getIncomingChannels(childBlock.getId())) {
+        dataChannel.setShuffle(HASH_SHUFFLE, shuffleKeys, partitionNum);
+        dataChannel.setSchema(windowAggNode.getInSchema());
+        lastDataChannel = dataChannel;
+      }
+
+      ScanNode scanNode = buildInputExecutor(masterPlan.getLogicalPlan(), lastDataChannel);
+      windowAggNode.setChild(scanNode);
+      windowAggNode.setInSchema(scanNode.getOutSchema());
+      currentBlock.setPlan(windowAggNode);
+    } else {
+      currentBlock = masterPlan.newExecutionBlock();
+      DataChannel channel = new DataChannel(childBlock, currentBlock, HASH_SHUFFLE, partitionNum);
+      channel.setShuffleKeys(shuffleKeys);
+      channel.setSchema(childBlock.getPlan().getOutSchema());
+      channel.setStoreType(storeType);
+
+      ScanNode scanNode = buildInputExecutor(masterPlan.getLogicalPlan(), channel);
+      windowAggNode.setChild(scanNode);
+      windowAggNode.setInSchema(scanNode.getOutSchema());
+      currentBlock.setPlan(windowAggNode);
+      masterPlan.addConnect(channel);
+    }
+
+    return currentBlock;
+  }
+
   private ExecutionBlock buildSortPlan(GlobalPlanContext context, ExecutionBlock childBlock, SortNode currentNode) {
     MasterPlan masterPlan = context.plan;
     ExecutionBlock currentBlock;
@@ -1026,6 +1148,18 @@ public class GlobalPlanner {
       return newExecBlock.getPlan();
     }
 
+    @Override
+    public LogicalNode visitWindowAgg(GlobalPlanContext context, LogicalPlan plan, LogicalPlan.QueryBlock block,
+                                      WindowAggNode node, Stack<LogicalNode> stack) throws PlanningException {
+      LogicalNode child = super.visitWindowAgg(context, plan, block, node, stack);
+
+      ExecutionBlock childBlock = context.execBlockMap.remove(child.getPID());
+      ExecutionBlock newExecBlock = buildWindowAggPlan(context, childBlock, node);
+      context.execBlockMap.put(node.getPID(), newExecBlock);
+
+      return node;
+    }
+
     @Override
     public LogicalNode visitFilter(GlobalPlanContext context, LogicalPlan plan, LogicalPlan.QueryBlock block,
                                    SelectionNode node, Stack<LogicalNode> stack) throws PlanningException {
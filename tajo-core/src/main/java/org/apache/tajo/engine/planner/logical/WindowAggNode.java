@@ -0,0 +1,207 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.logical;
+
+import com.google.gson.annotations.Expose;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.SortSpec;
+import org.apache.tajo.engine.eval.WindowFunctionEval;
+import org.apache.tajo.engine.planner.PlanString;
+import org.apache.tajo.engine.planner.PlannerUtil;
+import org.apache.tajo.engine.planner.Target;
+import org.apache.tajo.util.TUtil;
+
+/**
+ * WindowAggNode evaluates window functions which share the same partition keys and sort specifications.
+ * Input rows are passed through, and the values of window functions are appended to them.
+ */
+public class WindowAggNode extends UnaryNode implements Projectable, Cloneable {
+  /** Partition keys */
+  @Expose private Column [] partitionKeys;
+  /** Sort specifications in each partition */
+  @Expose private SortSpec [] sortSpecs;
+  /** Window functions */
+  @Expose private WindowFunctionEval [] windowFuncs;
+  /**
+   * It's a list of targets. Input columns should be followed by window functions.
+   * windowFuncs keep actual window functions, but it only contains field references.
+   */
+  @Expose private Target [] targets;
+
+  public WindowAggNode(int pid) {
+    super(pid, NodeType.WINDOW_AGG);
+  }
+
+  public boolean hasPartitionKeys() {
+    return partitionKeys != null && partitionKeys.length > 0;
+  }
+
+  public void setPartitionKeys(Column [] partitionKeys) {
+    this.partitionKeys = partitionKeys;
+  }
+
+  public Column [] getPartitionKeys() {
+    return partitionKeys;
+  }
+
+  public boolean hasSortSpecs() {
+    return sortSpecs != null && sortSpecs.length > 0;
+  }
+
+  public void setSortSpecs(SortSpec [] sortSpecs) {
+    this.sortSpecs = sortSpecs;
+  }
+
+  public SortSpec [] getSortSpecs() {
+    return sortSpecs;
+  }
+
+  public boolean hasWindowFunctions() {
+    return windowFuncs != null;
+  }
+
+  public void setWindowFunctions(WindowFunctionEval [] windowFuncs) {
+    this.windowFuncs = windowFuncs;
+  }
+
+  public WindowFunctionEval [] getWindowFunctions() {
+    return windowFuncs;
+  }
+
+  @Override
+  public boolean hasTargets() {
+    return this.targets != null;
+  }
+
+  @Override
+  public void setTargets(Target[] targets) {
+    this.targets = targets;
+    setOutSchema(PlannerUtil.targetToSchema(targets));
+  }
+
+  @Override
+  public Target[] getTargets() {
+    return this.targets;
+  }
+
+  public String toString() {
+    StringBuilder sb = new StringBuilder("WindowAgg (");
+    if (hasPartitionKeys()) {
+      sb.append("partition keys=").append(TUtil.arrayToString(partitionKeys)).append(", ");
+    }
+    if (hasSortSpecs()) {
+      sb.append("sort specs=").append(TUtil.arrayToString(sortSpecs)).append(", ");
+    }
+    sb.append("funcs=").append(TUtil.arrayToString(windowFuncs));
+    sb.append(")");
+    return sb.toString();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj instanceof WindowAggNode) {
+      WindowAggNode other = (WindowAggNode) obj;
+      boolean eq = super.equals(other);
+      eq = eq && TUtil.checkEquals(partitionKeys, other.partitionKeys);
+      eq = eq && TUtil.checkEquals(sortSpecs, other.sortSpecs);
+      eq = eq && TUtil.checkEquals(windowFuncs, other.windowFuncs);
+      eq = eq && TUtil.checkEquals(targets, other.targets);
+      return eq;
+    } else {
+      return false;
+    }
+  }
+
+  @Override
+  public Object clone() throws CloneNotSupportedException {
+    WindowAggNode node = (WindowAggNode) super.clone();
+    if (partitionKeys != null) {
+      node.partitionKeys = partitionKeys.clone();
+    }
+
+    if (sortSpecs != null) {
+      node.sortSpecs = sortSpecs.clone();
+    }
+
+    if (windowFuncs != null) {
+      node.windowFuncs = new WindowFunctionEval[windowFuncs.length];
+      for (int i = 0; i < windowFuncs.length; i++) {
+        node.windowFuncs[i] = (WindowFunctionEval) windowFuncs[i].clone();
+      }
+    }
+
+    if (targets != null) {
+      node.targets = new Target[targets.length];
+      for (int i = 0; i < targets.length; i++) {
+        node.targets[i] = (Target) targets[i].clone();
+      }
+    }
+
+    return node;
+  }
+
+  @Override
+  public PlanString getPlanString() {
+    PlanString planStr = new PlanString(this);
+
+    StringBuilder sb = new StringBuilder();
+    sb.append("(");
+    if (hasPartitionKeys()) {
+      for (int j = 0; j < partitionKeys.length; j++) {
+        sb.append(partitionKeys[j].getSimpleName());
+        if(j < partitionKeys.length - 1) {
+          sb.append(",");
+        }
+      }
+    }
+    sb.append(")");
+    planStr.appendTitle(sb.toString());
+
+    if (hasSortSpecs()) {
+      planStr.appendExplain("sort: ").appendExplain(TUtil.arrayToString(sortSpecs));
+    }
+
+    if (hasWindowFunctions()) {
+      sb = new StringBuilder();
+      sb.append("(");
+      for (int j = 0; j < windowFuncs.length; j++) {
+        sb.append(windowFuncs[j]);
+        if(j < windowFuncs.length - 1) {
+          sb.append(",");
+        }
+      }
+      sb.append(")");
+      planStr.appendExplain(", exprs: ").appendExplain(sb.toString());
+    }
+
+    sb = new StringBuilder("target list: ");
+    for (int i = 0; i < targets.length; i++) {
+      sb.append(targets[i]);
+      if( i < targets.length - 1) {
+        sb.append(", ");
+      }
+    }
+    planStr.addExplan(sb.toString());
+
+    planStr.addDetail("out schema:").appendDetail(getOutSchema().toString());
+    planStr.addDetail("in schema:").appendDetail(getInSchema().toString());
+
+    return planStr;
+  }
+}
@@ -18,6 +18,7 @@
 
 package org.apache.tajo.engine.planner.physical;
 
+import org.apache.tajo.engine.codegen.CompiledEval;
 import org.apache.tajo.engine.eval.EvalNode;
 import org.apache.tajo.engine.planner.PlannerUtil;
 import org.apache.tajo.engine.planner.Projector;
@@ -37,6 +38,7 @@ public class BNLJoinExec extends BinaryPhysicalExec {
   private JoinNode plan;
   private final boolean hasJoinQual;
   private EvalNode joinQual;
+  private CompiledEval joinQualEval;
 
   private List<Tuple> leftTupleSlots;
   private List<Tuple> rightTupleSlots;
@@ -64,6 +66,7 @@ public class BNLJoinExec extends BinaryPhysicalExec {
     this.joinQual = plan.getJoinQual();
     if (joinQual != null) { // if join type is not 'cross join'
       hasJoinQual = true;
+      this.joinQualEval = compileEval(joinQual);
     } else {
       hasJoinQual = false;
     }
@@ -79,7 +82,7 @@ public class BNLJoinExec extends BinaryPhysicalExec {
       plan.setTargets(PlannerUtil.schemaToTargets(outSchema));
     }
 
-    projector = new Projector(inSchema, outSchema, plan.getTargets());
+    projector = new Projector(context, inSchema, outSchema, plan.getTargets());
 
     // for join
     frameTuple = new FrameTuple();
@@ -185,7 +188,7 @@ public class BNLJoinExec extends BinaryPhysicalExec {
 
       frameTuple.set(leftTuple, rightIterator.next());
       if (hasJoinQual) {
-        if (joinQual.eval(inSchema, frameTuple).isTrue()) {
+        if (joinQualEval.isTrue(frameTuple)) {
           projector.eval(frameTuple, outputTuple);
           return outputTuple;
         }
@@ -218,6 +221,7 @@ public class BNLJoinExec extends BinaryPhysicalExec {
     leftIterator = null;
     plan = null;
     joinQual = null;
+    joinQualEval = null;
     projector = null;
   }
 }
@@ -81,6 +81,10 @@ public class BasicPhysicalExecutorVisitor<CONTEXT, RESULT> implements PhysicalEx
       return visitSortBasedColPartitionStore(context, (SortBasedColPartitionStoreExec) exec, stack);
     } else if (exec instanceof StoreTableExec) {
       return visitStoreTable(context, (StoreTableExec) exec, stack);
+    } else if (exec instanceof TopNExec) {
+      return visitTopN(context, (TopNExec) exec, stack);
+    } else if (exec instanceof WindowAggExec) {
+      return visitWindowAgg(context, (WindowAggExec) exec, stack);
     }
 
     throw new PhysicalPlanningException("Unsupported Type: " + exec.getClass().getSimpleName());
@@ -262,4 +266,15 @@ public class BasicPhysicalExecutorVisitor<CONTEXT, RESULT> implements PhysicalEx
   public RESULT visitStoreTable(CONTEXT context, StoreTableExec exec, Stack<PhysicalExec> stack) throws PhysicalPlanningException {
     return visitUnaryExecutor(context, exec, stack);
   }
+
+  @Override
+  public RESULT visitTopN(CONTEXT context, TopNExec exec, Stack<PhysicalExec> stack) throws PhysicalPlanningException {
+    return visitUnaryExecutor(context, exec, stack);
+  }
+
+  @Override
+  public RESULT visitWindowAgg(CONTEXT context, WindowAggExec exec, Stack<PhysicalExec> stack)
+      throws PhysicalPlanningException {
+    return visitUnaryExecutor(context, exec, stack);
+  }
 }
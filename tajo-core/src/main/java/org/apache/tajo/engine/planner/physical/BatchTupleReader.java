@@ -0,0 +1,82 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.engine.vector.RowBatch;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+
+import java.io.IOException;
+
+/**
+ * It reads tuples from a child operator. If vectorized execution is enabled, it pulls batches of rows
+ * via {@link PhysicalExec#nextBatch()} and converts each active row into a tuple. Otherwise, it just calls
+ * {@link PhysicalExec#next()}.
+ *
+ * <p>It is the boundary between vectorized and row-based execution. Hash aggregation and hash joins are not
+ * vectorized: they use this reader so that a scan, a selection or a projection below them can evaluate its
+ * expressions over column vectors, but they still hash, probe and aggregate each row as a tuple.</p>
+ */
+class BatchTupleReader {
+  private final PhysicalExec child;
+  private final boolean vectorized;
+  /** if true, the same tuple is returned for each row. Otherwise, a new tuple is created for each row. */
+  private final boolean reuseTuple;
+  private final int columnNum;
+
+  private RowBatch batch;
+  private int pos;
+  private Tuple tuple;
+
+  BatchTupleReader(PhysicalExec child, boolean reuseTuple) {
+    this.child = child;
+    this.vectorized = child.context.getConf().getBoolVar(ConfVars.EXECUTOR_VECTORIZED_ENABLED);
+    this.reuseTuple = reuseTuple;
+    this.columnNum = child.getSchema().size();
+  }
+
+  public Tuple next() throws IOException {
+    if (!vectorized) {
+      return child.next();
+    }
+
+    if (batch == null || pos >= batch.size) {
+      batch = child.nextBatch();
+      pos = 0;
+      if (batch == null) {
+        return null;
+      }
+    }
+
+    if (tuple == null || !reuseTuple) {
+      tuple = new VTuple(columnNum);
+    }
+    batch.getTuple(batch.getRow(pos++), tuple);
+    return tuple;
+  }
+
+  /**
+   * Discards the remaining rows of the current batch. It must be called when the child operator is rescanned.
+   */
+  public void reset() {
+    batch = null;
+    pos = 0;
+  }
+}
@@ -0,0 +1,116 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.engine.utils.TupleKeyHashMap;
+import org.apache.tajo.storage.BinaryTupleList;
+import org.apache.tajo.storage.MemoryUtil;
+import org.apache.tajo.storage.Tuple;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A read-only hash table of a broadcast table, which is built once on a worker and is probed by all hash join
+ * operators of the same execution block concurrently. It is kept in {@link org.apache.tajo.engine.utils.TupleCache}
+ * until the task runner of the execution block stops.
+ *
+ * <p>The whole table is kept in memory without spilling, because a broadcast table is small enough. Each prober
+ * must get its own reader via {@link #newReader()}.</p>
+ */
+public class BroadcastHashTable {
+  private final TupleKeyHashMap<List<Tuple>> table;
+  private final long rowNum;
+  private final long memoryBytes;
+
+  private BroadcastHashTable(TupleKeyHashMap<List<Tuple>> table, long rowNum, long memoryBytes) {
+    this.table = table;
+    this.rowNum = rowNum;
+    this.memoryBytes = memoryBytes;
+  }
+
+  /**
+   * Builds a hash table from all tuples of the given build side operator.
+   *
+   * <p>If the build side reads the rows kept in the broadcast cache, the hash table refers to the cached rows
+   * instead of copying them, so a broadcast table is kept in memory only once. The cached rows are accounted by
+   * the broadcast cache, and they live as long as this hash table.</p>
+   */
+  static BroadcastHashTable build(PhysicalExec rightChild, Schema leftSchema, int [] leftKeyList,
+                                  int [] rightKeyList) throws IOException {
+    Schema rightSchema = rightChild.getSchema();
+    TupleKeyHashMap<List<Tuple>> table = TupleKeyHashMap.create(
+        TupleKeyHashMap.getKeyTypes(rightSchema, rightKeyList), TupleKeyHashMap.getKeyTypes(leftSchema, leftKeyList),
+        16);
+
+    boolean cachedRows = rightChild instanceof SeqScanExec && ((SeqScanExec) rightChild).isCacheRead();
+    // otherwise, build rows are copied in the compact binary format if possible.
+    BinaryTupleList rows = null;
+    if (!cachedRows && PhysicalPlanUtil.useCompactTuple(rightChild.context.getConf(), rightSchema)) {
+      rows = new BinaryTupleList(rightSchema);
+    }
+
+    BatchTupleReader reader = cachedRows ? null : new BatchTupleReader(rightChild, rows != null);
+    long rowNum = 0;
+    long memoryBytes = 0;
+    Tuple tuple;
+    while ((tuple = cachedRows ? rightChild.next() : reader.next()) != null) {
+      if (rows != null) {
+        rows.addTuple(tuple);
+        tuple = rows.get(rows.size() - 1);
+      } else if (!cachedRows) {
+        memoryBytes += MemoryUtil.calculateMemorySize(tuple);
+      }
+
+      List<Tuple> bucket = table.get(tuple, rightKeyList);
+      if (bucket == null) {
+        bucket = new ArrayList<Tuple>(1);
+        table.put(tuple, rightKeyList, bucket);
+      }
+      bucket.add(tuple);
+      memoryBytes += HashPartitionSpiller.HASH_ENTRY_OVERHEAD;
+      rowNum++;
+    }
+
+    if (rows != null) {
+      memoryBytes += rows.getAllocatedBytes();
+    }
+    return new BroadcastHashTable(table, rowNum, memoryBytes);
+  }
+
+  /**
+   * @return a hash table for lookups by a single thread
+   */
+  public TupleKeyHashMap<List<Tuple>> newReader() {
+    return table.newReader();
+  }
+
+  public long getRowNum() {
+    return rowNum;
+  }
+
+  /**
+   * @return the estimated memory size of this hash table, including its rows unless they are cached rows
+   */
+  public long getMemoryBytes() {
+    return memoryBytes;
+  }
+}
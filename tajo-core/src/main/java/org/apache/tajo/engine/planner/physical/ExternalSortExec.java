@@ -19,6 +19,7 @@
 package org.apache.tajo.engine.planner.physical;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Ordering;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.fs.LocalDirAllocator;
@@ -54,7 +55,9 @@ import static org.apache.tajo.storage.RawFile.RawFileScanner;
  *
  * <ul>
  *   <li>in-memory sort if input data size fits a sort buffer</li>
+ *   <li>parallel in-memory sort if multiple cores are available</li>
  *   <li>k-way merge sort if input data size exceeds the size of sort buffer</li>
+ *   <li>pipelined run generation which loads a run while previous runs are sorted and written</li>
  *   <li>parallel merge</li>
  *   <li>final merge avoidance</li>
  *   <li>Unbalance merge if needed</li>
@@ -63,9 +66,13 @@ import static org.apache.tajo.storage.RawFile.RawFileScanner;
 public class ExternalSortExec extends SortExec {
   /** Class logger */
   private static final Log LOG = LogFactory.getLog(ExternalSortExec.class);
+  /** the minimum number of in-memory tuples to sort them in parallel */
+  private static final int PARALLEL_SORT_MIN_ROWS = 10000;
 
   private SortNode plan;
   private final TableMeta meta;
+  /** the meta of sort chunks, which are compressed if a shuffle compression codec is given */
+  private final TableMeta chunkMeta;
   /** the defaultFanout of external sort */
   private final int defaultFanout;
   /** It's the size of in-memory table. If memory consumption exceeds it, store the memory table into a disk. */
@@ -76,6 +83,8 @@ public class ExternalSortExec extends SortExec {
   private ExecutorService executorService;
   /** used for in-memory sort of each chunk. */
   private List<Tuple> inMemoryTable;
+  /** buffers of written chunks, which are reused in pipelined run generation */
+  private final Queue<List<Tuple>> freeTupleBuffers = new ConcurrentLinkedQueue<List<Tuple>>();
   /** temporal dir */
   private final Path sortTmpDir;
   /** It enables round-robin disks allocation */
@@ -105,6 +114,10 @@ public class ExternalSortExec extends SortExec {
 
     this.plan = plan;
     this.meta = CatalogUtil.newTableMeta(StoreType.ROWFILE);
+    this.chunkMeta = CatalogUtil.newTableMeta(StoreType.RAW);
+    if (context.getShuffleCompressionCodec() != null) {
+      chunkMeta.putOption(StorageConstants.COMPRESSION_CODEC, context.getShuffleCompressionCodec());
+    }
 
     this.defaultFanout = context.getConf().getIntVar(ConfVars.EXECUTOR_EXTERNAL_SORT_FANOUT);
     if (defaultFanout < 2) {
@@ -114,7 +127,7 @@ public class ExternalSortExec extends SortExec {
     this.sortBufferBytesNum = context.getConf().getLongVar(ConfVars.EXECUTOR_EXTERNAL_SORT_BUFFER_SIZE) * 1048576L;
     this.allocatedCoreNum = context.getConf().getIntVar(ConfVars.EXECUTOR_EXTERNAL_SORT_THREAD_NUM);
     this.executorService = Executors.newFixedThreadPool(this.allocatedCoreNum);
-    this.inMemoryTable = new ArrayList<Tuple>(100000);
+    this.inMemoryTable = createTupleBuffer();
 
     this.sortTmpDir = getExecutorTmpDir();
     localDirAllocator = new LocalDirAllocator(ConfVars.WORKER_TEMPORAL_DIR.varname);
@@ -159,21 +172,21 @@ public class ExternalSortExec extends SortExec {
    */
   private Path sortAndStoreChunk(int chunkId, List<Tuple> tupleBlock)
       throws IOException {
-    TableMeta meta = CatalogUtil.newTableMeta(StoreType.RAW);
     int rowNum = tupleBlock.size();
 
     long sortStart = System.currentTimeMillis();
-    Collections.sort(tupleBlock, getComparator());
+    sortTuples(tupleBlock);
     long sortEnd = System.currentTimeMillis();
 
     long chunkWriteStart = System.currentTimeMillis();
     Path outputPath = getChunkPathForWrite(0, chunkId);
-    final RawFileAppender appender = new RawFileAppender(context.getConf(), inSchema, meta, outputPath);
+    final RawFileAppender appender = new RawFileAppender(context.getConf(), inSchema, chunkMeta, outputPath);
     appender.init();
     for (Tuple t : tupleBlock) {
       appender.addTuple(t);
     }
     appender.close();
+    addCompressionStats(appender);
     tupleBlock.clear();
     long chunkWriteEnd = System.currentTimeMillis();
 
@@ -185,33 +198,97 @@ public class ExternalSortExec extends SortExec {
     return outputPath;
   }
 
+  /**
+   * Sort and store thread
+   */
+  private class ChunkSortCaller implements Callable<Path> {
+    final int chunkId;
+    final List<Tuple> tupleBlock;
+    /** if true, the buffer is reused for a later chunk after it is written. Otherwise, it is released. */
+    final boolean recycle;
+
+    public ChunkSortCaller(final int chunkId, final List<Tuple> tupleBlock, final boolean recycle) {
+      this.chunkId = chunkId;
+      this.tupleBlock = tupleBlock;
+      this.recycle = recycle;
+    }
+
+    @Override
+    public Path call() throws Exception {
+      Path path = sortAndStoreChunk(chunkId, tupleBlock);
+      if (recycle) {
+        freeTupleBuffers.offer(tupleBlock);
+      } else if (tupleBlock instanceof BinaryTupleList) {
+        ((BinaryTupleList) tupleBlock).release();
+      }
+      return path;
+    }
+  }
+
   /**
    * It divides all tuples into a number of chunks, then sort for each chunk.
    *
+   * If there are multiple cores, sorting and writing chunks are pipelined. Once the sort buffer is exceeded,
+   * a full chunk is handed over to the executor, and the task thread continues to load the next chunk.
+   * Chunks in progress are charged against the sort buffer, and the task thread waits for the oldest one
+   * whenever the loading chunk and the chunks in progress together exceed the sort buffer. So, the whole
+   * memory consumption never exceeds the sort buffer. The first chunk fills the sort buffer so that an input
+   * fitting in it is still sorted in memory, and thus the second chunk is loaded after the first one is written.
+   * Each later chunk uses (sort buffer / cores) bytes, so (cores - 1) chunks are sorted while the next one is
+   * loaded. The buffer of the first chunk is released after it is written, and the buffers of later chunks are
+   * reused.
+   *
+   * If tuples are buffered in {@link BinaryTupleList}, the memory consumption is the exact bytes of the buffer.
+   * Otherwise, it is estimated by {@link MemoryUtil}.
+   *
    * @return All paths of chunks
    * @throws java.io.IOException
    */
   private List<Path> sortAndStoreAllChunks() throws IOException {
     Tuple tuple;
     long memoryConsumption = 0;
+    long chunkBytesNum = sortBufferBytesNum;
     List<Path> chunkPaths = TUtil.newList();
+    LinkedList<Future<Path>> runningChunks = new LinkedList<Future<Path>>();
+    LinkedList<Long> runningChunkBytes = new LinkedList<Long>();
+    long runningBytes = 0;
 
     int chunkId = 0;
     long runStartTime = System.currentTimeMillis();
     while ((tuple = child.next()) != null) { // partition sort start
-      Tuple vtuple = new VTuple(tuple);
-      inMemoryTable.add(vtuple);
-      memoryConsumption += MemoryUtil.calculateMemorySize(vtuple);
+      memoryConsumption += addToTupleBuffer(inMemoryTable, tuple);
+
+      // chunks in progress still hold their buffers
+      while (!runningChunks.isEmpty() && memoryConsumption + runningBytes > sortBufferBytesNum) {
+        chunkPaths.add(getResult(runningChunks.removeFirst()));
+        runningBytes -= runningChunkBytes.removeFirst();
+      }
 
-      if (memoryConsumption > sortBufferBytesNum) {
+      if (memoryConsumption > chunkBytesNum) {
         long runEndTime = System.currentTimeMillis();
         info(LOG, chunkId + " run loading time: " + (runEndTime - runStartTime) + " msec");
         runStartTime = runEndTime;
 
-        info(LOG, "Memory consumption exceeds " + sortBufferBytesNum + " bytes");
+        info(LOG, "Memory consumption exceeds " + chunkBytesNum + " bytes");
         memoryResident = false;
 
-        chunkPaths.add(sortAndStoreChunk(chunkId, inMemoryTable));
+        if (allocatedCoreNum > 1) {
+          // wait for the oldest chunk if all other cores are busy
+          while (runningChunks.size() >= allocatedCoreNum - 1) {
+            chunkPaths.add(getResult(runningChunks.removeFirst()));
+            runningBytes -= runningChunkBytes.removeFirst();
+          }
+          runningChunks.add(executorService.submit(new ChunkSortCaller(chunkId, inMemoryTable, chunkId > 0)));
+          runningChunkBytes.add(memoryConsumption);
+          runningBytes += memoryConsumption;
+          inMemoryTable = freeTupleBuffers.poll();
+          if (inMemoryTable == null) {
+            inMemoryTable = createTupleBuffer();
+          }
+          chunkBytesNum = Math.max(sortBufferBytesNum / allocatedCoreNum, 1);
+        } else {
+          chunkPaths.add(sortAndStoreChunk(chunkId, inMemoryTable));
+        }
 
         memoryConsumption = 0;
         chunkId++;
@@ -236,15 +313,25 @@ public class ExternalSortExec extends SortExec {
         if (inMemoryTable.size() > 0) {
           long start = System.currentTimeMillis();
           int rowNum = inMemoryTable.size();
-          chunkPaths.add(sortAndStoreChunk(chunkId, inMemoryTable));
+          Path lastChunkPath = sortAndStoreChunk(chunkId, inMemoryTable);
           long end = System.currentTimeMillis();
           info(LOG, "Last Chunk #" + chunkId + " " + rowNum + " rows written (" + (end - start) + " msec)");
+
+          while (!runningChunks.isEmpty()) {
+            chunkPaths.add(getResult(runningChunks.removeFirst()));
+          }
+          chunkPaths.add(lastChunkPath);
         }
       } else { // this case means that all data does not exceed a sort buffer
-        Collections.sort(inMemoryTable, getComparator());
+        sortInMemoryTable();
       }
     }
 
+    // if the last chunk is empty, some chunks may be still in progress.
+    while (!runningChunks.isEmpty()) {
+      chunkPaths.add(getResult(runningChunks.removeFirst()));
+    }
+
     // get total loaded (or stored) bytes and total row numbers
     TableStats childTableStats = child.getInputStats();
     if (childTableStats != null) {
@@ -253,6 +340,149 @@ public class ExternalSortExec extends SortExec {
     return chunkPaths;
   }
 
+  /**
+   * Sort all tuples in the in-memory table. If multiple cores are available, each segment of the table is sorted
+   * in a different thread, and then sorted segments are merged pairwise in parallel.
+   */
+  private void sortInMemoryTable() throws IOException {
+    final int rowNum = inMemoryTable.size();
+    if (allocatedCoreNum < 2 || rowNum < PARALLEL_SORT_MIN_ROWS) {
+      sortTuples(inMemoryTable);
+      return;
+    }
+
+    long sortStart = System.currentTimeMillis();
+    final Tuple [] tuples = inMemoryTable.toArray(new Tuple[rowNum]);
+    final NormalizedKeyEncoder keyEncoder = getKeyEncoder();
+    if (keyEncoder == null) {
+      parallelSort(tuples, getComparator());
+    } else {
+      // sort keys are normalized in parallel
+      final NormalizedKey [] keys = new NormalizedKey[rowNum];
+      int segmentSize = (rowNum + allocatedCoreNum - 1) / allocatedCoreNum;
+      List<Future<?>> futures = TUtil.newList();
+      for (int startIdx = 0; startIdx < rowNum; startIdx += segmentSize) {
+        final int from = startIdx;
+        final int to = Math.min(startIdx + segmentSize, rowNum);
+        futures.add(executorService.submit(new Runnable() {
+          @Override
+          public void run() {
+            for (int i = from; i < to; i++) {
+              keys[i] = keyEncoder.encode(tuples[i]);
+            }
+          }
+        }));
+      }
+      waitForAll(futures);
+
+      parallelSort(keys, Ordering.<NormalizedKey>natural());
+      for (int i = 0; i < rowNum; i++) {
+        tuples[i] = keys[i].getTuple();
+      }
+    }
+
+    // set() does not copy rows of BinaryTupleList
+    for (int i = 0; i < rowNum; i++) {
+      inMemoryTable.set(i, tuples[i]);
+    }
+    long sortEnd = System.currentTimeMillis();
+    info(LOG, rowNum + " in-memory rows sorted by " + allocatedCoreNum + " threads (" + (sortEnd - sortStart)
+        + " msec)");
+  }
+
+  /**
+   * Sort the array in parallel. Each segment is sorted in a thread, and then adjacent sorted segments are merged
+   * pairwise until only one segment remains.
+   */
+  private <T> void parallelSort(final T [] array, final Comparator<? super T> comparator) throws IOException {
+    final int rowNum = array.length;
+    T [] source = array;
+    T [] target = Arrays.copyOf(array, rowNum);
+    int segmentSize = (rowNum + allocatedCoreNum - 1) / allocatedCoreNum;
+
+    List<Future<?>> futures = TUtil.newList();
+    for (int startIdx = 0; startIdx < rowNum; startIdx += segmentSize) {
+      final int from = startIdx;
+      final int to = Math.min(startIdx + segmentSize, rowNum);
+      futures.add(executorService.submit(new Runnable() {
+        @Override
+        public void run() {
+          Arrays.sort(array, from, to, comparator);
+        }
+      }));
+    }
+    waitForAll(futures);
+
+    // merge each pair of adjacent sorted segments until only one segment remains
+    for (int width = segmentSize; width < rowNum; width *= 2) {
+      for (int startIdx = 0; startIdx < rowNum; startIdx += 2 * width) {
+        final T [] from = source;
+        final T [] to = target;
+        final int start = startIdx;
+        final int mid = Math.min(startIdx + width, rowNum);
+        final int end = Math.min(startIdx + 2 * width, rowNum);
+        futures.add(executorService.submit(new Runnable() {
+          @Override
+          public void run() {
+            mergeSortedSegments(from, to, start, mid, end, comparator);
+          }
+        }));
+      }
+      waitForAll(futures);
+
+      T [] tmp = source;
+      source = target;
+      target = tmp;
+    }
+
+    if (source != array) {
+      System.arraycopy(source, 0, array, 0, rowNum);
+    }
+  }
+
+  /**
+   * Merge two sorted segments [start, mid) and [mid, end) of the source into the same range of the target.
+   */
+  private static <T> void mergeSortedSegments(T [] source, T [] target, int start, int mid, int end,
+                                              Comparator<? super T> comparator) {
+    int left = start;
+    int right = mid;
+    int idx = start;
+    while (left < mid && right < end) {
+      if (comparator.compare(source[left], source[right]) <= 0) {
+        target[idx++] = source[left++];
+      } else {
+        target[idx++] = source[right++];
+      }
+    }
+    if (left < mid) {
+      System.arraycopy(source, left, target, idx, mid - left);
+    } else if (right < end) {
+      System.arraycopy(source, right, target, idx, end - right);
+    }
+  }
+
+  private static void waitForAll(List<Future<?>> futures) throws IOException {
+    for (Future<?> future : futures) {
+      getResult(future);
+    }
+    futures.clear();
+  }
+
+  private static <T> T getResult(Future<T> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException(e.getCause());
+    }
+  }
+
   /**
    * Get a local path from all temporal paths in round-robin manner.
    */
@@ -438,7 +668,7 @@ public class ExternalSortExec extends SortExec {
       final Path outputPath = getChunkPathForWrite(level + 1, nextRunId);
       info(LOG, mergeFanout + " files are being merged to an output file " + outputPath.getName());
       long mergeStartTime = System.currentTimeMillis();
-      final RawFileAppender output = new RawFileAppender(context.getConf(), inSchema, meta, outputPath);
+      final RawFileAppender output = new RawFileAppender(context.getConf(), inSchema, chunkMeta, outputPath);
       output.init();
       final Scanner merger = createKWayMerger(inputFiles, startIdx, mergeFanout);
       merger.init();
@@ -448,6 +678,7 @@ public class ExternalSortExec extends SortExec {
       }
       merger.close();
       output.close();
+      addCompressionStats(output);
       long mergeEndTime = System.currentTimeMillis();
       info(LOG, outputPath.getName() + " is written to a disk. ("
           + FileUtil.humanReadableByteCount(output.getOffset(), false)
@@ -476,7 +707,18 @@ public class ExternalSortExec extends SortExec {
   }
 
   private Scanner getFileScanner(Path path) throws IOException {
-    return new RawFileScanner(context.getConf(), plan.getInSchema(), meta, path);
+    // sorted inputs which are directly merged are not written by this executor
+    if (mergedInputPaths != null && mergedInputPaths.contains(path)) {
+      return new RawFileScanner(context.getConf(), plan.getInSchema(), meta, path);
+    } else {
+      return new RawFileScanner(context.getConf(), plan.getInSchema(), chunkMeta, path);
+    }
+  }
+
+  private void addCompressionStats(RawFileAppender appender) throws IOException {
+    if (appender.isCompressed()) {
+      context.addCompressionStats(appender.getUncompressedBytes(), appender.getOffset());
+    }
   }
 
   private Scanner createKWayMerger(List<Path> inputs, final int startChunkId, final int num) throws IOException {
@@ -744,6 +986,7 @@ public class ExternalSortExec extends SortExec {
       inMemoryTable.clear();
       inMemoryTable = null;
     }
+    freeTupleBuffers.clear();
 
     if(executorService != null){
       executorService.shutdown();
@@ -0,0 +1,528 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
+import com.google.common.collect.Iterators;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.engine.planner.physical.HashPartitionSpiller.SpilledPartition;
+import org.apache.tajo.engine.utils.TupleCache;
+import org.apache.tajo.engine.utils.TupleCacheKey;
+import org.apache.tajo.engine.utils.TupleKeyHashMap;
+import org.apache.tajo.storage.BinaryTupleList;
+import org.apache.tajo.storage.MemoryUtil;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.util.FileUtil;
+import org.apache.tajo.util.TUtil;
+import org.apache.tajo.worker.TaskAttemptContext;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.Callable;
+
+import static org.apache.tajo.storage.RawFile.RawFileAppender;
+import static org.apache.tajo.storage.RawFile.RawFileScanner;
+
+/**
+ * A hash table for the build (right) side of hash join operators, which works as a hybrid grace hash join.
+ *
+ * <p>Build tuples are divided into a number of partitions by the hash value of their join keys. If the memory
+ * consumption exceeds the hash join buffer, the biggest in-memory partition is spilled into a local file, and
+ * all build tuples of that partition are written to the file afterwards. Partitions that are not spilled stay in
+ * memory, and probe tuples of them are joined immediately. Probe tuples of spilled partitions are written to local
+ * files, too. After all probe tuples are consumed, each pair of spilled partitions is joined in a later round.
+ * If a spilled build partition does not fit in memory either, it is partitioned again with a different hash seed.</p>
+ *
+ * <p>Hash join operators get probe tuples via {@link #nextLeftTuple(PhysicalExec)}, and find their buckets via
+ * {@link #get(Tuple)}. If no probe tuple remains, the current round is finished. Then, {@link #nextRound()} loads
+ * the next spilled partition pair into the same hash table.</p>
+ *
+ * <p>The in-memory hash table is a {@link TupleKeyHashMap}, so a single primitive join key is hashed and compared
+ * without building key tuples.</p>
+ *
+ * <p>If possible, build tuples are copied into a {@link BinaryTupleList} of each partition, and the hash table keeps
+ * {@link org.apache.tajo.storage.BinaryTuple}s referring to them. Then, the memory consumption of a partition is
+ * the exact bytes of its rows, and the rows of a spilled partition are released at once.</p>
+ *
+ * <p>If a shared cache key is set, the hash table is a {@link BroadcastHashTable} shared by all tasks of the same
+ * execution block on a worker. It is built only once, and it is never spilled.</p>
+ */
+public class GraceHashJoinTable {
+  /** Class logger */
+  private static final Log LOG = LogFactory.getLog(GraceHashJoinTable.class);
+  /** the page size of the build tuple buffer of each partition */
+  private static final int PARTITION_PAGE_SIZE = 64 * 1024;
+
+  private final TaskAttemptContext context;
+  private final Schema leftSchema;
+  private final Schema rightSchema;
+  private final int [] leftKeyList;
+  private final int [] rightKeyList;
+  /** the ids of key columns in a key tuple of the hash table */
+  private final int [] keyTupleIds;
+
+  /** whether this hash table can spill partitions or not */
+  private final boolean spillable;
+  /** whether build tuples are stored in {@link BinaryTupleList} or not */
+  private final boolean compactTuple;
+  /** It's the size of the hash table. If memory consumption exceeds it, some partitions are spilled. */
+  private long bufferBytesNum;
+  /** the number of partitions in each round */
+  private final int partitionNum;
+  /** spilled files and spilled partitions which are not joined yet */
+  private final HashPartitionSpiller spiller;
+
+  /** the in-memory hash table, which is reused in all rounds */
+  private final TupleKeyHashMap<List<Tuple>> tupleSlots;
+  /** the hash table for probing, which is either tupleSlots or a reader of the shared hash table */
+  private TupleKeyHashMap<List<Tuple>> lookupSlots;
+  /** the key of the shared hash table in {@link TupleCache}. It is null if the hash table is not shared. */
+  private TupleCacheKey sharedCacheKey;
+
+  ///////////////////////////////////////////////////
+  // the state of the current round
+  ///////////////////////////////////////////////////
+  private int level;
+  private boolean spillEnabled;
+  private long memoryConsumption;
+  private long [] partitionBytes;
+  /** build tuples of each partition. It is null if compact tuples are not used. */
+  private BinaryTupleList [] partitionRows;
+  private boolean [] spilled;
+  private boolean anySpilled;
+  private RawFileAppender [] rightAppenders;
+  private RawFileAppender [] leftAppenders;
+  private Path [] rightPaths;
+  private Path [] leftPaths;
+  /** true if probe tuples come from the left child operator */
+  private boolean leftFromChild;
+  private BatchTupleReader leftReader;
+  /** a scanner of probe tuples in a spilled partition */
+  private RawFileScanner leftScanner;
+  private SpilledPartition currentPartition;
+
+  ///////////////////////////////////////////////////
+  // the state over all rounds
+  ///////////////////////////////////////////////////
+  private int spillPartitionNum = 0;
+
+  /**
+   * @param spillTmpDir the temporal dir of the join operator, which is given by
+   *                    {@link PhysicalExec#getExecutorTmpDir()}
+   */
+  public GraceHashJoinTable(TaskAttemptContext context, Schema leftSchema, Schema rightSchema,
+                            int [] leftKeyList, int [] rightKeyList, Path spillTmpDir) {
+    this.context = context;
+    this.leftSchema = leftSchema;
+    this.rightSchema = rightSchema;
+    this.leftKeyList = leftKeyList;
+    this.rightKeyList = rightKeyList;
+    this.keyTupleIds = new int[rightKeyList.length];
+    for (int i = 0; i < keyTupleIds.length; i++) {
+      keyTupleIds[i] = i;
+    }
+
+    // a cross product (no equi-join key) cannot be partitioned.
+    this.spillable = context.getConf().getBoolVar(ConfVars.EXECUTOR_HASH_JOIN_SPILL_ENABLED)
+        && rightKeyList.length > 0;
+    this.bufferBytesNum = context.getConf().getLongVar(ConfVars.EXECUTOR_HASH_JOIN_SPILL_BUFFER_SIZE) * 1048576L;
+    this.partitionNum = Math.max(1, context.getConf().getIntVar(ConfVars.EXECUTOR_HASH_JOIN_SPILL_PARTITION_NUM));
+    this.compactTuple = PhysicalPlanUtil.useCompactTuple(context.getConf(), rightSchema);
+    this.spiller = new HashPartitionSpiller(context, spillTmpDir);
+
+    this.tupleSlots = TupleKeyHashMap.create(TupleKeyHashMap.getKeyTypes(rightSchema, rightKeyList),
+        TupleKeyHashMap.getKeyTypes(leftSchema, leftKeyList), 100000);
+    this.lookupSlots = tupleSlots;
+  }
+
+  /**
+   * If the build side is a broadcast table, all tasks of the same execution block on a worker build the same hash
+   * table. Then, this hash table shares a read-only hash table with them. The shared hash table is identified by
+   * the join keys as well as the table, because a broadcast table may be joined by different keys.
+   *
+   * @param rightChild the right child operator, which is the build side
+   * @return true if the hash table is shared
+   */
+  public boolean shareBroadcastTable(PhysicalExec rightChild) {
+    if (!context.getConf().getBoolVar(ConfVars.EXECUTOR_BROADCAST_JOIN_SHARED_HASH_TABLE_ENABLED)
+        || rightKeyList.length == 0 || !(rightChild instanceof SeqScanExec)) {
+      return false;
+    }
+    TupleCacheKey scanCacheKey = ((SeqScanExec) rightChild).getCacheKey();
+    if (scanCacheKey == null) {
+      return false;
+    }
+
+    StringBuilder joinKeys = new StringBuilder();
+    for (int i = 0; i < rightKeyList.length; i++) {
+      if (i > 0) {
+        joinKeys.append(",");
+      }
+      // the hash table depends on the types of probe keys, too.
+      joinKeys.append(rightSchema.getColumn(rightKeyList[i]).getQualifiedName()).append("=")
+          .append(leftSchema.getColumn(leftKeyList[i]).getDataType().getType());
+    }
+    sharedCacheKey = new TupleCacheKey(scanCacheKey.getEbId(), scanCacheKey.getTableName(), joinKeys.toString());
+    return true;
+  }
+
+  public boolean isShared() {
+    return sharedCacheKey != null;
+  }
+
+  @VisibleForTesting
+  public void setBufferBytesNum(long bufferBytesNum) {
+    this.bufferBytesNum = bufferBytesNum;
+  }
+
+  /**
+   * @return the number of spilled partitions since the last build
+   */
+  @VisibleForTesting
+  public int getSpilledPartitionNum() {
+    return spillPartitionNum;
+  }
+
+  /**
+   * @return the bucket of build tuples which have the same join key as the given probe tuple, or null if not found.
+   */
+  public List<Tuple> get(Tuple leftTuple) {
+    return lookupSlots.get(leftTuple, leftKeyList);
+  }
+
+  /**
+   * @return an iterator over all buckets in the in-memory hash table
+   */
+  public Iterator<List<Tuple>> bucketIterator() {
+    return Iterators.transform(lookupSlots.entryIterator(),
+        new Function<Map.Entry<Tuple, List<Tuple>>, List<Tuple>>() {
+          @Override
+          public List<Tuple> apply(Map.Entry<Tuple, List<Tuple>> entry) {
+            return entry.getValue();
+          }
+        });
+  }
+
+  private void initRound(int level) {
+    this.level = level;
+    this.spillEnabled = spillable && HashPartitionSpiller.isSpillableLevel(level);
+    int num = spillEnabled ? partitionNum : 1;
+
+    tupleSlots.clear();
+    memoryConsumption = 0;
+    partitionBytes = new long[num];
+    releasePartitionRows();
+    if (compactTuple) {
+      partitionRows = new BinaryTupleList[num];
+      for (int i = 0; i < num; i++) {
+        partitionRows[i] = new BinaryTupleList(rightSchema, PARTITION_PAGE_SIZE);
+      }
+    }
+    spilled = new boolean[num];
+    anySpilled = false;
+    rightAppenders = new RawFileAppender[num];
+    leftAppenders = new RawFileAppender[num];
+    rightPaths = new Path[num];
+    leftPaths = new Path[num];
+  }
+
+  private void releasePartitionRows() {
+    if (partitionRows != null) {
+      for (BinaryTupleList rows : partitionRows) {
+        rows.release();
+      }
+      partitionRows = null;
+    }
+  }
+
+  private int getPartitionId(Tuple tuple, int [] keyIds) {
+    if (partitionBytes.length == 1) {
+      return 0;
+    }
+    return HashPartitionSpiller.getPartitionId(tupleSlots.hash(tuple, keyIds), level, partitionBytes.length);
+  }
+
+  /**
+   * Loads all tuples of the right child operator into the hash table.
+   */
+  public void build(final PhysicalExec rightChild) throws IOException {
+    cleanup();
+    initRound(0);
+
+    if (sharedCacheKey != null) {
+      long maxBytes = context.getConf().getLongVar(ConfVars.EXECUTOR_BROADCAST_CACHE_SIZE) * 1048576L;
+      BroadcastHashTable sharedTable = TupleCache.getInstance().getOrBuildHashTable(sharedCacheKey, maxBytes,
+          new Callable<BroadcastHashTable>() {
+            @Override
+            public BroadcastHashTable call() throws Exception {
+              return BroadcastHashTable.build(rightChild, leftSchema, leftKeyList, rightKeyList);
+            }
+          });
+      lookupSlots = sharedTable.newReader();
+      leftFromChild = true;
+      leftReader = null;
+      return;
+    }
+
+    // build tuples are kept in the hash table, so each row needs its own tuple unless it is copied.
+    BatchTupleReader rightReader = new BatchTupleReader(rightChild, compactTuple);
+    Tuple tuple;
+    while ((tuple = rightReader.next()) != null) {
+      addBuildTuple(tuple);
+    }
+    finishBuild();
+
+    leftFromChild = true;
+    leftReader = null;
+  }
+
+  private void addBuildTuple(Tuple tuple) throws IOException {
+    int partId = getPartitionId(tuple, rightKeyList);
+    if (spilled[partId]) {
+      rightAppenders[partId].addTuple(tuple);
+      return;
+    }
+
+    long tupleBytes;
+    if (compactTuple) {
+      BinaryTupleList rows = partitionRows[partId];
+      tupleBytes = rows.addTuple(tuple) + HashPartitionSpiller.HASH_ENTRY_OVERHEAD;
+      tuple = rows.get(rows.size() - 1);
+    } else {
+      tupleBytes = spillEnabled ?
+          MemoryUtil.calculateMemorySize(tuple) + HashPartitionSpiller.HASH_ENTRY_OVERHEAD : 0;
+    }
+
+    List<Tuple> newValue = tupleSlots.get(tuple, rightKeyList);
+    if (newValue != null) {
+      newValue.add(tuple);
+    } else {
+      newValue = new ArrayList<Tuple>();
+      newValue.add(tuple);
+      tupleSlots.put(tuple, rightKeyList, newValue);
+    }
+
+    if (spillEnabled) {
+      partitionBytes[partId] += tupleBytes;
+      memoryConsumption += tupleBytes;
+
+      while (memoryConsumption > bufferBytesNum) {
+        // spilled partitions keep no tuples in memory, so the biggest in-memory partition is chosen.
+        int victim = HashPartitionSpiller.chooseVictim(partitionBytes, spilled);
+        if (victim < 0) {
+          break;
+        }
+        spillBuildPartition(victim);
+      }
+    }
+  }
+
+  private void spillBuildPartition(int partId) throws IOException {
+    long start = System.currentTimeMillis();
+
+    rightPaths[partId] = spiller.newSpillPath(level, "right");
+    spillPartitionNum++;
+    rightAppenders[partId] =
+        new RawFileAppender(context.getConf(), rightSchema, spiller.getSpillMeta(), rightPaths[partId]);
+    rightAppenders[partId].init();
+
+    int rowNum = 0;
+    Iterator<Map.Entry<Tuple, List<Tuple>>> it = tupleSlots.entryIterator();
+    while (it.hasNext()) {
+      Map.Entry<Tuple, List<Tuple>> entry = it.next();
+      if (getPartitionId(entry.getKey(), keyTupleIds) == partId) {
+        for (Tuple t : entry.getValue()) {
+          rightAppenders[partId].addTuple(t);
+          rowNum++;
+        }
+        it.remove();
+      }
+    }
+    long end = System.currentTimeMillis();
+
+    LOG.info("[" + context.getTaskId() + "] Hash join partition #" + partId + " at level " + level + " spilled ("
+        + FileUtil.humanReadableByteCount(partitionBytes[partId], false) + " estimated memory, "
+        + rowNum + " rows, " + (end - start) + " msec)");
+
+    memoryConsumption -= partitionBytes[partId];
+    partitionBytes[partId] = 0;
+    if (partitionRows != null) {
+      partitionRows[partId].release();
+    }
+    spilled[partId] = true;
+    anySpilled = true;
+  }
+
+  private void finishBuild() throws IOException {
+    for (RawFileAppender appender : rightAppenders) {
+      if (appender != null) {
+        appender.flush();
+      }
+    }
+  }
+
+  /**
+   * Returns the next probe tuple which can be joined with the in-memory hash table. Probe tuples belonging to
+   * spilled partitions are written to local files, and they will be joined in later rounds.
+   *
+   * @param leftChild the left child operator, which is only used in the first round
+   * @return the next probe tuple, or null if there is no more probe tuple in the current round.
+   */
+  public Tuple nextLeftTuple(PhysicalExec leftChild) throws IOException {
+    Tuple tuple;
+    while (true) {
+      if (leftFromChild) {
+        if (leftReader == null) {
+          leftReader = new BatchTupleReader(leftChild, true);
+        }
+        tuple = leftReader.next();
+      } else if (leftScanner != null) {
+        tuple = leftScanner.next();
+      } else {
+        tuple = null;
+      }
+
+      if (tuple == null) {
+        return null;
+      }
+
+      if (!anySpilled) {
+        return tuple;
+      }
+
+      int partId = getPartitionId(tuple, leftKeyList);
+      if (!spilled[partId]) {
+        return tuple;
+      }
+
+      if (leftAppenders[partId] == null) {
+        leftPaths[partId] = spiller.newSpillPath(level, "left");
+        leftAppenders[partId] =
+            new RawFileAppender(context.getConf(), leftSchema, spiller.getSpillMeta(), leftPaths[partId]);
+        leftAppenders[partId].init();
+      }
+      leftAppenders[partId].addTuple(tuple);
+    }
+  }
+
+  /**
+   * Finishes the current round, and loads the next spilled partition into the hash table.
+   *
+   * @return true if a spilled partition is loaded. false if there is no more spilled partition.
+   */
+  public boolean nextRound() throws IOException {
+    if (sharedCacheKey != null) {
+      return false;
+    }
+    finishRound();
+
+    if (!spiller.hasPendingPartition()) {
+      tupleSlots.clear();
+      releasePartitionRows();
+      return false;
+    }
+
+    currentPartition = spiller.nextPendingPartition();
+    Path rightPath = currentPartition.getPath(0);
+    Path leftPath = currentPartition.getPath(1);
+    LOG.info("[" + context.getTaskId() + "] Joining a spilled partition " + rightPath.getName()
+        + " at level " + currentPartition.getLevel());
+
+    initRound(currentPartition.getLevel());
+    RawFileScanner rightScanner = new RawFileScanner(context.getConf(), rightSchema, spiller.getSpillMeta(), rightPath);
+    try {
+      Tuple tuple;
+      while ((tuple = rightScanner.next()) != null) {
+        addBuildTuple(tuple);
+      }
+    } finally {
+      rightScanner.close();
+    }
+    finishBuild();
+
+    leftFromChild = false;
+    if (leftPath != null) {
+      leftScanner = new RawFileScanner(context.getConf(), leftSchema, spiller.getSpillMeta(), leftPath);
+    }
+    return true;
+  }
+
+  private void finishRound() throws IOException {
+    if (leftScanner != null) {
+      leftScanner.close();
+      leftScanner = null;
+    }
+    if (currentPartition != null) {
+      spiller.delete(currentPartition);
+      currentPartition = null;
+    }
+
+    List<SpilledPartition> spilledInThisRound = TUtil.newList();
+    for (int i = 0; i < spilled.length; i++) {
+      if (spilled[i]) {
+        rightAppenders[i].close();
+        rightAppenders[i] = null;
+        if (leftAppenders[i] != null) {
+          leftAppenders[i].close();
+          leftAppenders[i] = null;
+        }
+        // the right (build) file comes first, and the left (probe) file may be null.
+        spilledInThisRound.add(new SpilledPartition(level + 1, rightPaths[i], leftPaths[i]));
+        spilled[i] = false;
+      }
+    }
+    spiller.addPendingPartitions(spilledInThisRound);
+    anySpilled = false;
+  }
+
+  private void cleanup() throws IOException {
+    if (leftScanner != null) {
+      leftScanner.close();
+      leftScanner = null;
+    }
+    if (rightAppenders != null) {
+      for (int i = 0; i < rightAppenders.length; i++) {
+        if (rightAppenders[i] != null) {
+          rightAppenders[i].close();
+        }
+        if (leftAppenders[i] != null) {
+          leftAppenders[i].close();
+        }
+      }
+      rightAppenders = null;
+      leftAppenders = null;
+    }
+    spiller.cleanup();
+    releasePartitionRows();
+    currentPartition = null;
+    spillPartitionNum = 0;
+    tupleSlots.clear();
+    // the shared hash table is only released by TupleCache.
+    lookupSlots = tupleSlots;
+  }
+
+  public void close() throws IOException {
+    cleanup();
+  }
+}
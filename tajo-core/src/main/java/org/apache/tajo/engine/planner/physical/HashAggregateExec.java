@@ -18,67 +18,204 @@
 
 package org.apache.tajo.engine.planner.physical;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Iterators;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.engine.eval.AggregationFunctionCallEval;
 import org.apache.tajo.engine.function.FunctionContext;
 import org.apache.tajo.engine.planner.logical.GroupbyNode;
+import org.apache.tajo.engine.planner.physical.HashPartitionSpiller.SpilledPartition;
+import org.apache.tajo.engine.utils.TupleKeyHashMap;
+import org.apache.tajo.storage.MemoryUtil;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.util.FileUtil;
+import org.apache.tajo.util.TUtil;
 import org.apache.tajo.worker.TaskAttemptContext;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map;
+import java.util.*;
 import java.util.Map.Entry;
 
+import static org.apache.tajo.storage.RawFile.RawFileAppender;
+import static org.apache.tajo.storage.RawFile.RawFileScanner;
+
 /**
  * This is the hash-based GroupBy Operator.
+ *
+ * <p>Groups are distributed over a number of hash partitions. If the estimated memory consumption of all
+ * partitions exceeds the hash table buffer, the biggest partition is spilled into a local temporal file as
+ * pairs of a grouping key and partial aggregation results. After all input tuples are consumed, in-memory
+ * partitions are emitted directly, and each spilled partition is re-aggregated from its spilled file.
+ * This re-aggregation is performed recursively with a different hash seed if it exceeds the buffer again.</p>
+ *
+ * <p>Each partition is a {@link TupleKeyHashMap}, so that input tuples of existing groups are aggregated
+ * without building key tuples, and a single primitive grouping key is hashed without boxed datums.</p>
  */
 public class HashAggregateExec extends AggregationExec {
+  /** Class logger */
+  private static final Log LOG = LogFactory.getLog(HashAggregateExec.class);
+  /** the memory size of one function context */
+  private static final long FUNCTION_CONTEXT_OVERHEAD = 32;
+
   private Tuple tuple = null;
-  private Map<Tuple, FunctionContext[]> hashTable;
   private boolean computed = false;
   private Iterator<Entry<Tuple, FunctionContext []>> iterator = null;
 
+  /** It's the size of the hash table. If memory consumption exceeds it, some partitions are spilled. */
+  private long hashTableBufferBytesNum;
+  /** the number of partitions of each hash table */
+  private final int partitionNum;
+  /** whether this aggregation can spill its partial results or not */
+  private final boolean spillable;
+  /** the data types of grouping keys, which decide the hash map implementation */
+  private final Type [] groupingKeyTypes;
+  /** the ids of grouping keys in spilled tuples */
+  private final int [] spillKeyIds;
+  /** a reusable tuple for estimating the memory size of grouping keys */
+  private final Tuple keyBuffer;
+  /** the schema of spilled files, consisting of grouping keys and partial results */
+  private final Schema spillSchema;
+  /** spilled files and spilled partitions which are not re-aggregated yet */
+  private final HashPartitionSpiller spiller;
+
+  ///////////////////////////////////////////////////
+  // transient variables
+  ///////////////////////////////////////////////////
+  /** the hash table whose in-memory partitions are being emitted */
+  private PartitionedHashTable hashTable;
+  private final BatchTupleReader childReader;
+
   public HashAggregateExec(TaskAttemptContext ctx, GroupbyNode plan, PhysicalExec subOp) throws IOException {
     super(ctx, plan, subOp);
-    hashTable = new HashMap<Tuple, FunctionContext []>(100000);
     this.tuple = new VTuple(plan.getOutSchema().size());
+    this.childReader = new BatchTupleReader(subOp, true);
+
+    this.hashTableBufferBytesNum =
+        ctx.getConf().getLongVar(ConfVars.EXECUTOR_GROUPBY_HASH_SPILL_BUFFER_SIZE) * 1048576L;
+    this.partitionNum = Math.max(1, ctx.getConf().getIntVar(ConfVars.EXECUTOR_GROUPBY_HASH_SPILL_PARTITION_NUM));
+
+    boolean hasDistinct = false;
+    for (AggregationFunctionCallEval aggFunction : aggFunctions) {
+      hasDistinct |= aggFunction.isDistinct();
+    }
+    // distinct aggregations cannot be restored from their partial results, and
+    // an aggregation without grouping keys always has only one group.
+    this.spillable = ctx.getConf().getBoolVar(ConfVars.EXECUTOR_GROUPBY_HASH_SPILL_ENABLED)
+        && !hasDistinct && groupingKeyNum > 0;
+
+    groupingKeyTypes = TupleKeyHashMap.getKeyTypes(inSchema, groupingKeyIds);
+    spillKeyIds = new int[groupingKeyNum];
+    for (int i = 0; i < groupingKeyNum; i++) {
+      spillKeyIds[i] = i;
+    }
+    keyBuffer = new VTuple(groupingKeyNum);
+
+    spillSchema = new Schema();
+    for (int i = 0; i < groupingKeyNum; i++) {
+      spillSchema.addColumn("key_" + i, inSchema.getColumn(groupingKeyIds[i]).getDataType());
+    }
+    for (int i = 0; i < aggFunctionsNum; i++) {
+      spillSchema.addColumn("partial_" + i, aggFunctions[i].getPartialResultType());
+    }
+    this.spiller = new HashPartitionSpiller(ctx, getExecutorTmpDir());
+  }
+
+  @VisibleForTesting
+  public void setHashTableBufferBytesNum(long hashTableBufferBytesNum) {
+    this.hashTableBufferBytesNum = hashTableBufferBytesNum;
+  }
+
+  /**
+   * @return the number of spilled files which have been created since the last computation
+   */
+  @VisibleForTesting
+  public int getSpilledFileNum() {
+    return spiller.getSpillFileNum();
   }
 
   private void compute() throws IOException {
     Tuple tuple;
-    Tuple keyTuple;
-    while((tuple = child.next()) != null && !context.isStopped()) {
-      keyTuple = new VTuple(groupingKeyIds.length);
-      // build one key tuple
-      for(int i = 0; i < groupingKeyIds.length; i++) {
-        keyTuple.put(i, tuple.get(groupingKeyIds[i]));
-      }
-      
-      if(hashTable.containsKey(keyTuple)) {
-        FunctionContext [] contexts = hashTable.get(keyTuple);
+    PartitionedHashTable table = new PartitionedHashTable(0);
+    while((tuple = childReader.next()) != null && !context.isStopped()) {
+      FunctionContext [] contexts = table.get(tuple, groupingKeyIds);
+      if (contexts != null) {
         for(int i = 0; i < aggFunctions.length; i++) {
           aggFunctions[i].merge(contexts[i], inSchema, tuple);
         }
       } else { // if the key occurs firstly
-        FunctionContext contexts [] = new FunctionContext[aggFunctionsNum];
+        contexts = new FunctionContext[aggFunctionsNum];
         for(int i = 0; i < aggFunctionsNum; i++) {
           contexts[i] = aggFunctions[i].newContext();
           aggFunctions[i].merge(contexts[i], inSchema, tuple);
         }
-        hashTable.put(keyTuple, contexts);
+        table.put(tuple, groupingKeyIds, contexts);
       }
     }
+
+    finishHashTable(table);
+  }
+
+  /**
+   * Re-aggregates a spilled partition. Each spilled tuple consists of a grouping key and partial results.
+   */
+  private void computeSpilledPartition(SpilledPartition spilled) throws IOException {
+    Path path = spilled.getPath(0);
+    info(LOG, "Re-aggregating a spilled partition " + path.getName() + " at level " + spilled.getLevel());
+    PartitionedHashTable table = new PartitionedHashTable(spilled.getLevel());
+    RawFileScanner scanner = new RawFileScanner(context.getConf(), spillSchema, spiller.getSpillMeta(), path);
+    Tuple spilledTuple;
+    Tuple partial = new VTuple(1);
+    try {
+      while ((spilledTuple = scanner.next()) != null && !context.isStopped()) {
+        FunctionContext [] contexts = table.get(spilledTuple, spillKeyIds);
+        boolean newKey = contexts == null;
+        if (newKey) {
+          contexts = new FunctionContext[aggFunctionsNum];
+        }
+        for (int i = 0; i < aggFunctionsNum; i++) {
+          if (newKey) {
+            contexts[i] = aggFunctions[i].newContext();
+          }
+          partial.put(0, spilledTuple.get(groupingKeyNum + i));
+          aggFunctions[i].mergePartial(contexts[i], partial);
+        }
+        if (newKey) {
+          table.put(spilledTuple, spillKeyIds, contexts);
+        }
+      }
+    } finally {
+      scanner.close();
+    }
+
+    spiller.delete(spilled);
+
+    finishHashTable(table);
+  }
+
+  private void finishHashTable(PartitionedHashTable table) throws IOException {
+    spiller.addPendingPartitions(table.finish());
+    hashTable = table;
+    iterator = table.iterator();
   }
 
   @Override
   public Tuple next() throws IOException {
     if(!computed) {
       compute();
-      iterator = hashTable.entrySet().iterator();
       computed = true;
     }
 
+    // move to the next spilled partition if the current hash table is exhausted
+    while (!iterator.hasNext() && spiller.hasPendingPartition()) {
+      computeSpilledPartition(spiller.nextPendingPartition());
+    }
+
     FunctionContext [] contexts;
 
     if (iterator.hasNext()) {
@@ -101,15 +238,160 @@ public class HashAggregateExec extends AggregationExec {
   }
 
   @Override
-  public void rescan() throws IOException {    
-    iterator = hashTable.entrySet().iterator();
+  public void rescan() throws IOException {
+    if (computed && spiller.getSpillFileNum() == 0) {
+      iterator = hashTable.iterator();
+    } else {
+      // spilled partitions were consumed while emitting groups, so it aggregates all input tuples again.
+      spiller.cleanup();
+      hashTable = null;
+      iterator = null;
+      computed = false;
+      childReader.reset();
+      super.rescan();
+    }
   }
 
   @Override
   public void close() throws IOException {
     super.close();
-    hashTable.clear();
-    hashTable = null;
+    spiller.cleanup();
+    if (hashTable != null) {
+      hashTable.clear();
+      hashTable = null;
+    }
     iterator = null;
   }
+
+  /**
+   * A hash table which divides groups into a number of partitions by the hash value of grouping keys.
+   * Its partitions are spilled to local disks if the memory consumption exceeds the hash table buffer.
+   */
+  private class PartitionedHashTable {
+    private final int level;
+    private final boolean spillEnabled;
+    private final TupleKeyHashMap<FunctionContext []> [] partitions;
+    private final long [] partitionBytes;
+    private final RawFileAppender [] appenders;
+    private final Path [] spillPaths;
+    private final boolean [] spilled;
+    private long memoryConsumption = 0;
+
+    @SuppressWarnings("unchecked")
+    PartitionedHashTable(int level) {
+      this.level = level;
+      this.spillEnabled = spillable && HashPartitionSpiller.isSpillableLevel(level);
+      int num = spillEnabled ? partitionNum : 1;
+      partitions = new TupleKeyHashMap[num];
+      for (int i = 0; i < num; i++) {
+        partitions[i] = TupleKeyHashMap.create(groupingKeyTypes, 16);
+      }
+      partitionBytes = new long[num];
+      appenders = new RawFileAppender[num];
+      spillPaths = new Path[num];
+      spilled = new boolean[num];
+    }
+
+    private int getPartitionId(Tuple tuple, int [] keyIds) {
+      if (partitions.length == 1) {
+        return 0;
+      }
+      return HashPartitionSpiller.getPartitionId(partitions[0].hash(tuple, keyIds), level, partitions.length);
+    }
+
+    FunctionContext [] get(Tuple tuple, int [] keyIds) {
+      return partitions[getPartitionId(tuple, keyIds)].get(tuple, keyIds);
+    }
+
+    void put(Tuple tuple, int [] keyIds, FunctionContext [] contexts) throws IOException {
+      int partId = getPartitionId(tuple, keyIds);
+      partitions[partId].put(tuple, keyIds, contexts);
+
+      if (spillEnabled) {
+        for (int i = 0; i < keyIds.length; i++) {
+          keyBuffer.put(i, tuple.get(keyIds[i]));
+        }
+        long entryBytes = MemoryUtil.calculateMemorySize(keyBuffer) + HashPartitionSpiller.HASH_ENTRY_OVERHEAD +
+            FUNCTION_CONTEXT_OVERHEAD * aggFunctionsNum;
+        partitionBytes[partId] += entryBytes;
+        memoryConsumption += entryBytes;
+
+        while (memoryConsumption > hashTableBufferBytesNum) {
+          spill(HashPartitionSpiller.chooseVictim(partitionBytes, spilled));
+        }
+      }
+    }
+
+    private void spill(int partId) throws IOException {
+      if (appenders[partId] == null) {
+        spillPaths[partId] = spiller.newSpillPath(level, null);
+        appenders[partId] = new RawFileAppender(context.getConf(), spillSchema, spiller.getSpillMeta(),
+            spillPaths[partId]);
+        appenders[partId].init();
+        spilled[partId] = true;
+      }
+
+      long start = System.currentTimeMillis();
+      int rowNum = partitions[partId].size();
+      Tuple spillTuple = new VTuple(spillSchema.size());
+      Iterator<Entry<Tuple, FunctionContext []>> it = partitions[partId].entryIterator();
+      while (it.hasNext()) {
+        Entry<Tuple, FunctionContext []> entry = it.next();
+        Tuple keyTuple = entry.getKey();
+        FunctionContext [] contexts = entry.getValue();
+        int tupleIdx = 0;
+        for (; tupleIdx < groupingKeyNum; tupleIdx++) {
+          spillTuple.put(tupleIdx, keyTuple.get(tupleIdx));
+        }
+        for (int funcIdx = 0; funcIdx < aggFunctionsNum; funcIdx++, tupleIdx++) {
+          spillTuple.put(tupleIdx, aggFunctions[funcIdx].getPartialResult(contexts[funcIdx]));
+        }
+        appenders[partId].addTuple(spillTuple);
+      }
+      appenders[partId].flush();
+      long end = System.currentTimeMillis();
+
+      info(LOG, "Hash partition #" + partId + " at level " + level + " spilled ("
+          + FileUtil.humanReadableByteCount(partitionBytes[partId], false) + " estimated memory, "
+          + rowNum + " groups, " + (end - start) + " msec)");
+
+      partitions[partId] = TupleKeyHashMap.create(groupingKeyTypes, 16);
+      memoryConsumption -= partitionBytes[partId];
+      partitionBytes[partId] = 0;
+    }
+
+    /**
+     * Spills the remain groups of spilled partitions, and returns all spilled partitions.
+     */
+    List<SpilledPartition> finish() throws IOException {
+      List<SpilledPartition> spilledPartitions = TUtil.newList();
+      for (int i = 0; i < partitions.length; i++) {
+        if (appenders[i] != null) {
+          if (partitions[i].size() > 0) {
+            spill(i);
+          }
+          appenders[i].close();
+          appenders[i] = null;
+          spilledPartitions.add(new SpilledPartition(level + 1, spillPaths[i]));
+        }
+      }
+      return spilledPartitions;
+    }
+
+    Iterator<Entry<Tuple, FunctionContext []>> iterator() {
+      List<Iterator<Entry<Tuple, FunctionContext []>>> iterators = TUtil.newList();
+      for (int i = 0; i < partitions.length; i++) {
+        if (spillPaths[i] == null) {
+          iterators.add(partitions[i].entryIterator());
+        }
+      }
+      return Iterators.concat(iterators.iterator());
+    }
+
+    void clear() {
+      for (TupleKeyHashMap<FunctionContext []> partition : partitions) {
+        partition.clear();
+      }
+    }
+  }
 }
@@ -116,6 +116,7 @@ public class HashBasedColPartitionStoreExec extends ColPartitionStoreExec {
       app.flush();
       app.close();
       statSet.add(app.getStats());
+      context.addPartition(entry.getKey(), app.getStats());
     }
 
     // Collect and aggregated statistics data
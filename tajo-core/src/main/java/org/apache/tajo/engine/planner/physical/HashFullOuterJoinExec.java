@@ -19,6 +19,7 @@
 package org.apache.tajo.engine.planner.physical;
 
 import org.apache.tajo.catalog.Column;
+import org.apache.tajo.engine.codegen.CompiledEval;
 import org.apache.tajo.engine.eval.EvalNode;
 import org.apache.tajo.engine.planner.PlannerUtil;
 import org.apache.tajo.engine.planner.Projector;
@@ -38,6 +39,7 @@ public class HashFullOuterJoinExec extends BinaryPhysicalExec {
   // from logical plan
   protected JoinNode plan;
   protected EvalNode joinQual;
+  protected CompiledEval joinQualEval;
 
   protected List<Column[]> joinKeyPairs;
 
@@ -45,10 +47,11 @@ public class HashFullOuterJoinExec extends BinaryPhysicalExec {
   protected boolean first = true;
   protected FrameTuple frameTuple;
   protected Tuple outTuple = null;
-  protected Map<Tuple, List<Tuple>> tupleSlots;
+  // the build side hash table, which spills partitions if they do not fit in memory
+  protected GraceHashJoinTable graceTable;
   protected Iterator<Tuple> iterator = null;
+  private List<Tuple> currentBucket;
   protected Tuple leftTuple;
-  protected Tuple leftKeyTuple;
 
   protected int [] leftKeyList;
   protected int [] rightKeyList;
@@ -61,7 +64,11 @@ public class HashFullOuterJoinExec extends BinaryPhysicalExec {
 
   private int rightNumCols;
   private int leftNumCols;
-  private Map<Tuple, Boolean> matched;
+  // the buckets of the hash table which had at least one match on the left operand
+  private Set<List<Tuple>> matched;
+  // iterators for emitting unmatched right tuples
+  private Iterator<List<Tuple>> bucketIterator;
+  private Iterator<Tuple> unmatchedIterator;
 
   public HashFullOuterJoinExec(TaskAttemptContext context, JoinNode plan, PhysicalExec outer,
                                PhysicalExec inner) {
@@ -69,11 +76,9 @@ public class HashFullOuterJoinExec extends BinaryPhysicalExec {
         plan.getOutSchema(), outer, inner);
     this.plan = plan;
     this.joinQual = plan.getJoinQual();
-    this.tupleSlots = new HashMap<Tuple, List<Tuple>>(10000);
-
-    // this hashmap mirrors the evolution of the tupleSlots, with the same keys. For each join key,
-    // we have a boolean flag, initially false (whether this join key had at least one match on the left operand)
-    this.matched = new HashMap<Tuple, Boolean>(10000);
+    this.joinQualEval = compileEval(joinQual);
+    // buckets are compared by their identities because different buckets may have equal tuples.
+    this.matched = Collections.newSetFromMap(new IdentityHashMap<List<Tuple>, Boolean>(10000));
 
     // HashJoin only can manage equi join key pairs.
     this.joinKeyPairs = PlannerUtil.getJoinKeyPairs(joinQual, outer.getSchema(), inner.getSchema(),
@@ -91,43 +96,34 @@ public class HashFullOuterJoinExec extends BinaryPhysicalExec {
     }
 
     // for projection
-    this.projector = new Projector(inSchema, outSchema, plan.getTargets());
+    this.projector = new Projector(context, inSchema, outSchema, plan.getTargets());
 
     // for join
     frameTuple = new FrameTuple();
     outTuple = new VTuple(outSchema.size());
-    leftKeyTuple = new VTuple(leftKeyList.length);
 
     leftNumCols = outer.getSchema().size();
     rightNumCols = inner.getSchema().size();
-  }
 
-  protected void getKeyLeftTuple(final Tuple outerTuple, Tuple keyTuple) {
-    for (int i = 0; i < leftKeyList.length; i++) {
-      keyTuple.put(i, outerTuple.get(leftKeyList[i]));
-    }
+    graceTable = new GraceHashJoinTable(context, outer.getSchema(), inner.getSchema(), leftKeyList, rightKeyList,
+        getExecutorTmpDir());
   }
 
   public Tuple getNextUnmatchedRight() {
-
-    List<Tuple> newValue;
-    Tuple returnedTuple;
-    // get a keyTUple from the matched hashmap with a boolean false value
-    for(Tuple aKeyTuple : matched.keySet()) {
-      if(matched.get(aKeyTuple) == false) {
-        newValue = tupleSlots.get(aKeyTuple);
-        returnedTuple = newValue.remove(0);
-        tupleSlots.put(aKeyTuple, newValue);
-
-        // after taking the last element from the list in tupleSlots, set flag true in matched as well
-        if(newValue.isEmpty()){
-          matched.put(aKeyTuple, true);
-        }
-
-        return returnedTuple;
+    // get a next tuple from the buckets which do not have any match
+    while (unmatchedIterator == null || !unmatchedIterator.hasNext()) {
+      if (bucketIterator == null) {
+        bucketIterator = graceTable.bucketIterator();
+      }
+      if (!bucketIterator.hasNext()) {
+        return null;
+      }
+      List<Tuple> bucket = bucketIterator.next();
+      if (!matched.contains(bucket)) {
+        unmatchedIterator = bucket.iterator();
       }
     }
-    return null;
+    return unmatchedIterator.next();
   }
 
   public Tuple next() throws IOException {
@@ -141,13 +137,16 @@ public class HashFullOuterJoinExec extends BinaryPhysicalExec {
     while(!finished) {
       if (shouldGetLeftTuple) { // initially, it is true.
         // getting new outer
-        leftTuple = leftChild.next(); // it comes from a disk
-        if (leftTuple == null) { // if no more tuples in left tuples on disk, a join is completed.
+        leftTuple = graceTable.nextLeftTuple(leftChild); // it comes from a disk
+        if (leftTuple == null) { // if no more tuples in left tuples on disk, the current round is completed.
           // in this stage we can begin outputing tuples from the right operand (which were before in tupleSlots) null padded on the left side
           Tuple unmatchedRightTuple = getNextUnmatchedRight();
           if( unmatchedRightTuple == null) {
+            if (graceTable.nextRound()) { // join the next spilled partition
+              resetMatchedBuckets();
+              continue;
+            }
             finished = true;
-            outTuple = null;
             return null;
           } else {
             Tuple nullPaddedTuple = TupleUtil.createNullPaddedTuple(leftNumCols);
@@ -159,10 +158,9 @@ public class HashFullOuterJoinExec extends BinaryPhysicalExec {
         }
 
         // getting corresponding right
-        getKeyLeftTuple(leftTuple, leftKeyTuple); // get a left key tuple
-        List<Tuple> rightTuples = tupleSlots.get(leftKeyTuple);
-        if (rightTuples != null) { // found right tuples on in-memory hash table.
-          iterator = rightTuples.iterator();
+        currentBucket = graceTable.get(leftTuple);
+        if (currentBucket != null) { // found right tuples on in-memory hash table.
+          iterator = currentBucket.iterator();
           shouldGetLeftTuple = false;
         } else {
           //this left tuple doesn't have a match on the right.But full outer join => we should keep it anyway
@@ -180,11 +178,10 @@ public class HashFullOuterJoinExec extends BinaryPhysicalExec {
       rightTuple = iterator.next();
       frameTuple.set(leftTuple, rightTuple); // evaluate a join condition on both tuples
 
-      if (joinQual.eval(inSchema, frameTuple).isTrue()) { // if both tuples are joinable
+      if (joinQualEval.isTrue(frameTuple)) { // if both tuples are joinable
         projector.eval(frameTuple, outTuple);
         found = true;
-        getKeyLeftTuple(leftTuple, leftKeyTuple);
-        matched.put(leftKeyTuple, true);
+        matched.add(currentBucket);
       }
 
       if (!iterator.hasNext()) { // no more right tuples for this hash key
@@ -199,33 +196,24 @@ public class HashFullOuterJoinExec extends BinaryPhysicalExec {
   }
 
   protected void loadRightToHashTable() throws IOException {
-    Tuple tuple;
-    Tuple keyTuple;
-
-    while ((tuple = rightChild.next()) != null) {
-      keyTuple = new VTuple(joinKeyPairs.size());
-      for (int i = 0; i < rightKeyList.length; i++) {
-        keyTuple.put(i, tuple.get(rightKeyList[i]));
-      }
-
-      List<Tuple> newValue = tupleSlots.get(keyTuple);
-      if (newValue != null) {
-        newValue.add(tuple);
-      } else {
-        newValue = new ArrayList<Tuple>();
-        newValue.add(tuple);
-        tupleSlots.put(keyTuple, newValue);
-        matched.put(keyTuple,false);
-      }
-    }
+    graceTable.build(rightChild);
+    resetMatchedBuckets();
     first = false;
   }
 
+  /**
+   * Marks all buckets in the hash table as unmatched. It is called whenever a new partition is loaded.
+   */
+  private void resetMatchedBuckets() {
+    matched.clear();
+    bucketIterator = null;
+    unmatchedIterator = null;
+  }
+
   @Override
   public void rescan() throws IOException {
     super.rescan();
 
-    tupleSlots.clear();
     first = true;
 
     finished = false;
@@ -236,13 +224,19 @@ public class HashFullOuterJoinExec extends BinaryPhysicalExec {
   @Override
   public void close() throws IOException {
     super.close();
-    tupleSlots.clear();
+    if (graceTable != null) {
+      graceTable.close();
+      graceTable = null;
+    }
     matched.clear();
-    tupleSlots = null;
     matched = null;
     iterator = null;
+    bucketIterator = null;
+    unmatchedIterator = null;
+    currentBucket = null;
     plan = null;
     joinQual = null;
+    joinQualEval = null;
   }
 
   public JoinNode getPlan() {
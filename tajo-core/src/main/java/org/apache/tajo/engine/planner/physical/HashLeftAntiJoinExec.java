@@ -67,15 +67,17 @@ public class HashLeftAntiJoinExec extends HashJoinExec {
     while(!finished) {
 
       // getting new outer
-      leftTuple = leftChild.next(); // it comes from a disk
-      if (leftTuple == null) { // if no more tuples in left tuples on disk, a join is completed.
+      leftTuple = graceTable.nextLeftTuple(leftChild); // it comes from a disk
+      if (leftTuple == null) { // if no more tuples in left tuples on disk, the current round is completed.
+        if (graceTable.nextRound()) { // join the next spilled partition
+          continue;
+        }
         finished = true;
         return null;
       }
 
       // Try to find a hash bucket in in-memory hash table
-      getKeyLeftTuple(leftTuple, leftKeyTuple);
-      List<Tuple> rightTuples = tupleSlots.get(leftKeyTuple);
+      List<Tuple> rightTuples = graceTable.get(leftTuple);
       if (rightTuples != null) {
         // if found, it gets a hash bucket from the hash table.
         iterator = rightTuples.iterator();
@@ -92,7 +94,7 @@ public class HashLeftAntiJoinExec extends HashJoinExec {
       while (notFound && iterator.hasNext()) {
         rightTuple = iterator.next();
         frameTuple.set(leftTuple, rightTuple);
-        if (joinQual.eval(inSchema, frameTuple).isTrue()) { // if the matched one is found
+        if (joinQualEval.isTrue(frameTuple)) { // if the matched one is found
           notFound = false;
         }
       }
@@ -21,6 +21,7 @@ package org.apache.tajo.engine.planner.physical;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.tajo.catalog.Column;
+import org.apache.tajo.engine.codegen.CompiledEval;
 import org.apache.tajo.engine.eval.EvalNode;
 import org.apache.tajo.engine.planner.PlannerUtil;
 import org.apache.tajo.engine.planner.Projector;
@@ -40,6 +41,7 @@ public class HashLeftOuterJoinExec extends BinaryPhysicalExec {
   // from logical plan
   protected JoinNode plan;
   protected EvalNode joinQual;
+  protected CompiledEval joinQualEval;
 
   protected List<Column[]> joinKeyPairs;
 
@@ -47,10 +49,10 @@ public class HashLeftOuterJoinExec extends BinaryPhysicalExec {
   protected boolean first = true;
   protected FrameTuple frameTuple;
   protected Tuple outTuple = null;
-  protected Map<Tuple, List<Tuple>> tupleSlots;
+  // the build side hash table, which spills partitions if they do not fit in memory
+  protected GraceHashJoinTable graceTable;
   protected Iterator<Tuple> iterator = null;
   protected Tuple leftTuple;
-  protected Tuple leftKeyTuple;
 
   protected int [] leftKeyList;
   protected int [] rightKeyList;
@@ -70,8 +72,7 @@ public class HashLeftOuterJoinExec extends BinaryPhysicalExec {
         plan.getOutSchema(), leftChild, rightChild);
     this.plan = plan;
     this.joinQual = plan.getJoinQual();
-    this.tupleSlots = new HashMap<Tuple, List<Tuple>>(10000);
-
+    this.joinQualEval = compileEval(joinQual);
     // HashJoin only can manage equi join key pairs.
     this.joinKeyPairs = PlannerUtil.getJoinKeyPairs(joinQual, leftChild.getSchema(),
         rightChild.getSchema(), false);
@@ -88,20 +89,17 @@ public class HashLeftOuterJoinExec extends BinaryPhysicalExec {
     }
 
     // for projection
-    this.projector = new Projector(inSchema, outSchema, plan.getTargets());
+    this.projector = new Projector(context, inSchema, outSchema, plan.getTargets());
 
     // for join
     frameTuple = new FrameTuple();
     outTuple = new VTuple(outSchema.size());
-    leftKeyTuple = new VTuple(leftKeyList.length);
 
     rightNumCols = rightChild.getSchema().size();
-  }
 
-  protected void getKeyLeftTuple(final Tuple outerTuple, Tuple keyTuple) {
-    for (int i = 0; i < leftKeyList.length; i++) {
-      keyTuple.put(i, outerTuple.get(leftKeyList[i]));
-    }
+    graceTable = new GraceHashJoinTable(context, leftChild.getSchema(), rightChild.getSchema(),
+        leftKeyList, rightKeyList, getExecutorTmpDir());
+    graceTable.shareBroadcastTable(rightChild);
   }
 
   public Tuple next() throws IOException {
@@ -116,15 +114,17 @@ public class HashLeftOuterJoinExec extends BinaryPhysicalExec {
 
       if (shouldGetLeftTuple) { // initially, it is true.
         // getting new outer
-        leftTuple = leftChild.next(); // it comes from a disk
-        if (leftTuple == null) { // if no more tuples in left tuples on disk, a join is completed.
+        leftTuple = graceTable.nextLeftTuple(leftChild); // it comes from a disk
+        if (leftTuple == null) { // if no more tuples in left tuples on disk, the current round is completed.
+          if (graceTable.nextRound()) { // join the next spilled partition
+            continue;
+          }
           finished = true;
           return null;
         }
 
         // getting corresponding right
-        getKeyLeftTuple(leftTuple, leftKeyTuple); // get a left key tuple
-        List<Tuple> rightTuples = tupleSlots.get(leftKeyTuple);
+        List<Tuple> rightTuples = graceTable.get(leftTuple);
         if (rightTuples != null) { // found right tuples on in-memory hash table.
           iterator = rightTuples.iterator();
           shouldGetLeftTuple = false;
@@ -142,7 +142,7 @@ public class HashLeftOuterJoinExec extends BinaryPhysicalExec {
       // getting a next right tuple on in-memory hash table.
       rightTuple = iterator.next();
       frameTuple.set(leftTuple, rightTuple); // evaluate a join condition on both tuples
-      if (joinQual.eval(inSchema, frameTuple).isTrue()) { // if both tuples are joinable
+      if (joinQualEval.isTrue(frameTuple)) { // if both tuples are joinable
         projector.eval(frameTuple, outTuple);
         found = true;
       }
@@ -160,24 +160,7 @@ public class HashLeftOuterJoinExec extends BinaryPhysicalExec {
   }
 
   protected void loadRightToHashTable() throws IOException {
-    Tuple tuple;
-    Tuple keyTuple;
-
-    while ((tuple = rightChild.next()) != null) {
-      keyTuple = new VTuple(joinKeyPairs.size());
-      for (int i = 0; i < rightKeyList.length; i++) {
-        keyTuple.put(i, tuple.get(rightKeyList[i]));
-      }
-
-      List<Tuple> newValue = tupleSlots.get(keyTuple);
-      if (newValue != null) {
-        newValue.add(tuple);
-      } else {
-        newValue = new ArrayList<Tuple>();
-        newValue.add(tuple);
-        tupleSlots.put(keyTuple, newValue);
-      }
-    }
+    graceTable.build(rightChild);
     first = false;
   }
 
@@ -185,7 +168,6 @@ public class HashLeftOuterJoinExec extends BinaryPhysicalExec {
   public void rescan() throws IOException {
     super.rescan();
 
-    tupleSlots.clear();
     first = true;
 
     finished = false;
@@ -197,11 +179,14 @@ public class HashLeftOuterJoinExec extends BinaryPhysicalExec {
   @Override
   public void close() throws IOException {
     super.close();
-    tupleSlots.clear();
-    tupleSlots = null;
+    if (graceTable != null) {
+      graceTable.close();
+      graceTable = null;
+    }
     iterator = null;
     plan = null;
     joinQual = null;
+    joinQualEval = null;
     projector = null;
   }
 
@@ -0,0 +1,204 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.hadoop.fs.LocalDirAllocator;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RawLocalFileSystem;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.util.TUtil;
+import org.apache.tajo.worker.TaskAttemptContext;
+
+import java.io.IOException;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * The spill machinery shared by hash-partitioned operators, such as {@link HashAggregateExec} and
+ * {@link GraceHashJoinTable}.
+ *
+ * <p>An operator divides its hash table into a number of partitions, and it spills a victim partition into a local
+ * file when the memory consumption exceeds its buffer. A spilled partition is processed later in a round of the
+ * next level, where keys are distributed with a different hash seed. This class decides partition ids and victims,
+ * and it keeps spilled files and spilled partitions which are not processed yet.</p>
+ */
+public class HashPartitionSpiller {
+  /** the rough memory size of one hash entry except for its key and value */
+  public static final long HASH_ENTRY_OVERHEAD = 64;
+  /** a spilled partition is not partitioned again beyond this level */
+  public static final int MAX_SPILL_LEVEL = 8;
+
+  private final TaskAttemptContext context;
+  private final TableMeta spillMeta = CatalogUtil.newTableMeta(StoreType.RAW);
+  /** temporal dir */
+  private final Path spillTmpDir;
+  /** It enables round-robin disks allocation */
+  private final LocalDirAllocator localDirAllocator;
+  /** local file system */
+  private final RawLocalFileSystem localFS;
+
+  /** spilled partitions which are not processed yet */
+  private final LinkedList<SpilledPartition> pendingPartitions = new LinkedList<SpilledPartition>();
+  /** all spilled files which are used for cleaning */
+  private final List<Path> spilledFiles = TUtil.newList();
+  private int spillFileSeq = 0;
+
+  /**
+   * @param spillTmpDir the temporal dir of the operator, which is given by {@link PhysicalExec#getExecutorTmpDir()}
+   */
+  public HashPartitionSpiller(TaskAttemptContext context, Path spillTmpDir) {
+    this.context = context;
+    this.spillTmpDir = spillTmpDir;
+    this.localDirAllocator = new LocalDirAllocator(ConfVars.WORKER_TEMPORAL_DIR.varname);
+    this.localFS = new RawLocalFileSystem();
+  }
+
+  /**
+   * @return True if the partitions of a hash table at the given level can be spilled
+   */
+  public static boolean isSpillableLevel(int level) {
+    return level < MAX_SPILL_LEVEL;
+  }
+
+  /**
+   * It mixes the hash code with the level so that each level distributes keys differently.
+   */
+  public static int getPartitionId(int hash, int level, int partitionNum) {
+    if (partitionNum == 1) {
+      return 0;
+    }
+    int h = hash ^ (level * 0x9E3779B9);
+    h ^= (h >>> 16);
+    h *= 0x85EBCA6B;
+    h ^= (h >>> 13);
+    return (h & Integer.MAX_VALUE) % partitionNum;
+  }
+
+  /**
+   * It prefers a partition which has been already spilled because its entries will be processed again anyway.
+   * Otherwise, it chooses the biggest partition in order to free as much memory as possible.
+   *
+   * @param partitionBytes the memory consumption of each partition
+   * @param spilled whether each partition has been spilled or not
+   * @return the victim partition, or -1 if all partitions are empty
+   */
+  public static int chooseVictim(long [] partitionBytes, boolean [] spilled) {
+    int victim = -1;
+    for (int i = 0; i < partitionBytes.length; i++) {
+      if (partitionBytes[i] == 0) {
+        continue;
+      }
+      if (victim < 0
+          || (spilled[i] && !spilled[victim])
+          || (spilled[i] == spilled[victim] && partitionBytes[i] > partitionBytes[victim])) {
+        victim = i;
+      }
+    }
+    return victim;
+  }
+
+  public TableMeta getSpillMeta() {
+    return spillMeta;
+  }
+
+  /**
+   * @return a new local file for a partition spilled at the given level
+   */
+  public Path newSpillPath(int level, String suffix) throws IOException {
+    Path path = localDirAllocator.getLocalPathForWrite(
+        spillTmpDir + "/" + level + "_" + (spillFileSeq++) + (suffix != null ? "_" + suffix : ""),
+        context.getConf());
+    spilledFiles.add(path);
+    return path;
+  }
+
+  /**
+   * @return the number of spilled files which have been created since the last cleanup
+   */
+  public int getSpillFileNum() {
+    return spillFileSeq;
+  }
+
+  /**
+   * Adds the partitions spilled in a round. They are processed before the partitions spilled earlier, in order to
+   * release disk space as soon as possible.
+   */
+  public void addPendingPartitions(List<SpilledPartition> partitions) {
+    pendingPartitions.addAll(0, partitions);
+  }
+
+  public boolean hasPendingPartition() {
+    return !pendingPartitions.isEmpty();
+  }
+
+  public SpilledPartition nextPendingPartition() {
+    return pendingPartitions.removeFirst();
+  }
+
+  /**
+   * Deletes the files of a partition which has been processed.
+   */
+  public void delete(SpilledPartition partition) throws IOException {
+    for (Path path : partition.paths) {
+      if (path != null) {
+        localFS.delete(path, true);
+        spilledFiles.remove(path);
+      }
+    }
+  }
+
+  /**
+   * Deletes all spilled files, and forgets all pending partitions.
+   */
+  public void cleanup() throws IOException {
+    for (Path path : spilledFiles) {
+      localFS.delete(path, true);
+    }
+    spilledFiles.clear();
+    pendingPartitions.clear();
+    spillFileSeq = 0;
+  }
+
+  /**
+   * The spilled files of a partition and the level of the hash table which will process them.
+   */
+  public static class SpilledPartition {
+    private final Path [] paths;
+    private final int level;
+
+    /**
+     * @param paths the files of a partition. A file may be null if nothing is written to it.
+     */
+    public SpilledPartition(int level, Path ... paths) {
+      this.level = level;
+      this.paths = paths;
+    }
+
+    public int getLevel() {
+      return level;
+    }
+
+    public Path getPath(int idx) {
+      return paths[idx];
+    }
+  }
+}
@@ -28,21 +28,35 @@ import org.apache.hadoop.fs.RawLocalFileSystem;
 import org.apache.tajo.catalog.CatalogUtil;
 import org.apache.tajo.catalog.Column;
 import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
 import org.apache.tajo.catalog.statistics.StatisticsUtil;
 import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.engine.planner.enforce.Enforcer;
 import org.apache.tajo.engine.planner.logical.ShuffleFileWriteNode;
+import org.apache.tajo.engine.utils.RuntimeFilter;
 import org.apache.tajo.storage.*;
 import org.apache.tajo.worker.TaskAttemptContext;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import static org.apache.tajo.ipc.TajoWorkerProtocol.EnforceProperty.EnforceType;
+import static org.apache.tajo.ipc.TajoWorkerProtocol.RuntimeFilterBuildEnforce;
+
 /**
  * <code>HashShuffleFileWriteExec</code> is a physical executor to store intermediate data into a number of
  * file outputs associated with shuffle keys. The file outputs are stored on local disks.
+ *
+ * If the shuffle file format is RAW, whose files can be concatenated, all partitions are consolidated into
+ * a single data file with {@link HashShuffleIndex}. Tuples are buffered in memory with their partition ids.
+ * Whenever the buffer is full, the buffered tuples are grouped by partition ids with a counting sort and are
+ * appended to the data file, so each flush adds at most one segment per partition. Otherwise, one file is
+ * written for each partition.
  */
 public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
   private static Log LOG = LogFactory.getLog(HashShuffleFileWriteExec.class);
@@ -53,6 +67,18 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
   private Map<Integer, Appender> appenderMap = new HashMap<Integer, Appender>();
   private final int numShuffleOutputs;
   private final int [] shuffleKeyIds;
+
+  // for the consolidated output
+  private final boolean consolidated;
+  private final long bufferBytesNum;
+  private List<Tuple> tupleBuffer;
+  private int [] bufferedPartIds;
+  private Appender dataAppender;
+  private HashShuffleIndex index;
+
+  // for the build side of a join filtered by a runtime filter
+  private RuntimeFilter runtimeFilter;
+  private final long maxRuntimeFilterKeys;
   
   public HashShuffleFileWriteExec(TaskAttemptContext context, final AbstractStorageManager sm,
                                   final ShuffleFileWriteNode plan, final PhysicalExec child) throws IOException {
@@ -74,6 +100,18 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
     }
     this.partitioner = new HashPartitioner(shuffleKeyIds, numShuffleOutputs);
     storeTablePath = new Path(context.getWorkDir(), "output");
+
+    this.consolidated = plan.getStorageType() == StoreType.RAW &&
+        context.getConf().getBoolVar(ConfVars.SHUFFLE_HASH_CONSOLIDATED_ENABLED);
+    this.bufferBytesNum = context.getConf().getLongVar(ConfVars.SHUFFLE_HASH_CONSOLIDATED_BUFFER_SIZE) * 1048576L;
+
+    Enforcer enforcer = context.getEnforcer();
+    if (enforcer != null && enforcer.hasEnforceProperty(EnforceType.RUNTIME_FILTER_BUILD)) {
+      RuntimeFilterBuildEnforce enforce =
+          enforcer.getEnforceProperties(EnforceType.RUNTIME_FILTER_BUILD).get(0).getRuntimeFilterBuild();
+      this.runtimeFilter = new RuntimeFilter(enforce.getNumBits());
+    }
+    this.maxRuntimeFilterKeys = context.getConf().getLongVar(ConfVars.DIST_QUERY_JOIN_RUNTIME_FILTER_MAX_KEYS);
   }
 
   @Override
@@ -81,6 +119,16 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
     super.init();
     FileSystem fs = new RawLocalFileSystem();
     fs.mkdirs(storeTablePath);
+
+    if (consolidated) {
+      if (PhysicalPlanUtil.useCompactTuple(context.getConf(), outSchema)) {
+        tupleBuffer = new BinaryTupleList(outSchema);
+      } else {
+        tupleBuffer = new ArrayList<Tuple>();
+      }
+      bufferedPartIds = new int[1024];
+      index = new HashShuffleIndex();
+    }
   }
   
   private Appender getAppender(int partId) throws IOException {
@@ -111,6 +159,10 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
 
   @Override
   public Tuple next() throws IOException {
+    if (consolidated) {
+      return writeConsolidatedOutput();
+    }
+
     Tuple tuple;
     Appender appender;
     int partId;
@@ -118,7 +170,9 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
       partId = partitioner.getPartition(tuple);
       appender = getAppender(partId);
       appender.addTuple(tuple);
+      addToRuntimeFilter(tuple);
     }
+    setRuntimeFilter();
     
     List<TableStats> statSet = new ArrayList<TableStats>();
     for (Map.Entry<Integer, Appender> entry : appenderMap.entrySet()) {
@@ -126,9 +180,10 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
       Appender app = entry.getValue();
       app.flush();
       app.close();
+      addCompressionStats(app);
       statSet.add(app.getStats());
       if (app.getStats().getNumRows() > 0) {
-        context.addShuffleFileOutput(partNum, getDataFile(partNum).getName());
+        context.addShuffleFileOutput(partNum, getDataFile(partNum).getName(), app.getStats().getNumBytes());
       }
     }
     
@@ -139,6 +194,142 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
     return null;
   }
 
+  private Tuple writeConsolidatedOutput() throws IOException {
+    Tuple tuple;
+    long memoryConsumption = 0;
+    while ((tuple = child.next()) != null) {
+      int partId = partitioner.getPartition(tuple);
+      if (tupleBuffer.size() == bufferedPartIds.length) {
+        int [] newPartIds = new int[bufferedPartIds.length * 2];
+        System.arraycopy(bufferedPartIds, 0, newPartIds, 0, bufferedPartIds.length);
+        bufferedPartIds = newPartIds;
+      }
+      bufferedPartIds[tupleBuffer.size()] = partId;
+      memoryConsumption += addToTupleBuffer(tuple);
+      addToRuntimeFilter(tuple);
+
+      if (memoryConsumption > bufferBytesNum) {
+        flushTupleBuffer();
+        memoryConsumption = 0;
+      }
+    }
+    flushTupleBuffer();
+    setRuntimeFilter();
+
+    List<TableStats> statSet = new ArrayList<TableStats>();
+    if (dataAppender != null) {
+      dataAppender.close();
+      addCompressionStats(dataAppender);
+      statSet.add(dataAppender.getStats());
+      index.write(toLocalFile(StorageUtil.concatPath(storeTablePath, HashShuffleIndex.INDEX_FILE_NAME)));
+
+      for (int partId : index.getPartitionIds()) {
+        long volume = 0;
+        for (HashShuffleIndex.Segment segment : index.getSegments(partId)) {
+          volume += segment.getLength();
+        }
+        context.addShuffleFileOutput(partId, HashShuffleIndex.DATA_FILE_NAME, volume);
+      }
+      LOG.info("Consolidated hash shuffle output: " + index.getSegmentNum() + " segments of "
+          + numShuffleOutputs + " partitions");
+    }
+
+    // Collect and aggregated statistics data
+    TableStats aggregated = StatisticsUtil.aggregateTableStat(statSet);
+    context.setResultStats(aggregated);
+
+    return null;
+  }
+
+  private void addToRuntimeFilter(Tuple tuple) {
+    if (runtimeFilter != null) {
+      runtimeFilter.add(tuple, shuffleKeyIds);
+      if (runtimeFilter.getNumKeys() > maxRuntimeFilterKeys) {
+        LOG.info("Runtime filter is not built because the number of keys exceeds " + maxRuntimeFilterKeys);
+        runtimeFilter = null;
+      }
+    }
+  }
+
+  private void setRuntimeFilter() {
+    if (runtimeFilter != null) {
+      LOG.info("Runtime filter is built: " + runtimeFilter);
+      context.setRuntimeFilter(runtimeFilter);
+    }
+  }
+
+  private long addToTupleBuffer(Tuple tuple) {
+    if (tupleBuffer instanceof BinaryTupleList) {
+      return ((BinaryTupleList) tupleBuffer).addTuple(tuple);
+    } else {
+      Tuple copy = new VTuple(tuple);
+      tupleBuffer.add(copy);
+      return MemoryUtil.calculateMemorySize(copy);
+    }
+  }
+
+  /**
+   * Appends all buffered tuples to the data file in the order of partition ids, and then it clears the buffer.
+   */
+  private void flushTupleBuffer() throws IOException {
+    int tupleNum = tupleBuffer.size();
+    if (tupleNum == 0) {
+      return;
+    }
+
+    if (dataAppender == null) {
+      Path dataFile = StorageUtil.concatPath(storeTablePath, HashShuffleIndex.DATA_FILE_NAME);
+      dataAppender = StorageManagerFactory.getStorageManager(context.getConf()).getAppender(meta, outSchema, dataFile);
+      dataAppender.enableStats();
+      dataAppender.init();
+    }
+
+    // counting sort by partition ids
+    int [] partStarts = new int[numShuffleOutputs + 1];
+    for (int i = 0; i < tupleNum; i++) {
+      partStarts[bufferedPartIds[i] + 1]++;
+    }
+    for (int i = 0; i < numShuffleOutputs; i++) {
+      partStarts[i + 1] += partStarts[i];
+    }
+    int [] order = new int[tupleNum];
+    int [] positions = new int[numShuffleOutputs];
+    System.arraycopy(partStarts, 0, positions, 0, numShuffleOutputs);
+    for (int i = 0; i < tupleNum; i++) {
+      order[positions[bufferedPartIds[i]]++] = i;
+    }
+
+    for (int partId = 0; partId < numShuffleOutputs; partId++) {
+      if (partStarts[partId] == partStarts[partId + 1]) {
+        continue;
+      }
+      long offset = dataAppender.getOffset();
+      for (int i = partStarts[partId]; i < partStarts[partId + 1]; i++) {
+        dataAppender.addTuple(tupleBuffer.get(order[i]));
+      }
+      // a segment should end at a block boundary if the data file is compressed.
+      dataAppender.flush();
+      index.addSegment(partId, offset, dataAppender.getOffset() - offset);
+    }
+
+    tupleBuffer.clear();
+  }
+
+  private void addCompressionStats(Appender appender) {
+    if (appender instanceof RawFile.RawFileAppender && ((RawFile.RawFileAppender) appender).isCompressed()) {
+      RawFile.RawFileAppender rawFileAppender = (RawFile.RawFileAppender) appender;
+      context.addCompressionStats(rawFileAppender.getUncompressedBytes(), rawFileAppender.getOffset());
+    }
+  }
+
+  private static File toLocalFile(Path path) {
+    if (path.toUri().getScheme() != null) {
+      return new File(path.toUri());
+    } else {
+      return new File(path.toString());
+    }
+  }
+
   @Override
   public void rescan() throws IOException {
     // nothing to do   
@@ -152,9 +343,18 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
       appenderMap = null;
     }
 
+    if (tupleBuffer instanceof BinaryTupleList) {
+      ((BinaryTupleList) tupleBuffer).release();
+    }
+    tupleBuffer = null;
+    bufferedPartIds = null;
+    dataAppender = null;
+    index = null;
+
     partitioner = null;
     plan = null;
+    runtimeFilter = null;
 
     progress = 1.0f;
   }
-}
\ No newline at end of file
+}
@@ -18,6 +18,7 @@
 
 package org.apache.tajo.engine.planner.physical;
 
+import org.apache.tajo.engine.codegen.CompiledEval;
 import org.apache.tajo.engine.eval.EvalNode;
 import org.apache.tajo.engine.planner.logical.HavingNode;
 import org.apache.tajo.storage.Tuple;
@@ -27,6 +28,7 @@ import java.io.IOException;
 
 public class HavingExec extends UnaryPhysicalExec  {
   private final EvalNode qual;
+  private final CompiledEval qualEval;
 
   public HavingExec(TaskAttemptContext context,
                     HavingNode plan,
@@ -34,13 +36,14 @@ public class HavingExec extends UnaryPhysicalExec  {
     super(context, plan.getInSchema(), plan.getOutSchema(), child);
 
     this.qual = plan.getQual();
+    this.qualEval = compileEval(qual);
   }
 
   @Override
   public Tuple next() throws IOException {
     Tuple tuple;
     while ((tuple = child.next()) != null) {
-      if (qual.eval(inSchema, tuple).isTrue()) {
+      if (qualEval.isTrue(tuple)) {
         return tuple;
       }
     }
@@ -21,11 +21,8 @@ package org.apache.tajo.engine.planner.physical;
 import org.apache.tajo.worker.TaskAttemptContext;
 import org.apache.tajo.engine.planner.logical.SortNode;
 import org.apache.tajo.storage.Tuple;
-import org.apache.tajo.storage.VTuple;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -43,7 +40,7 @@ public class MemSortExec extends SortExec {
 
   public void init() throws IOException {
     super.init();
-    this.tupleSlots = new ArrayList<Tuple>(1000);
+    this.tupleSlots = createTupleBuffer();
   }
 
   @Override
@@ -52,10 +49,10 @@ public class MemSortExec extends SortExec {
     if (!sorted) {
       Tuple tuple;
       while ((tuple = child.next()) != null) {
-        tupleSlots.add(new VTuple(tuple));
+        addToTupleBuffer(tupleSlots, tuple);
       }
       
-      Collections.sort(tupleSlots, getComparator());
+      sortTuples(tupleSlots);
       this.iterator = tupleSlots.iterator();
       sorted = true;
     }
@@ -20,11 +20,15 @@ package org.apache.tajo.engine.planner.physical;
 
 import com.google.common.base.Preconditions;
 import org.apache.tajo.catalog.SortSpec;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.engine.codegen.CompiledEval;
 import org.apache.tajo.engine.eval.EvalNode;
 import org.apache.tajo.engine.planner.PlannerUtil;
 import org.apache.tajo.engine.planner.Projector;
 import org.apache.tajo.engine.planner.logical.JoinNode;
 import org.apache.tajo.storage.FrameTuple;
+import org.apache.tajo.storage.NormalizedKey;
+import org.apache.tajo.storage.NormalizedKeyEncoder;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.TupleComparator;
 import org.apache.tajo.storage.VTuple;
@@ -39,6 +43,7 @@ public class MergeJoinExec extends BinaryPhysicalExec {
   // from logical plan
   private JoinNode joinNode;
   private EvalNode joinQual;
+  private CompiledEval joinQualEval;
 
   // temporal tuples and states for nested loop join
   private FrameTuple frameTuple;
@@ -55,6 +60,12 @@ public class MergeJoinExec extends BinaryPhysicalExec {
   private JoinTupleComparator joincomparator = null;
   private TupleComparator[] tupleComparator = null;
 
+  // normalized join keys. Encoders are null if normalized keys cannot be used.
+  private NormalizedKeyEncoder outerKeyEncoder = null;
+  private NormalizedKeyEncoder innerKeyEncoder = null;
+  private NormalizedKey outerKey = null;
+  private NormalizedKey innerKey = null;
+
   private final static int INITIAL_TUPLE_SLOT = 10000;
 
   private boolean end = false;
@@ -69,6 +80,7 @@ public class MergeJoinExec extends BinaryPhysicalExec {
         "but there is no join condition");
     this.joinNode = plan;
     this.joinQual = plan.getJoinQual();
+    this.joinQualEval = compileEval(joinQual);
 
     this.outerTupleSlots = new ArrayList<Tuple>(INITIAL_TUPLE_SLOT);
     this.innerTupleSlots = new ArrayList<Tuple>(INITIAL_TUPLE_SLOT);
@@ -80,17 +92,68 @@ public class MergeJoinExec extends BinaryPhysicalExec {
         inner.getSchema(), sortSpecs);
     this.tupleComparator = PlannerUtil.getComparatorsFromJoinQual(
         plan.getJoinQual(), outer.getSchema(), inner.getSchema());
+    if (context.getConf().getBoolVar(ConfVars.EXECUTOR_SORT_NORMALIZED_KEY_ENABLED)) {
+      initKeyEncoders(outer, inner, outerSortKey, innerSortKey);
+    }
     this.outerIterator = outerTupleSlots.iterator();
     this.innerIterator = innerTupleSlots.iterator();
     
     // for projection
-    this.projector = new Projector(inSchema, outSchema, plan.getTargets());
+    this.projector = new Projector(context, inSchema, outSchema, plan.getTargets());
 
     // for join
     frameTuple = new FrameTuple();
     outTuple = new VTuple(outSchema.size());
   }
 
+  /**
+   * {@link JoinTupleComparator} compares join keys in ascending order with nulls last. Normalized keys are encoded
+   * in the same order, and they are used only if keys of both sides are comparable to each other.
+   */
+  private void initKeyEncoders(PhysicalExec outer, PhysicalExec inner,
+                               SortSpec[] outerSortKey, SortSpec[] innerSortKey) {
+    SortSpec[] outerKeys = new SortSpec[outerSortKey.length];
+    SortSpec[] innerKeys = new SortSpec[innerSortKey.length];
+    for (int i = 0; i < outerSortKey.length; i++) {
+      outerKeys[i] = new SortSpec(outerSortKey[i].getSortKey(), true, false);
+      innerKeys[i] = new SortSpec(innerSortKey[i].getSortKey(), true, false);
+    }
+
+    if (NormalizedKeyEncoder.isSupported(outer.getSchema(), outerKeys) &&
+        NormalizedKeyEncoder.isSupported(inner.getSchema(), innerKeys)) {
+      NormalizedKeyEncoder outerEncoder = new NormalizedKeyEncoder(outer.getSchema(), outerKeys);
+      NormalizedKeyEncoder innerEncoder = new NormalizedKeyEncoder(inner.getSchema(), innerKeys);
+      if (outerEncoder.isComparableTo(innerEncoder)) {
+        this.outerKeyEncoder = outerEncoder;
+        this.innerKeyEncoder = innerEncoder;
+      }
+    }
+  }
+
+  private Tuple nextOuter() throws IOException {
+    Tuple tuple = leftChild.next();
+    if (outerKeyEncoder != null) {
+      outerKey = tuple != null ? outerKeyEncoder.encodeKeyOnly(tuple) : null;
+    }
+    return tuple;
+  }
+
+  private Tuple nextInner() throws IOException {
+    Tuple tuple = rightChild.next();
+    if (innerKeyEncoder != null) {
+      innerKey = tuple != null ? innerKeyEncoder.encodeKeyOnly(tuple) : null;
+    }
+    return tuple;
+  }
+
+  private int compareJoinKeys() {
+    if (outerKeyEncoder != null) {
+      return outerKey.compareTo(innerKey);
+    } else {
+      return joincomparator.compare(outerTuple, innerTuple);
+    }
+  }
+
   public JoinNode getPlan(){
     return this.joinNode;
   }
@@ -105,21 +168,25 @@ public class MergeJoinExec extends BinaryPhysicalExec {
         }
 
         if(outerTuple == null){
-          outerTuple = leftChild.next();
+          outerTuple = nextOuter();
         }
         if(innerTuple == null){
-          innerTuple = rightChild.next();
+          innerTuple = nextInner();
         }
 
         outerTupleSlots.clear();
         innerTupleSlots.clear();
 
+        if (innerTuple == null || outerTuple == null) {
+          return null;
+        }
+
         int cmp;
-        while ((cmp = joincomparator.compare(outerTuple, innerTuple)) != 0) {
+        while ((cmp = compareJoinKeys()) != 0) {
           if (cmp > 0) {
-            innerTuple = rightChild.next();
+            innerTuple = nextInner();
           } else if (cmp < 0) {
-            outerTuple = leftChild.next();
+            outerTuple = nextOuter();
           }
           if (innerTuple == null || outerTuple == null) {
             return null;
@@ -128,26 +195,30 @@ public class MergeJoinExec extends BinaryPhysicalExec {
 
         try {
           previous = outerTuple.clone();
+          NormalizedKey previousKey = outerKey;
           do {
             outerTupleSlots.add(outerTuple.clone());
-            outerTuple = leftChild.next();
+            outerTuple = nextOuter();
             if (outerTuple == null) {
               end = true;
               break;
             }
-          } while (tupleComparator[0].compare(previous, outerTuple) == 0);
+          } while (previousKey != null ? previousKey.equals(outerKey) :
+              tupleComparator[0].compare(previous, outerTuple) == 0);
           outerIterator = outerTupleSlots.iterator();
           outerNext = outerIterator.next();
 
           previous = innerTuple.clone();
+          previousKey = innerKey;
           do {
             innerTupleSlots.add(innerTuple.clone());
-            innerTuple = rightChild.next();
+            innerTuple = nextInner();
             if (innerTuple == null) {
               end = true;
               break;
             }
-          } while (tupleComparator[1].compare(previous, innerTuple) == 0);
+          } while (previousKey != null ? previousKey.equals(innerKey) :
+              tupleComparator[1].compare(previous, innerTuple) == 0);
           innerIterator = innerTupleSlots.iterator();
         } catch (CloneNotSupportedException e) {
 
@@ -161,7 +232,7 @@ public class MergeJoinExec extends BinaryPhysicalExec {
 
       frameTuple.set(outerNext, innerIterator.next());
 
-      if (joinQual.eval(inSchema, frameTuple).isTrue()) {
+      if (joinQualEval.isTrue(frameTuple)) {
         projector.eval(frameTuple, outTuple);
         return outTuple;
       }
@@ -188,6 +259,7 @@ public class MergeJoinExec extends BinaryPhysicalExec {
     outerIterator = null;
     innerIterator = null;
     joinQual = null;
+    joinQualEval = null;
     projector = null;
   }
 }
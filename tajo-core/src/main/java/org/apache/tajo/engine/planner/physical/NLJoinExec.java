@@ -18,6 +18,7 @@
 
 package org.apache.tajo.engine.planner.physical;
 
+import org.apache.tajo.engine.codegen.CompiledEval;
 import org.apache.tajo.engine.eval.EvalNode;
 import org.apache.tajo.engine.planner.Projector;
 import org.apache.tajo.engine.planner.logical.JoinNode;
@@ -32,6 +33,7 @@ public class NLJoinExec extends BinaryPhysicalExec {
   // from logical plan
   private JoinNode plan;
   private EvalNode joinQual;
+  private CompiledEval joinQualEval;
 
 
   // temporal tuples and states for nested loop join
@@ -51,10 +53,11 @@ public class NLJoinExec extends BinaryPhysicalExec {
 
     if (plan.hasJoinQual()) {
       this.joinQual = plan.getJoinQual();
+      this.joinQualEval = compileEval(joinQual);
     }
 
     // for projection
-    projector = new Projector(inSchema, outSchema, plan.getTargets());
+    projector = new Projector(context, inSchema, outSchema, plan.getTargets());
 
     // for join
     needNewOuter = true;
@@ -85,7 +88,7 @@ public class NLJoinExec extends BinaryPhysicalExec {
 
       frameTuple.set(outerTuple, innerTuple);
       if (joinQual != null) {
-        if (joinQual.eval(inSchema, frameTuple).isTrue()) {
+        if (joinQualEval.isTrue(frameTuple)) {
           projector.eval(frameTuple, outTuple);
           return outTuple;
         }
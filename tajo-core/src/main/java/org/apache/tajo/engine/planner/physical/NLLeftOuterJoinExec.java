@@ -18,6 +18,7 @@
 
 package org.apache.tajo.engine.planner.physical;
 
+import org.apache.tajo.engine.codegen.CompiledEval;
 import org.apache.tajo.engine.eval.EvalNode;
 import org.apache.tajo.engine.planner.Projector;
 import org.apache.tajo.engine.planner.logical.JoinNode;
@@ -33,6 +34,7 @@ public class NLLeftOuterJoinExec extends BinaryPhysicalExec {
   // from logical plan
   private JoinNode plan;
   private EvalNode joinQual;
+  private CompiledEval joinQualEval;
 
   // temporal tuples and states for nested loop join
   private boolean needNextRightTuple;
@@ -54,10 +56,11 @@ public class NLLeftOuterJoinExec extends BinaryPhysicalExec {
 
     if (plan.hasJoinQual()) {
       this.joinQual = plan.getJoinQual();
+      this.joinQualEval = compileEval(joinQual);
     }
 
     // for projection
-    projector = new Projector(inSchema, outSchema, plan.getTargets());
+    projector = new Projector(context, inSchema, outSchema, plan.getTargets());
 
     // for join
     needNextRightTuple = true;
@@ -106,7 +109,7 @@ public class NLLeftOuterJoinExec extends BinaryPhysicalExec {
 
       frameTuple.set(leftTuple, rightTuple);
       ;
-      if (joinQual.eval(inSchema, frameTuple).isTrue()) {
+      if (joinQualEval.isTrue(frameTuple)) {
         projector.eval(frameTuple, outTuple);
         foundAtLeastOneMatch = true;
         return outTuple;
@@ -0,0 +1,255 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.engine.function.FunctionContext;
+import org.apache.tajo.engine.planner.logical.GroupbyNode;
+import org.apache.tajo.engine.utils.TupleKeyHashMap;
+import org.apache.tajo.storage.MemoryUtil;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.util.FileUtil;
+import org.apache.tajo.worker.TaskAttemptContext;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map.Entry;
+
+/**
+ * This is the partial aggregation operator for the first phase of a two-phase aggregation.
+ *
+ * <p>Its output is merged again by the second phase after the hash shuffle, so it does not need to emit each
+ * group only once. Groups are aggregated in a bounded hash table, and all partial results in the table are
+ * emitted whenever the table is full. After a number of input rows, it checks the reduction ratio, which is
+ * the number of groups divided by the number of input rows. If the ratio is too high, i.e., grouping keys are
+ * nearly unique, the aggregation hardly reduces the shuffled data, so it flushes the table and passes through
+ * each remaining row as a partial result of a single row.</p>
+ */
+public class PartialAggregateExec extends AggregationExec {
+  /** Class logger */
+  private static final Log LOG = LogFactory.getLog(PartialAggregateExec.class);
+  /** the memory size of one function context */
+  private static final long FUNCTION_CONTEXT_OVERHEAD = 32;
+
+  private final Tuple tuple;
+  private final BatchTupleReader childReader;
+  /** the data types of grouping keys, which decide the hash map implementation */
+  private final Type [] groupingKeyTypes;
+  /** a reusable tuple for estimating the memory size of grouping keys */
+  private final Tuple keyBuffer;
+
+  /** If memory consumption of the hash table exceeds it, all groups are flushed. */
+  private long bufferBytesNum;
+  /** the number of input rows after which the reduction ratio is checked */
+  private long checkRowNum;
+  /** the maximum ratio of groups to input rows which keeps the aggregation */
+  private float maxReductionRatio;
+
+  ///////////////////////////////////////////////////
+  // transient variables
+  ///////////////////////////////////////////////////
+  private TupleKeyHashMap<FunctionContext []> hashTable;
+  private long memoryConsumption = 0;
+  /** groups being flushed */
+  private Iterator<Entry<Tuple, FunctionContext []>> flushIterator;
+  private boolean bypassed = false;
+  private boolean checked = false;
+  private boolean finished = false;
+  private long inputRowNum = 0;
+  private long groupNum = 0;
+  private int flushNum = 0;
+  private FunctionContext [] bypassContexts;
+
+  public PartialAggregateExec(TaskAttemptContext ctx, GroupbyNode plan, PhysicalExec subOp) throws IOException {
+    super(ctx, plan, subOp);
+    this.tuple = new VTuple(plan.getOutSchema().size());
+    this.childReader = new BatchTupleReader(subOp, true);
+    this.groupingKeyTypes = TupleKeyHashMap.getKeyTypes(inSchema, groupingKeyIds);
+    this.keyBuffer = new VTuple(groupingKeyNum);
+
+    this.bufferBytesNum = ctx.getConf().getLongVar(ConfVars.EXECUTOR_GROUPBY_PARTIAL_BUFFER_SIZE) * 1048576L;
+    this.checkRowNum = ctx.getConf().getLongVar(ConfVars.EXECUTOR_GROUPBY_PARTIAL_CHECK_ROWS);
+    this.maxReductionRatio = ctx.getConf().getFloatVar(ConfVars.EXECUTOR_GROUPBY_PARTIAL_MAX_RATIO);
+  }
+
+  @VisibleForTesting
+  public void setBufferBytesNum(long bufferBytesNum) {
+    this.bufferBytesNum = bufferBytesNum;
+  }
+
+  @VisibleForTesting
+  public void setReductionCheck(long checkRowNum, float maxReductionRatio) {
+    this.checkRowNum = checkRowNum;
+    this.maxReductionRatio = maxReductionRatio;
+  }
+
+  /**
+   * @return True if the aggregation is switched to pass-through
+   */
+  @VisibleForTesting
+  public boolean isBypassed() {
+    return bypassed;
+  }
+
+  /**
+   * @return the number of hash table flushes except for the last one
+   */
+  @VisibleForTesting
+  public int getFlushNum() {
+    return flushNum;
+  }
+
+  @Override
+  public void init() throws IOException {
+    super.init();
+    hashTable = TupleKeyHashMap.create(groupingKeyTypes, 16);
+    bypassContexts = new FunctionContext[aggFunctionsNum];
+  }
+
+  @Override
+  public Tuple next() throws IOException {
+    while (!context.isStopped()) {
+      if (flushIterator != null) {
+        if (flushIterator.hasNext()) {
+          return toOutputTuple(flushIterator.next());
+        }
+        flushIterator = null;
+        hashTable.clear();
+        memoryConsumption = 0;
+      }
+
+      if (finished) {
+        return null;
+      }
+
+      Tuple input = childReader.next();
+      if (input == null) {
+        finished = true;
+        flushIterator = hashTable.entryIterator();
+        continue;
+      }
+
+      if (bypassed) {
+        return passThrough(input);
+      }
+
+      aggregate(input);
+
+      if (!checked && inputRowNum >= checkRowNum) {
+        checked = true;
+        float ratio = (float) groupNum / (float) inputRowNum;
+        if (ratio > maxReductionRatio) {
+          bypassed = true;
+          info(LOG, "Partial aggregation is switched to pass-through (" + groupNum + " groups of "
+              + inputRowNum + " rows)");
+          flushIterator = hashTable.entryIterator();
+          continue;
+        }
+      }
+
+      if (memoryConsumption > bufferBytesNum) {
+        flushNum++;
+        info(LOG, "Partial aggregation flushes " + hashTable.size() + " groups ("
+            + FileUtil.humanReadableByteCount(memoryConsumption, false) + " estimated memory)");
+        flushIterator = hashTable.entryIterator();
+      }
+    }
+    return null;
+  }
+
+  private void aggregate(Tuple input) {
+    inputRowNum++;
+    FunctionContext [] contexts = hashTable.get(input, groupingKeyIds);
+    if (contexts != null) {
+      for (int i = 0; i < aggFunctionsNum; i++) {
+        aggFunctions[i].merge(contexts[i], inSchema, input);
+      }
+    } else {
+      contexts = new FunctionContext[aggFunctionsNum];
+      for (int i = 0; i < aggFunctionsNum; i++) {
+        contexts[i] = aggFunctions[i].newContext();
+        aggFunctions[i].merge(contexts[i], inSchema, input);
+      }
+      hashTable.put(input, groupingKeyIds, contexts);
+      groupNum++;
+
+      for (int i = 0; i < groupingKeyNum; i++) {
+        keyBuffer.put(i, input.get(groupingKeyIds[i]));
+      }
+      memoryConsumption += MemoryUtil.calculateMemorySize(keyBuffer) + HashPartitionSpiller.HASH_ENTRY_OVERHEAD +
+          FUNCTION_CONTEXT_OVERHEAD * aggFunctionsNum;
+    }
+  }
+
+  private Tuple passThrough(Tuple input) {
+    int tupleIdx = 0;
+    for (; tupleIdx < groupingKeyNum; tupleIdx++) {
+      tuple.put(tupleIdx, input.get(groupingKeyIds[tupleIdx]));
+    }
+    for (int funcIdx = 0; funcIdx < aggFunctionsNum; funcIdx++, tupleIdx++) {
+      bypassContexts[funcIdx] = aggFunctions[funcIdx].newContext();
+      aggFunctions[funcIdx].merge(bypassContexts[funcIdx], inSchema, input);
+      tuple.put(tupleIdx, aggFunctions[funcIdx].terminate(bypassContexts[funcIdx]));
+    }
+    return tuple;
+  }
+
+  private Tuple toOutputTuple(Entry<Tuple, FunctionContext []> entry) {
+    Tuple keyTuple = entry.getKey();
+    FunctionContext [] contexts = entry.getValue();
+    int tupleIdx = 0;
+    for (; tupleIdx < groupingKeyNum; tupleIdx++) {
+      tuple.put(tupleIdx, keyTuple.get(tupleIdx));
+    }
+    for (int funcIdx = 0; funcIdx < aggFunctionsNum; funcIdx++, tupleIdx++) {
+      tuple.put(tupleIdx, aggFunctions[funcIdx].terminate(contexts[funcIdx]));
+    }
+    return tuple;
+  }
+
+  @Override
+  public void rescan() throws IOException {
+    hashTable.clear();
+    memoryConsumption = 0;
+    flushIterator = null;
+    bypassed = false;
+    checked = false;
+    finished = false;
+    inputRowNum = 0;
+    groupNum = 0;
+    flushNum = 0;
+    childReader.reset();
+    super.rescan();
+  }
+
+  @Override
+  public void close() throws IOException {
+    super.close();
+    if (hashTable != null) {
+      hashTable.clear();
+      hashTable = null;
+    }
+    flushIterator = null;
+  }
+}
@@ -23,6 +23,10 @@ import org.apache.hadoop.fs.Path;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.SchemaObject;
 import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.engine.codegen.CompiledEval;
+import org.apache.tajo.engine.eval.EvalNode;
+import org.apache.tajo.engine.vector.RowBatch;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.worker.TaskAttemptContext;
 
@@ -35,6 +39,9 @@ public abstract class PhysicalExec implements SchemaObject {
   protected Schema outSchema;
   protected int outColumnNum;
 
+  // for the default implementation of nextBatch()
+  private RowBatch rowBatch;
+
   public PhysicalExec(final TaskAttemptContext context, final Schema inSchema,
                       final Schema outSchema) {
     this.context = context;
@@ -51,6 +58,33 @@ public abstract class PhysicalExec implements SchemaObject {
 
   public abstract Tuple next() throws IOException;
 
+  /**
+   * Returns the next batch of rows. The default implementation fills a batch with tuples returned by
+   * {@link #next()}. Operators which can process rows in a columnar way override it. Currently, only
+   * {@link SeqScanExec}, {@link SelectionExec} and {@link ProjectionExec} do so.
+   *
+   * <p>A returned batch is only valid until the next call. Callers must not modify values in it,
+   * but they may narrow its active rows.</p>
+   *
+   * @return a batch which has at least one active row, or null if there are no more rows
+   */
+  public RowBatch nextBatch() throws IOException {
+    if (rowBatch == null) {
+      rowBatch = new RowBatch(outSchema, getBatchSize());
+    }
+
+    rowBatch.reset();
+    Tuple tuple;
+    while (!rowBatch.isFull() && (tuple = next()) != null) {
+      rowBatch.addTuple(tuple);
+    }
+    return rowBatch.size > 0 ? rowBatch : null;
+  }
+
+  protected int getBatchSize() {
+    return context.getConf().getIntVar(TajoConf.ConfVars.EXECUTOR_VECTORIZED_BATCH_SIZE);
+  }
+
   public abstract void rescan() throws IOException;
 
   public abstract void close() throws IOException;
@@ -69,6 +103,13 @@ public abstract class PhysicalExec implements SchemaObject {
     log.fatal("[" + context.getTaskId() + "] " + message);
   }
 
+  /**
+   * @return the compiled expression of the given expression, which is bound to the input schema
+   */
+  protected CompiledEval compileEval(EvalNode eval) {
+    return context.getEvalCompiler().compile(inSchema, eval);
+  }
+
   protected Path getExecutorTmpDir() {
     return new Path(UUID.randomUUID().toString());
   }
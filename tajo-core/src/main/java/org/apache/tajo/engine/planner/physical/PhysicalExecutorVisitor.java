@@ -104,4 +104,10 @@ public interface PhysicalExecutorVisitor<CONTEXT, RESULT> {
 
   RESULT visitStoreTable(CONTEXT context, StoreTableExec exec, Stack<PhysicalExec> stack)
       throws PhysicalPlanningException;
+
+  RESULT visitTopN(CONTEXT context, TopNExec exec, Stack<PhysicalExec> stack)
+      throws PhysicalPlanningException;
+
+  RESULT visitWindowAgg(CONTEXT context, WindowAggExec exec, Stack<PhysicalExec> stack)
+      throws PhysicalPlanningException;
 }
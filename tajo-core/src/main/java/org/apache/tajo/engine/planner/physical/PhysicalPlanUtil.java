@@ -18,9 +18,20 @@
 
 package org.apache.tajo.engine.planner.physical;
 
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.storage.BinaryTupleList;
+
 import java.util.Stack;
 
 public class PhysicalPlanUtil {
+  /**
+   * @return True if tuples of the schema should be buffered in {@link BinaryTupleList}
+   */
+  public static boolean useCompactTuple(TajoConf conf, Schema schema) {
+    return conf.getBoolVar(TajoConf.ConfVars.EXECUTOR_COMPACT_TUPLE_ENABLED) && BinaryTupleList.isSupported(schema);
+  }
+
   public static <T extends PhysicalExec> T findExecutor(PhysicalExec plan, Class<? extends PhysicalExec> clazz)
       throws PhysicalPlanningException {
     return (T) new FindVisitor().visit(plan, new Stack<PhysicalExec>(), clazz);
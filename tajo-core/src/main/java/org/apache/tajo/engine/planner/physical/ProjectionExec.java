@@ -23,6 +23,8 @@ package org.apache.tajo.engine.planner.physical;
 
 import org.apache.tajo.engine.planner.Projector;
 import org.apache.tajo.engine.planner.logical.Projectable;
+import org.apache.tajo.engine.vector.RowBatch;
+import org.apache.tajo.engine.vector.VectorProjector;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.VTuple;
 import org.apache.tajo.worker.TaskAttemptContext;
@@ -35,6 +37,10 @@ public class ProjectionExec extends UnaryPhysicalExec {
   // for projection
   private Tuple outTuple;
   private Projector projector;
+
+  // for batch projection
+  private VectorProjector vectorProjector;
+  private RowBatch outBatch;
   
   public ProjectionExec(TaskAttemptContext context, Projectable plan,
       PhysicalExec child) {
@@ -46,7 +52,7 @@ public class ProjectionExec extends UnaryPhysicalExec {
     super.init();
 
     this.outTuple = new VTuple(outSchema.size());
-    this.projector = new Projector(inSchema, outSchema, this.plan.getTargets());
+    this.projector = new Projector(context, inSchema, outSchema, this.plan.getTargets());
   }
 
   @Override
@@ -61,6 +67,22 @@ public class ProjectionExec extends UnaryPhysicalExec {
     return outTuple;
   }
 
+  @Override
+  public RowBatch nextBatch() throws IOException {
+    RowBatch batch = child.nextBatch();
+
+    if (batch == null) {
+      return null;
+    }
+
+    if (vectorProjector == null) {
+      vectorProjector = new VectorProjector(inSchema, outSchema, plan.getTargets());
+      outBatch = vectorProjector.createOutputBatch(batch.getCapacity());
+    }
+    vectorProjector.eval(batch, outBatch);
+    return outBatch;
+  }
+
   @Override
   public void close() throws IOException{
     super.close();
@@ -48,6 +48,8 @@ public class RangeShuffleFileWriteExec extends UnaryPhysicalExec {
 
   private BSTIndex.BSTIndexWriter indexWriter;
   private TupleComparator comp;
+  /** It is used to detect key changes without projecting every tuple. It is null if disabled or not supported. */
+  private NormalizedKeyEncoder keyEncoder;
   private FileAppender appender;
   private TableMeta meta;
 
@@ -72,6 +74,10 @@ public class RangeShuffleFileWriteExec extends UnaryPhysicalExec {
 
     BSTIndex bst = new BSTIndex(new TajoConf());
     this.comp = new TupleComparator(keySchema, sortSpecs);
+    if (context.getConf().getBoolVar(TajoConf.ConfVars.EXECUTOR_SORT_NORMALIZED_KEY_ENABLED) &&
+        NormalizedKeyEncoder.isSupported(inSchema, sortSpecs)) {
+      this.keyEncoder = new NormalizedKeyEncoder(inSchema, sortSpecs);
+    }
     Path storeTablePath = new Path(context.getWorkDir(), "output");
     LOG.info("Output data directory: " + storeTablePath);
     this.meta = CatalogUtil.newTableMeta(context.getDataChannel() != null ?
@@ -93,17 +99,30 @@ public class RangeShuffleFileWriteExec extends UnaryPhysicalExec {
     Tuple tuple;
     Tuple keyTuple;
     Tuple prevKeyTuple = null;
+    NormalizedKey key;
+    NormalizedKey prevKey = null;
     long offset;
 
 
     while((tuple = child.next()) != null) {
       offset = appender.getOffset();
       appender.addTuple(tuple);
-      keyTuple = new VTuple(keySchema.size());
-      RowStoreUtil.project(tuple, keyTuple, indexKeys);
-      if (prevKeyTuple == null || !prevKeyTuple.equals(keyTuple)) {
-        indexWriter.write(keyTuple, offset);
-        prevKeyTuple = keyTuple;
+      if (keyEncoder != null) {
+        // a key tuple is projected only when the key is changed
+        key = keyEncoder.encodeKeyOnly(tuple);
+        if (prevKey == null || !prevKey.equals(key)) {
+          keyTuple = new VTuple(keySchema.size());
+          RowStoreUtil.project(tuple, keyTuple, indexKeys);
+          indexWriter.write(keyTuple, offset);
+          prevKey = key;
+        }
+      } else {
+        keyTuple = new VTuple(keySchema.size());
+        RowStoreUtil.project(tuple, keyTuple, indexKeys);
+        if (prevKeyTuple == null || !prevKeyTuple.equals(keyTuple)) {
+          indexWriter.write(keyTuple, offset);
+          prevKeyTuple = keyTuple;
+        }
       }
     }
 
@@ -18,8 +18,13 @@
 
 package org.apache.tajo.engine.planner.physical;
 
+import org.apache.tajo.engine.codegen.CompiledEval;
 import org.apache.tajo.engine.eval.EvalNode;
 import org.apache.tajo.engine.planner.logical.SelectionNode;
+import org.apache.tajo.engine.vector.EvalFilter;
+import org.apache.tajo.engine.vector.RowBatch;
+import org.apache.tajo.engine.vector.VectorFilter;
+import org.apache.tajo.engine.vector.Vectorizer;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.worker.TaskAttemptContext;
 
@@ -27,23 +32,45 @@ import java.io.IOException;
 
 public class SelectionExec extends UnaryPhysicalExec  {
   private final EvalNode qual;
+  private final CompiledEval qualEval;
+  private VectorFilter filter;
 
   public SelectionExec(TaskAttemptContext context,
                        SelectionNode plan,
                        PhysicalExec child) {
     super(context, plan.getInSchema(), plan.getOutSchema(), child);
     this.qual = plan.getQual();
+    this.qualEval = compileEval(qual);
   }
 
   @Override
   public Tuple next() throws IOException {
     Tuple tuple;
     while ((tuple = child.next()) != null) {
-      if (qual.eval(inSchema, tuple).isTrue()) {
+      if (qualEval.isTrue(tuple)) {
         return tuple;
       }
     }
 
     return null;
   }
+
+  @Override
+  public RowBatch nextBatch() throws IOException {
+    if (filter == null) {
+      filter = Vectorizer.createFilter(inSchema, qual);
+      if (filter == null) {
+        filter = new EvalFilter(inSchema, qual);
+      }
+    }
+
+    RowBatch batch;
+    while ((batch = child.nextBatch()) != null) {
+      filter.filter(batch);
+      if (batch.size > 0) {
+        return batch;
+      }
+    }
+    return null;
+  }
 }
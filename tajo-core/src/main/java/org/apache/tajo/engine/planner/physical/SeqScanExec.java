@@ -18,6 +18,8 @@
 
 package org.apache.tajo.engine.planner.physical;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.io.IOUtils;
 import org.apache.tajo.catalog.Column;
 import org.apache.tajo.catalog.Schema;
@@ -25,33 +27,51 @@ import org.apache.tajo.catalog.partition.PartitionMethodDesc;
 import org.apache.tajo.catalog.proto.CatalogProtos;
 import org.apache.tajo.catalog.statistics.TableStats;
 import org.apache.tajo.datum.Datum;
+import org.apache.tajo.engine.codegen.CompiledEval;
 import org.apache.tajo.engine.eval.ConstEval;
 import org.apache.tajo.engine.eval.EvalNode;
 import org.apache.tajo.engine.eval.EvalTreeUtil;
 import org.apache.tajo.engine.eval.FieldEval;
 import org.apache.tajo.engine.planner.Projector;
 import org.apache.tajo.engine.planner.Target;
+import org.apache.tajo.engine.planner.enforce.Enforcer;
 import org.apache.tajo.engine.planner.logical.ScanNode;
 import org.apache.tajo.engine.utils.*;
+import org.apache.tajo.engine.vector.RowBatch;
+import org.apache.tajo.engine.vector.VectorFilter;
+import org.apache.tajo.engine.vector.VectorProjector;
+import org.apache.tajo.engine.vector.Vectorizer;
 import org.apache.tajo.storage.*;
 import org.apache.tajo.storage.Scanner;
 import org.apache.tajo.storage.fragment.FileFragment;
 import org.apache.tajo.storage.fragment.FragmentConvertor;
+import org.apache.tajo.worker.FetchedInput;
+import org.apache.tajo.worker.FetchedInputScanner;
 import org.apache.tajo.worker.TaskAttemptContext;
 
 import java.io.IOException;
 import java.util.*;
 
+import static org.apache.tajo.ipc.TajoWorkerProtocol.EnforceProperty.EnforceType;
+import static org.apache.tajo.ipc.TajoWorkerProtocol.RuntimeFilterEnforce;
+
 
 public class SeqScanExec extends PhysicalExec {
+  private static final Log LOG = LogFactory.getLog(SeqScanExec.class);
+
   private ScanNode plan;
 
   private Scanner scanner = null;
 
   private EvalNode qual = null;
 
+  private CompiledEval qualEval = null;
+
   private CatalogProtos.FragmentProto [] fragments;
 
+  /** It is not null if the input table is scanned while it is being fetched. */
+  private FetchedInput fetchedInput;
+
   private Projector projector;
 
   private TableStats inputStats;
@@ -60,6 +80,20 @@ public class SeqScanExec extends PhysicalExec {
 
   private boolean cacheRead = false;
 
+  // for batch scan
+  private boolean [] requiredColumns;
+  private boolean batchInitialized = false;
+  private boolean vectorized = false;
+  private RowBatch inBatch;
+  private RowBatch outBatch;
+  private VectorFilter filter;
+  private VectorProjector vectorProjector;
+
+  // for the probe side of a join, whose rows not matching any join key of the build side are discarded.
+  private RuntimeFilter runtimeFilter;
+  private int [] runtimeFilterKeyIds;
+  private long runtimeFilteredRows = 0;
+
   public SeqScanExec(TaskAttemptContext context, AbstractStorageManager sm,
                      ScanNode plan, CatalogProtos.FragmentProto [] fragments) throws IOException {
     super(context, plan.getInSchema(), plan.getOutSchema());
@@ -74,6 +108,12 @@ public class SeqScanExec extends PhysicalExec {
     }
   }
 
+  public SeqScanExec(TaskAttemptContext context, AbstractStorageManager sm,
+                     ScanNode plan, FetchedInput fetchedInput) throws IOException {
+    this(context, sm, plan, (CatalogProtos.FragmentProto []) null);
+    this.fetchedInput = fetchedInput;
+  }
+
   /**
    * This method rewrites an input schema of column-partitioned table because
    * there are no actual field values in data file in a column-partitioned table.
@@ -152,6 +192,18 @@ public class SeqScanExec extends PhysicalExec {
       projected = outSchema;
     }
 
+    requiredColumns = new boolean[inSchema.size()];
+    for (Column column : projected.getColumns()) {
+      int columnId = inSchema.getColumnId(column.getQualifiedName());
+      if (columnId >= 0) {
+        requiredColumns[columnId] = true;
+      }
+    }
+
+    if (cacheKey == null) {
+      initRuntimeFilter();
+    }
+
     if (cacheKey != null) {
       TupleCache tupleCache = TupleCache.getInstance();
       if (tupleCache.isBroadcastCacheReady(cacheKey)) {
@@ -180,10 +232,50 @@ public class SeqScanExec extends PhysicalExec {
     }
   }
 
+  /**
+   * The runtime filter is applied only if all join keys are columns read from the table. Otherwise, this scan
+   * returns all rows, which is still correct.
+   */
+  private void initRuntimeFilter() throws IOException {
+    Enforcer enforcer = context.getEnforcer();
+    if (enforcer == null || !enforcer.hasEnforceProperty(EnforceType.RUNTIME_FILTER)) {
+      return;
+    }
+
+    RuntimeFilterEnforce enforce = enforcer.getEnforceProperties(EnforceType.RUNTIME_FILTER).get(0).getRuntimeFilter();
+    int [] keyIds = new int[enforce.getKeysCount()];
+    for (int i = 0; i < keyIds.length; i++) {
+      Column key = new Column(enforce.getKeys(i));
+      keyIds[i] = inSchema.getColumnId(key.getQualifiedName());
+      if (keyIds[i] < 0 || !requiredColumns[keyIds[i]]) {
+        LOG.info("Runtime filter is not applied because the join key " + key + " is not read from "
+            + plan.getTableName());
+        return;
+      }
+    }
+    runtimeFilter = new RuntimeFilter(enforce.getFilter());
+    runtimeFilterKeyIds = keyIds;
+  }
+
+  private boolean isRuntimeFiltered(Tuple tuple) {
+    if (runtimeFilter != null && !runtimeFilter.mightContain(tuple, runtimeFilterKeyIds)) {
+      runtimeFilteredRows++;
+      return true;
+    }
+    return false;
+  }
+
   private void initScanner(Schema projected) throws IOException {
-    this.projector = new Projector(inSchema, outSchema, plan.getTargets());
+    this.projector = new Projector(context, inSchema, outSchema, plan.getTargets());
+    if (plan.hasQual()) {
+      this.qualEval = compileEval(qual);
+    }
 
-    if (fragments != null) {
+    if (fetchedInput != null) {
+      this.scanner = new FetchedInputScanner(context.getConf(), plan.getPhysicalSchema(),
+          plan.getTableDesc().getMeta(), fetchedInput, projected);
+      scanner.init();
+    } else if (fragments != null) {
       if (fragments.length > 1) {
         this.scanner = new MergeScanner(context.getConf(), plan.getPhysicalSchema(), plan.getTableDesc().getMeta(),
             FragmentConvertor.<FileFragment>convert(context.getConf(), plan.getTableDesc().getMeta().getStoreType(),
@@ -194,6 +286,10 @@ public class SeqScanExec extends PhysicalExec {
             context.getConf()).getScanner(plan.getTableDesc().getMeta(), plan.getPhysicalSchema(), fragments[0],
             projected);
       }
+      // the scanner only skips rows which never satisfy the qual, so the qual is still evaluated on each row.
+      if (plan.hasQual() && scanner.isSelectable()) {
+        scanner.setSearchCondition(EvalTreeUtil.findColumnPredicates(qual));
+      }
       scanner.init();
     }
   }
@@ -209,7 +305,14 @@ public class SeqScanExec extends PhysicalExec {
   private void scanAndAddCache(Schema projected) throws IOException {
     initScanner(projected);
 
-    List<Tuple> broadcastTupleCacheList = new ArrayList<Tuple>();
+    // cached tuples are kept in the compact binary row format if possible, because they live until the end of
+    // the execution block.
+    List<Tuple> broadcastTupleCacheList;
+    if (PhysicalPlanUtil.useCompactTuple(context.getConf(), outSchema)) {
+      broadcastTupleCacheList = new BinaryTupleList(outSchema);
+    } else {
+      broadcastTupleCacheList = new ArrayList<Tuple>();
+    }
     while (true) {
       Tuple tuple = next();
       if (tuple != null) {
@@ -227,7 +330,7 @@ public class SeqScanExec extends PhysicalExec {
 
   @Override
   public Tuple next() throws IOException {
-    if (fragments == null) {
+    if (fragments == null && fetchedInput == null) {
       return null;
     }
 
@@ -235,22 +338,24 @@ public class SeqScanExec extends PhysicalExec {
     Tuple outTuple = new VTuple(outColumnNum);
 
     if (!plan.hasQual()) {
-      if ((tuple = scanner.next()) != null) {
+      while ((tuple = scanner.next()) != null) {
         if (cacheRead) {
           return tuple;
         }
+        if (isRuntimeFiltered(tuple)) {
+          continue;
+        }
         projector.eval(tuple, outTuple);
         outTuple.setOffset(tuple.getOffset());
         return outTuple;
-      } else {
-        return null;
       }
+      return null;
     } else {
       while ((tuple = scanner.next()) != null) {
         if (cacheRead) {
           return tuple;
         }
-        if (qual.eval(inSchema, tuple).isTrue()) {
+        if (!isRuntimeFiltered(tuple) && qualEval.isTrue(tuple)) {
           projector.eval(tuple, outTuple);
           return outTuple;
         }
@@ -259,6 +364,64 @@ public class SeqScanExec extends PhysicalExec {
     }
   }
 
+  private void initBatchScan() {
+    batchInitialized = true;
+    if (cacheRead) {
+      // cached tuples are already projected.
+      return;
+    }
+
+    vectorProjector = new VectorProjector(inSchema, outSchema, plan.getTargets());
+    if (plan.hasQual()) {
+      filter = Vectorizer.createFilter(inSchema, qual);
+    }
+    vectorized = vectorProjector.isVectorized() && (!plan.hasQual() || filter != null);
+    if (vectorized) {
+      inBatch = new RowBatch(inSchema, getBatchSize(), requiredColumns);
+      outBatch = vectorProjector.createOutputBatch(inBatch.getCapacity());
+    }
+  }
+
+  /**
+   * It evaluates the search condition and targets over a batch of scanned rows by using vectorized expressions.
+   * If they cannot be vectorized, it falls back to the row-based path.
+   *
+   * <p>Scanners return tuples, so the input batch is filled row by row from the scanner. Only the evaluation of
+   * the search condition and targets works on column vectors.</p>
+   */
+  @Override
+  public RowBatch nextBatch() throws IOException {
+    if (fragments == null && fetchedInput == null) {
+      return null;
+    }
+
+    if (!batchInitialized) {
+      initBatchScan();
+    }
+    if (!vectorized) {
+      return super.nextBatch();
+    }
+
+    Tuple tuple;
+    do {
+      inBatch.reset();
+      while (!inBatch.isFull() && (tuple = scanner.next()) != null) {
+        if (!isRuntimeFiltered(tuple)) {
+          inBatch.addTuple(tuple);
+        }
+      }
+      if (inBatch.size == 0) {
+        return null;
+      }
+      if (filter != null) {
+        filter.filter(inBatch);
+      }
+    } while (inBatch.size == 0);
+
+    vectorProjector.eval(inBatch, outBatch);
+    return outBatch;
+  }
+
   @Override
   public void rescan() throws IOException {
     scanner.reset();
@@ -266,6 +429,10 @@ public class SeqScanExec extends PhysicalExec {
 
   @Override
   public void close() throws IOException {
+    if (runtimeFilter != null) {
+      LOG.info("Runtime filter discarded " + runtimeFilteredRows + " rows of " + plan.getTableName());
+      runtimeFilter = null;
+    }
     IOUtils.cleanup(null, scanner);
     if (scanner != null) {
       try {
@@ -280,6 +447,7 @@ public class SeqScanExec extends PhysicalExec {
     scanner = null;
     plan = null;
     qual = null;
+    qualEval = null;
     projector = null;
   }
 
@@ -287,6 +455,20 @@ public class SeqScanExec extends PhysicalExec {
     return plan.getTableName();
   }
 
+  /**
+   * @return the key of the broadcast cache, or null if the table is not a broadcast table
+   */
+  public TupleCacheKey getCacheKey() {
+    return cacheKey;
+  }
+
+  /**
+   * @return True if this scan returns the rows kept in the broadcast cache as they are
+   */
+  public boolean isCacheRead() {
+    return cacheRead;
+  }
+
   @Override
   public float getProgress() {
     if (scanner == null) {
@@ -49,6 +49,7 @@ public class SortBasedColPartitionStoreExec extends ColPartitionStoreExec {
   private Tuple prevKey;
 
   private Appender appender;
+  private String currentPartition;
   private TableStats aggregated;
 
   public SortBasedColPartitionStoreExec(TaskAttemptContext context, StoreTableNode plan, PhysicalExec child)
@@ -64,6 +65,7 @@ public class SortBasedColPartitionStoreExec extends ColPartitionStoreExec {
   }
 
   private Appender getAppender(String partition) throws IOException {
+    currentPartition = partition;
     Path dataFile = getDataFile(partition);
     FileSystem fs = dataFile.getFileSystem(context.getConf());
 
@@ -121,6 +123,7 @@ public class SortBasedColPartitionStoreExec extends ColPartitionStoreExec {
         if (!prevKey.equals(currentKey)) {
           appender.close();
           StatisticsUtil.aggregateTableStat(aggregated, appender.getStats());
+          context.addPartition(currentPartition, appender.getStats());
 
           appender = getAppender(getSubdirectory(currentKey));
           prevKey = new VTuple(currentKey);
@@ -138,6 +141,7 @@ public class SortBasedColPartitionStoreExec extends ColPartitionStoreExec {
     if (appender != null) {
       appender.close();
       StatisticsUtil.aggregateTableStat(aggregated, appender.getStats());
+      context.addPartition(currentPartition, appender.getStats());
       context.setResultStats(aggregated);
     }
   }
@@ -18,24 +18,36 @@
 
 package org.apache.tajo.engine.planner.physical;
 
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.storage.*;
 import org.apache.tajo.worker.TaskAttemptContext;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.SortSpec;
-import org.apache.tajo.storage.Tuple;
-import org.apache.tajo.storage.TupleComparator;
 
 import java.io.IOException;
-import java.util.Comparator;
+import java.util.*;
 
 public abstract class SortExec extends UnaryPhysicalExec {
   private final Comparator<Tuple> comparator;
   private final SortSpec [] sortSpecs;
+  /** It is null if normalized sort keys are disabled or not supported for sort keys */
+  private final NormalizedKeyEncoder keyEncoder;
+  /** whether input tuples are buffered in the compact binary row format or not */
+  private final boolean compactTuple;
 
   public SortExec(TaskAttemptContext context, Schema inSchema,
                   Schema outSchema, PhysicalExec child, SortSpec [] sortSpecs) {
     super(context, inSchema, outSchema, child);
     this.sortSpecs = sortSpecs;
     this.comparator = new TupleComparator(inSchema, sortSpecs);
+
+    if (context.getConf().getBoolVar(ConfVars.EXECUTOR_SORT_NORMALIZED_KEY_ENABLED) &&
+        NormalizedKeyEncoder.isSupported(inSchema, sortSpecs)) {
+      this.keyEncoder = new NormalizedKeyEncoder(inSchema, sortSpecs);
+    } else {
+      this.keyEncoder = null;
+    }
+    this.compactTuple = PhysicalPlanUtil.useCompactTuple(context.getConf(), inSchema);
   }
 
   public SortSpec[] getSortSpecs() {
@@ -46,6 +58,63 @@ public abstract class SortExec extends UnaryPhysicalExec {
     return comparator;
   }
 
+  /**
+   * @return the encoder of normalized sort keys. It is null if normalized sort keys cannot be used.
+   */
+  public NormalizedKeyEncoder getKeyEncoder() {
+    return keyEncoder;
+  }
+
+  /**
+   * @return a list to buffer input tuples. If possible, tuples are stored in {@link BinaryTupleList}.
+   */
+  protected List<Tuple> createTupleBuffer() {
+    if (compactTuple) {
+      return new BinaryTupleList(inSchema);
+    } else {
+      return new ArrayList<Tuple>(1000);
+    }
+  }
+
+  /**
+   * Copies the tuple into the buffer created by {@link #createTupleBuffer()}.
+   *
+   * @return the number of bytes consumed by the tuple. It is exact for {@link BinaryTupleList},
+   * and it is estimated for other lists.
+   */
+  protected static long addToTupleBuffer(List<Tuple> buffer, Tuple tuple) {
+    if (buffer instanceof BinaryTupleList) {
+      return ((BinaryTupleList) buffer).addTuple(tuple);
+    } else {
+      Tuple copy = new VTuple(tuple);
+      buffer.add(copy);
+      return MemoryUtil.calculateMemorySize(copy);
+    }
+  }
+
+  /**
+   * Sort the given tuples. If possible, sort keys are normalized into byte arrays in advance,
+   * and then the tuples are sorted by comparing the normalized keys.
+   */
+  protected void sortTuples(List<Tuple> tuples) {
+    if (keyEncoder == null) {
+      Collections.sort(tuples, comparator);
+      return;
+    }
+
+    NormalizedKey [] keys = new NormalizedKey[tuples.size()];
+    int i = 0;
+    for (Tuple tuple : tuples) {
+      keys[i++] = keyEncoder.encode(tuple);
+    }
+    Arrays.sort(keys);
+
+    // set() does not copy rows of BinaryTupleList
+    for (i = 0; i < keys.length; i++) {
+      tuples.set(i, keys[i].getTuple());
+    }
+  }
+
   @Override
   abstract public Tuple next() throws IOException;
 }
@@ -0,0 +1,364 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.LocalDirAllocator;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RawLocalFileSystem;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.storage.BinaryTupleList;
+import org.apache.tajo.storage.MemoryUtil;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.util.FileUtil;
+import org.apache.tajo.worker.TaskAttemptContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.apache.tajo.storage.RawFile.RawFileAppender;
+import static org.apache.tajo.storage.RawFile.RawFileScanner;
+
+/**
+ * An append-only sequence of rows which are addressed by their positions.
+ *
+ * <p>Rows are kept in memory chunks. If the memory consumption exceeds the buffer, all in-memory rows are written
+ * into a local file in the same way as the sort chunks of {@link ExternalSortExec}. A caller can discard the rows
+ * before a position when it does not need them anymore, so a stream which only looks back a few rows never
+ * spills.</p>
+ *
+ * <p>Rows are read by forward-only {@link Reader}s. A reader reads spilled rows sequentially, so reading rows in
+ * order costs one scan of each spilled file.</p>
+ */
+class SpillableRowBuffer {
+  /** Class logger */
+  private static final Log LOG = LogFactory.getLog(SpillableRowBuffer.class);
+  /** the maximum number of rows in a memory chunk */
+  private static final int CHUNK_ROWS = 4096;
+  /** the maximum page size of a compact memory chunk */
+  private static final int CHUNK_PAGE_SIZE = 64 * 1024;
+  /** a memory chunk is a small fraction of the buffer so that rows are discarded in small steps */
+  private static final int CHUNKS_PER_BUFFER = 16;
+
+  private final TaskAttemptContext context;
+  private final Schema schema;
+  private final boolean useCompactTuple;
+  private final TableMeta spillMeta = CatalogUtil.newTableMeta(StoreType.RAW);
+  /** temporal dir */
+  private final Path spillTmpDir;
+  /** It enables round-robin disks allocation */
+  private final LocalDirAllocator localDirAllocator;
+  /** local file system */
+  private final RawLocalFileSystem localFS;
+  /** If memory consumption exceeds it, all in-memory rows are spilled. */
+  private long bufferBytesNum;
+  /** the maximum bytes of a memory chunk */
+  private long chunkBytesNum;
+
+  /** spilled rows, which are ordered by positions */
+  private final LinkedList<Segment> segments = new LinkedList<Segment>();
+  /** in-memory rows, which follow the spilled rows */
+  private final ArrayList<Chunk> chunks = new ArrayList<Chunk>();
+  private final List<Reader> readers = new ArrayList<Reader>();
+  /** the position of the first in-memory row */
+  private long memoryStart = 0;
+  private long memoryBytes = 0;
+  private long rowNum = 0;
+  private int spillFileSeq = 0;
+
+  /**
+   * @param spillTmpDir the temporal dir of the operator, which is given by {@link PhysicalExec#getExecutorTmpDir()}
+   */
+  SpillableRowBuffer(TaskAttemptContext context, Schema schema, Path spillTmpDir, long bufferBytesNum) {
+    this.context = context;
+    this.schema = schema;
+    this.useCompactTuple = PhysicalPlanUtil.useCompactTuple(context.getConf(), schema);
+    this.spillTmpDir = spillTmpDir;
+    setBufferBytesNum(bufferBytesNum);
+    this.localDirAllocator = new LocalDirAllocator(ConfVars.WORKER_TEMPORAL_DIR.varname);
+    this.localFS = new RawLocalFileSystem();
+  }
+
+  void setBufferBytesNum(long bufferBytesNum) {
+    this.bufferBytesNum = bufferBytesNum;
+    this.chunkBytesNum = Math.max(bufferBytesNum / CHUNKS_PER_BUFFER, 1);
+  }
+
+  /**
+   * @return the number of rows which have been added since the last clear
+   */
+  long size() {
+    return rowNum;
+  }
+
+  /**
+   * @return the number of spilled files which have been created by this buffer
+   */
+  int getSpilledFileNum() {
+    return spillFileSeq;
+  }
+
+  /**
+   * Copies the tuple at the end of this buffer.
+   */
+  void add(Tuple tuple) throws IOException {
+    Chunk chunk = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+    if (chunk == null || chunk.rows.size() >= CHUNK_ROWS || chunk.bytes >= chunkBytesNum) {
+      chunk = new Chunk(rowNum, useCompactTuple ?
+          new BinaryTupleList(schema, (int) Math.min(CHUNK_PAGE_SIZE, chunkBytesNum)) : new ArrayList<Tuple>());
+      chunks.add(chunk);
+    }
+
+    long bytes;
+    if (useCompactTuple) {
+      bytes = ((BinaryTupleList) chunk.rows).addTuple(tuple);
+    } else {
+      Tuple copy = new VTuple(tuple);
+      chunk.rows.add(copy);
+      bytes = MemoryUtil.calculateMemorySize(copy);
+    }
+    chunk.bytes += bytes;
+    memoryBytes += bytes;
+    rowNum++;
+
+    if (memoryBytes > bufferBytesNum) {
+      spill();
+    }
+  }
+
+  /**
+   * Writes all in-memory rows into a local file. Tuples which have been returned by readers remain valid.
+   */
+  private void spill() throws IOException {
+    long spillStart = System.currentTimeMillis();
+    Path path = localDirAllocator.getLocalPathForWrite(spillTmpDir + "/" + (spillFileSeq++), context.getConf());
+    RawFileAppender appender = new RawFileAppender(context.getConf(), schema, spillMeta, path);
+    appender.init();
+    for (Chunk chunk : chunks) {
+      for (Tuple tuple : chunk.rows) {
+        appender.addTuple(tuple);
+      }
+    }
+    appender.close();
+    segments.add(new Segment(memoryStart, rowNum, path));
+
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Rows [" + memoryStart + ", " + rowNum + ") spilled (" +
+          FileUtil.humanReadableByteCount(appender.getOffset(), false) + " bytes, " +
+          (System.currentTimeMillis() - spillStart) + " msec)");
+    }
+
+    // the rows of chunks are not cleared because readers may still refer to them
+    chunks.clear();
+    memoryStart = rowNum;
+    memoryBytes = 0;
+  }
+
+  /**
+   * Releases all rows before the given position. They must not be read anymore.
+   */
+  void discard(long position) throws IOException {
+    while (!chunks.isEmpty()) {
+      Chunk chunk = chunks.get(0);
+      if (chunk.start + chunk.rows.size() > position) {
+        break;
+      }
+      chunks.remove(0);
+      memoryBytes -= chunk.bytes;
+      memoryStart = chunk.start + chunk.rows.size();
+    }
+
+    Iterator<Segment> it = segments.iterator();
+    while (it.hasNext()) {
+      Segment segment = it.next();
+      if (segment.end > position) {
+        break;
+      }
+      for (Reader reader : readers) {
+        if (reader.segment == segment) {
+          reader.closeScanner();
+        }
+      }
+      localFS.delete(segment.path, true);
+      it.remove();
+    }
+  }
+
+  /**
+   * @return a reader which reads rows from the given position
+   */
+  Reader newReader(long position) {
+    Reader reader = new Reader(position);
+    readers.add(reader);
+    return reader;
+  }
+
+  /**
+   * Removes all rows, closes all readers, and deletes all spilled files.
+   */
+  void clear() throws IOException {
+    for (Reader reader : readers) {
+      reader.closeScanner();
+    }
+    readers.clear();
+    for (Segment segment : segments) {
+      localFS.delete(segment.path, true);
+    }
+    segments.clear();
+    chunks.clear();
+    memoryStart = 0;
+    memoryBytes = 0;
+    rowNum = 0;
+  }
+
+  private Chunk findChunk(long position) {
+    int low = 0;
+    int high = chunks.size() - 1;
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      if (chunks.get(mid).start <= position) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return chunks.get(low);
+  }
+
+  private Segment findSegment(long position) throws IOException {
+    for (Segment segment : segments) {
+      if (segment.start <= position && position < segment.end) {
+        return segment;
+      }
+    }
+    throw new IOException("Row " + position + " has been already discarded");
+  }
+
+  /**
+   * A forward-only cursor of a {@link SpillableRowBuffer}. Returned tuples remain valid until the buffer is cleared.
+   */
+  class Reader {
+    private long position;
+    /** the memory chunk which has been read lately */
+    private Chunk chunk;
+    /** the spilled file which is being scanned */
+    private Segment segment;
+    private RawFileScanner scanner;
+    /** the position of the next row of the scanner */
+    private long scannerPosition;
+
+    private Reader(long position) {
+      this.position = position;
+    }
+
+    /**
+     * @return the position of the row which will be returned by the next call of {@link #next()}
+     */
+    long getPosition() {
+      return position;
+    }
+
+    /**
+     * @return the next row, or null if all rows added so far have been read
+     */
+    Tuple next() throws IOException {
+      if (position >= rowNum) {
+        return null;
+      }
+
+      Tuple tuple;
+      if (chunk != null && chunk.start <= position && position < chunk.start + chunk.rows.size()) {
+        tuple = chunk.rows.get((int) (position - chunk.start));
+      } else if (position >= memoryStart) {
+        chunk = findChunk(position);
+        tuple = chunk.rows.get((int) (position - chunk.start));
+      } else {
+        chunk = null;
+        tuple = readSpilled();
+      }
+      position++;
+      return tuple;
+    }
+
+    private Tuple readSpilled() throws IOException {
+      if (scanner == null || position < scannerPosition || position >= segment.end) {
+        closeScanner();
+        segment = findSegment(position);
+        scanner = new RawFileScanner(context.getConf(), schema, spillMeta, segment.path);
+        scannerPosition = segment.start;
+      }
+
+      // skip rows of the spilled file instead of seeking
+      Tuple tuple;
+      do {
+        tuple = scanner.next();
+        if (tuple == null) {
+          throw new IOException("Unexpected end of a spilled file: " + segment.path);
+        }
+      } while (scannerPosition++ < position);
+      return tuple;
+    }
+
+    private void closeScanner() throws IOException {
+      if (scanner != null) {
+        scanner.close();
+        scanner = null;
+      }
+      segment = null;
+    }
+
+    void close() throws IOException {
+      closeScanner();
+      chunk = null;
+      readers.remove(this);
+    }
+  }
+
+  private static class Chunk {
+    private final long start;
+    private final List<Tuple> rows;
+    private long bytes;
+
+    private Chunk(long start, List<Tuple> rows) {
+      this.start = start;
+      this.rows = rows;
+    }
+  }
+
+  private static class Segment {
+    private final long start;
+    private final long end;
+    private final Path path;
+
+    private Segment(long start, long end, Path path) {
+      this.start = start;
+      this.end = end;
+      this.path = path;
+    }
+  }
+}
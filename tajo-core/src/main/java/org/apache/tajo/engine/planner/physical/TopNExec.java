@@ -0,0 +1,117 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.tajo.engine.planner.logical.LimitNode;
+import org.apache.tajo.engine.planner.logical.SortNode;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.worker.TaskAttemptContext;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.PriorityQueue;
+
+/**
+ * It executes a sort followed by a limit. It keeps only the first N tuples in the sort order by using
+ * a bounded heap, so it does not sort or store all input tuples.
+ */
+public class TopNExec extends SortExec {
+  private SortNode plan;
+  private final int fetchFirstNum;
+
+  /** a max-heap whose head is the largest tuple among the current top-n tuples */
+  private PriorityQueue<Tuple> heap;
+  private Tuple [] sortedTuples;
+  private int pos;
+  private boolean computed = false;
+
+  public TopNExec(final TaskAttemptContext context, SortNode plan, LimitNode limit, PhysicalExec child) {
+    super(context, plan.getInSchema(), plan.getOutSchema(), child, plan.getSortKeys());
+    this.plan = plan;
+    this.fetchFirstNum = (int) Math.min(limit.getFetchFirstNum(), Integer.MAX_VALUE - 1);
+  }
+
+  public int getFetchFirstNum() {
+    return fetchFirstNum;
+  }
+
+  @Override
+  public void init() throws IOException {
+    super.init();
+    this.heap = new PriorityQueue<Tuple>(Math.max(1, fetchFirstNum + 1),
+        Collections.reverseOrder(getComparator()));
+  }
+
+  private void compute() throws IOException {
+    if (fetchFirstNum > 0) {
+      Tuple tuple;
+      while ((tuple = child.next()) != null && !context.isStopped()) {
+        if (heap.size() < fetchFirstNum) {
+          heap.add(new VTuple(tuple));
+        } else if (getComparator().compare(tuple, heap.peek()) < 0) {
+          heap.poll();
+          heap.add(new VTuple(tuple));
+        }
+      }
+    }
+
+    // the heap returns tuples in the descending order.
+    sortedTuples = new Tuple[heap.size()];
+    for (int i = sortedTuples.length - 1; i >= 0; i--) {
+      sortedTuples[i] = heap.poll();
+    }
+    pos = 0;
+    computed = true;
+  }
+
+  @Override
+  public Tuple next() throws IOException {
+    if (!computed) {
+      compute();
+    }
+
+    if (pos < sortedTuples.length) {
+      return sortedTuples[pos++];
+    } else {
+      return null;
+    }
+  }
+
+  @Override
+  public void rescan() throws IOException {
+    if (computed) {
+      pos = 0;
+    } else {
+      super.rescan();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    super.close();
+    heap = null;
+    sortedTuples = null;
+    plan = null;
+  }
+
+  public SortNode getPlan() {
+    return this.plan;
+  }
+}
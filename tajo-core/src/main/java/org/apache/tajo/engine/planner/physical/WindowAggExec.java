@@ -0,0 +1,562 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.engine.eval.AggregationFunctionCallEval;
+import org.apache.tajo.engine.eval.WindowFunctionEval;
+import org.apache.tajo.engine.eval.WindowFunctionEval.WindowFrame;
+import org.apache.tajo.engine.function.FunctionContext;
+import org.apache.tajo.engine.planner.logical.WindowAggNode;
+import org.apache.tajo.engine.planner.physical.SpillableRowBuffer.Reader;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.TupleComparator;
+import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.worker.TaskAttemptContext;
+
+import java.io.IOException;
+
+import static org.apache.tajo.algebra.WindowSpec.WindowFrameBoundType;
+import static org.apache.tajo.algebra.WindowSpec.WindowFrameUnit;
+
+/**
+ * This is the window aggregation operator.
+ *
+ * <h3>Implementation</h3>
+ * The input must be sorted by partition keys and then by sort keys of the window. This operator reads rows of a
+ * partition lazily into a {@link SpillableRowBuffer}, computes the window functions for each row, and emits each
+ * input row followed by the results of window functions. After a row is emitted, rows which will not be visited by
+ * any frame anymore are discarded from the buffer.
+ *
+ * <h4>Streaming</h4>
+ * row_number(), rank() and dense_rank() only need the current row and the first row of its peer group, which is
+ * a set of rows having the same values of sort keys. An aggregation over a frame ending at CURRENT ROW never reads
+ * rows beyond the current peer group, and it keeps no row before the frame. So, these functions are computed while
+ * rows are streamed, and memory consumption is bounded by a peer group and a frame instead of a partition.
+ *
+ * <h4>Spilling</h4>
+ * A frame ending at UNBOUNDED FOLLOWING, or a frame without sort keys in RANGE mode, needs the whole partition.
+ * Rows of such a partition are spilled into local files when they exceed
+ * {@link ConfVars#EXECUTOR_WINDOW_AGG_BUFFER_SIZE}, and they are read back sequentially.
+ *
+ * <h4>Aggregation functions</h4>
+ * Both the start and the end of a frame never move backward while rows of a partition are visited in order.
+ * Each aggregation is computed by {@link FrameAggregator}, which adds a row once when it enters the frame.
+ * A row leaving the frame is handled via partial results, so each row is aggregated a constant number of
+ * times instead of once per frame.
+ */
+public class WindowAggExec extends UnaryPhysicalExec {
+  private final WindowAggNode plan;
+  private final WindowFunctionEval [] windowFuncs;
+  private final int [] partitionKeyIds;
+  private final TupleComparator peerComparator;
+  /** whether any frame ends at the end of the peer group of the current row */
+  private final boolean needPeerEnd;
+  private long bufferBytesNum;
+
+  /** rows of the current partition which are still needed */
+  private SpillableRowBuffer partition;
+  /** reads the current row */
+  private Reader rowReader;
+  /** reads rows following the current peer group in order to find its end */
+  private Reader peerReader;
+  /** the first row of the current partition */
+  private Tuple partitionFirst;
+  /** the first row of the next partition */
+  private Tuple lookahead;
+  /** whether all rows of the current partition have been read from the child */
+  private boolean partitionEnd = true;
+  private boolean eof = false;
+
+  private FrameAggregator [] aggregators;
+  /** the first row of the peer group for the current row */
+  private Tuple peerFirst;
+  /** the first and the last (exclusive) positions of the peer group for the current row */
+  private long peerStart;
+  private long peerEnd;
+  private long denseRank;
+  private long currentRow;
+
+  public WindowAggExec(TaskAttemptContext context, WindowAggNode plan, PhysicalExec child) throws IOException {
+    super(context, plan.getInSchema(), plan.getOutSchema(), child);
+    this.plan = plan;
+    this.windowFuncs = plan.hasWindowFunctions() ? plan.getWindowFunctions() : new WindowFunctionEval[0];
+
+    if (plan.hasPartitionKeys()) {
+      Column [] partitionKeys = plan.getPartitionKeys();
+      partitionKeyIds = new int[partitionKeys.length];
+      for (int i = 0; i < partitionKeys.length; i++) {
+        partitionKeyIds[i] = inSchema.getColumnId(partitionKeys[i].getQualifiedName());
+      }
+    } else {
+      partitionKeyIds = new int[0];
+    }
+
+    if (plan.hasSortSpecs()) {
+      peerComparator = new TupleComparator(inSchema, plan.getSortSpecs());
+    } else {
+      peerComparator = null;
+    }
+
+    boolean needPeerEnd = false;
+    for (WindowFunctionEval func : windowFuncs) {
+      if (func.hasAggFunction()) {
+        WindowFrame frame = func.getFrame();
+        needPeerEnd |= frame.getUnit() == WindowFrameUnit.RANGE
+            && frame.getEndType() == WindowFrameBoundType.CURRENT_ROW;
+      }
+    }
+    this.needPeerEnd = needPeerEnd;
+
+    this.bufferBytesNum = context.getConf().getLongVar(ConfVars.EXECUTOR_WINDOW_AGG_BUFFER_SIZE) * 1048576L;
+  }
+
+  public WindowAggNode getPlan() {
+    return plan;
+  }
+
+  @VisibleForTesting
+  public void setBufferBytesNum(long bufferBytesNum) {
+    this.bufferBytesNum = bufferBytesNum;
+    if (partition != null) {
+      partition.setBufferBytesNum(bufferBytesNum);
+    }
+  }
+
+  /**
+   * @return the number of spilled files which have been created by this operator
+   */
+  @VisibleForTesting
+  public int getSpilledFileNum() {
+    return partition != null ? partition.getSpilledFileNum() : 0;
+  }
+
+  @Override
+  public void init() throws IOException {
+    super.init();
+    partition = new SpillableRowBuffer(context, inSchema, getExecutorTmpDir(), bufferBytesNum);
+    aggregators = new FrameAggregator[windowFuncs.length];
+  }
+
+  @Override
+  public Tuple next() throws IOException {
+    fetchRows(currentRow + 1);
+    if (currentRow >= partition.size()) {
+      if (!nextPartition()) {
+        return null;
+      }
+    }
+
+    Tuple row = rowReader.next();
+    if (peerFirst == null || (peerComparator != null && peerComparator.compare(peerFirst, row) != 0)) {
+      peerFirst = row;
+      peerStart = currentRow;
+      denseRank++;
+      if (needPeerEnd) {
+        peerEnd = findPeerEnd();
+      }
+    }
+
+    Tuple outTuple = new VTuple(outSchema.size());
+    int columnNum = inSchema.size();
+    for (int i = 0; i < columnNum; i++) {
+      outTuple.put(i, row.get(i));
+    }
+    for (int i = 0; i < windowFuncs.length; i++) {
+      outTuple.put(columnNum + i, computeWindowFunction(i));
+    }
+
+    currentRow++;
+    discardRows();
+    return outTuple;
+  }
+
+  /**
+   * Starts the next partition with the first row of it.
+   *
+   * @return False if there is no more input
+   */
+  private boolean nextPartition() throws IOException {
+    Tuple first;
+    if (lookahead != null) {
+      first = lookahead;
+      lookahead = null;
+    } else if (eof || (first = child.next()) == null) {
+      eof = true;
+      return false;
+    } else {
+      first = new VTuple(first);
+    }
+
+    partition.clear();
+    partition.add(first);
+    partitionFirst = first;
+    partitionEnd = false;
+    rowReader = partition.newReader(0);
+    peerReader = needPeerEnd && peerComparator != null ? partition.newReader(1) : null;
+    peerFirst = null;
+    currentRow = 0;
+    peerStart = 0;
+    peerEnd = 0;
+    denseRank = 0;
+
+    for (int i = 0; i < windowFuncs.length; i++) {
+      if (windowFuncs[i].hasAggFunction()) {
+        boolean fixedHead = windowFuncs[i].getFrame().getStartType() == WindowFrameBoundType.UNBOUNDED_PRECEDING;
+        aggregators[i] = new FrameAggregator(windowFuncs[i].getAggFunction(), inSchema, partition, fixedHead);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Reads rows of the current partition from the child until the partition has the given number of rows
+   * or all rows of the partition are read.
+   */
+  private void fetchRows(long rowNum) throws IOException {
+    Tuple tuple;
+    while (!partitionEnd && partition.size() < rowNum) {
+      if (context.isStopped() || (tuple = child.next()) == null) {
+        eof = true;
+        partitionEnd = true;
+      } else if (isSamePartition(partitionFirst, tuple)) {
+        partition.add(tuple);
+      } else {
+        lookahead = new VTuple(tuple);
+        partitionEnd = true;
+      }
+    }
+  }
+
+  private boolean isSamePartition(Tuple first, Tuple tuple) {
+    for (int keyId : partitionKeyIds) {
+      if (!first.get(keyId).equals(tuple.get(keyId))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return the last (exclusive) position of the peer group which starts at the current row
+   */
+  private long findPeerEnd() throws IOException {
+    if (peerComparator == null) {
+      fetchRows(Long.MAX_VALUE);
+      return partition.size();
+    }
+
+    // the peer reader always stops at the row following the current row
+    long end = currentRow + 1;
+    while (true) {
+      fetchRows(end + 1);
+      if (end >= partition.size() || peerComparator.compare(peerFirst, peerReader.next()) != 0) {
+        return end;
+      }
+      end++;
+    }
+  }
+
+  /**
+   * Discards rows which neither the current row nor any frame will visit again.
+   */
+  private void discardRows() throws IOException {
+    long firstNeededRow = currentRow;
+    for (FrameAggregator aggregator : aggregators) {
+      if (aggregator != null) {
+        firstNeededRow = Math.min(firstNeededRow, aggregator.getFirstNeededRow());
+      }
+    }
+    partition.discard(firstNeededRow);
+  }
+
+  private Datum computeWindowFunction(int funcIdx) throws IOException {
+    WindowFunctionEval func = windowFuncs[funcIdx];
+    switch (func.getFuncType()) {
+    case ROW_NUMBER:
+      return DatumFactory.createInt8(currentRow + 1);
+    case RANK:
+      return DatumFactory.createInt8(peerStart + 1);
+    case DENSE_RANK:
+      return DatumFactory.createInt8(denseRank);
+    default:
+      WindowFrame frame = func.getFrame();
+      long start = getFrameBound(frame.getUnit(), frame.getStartType(), frame.getStartOffset(), true);
+      long end = getFrameBound(frame.getUnit(), frame.getEndType(), frame.getEndOffset(), false);
+      return aggregators[funcIdx].aggregate(start, Math.max(start, end));
+    }
+  }
+
+  /**
+   * It reads rows of the partition as far as the frame bound of the current row requires.
+   *
+   * @return the position of the frame bound for the current row. The end bound is exclusive.
+   */
+  private long getFrameBound(WindowFrameUnit unit, WindowFrameBoundType boundType, long offset, boolean isStart)
+      throws IOException {
+    long position;
+    switch (boundType) {
+    case UNBOUNDED_PRECEDING:
+      return 0;
+    case UNBOUNDED_FOLLOWING:
+      fetchRows(Long.MAX_VALUE);
+      return partition.size();
+    case CURRENT_ROW:
+      if (unit == WindowFrameUnit.RANGE) {
+        return isStart ? peerStart : peerEnd;
+      } else {
+        return isStart ? currentRow : currentRow + 1;
+      }
+    case PRECEDING:
+      position = currentRow - offset + (isStart ? 0 : 1);
+      break;
+    case FOLLOWING:
+      position = currentRow + offset + (isStart ? 0 : 1);
+      fetchRows(position);
+      break;
+    default:
+      throw new UnsupportedOperationException("Unknown window frame bound: " + boundType);
+    }
+    return Math.max(0, Math.min(partition.size(), position));
+  }
+
+  @Override
+  public void rescan() throws IOException {
+    super.rescan();
+    partition.clear();
+    lookahead = null;
+    partitionFirst = null;
+    peerFirst = null;
+    partitionEnd = true;
+    eof = false;
+    currentRow = 0;
+    peerStart = 0;
+    peerEnd = 0;
+    denseRank = 0;
+  }
+
+  @Override
+  public void close() throws IOException {
+    super.close();
+    if (partition != null) {
+      partition.clear();
+    }
+    partition = null;
+    rowReader = null;
+    peerReader = null;
+    partitionFirst = null;
+    lookahead = null;
+    peerFirst = null;
+    aggregators = null;
+  }
+
+  /**
+   * It aggregates a sliding frame [head, tail) of a partition with two stacks. The back stack is a context
+   * which accumulates rows from backStart to tail. The front stack is the suffix partial results of rows from
+   * head to backStart, which are computed when head passes backStart. So, a frame result is the merge of at most
+   * three partial results, and each row is accumulated at most three times.
+   *
+   * <p>Rows of the front stack are divided into blocks. Only the suffix partial results of whole blocks and of
+   * rows in the block of head are kept in memory, so rows are read forward only and the memory consumption does
+   * not depend on the frame size.</p>
+   */
+  private static class FrameAggregator {
+    private static final int BLOCK_ROWS = 1024;
+
+    private final AggregationFunctionCallEval aggEval;
+    private final Schema schema;
+    private final SpillableRowBuffer rows;
+    /** whether the frame always starts at the first row of the partition */
+    private final boolean fixedHead;
+    private final Tuple partialTuple = new VTuple(1);
+
+    private long head = 0;
+    private long tail = 0;
+    private long backStart = 0;
+    private FunctionContext backContext;
+    /** reads the row at tail */
+    private Reader tailReader;
+
+    /** the first position of the front stack */
+    private long frontStart = 0;
+    /** the suffix partial result from each block to backStart, or null if there is one block */
+    private Datum [] blockSuffixes;
+    /** the block which rowSuffixes belong to */
+    private int loadedBlock = -1;
+    /** the suffix partial result from each row to the end of the loaded block */
+    private final Datum [] rowSuffixes = new Datum[BLOCK_ROWS];
+    private final Tuple [] blockRows = new Tuple[BLOCK_ROWS];
+    private Reader frontReader;
+
+    FrameAggregator(AggregationFunctionCallEval aggEval, Schema schema, SpillableRowBuffer rows, boolean fixedHead) {
+      this.aggEval = aggEval;
+      this.schema = schema;
+      this.rows = rows;
+      this.fixedHead = fixedHead;
+      this.backContext = aggEval.newContext();
+    }
+
+    Datum aggregate(long start, long end) throws IOException {
+      slide(start, end);
+
+      if (head == tail) {
+        return emptyResult();
+      }
+
+      if (head == backStart) {
+        return aggEval.terminate(backContext);
+      }
+
+      int block = (int) ((head - frontStart) / BLOCK_ROWS);
+      if (block != loadedBlock) {
+        loadBlock(block);
+      }
+
+      FunctionContext context = aggEval.newContext();
+      mergePartial(context, rowSuffixes[(int) (head - getBlockStart(block))]);
+      if (blockSuffixes != null && block + 1 < blockSuffixes.length) {
+        mergePartial(context, blockSuffixes[block + 1]);
+      }
+      if (backStart < tail) {
+        mergePartial(context, aggEval.getPartialResult(backContext));
+      }
+      return aggEval.terminate(context);
+    }
+
+    /**
+     * @return the first position of rows which this aggregator will read again
+     */
+    long getFirstNeededRow() {
+      if (fixedHead) {
+        // the back stack is never moved to the front stack
+        return tail;
+      } else if (head == backStart) {
+        // the back stack will be moved to the front stack
+        return backStart;
+      } else if (loadedBlock >= 0) {
+        return Math.min(getBlockStart(loadedBlock + 1), backStart);
+      } else {
+        return getBlockStart((int) ((head - frontStart) / BLOCK_ROWS));
+      }
+    }
+
+    private void slide(long start, long end) throws IOException {
+      if (start >= tail) {
+        head = tail = backStart = frontStart = start;
+        backContext = aggEval.newContext();
+        blockSuffixes = null;
+        loadedBlock = -1;
+      }
+
+      if (tail < end && (tailReader == null || tailReader.getPosition() != tail)) {
+        if (tailReader != null) {
+          tailReader.close();
+        }
+        tailReader = rows.newReader(tail);
+      }
+      while (tail < end) {
+        aggEval.accumulate(backContext, schema, tailReader.next());
+        tail++;
+      }
+
+      if (start > backStart) {
+        flip();
+      }
+      head = start;
+    }
+
+    /**
+     * Moves all rows of the back stack to the front stack.
+     */
+    private void flip() throws IOException {
+      frontStart = backStart;
+      int blockNum = (int) ((tail - frontStart + BLOCK_ROWS - 1) / BLOCK_ROWS);
+      if (blockNum > 1) {
+        blockSuffixes = new Datum[blockNum];
+        Reader reader = rows.newReader(frontStart);
+        for (int b = 0; b < blockNum; b++) {
+          FunctionContext context = aggEval.newContext();
+          for (long i = getBlockStart(b); i < Math.min(getBlockStart(b + 1), tail); i++) {
+            aggEval.accumulate(context, schema, reader.next());
+          }
+          blockSuffixes[b] = aggEval.getPartialResult(context);
+        }
+        reader.close();
+
+        FunctionContext context = aggEval.newContext();
+        for (int b = blockNum - 1; b >= 0; b--) {
+          mergePartial(context, blockSuffixes[b]);
+          blockSuffixes[b] = aggEval.getPartialResult(context);
+        }
+      } else {
+        blockSuffixes = null;
+      }
+      loadedBlock = -1;
+      backStart = tail;
+      backContext = aggEval.newContext();
+    }
+
+    /**
+     * Computes the suffix partial results of rows in the given block of the front stack.
+     */
+    private void loadBlock(int block) throws IOException {
+      long blockStart = getBlockStart(block);
+      int rowNum = (int) (Math.min(getBlockStart(block + 1), backStart) - blockStart);
+      if (frontReader == null || frontReader.getPosition() != blockStart) {
+        if (frontReader != null) {
+          frontReader.close();
+        }
+        frontReader = rows.newReader(blockStart);
+      }
+      for (int i = 0; i < rowNum; i++) {
+        blockRows[i] = frontReader.next();
+      }
+
+      FunctionContext context = aggEval.newContext();
+      for (int i = rowNum - 1; i >= 0; i--) {
+        aggEval.accumulate(context, schema, blockRows[i]);
+        rowSuffixes[i] = aggEval.getPartialResult(context);
+        blockRows[i] = null;
+      }
+      loadedBlock = block;
+    }
+
+    private long getBlockStart(int block) {
+      return frontStart + (long) block * BLOCK_ROWS;
+    }
+
+    private void mergePartial(FunctionContext context, Datum partial) {
+      partialTuple.put(0, partial);
+      aggEval.mergePartial(context, partialTuple);
+    }
+
+    /**
+     * An aggregation of an empty frame is the result of a context which accumulates nothing. For example,
+     * it is 0 for count() and null for sum().
+     */
+    private Datum emptyResult() {
+      return aggEval.terminate(aggEval.newContext());
+    }
+  }
+}
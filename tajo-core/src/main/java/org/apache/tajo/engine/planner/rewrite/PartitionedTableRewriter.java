@@ -23,9 +23,12 @@ import com.google.common.collect.Sets;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.fs.*;
+import org.apache.tajo.catalog.CatalogService;
+import org.apache.tajo.catalog.CatalogUtil;
 import org.apache.tajo.catalog.Column;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.TableDesc;
+import org.apache.tajo.catalog.partition.PartitionDesc;
 import org.apache.tajo.catalog.partition.PartitionMethodDesc;
 import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.engine.eval.*;
@@ -49,9 +52,19 @@ public class PartitionedTableRewriter implements RewriteRule {
   private final Rewriter rewriter = new Rewriter();
 
   private final TajoConf systemConf;
+  private final CatalogService catalog;
 
   public PartitionedTableRewriter(TajoConf conf) {
+    this(conf, null);
+  }
+
+  /**
+   * @param catalog the catalog which keeps the partitions of tables. If it is null, partitions are always found by
+   *                listing the directories of tables.
+   */
+  public PartitionedTableRewriter(TajoConf conf, CatalogService catalog) {
     systemConf = conf;
+    this.catalog = catalog;
   }
 
   @Override
@@ -233,15 +246,68 @@ public class PartitionedTableRewriter implements RewriteRule {
     return paths;
   }
 
-  private Path [] findFilteredPartitionPaths(ScanNode scanNode) throws IOException {
-    TableDesc table = scanNode.getTableDesc();
+  /**
+   * @return the partitions of a table registered in the catalog, or null if no partition of the table is
+   * registered. For example, the partitions of a table created before partitions were kept by the catalog are not
+   * registered.
+   */
+  private List<PartitionDesc> getRegisteredPartitions(TableDesc table) {
+    if (catalog == null) {
+      return null;
+    }
+    List<PartitionDesc> partitions = catalog.getPartitions(CatalogUtil.extractQualifier(table.getName()),
+        CatalogUtil.extractSimpleName(table.getName()));
+    return partitions.isEmpty() ? null : partitions;
+  }
+
+  /**
+   * Evaluates the partition filter conditions against the values of the registered partitions, instead of
+   * listing the partition directories of a table.
+   *
+   * @param conjunctiveForms search condition corresponding to partition columns.
+   *                         If it is NULL, it means that there is no search condition for this table.
+   * @return the partitions satisfying the search condition
+   */
+  private static List<PartitionDesc> filterRegisteredPartitions(Schema partitionColumns,
+                                                                EvalNode [] conjunctiveForms,
+                                                                List<PartitionDesc> partitions) {
+    EvalNode filter = null;
+    if (conjunctiveForms != null) {
+      filter = AlgebraicUtil.createSingletonExprFromCNF(conjunctiveForms);
+    }
+
+    List<PartitionDesc> filtered = Lists.newArrayList();
+    for (PartitionDesc partition : partitions) {
+      Tuple tuple = TupleUtil.buildTupleFromPartitionPath(partitionColumns, new Path(partition.getName()), true);
+      if (tuple == null) {
+        continue;
+      }
+      if (filter == null || filter.eval(partitionColumns, tuple).asBool()) {
+        filtered.add(partition);
+      }
+    }
+
+    LOG.info("Filtered partitions in the catalog: " + filtered.size() + " of " + partitions.size());
+    return filtered;
+  }
+
+  private static Schema buildPartitionValuesSchema(ScanNode scanNode) {
     PartitionMethodDesc partitionDesc = scanNode.getTableDesc().getPartitionMethod();
 
     Schema paritionValuesSchema = new Schema();
     for (Column column : partitionDesc.getExpressionSchema().getColumns()) {
       paritionValuesSchema.addColumn(column);
     }
+    return paritionValuesSchema;
+  }
 
+  /**
+   * Finds the predicates on partition columns from the search condition of a scan, and removes them from the
+   * search condition.
+   *
+   * @return the predicates on partition columns, or null if there is no such predicate.
+   */
+  private EvalNode [] findPartitionFilters(ScanNode scanNode, Schema paritionValuesSchema) {
     Set<EvalNode> indexablePredicateSet = Sets.newHashSet();
 
     // if a query statement has a search condition, try to find indexable predicates
@@ -272,10 +338,9 @@ public class PartitionedTableRewriter implements RewriteRule {
     }
 
     if (indexablePredicateSet.size() > 0) { // There are at least one indexable predicates
-      return findFilteredPaths(paritionValuesSchema,
-          indexablePredicateSet.toArray(new EvalNode[indexablePredicateSet.size()]), table.getPath());
-    } else { // otherwise, we will get all partition paths.
-      return findFilteredPaths(paritionValuesSchema, null, table.getPath());
+      return indexablePredicateSet.toArray(new EvalNode[indexablePredicateSet.size()]);
+    } else { // otherwise, we will get all partitions.
+      return null;
     }
   }
 
@@ -352,11 +417,29 @@ public class PartitionedTableRewriter implements RewriteRule {
       }
 
       try {
-        Path [] filteredPaths = findFilteredPartitionPaths(scanNode);
-        plan.addHistory("PartitionTableRewriter chooses " + filteredPaths.length + " of partitions");
+        Schema paritionValuesSchema = buildPartitionValuesSchema(scanNode);
+        EvalNode [] partitionFilters = findPartitionFilters(scanNode, paritionValuesSchema);
+        List<PartitionDesc> registeredPartitions = getRegisteredPartitions(table);
+
+        Path [] filteredPaths;
         PartitionedTableScanNode rewrittenScanNode = plan.createNode(PartitionedTableScanNode.class);
-        rewrittenScanNode.init(scanNode, filteredPaths);
-        updateTableStat(rewrittenScanNode);
+        if (registeredPartitions != null) {
+          List<PartitionDesc> partitions =
+              filterRegisteredPartitions(paritionValuesSchema, partitionFilters, registeredPartitions);
+          filteredPaths = new Path[partitions.size()];
+          long totalVolume = 0;
+          for (int i = 0; i < filteredPaths.length; i++) {
+            filteredPaths[i] = new Path(partitions.get(i).getPath());
+            totalVolume += partitions.get(i).getNumBytes();
+          }
+          rewrittenScanNode.init(scanNode, filteredPaths);
+          rewrittenScanNode.getTableDesc().getStats().setNumBytes(totalVolume);
+        } else {
+          filteredPaths = findFilteredPaths(paritionValuesSchema, partitionFilters, table.getPath());
+          rewrittenScanNode.init(scanNode, filteredPaths);
+          updateTableStat(rewrittenScanNode);
+        }
+        plan.addHistory("PartitionTableRewriter chooses " + filteredPaths.length + " of partitions");
 
         // if it is topmost node, set it as the rootnode of this block.
         if (stack.empty()) {
@@ -632,6 +632,56 @@ public class ProjectionPushDownRule extends
     return node;
   }
 
+  public LogicalNode visitWindowAgg(Context context, LogicalPlan plan, LogicalPlan.QueryBlock block,
+                                    WindowAggNode node, Stack<LogicalNode> stack) throws PlanningException {
+    Context newContext = new Context(context);
+
+    // Partition keys and sort keys are required by this node.
+    if (node.hasPartitionKeys()) {
+      for (Column partitionKey : node.getPartitionKeys()) {
+        newContext.addExpr(new FieldEval(partitionKey));
+      }
+    }
+    if (node.hasSortSpecs()) {
+      for (SortSpec sortSpec : node.getSortSpecs()) {
+        newContext.addExpr(new FieldEval(sortSpec.getSortKey()));
+      }
+    }
+
+    // Getting window function names
+    final int inputColumnNum = node.getTargets().length - node.getWindowFunctions().length;
+    final String [] windowFuncNames = new String[node.getWindowFunctions().length];
+    for (int i = 0, targetIdx = inputColumnNum; i < windowFuncNames.length; i++, targetIdx++) {
+      Target target = node.getTargets()[targetIdx];
+      windowFuncNames[i] = newContext.addExpr(new Target(node.getWindowFunctions()[i], target.getCanonicalName()));
+    }
+
+    LogicalNode child = super.visitWindowAgg(newContext, plan, block, node, stack);
+
+    node.setInSchema(child.getOutSchema());
+
+    // Input columns are passed through, and they are followed by window functions.
+    List<Target> targets = TUtil.newList(PlannerUtil.schemaToTargets(child.getOutSchema()));
+    List<WindowFunctionEval> windowFuncs = TUtil.newList();
+    for (String referenceName : windowFuncNames) {
+      Target target = context.targetListMgr.getTarget(referenceName);
+
+      if (context.targetListMgr.isEvaluated(referenceName)) {
+        continue;
+      }
+      if (LogicalPlanner.checkIfBeEvaluatedAtWindowAgg(target.getEvalTree(), node)) {
+        windowFuncs.add((WindowFunctionEval) target.getEvalTree());
+        targets.add(new Target(new FieldEval(target.getNamedColumn())));
+        context.targetListMgr.markAsEvaluated(target);
+      }
+    }
+    node.setWindowFunctions(windowFuncs.toArray(new WindowFunctionEval[windowFuncs.size()]));
+    node.setTargets(targets.toArray(new Target[targets.size()]));
+
+    LogicalPlanner.verifyProjectedFields(block, node);
+    return node;
+  }
+
   public static Target [] buildGroupByTarget(GroupbyNode groupbyNode, @Nullable List<Target> groupingKeyTargets,
                                              String [] aggEvalNames) {
     final int groupingKeyNum =
@@ -0,0 +1,243 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.utils;
+
+import com.google.protobuf.ByteString;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.util.bloom.BloomFilter;
+import org.apache.hadoop.util.bloom.Key;
+import org.apache.hadoop.util.hash.Hash;
+import org.apache.tajo.common.ProtoObject;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.storage.Tuple;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.apache.tajo.ipc.TajoWorkerProtocol.RuntimeFilterProto;
+
+/**
+ * A runtime filter summarizes the join keys of the build side of a join, and it is used to discard the rows of
+ * the probe side which cannot be joined before they are shuffled.
+ *
+ * <p>It consists of a bloom filter of the join keys and the minimum and maximum values of a single integral key.
+ * Integral keys are hashed as longs and floating point keys are hashed as doubles, so that equal values of
+ * different integral types or different floating point types have the same hash.
+ * Rows with a null key are not added, and they never pass the filter, because they never match any row in an
+ * inner join. A filter may return false positives but never false negatives. All filters must be created with
+ * the same size so that the filters of tasks can be merged. The size is decided by the planner from the estimated
+ * rows of the build side.</p>
+ */
+public class RuntimeFilter implements ProtoObject<RuntimeFilterProto> {
+  private static final int HASH_FUNCTION_NUM = 5;
+  private static final int MIN_BITS = 1024;
+
+  private final BloomFilter bloomFilter;
+  private long numKeys = 0;
+  private long minValue = Long.MAX_VALUE;
+  private long maxValue = Long.MIN_VALUE;
+
+  private final Key key = new Key();
+  private final ByteArrayOutputStream keyBytes = new ByteArrayOutputStream();
+
+  /**
+   * @param numBits the size of the bloom filter, which must be the same for all filters to be merged
+   */
+  public RuntimeFilter(int numBits) {
+    this.bloomFilter = new BloomFilter(numBits, HASH_FUNCTION_NUM, Hash.MURMUR_HASH);
+  }
+
+  public RuntimeFilter(RuntimeFilterProto proto) throws IOException {
+    this.bloomFilter = new BloomFilter();
+    DataInputBuffer in = new DataInputBuffer();
+    byte [] bytes = proto.getBloomFilter().toByteArray();
+    in.reset(bytes, bytes.length);
+    bloomFilter.readFields(in);
+    this.numKeys = proto.getNumKeys();
+    if (proto.hasMinValue() && proto.hasMaxValue()) {
+      this.minValue = proto.getMinValue();
+      this.maxValue = proto.getMaxValue();
+    }
+  }
+
+  /**
+   * Computes the size of the bloom filter for the expected number of keys. The number of keys is capped by
+   * the max keys, because a filter with more keys is not shipped to the probe side.
+   *
+   * @param expectedKeys the estimated number of build-side rows, or a negative value if it is unknown
+   */
+  public static int computeNumBits(TajoConf conf, long expectedKeys) {
+    long maxKeys = conf.getLongVar(ConfVars.DIST_QUERY_JOIN_RUNTIME_FILTER_MAX_KEYS);
+    long numKeys = expectedKeys < 0 ? maxKeys : Math.min(expectedKeys, maxKeys);
+    long numBits = numKeys * conf.getIntVar(ConfVars.DIST_QUERY_JOIN_RUNTIME_FILTER_BITS_PER_KEY);
+    return (int) Math.min(Math.max(numBits, MIN_BITS), Integer.MAX_VALUE);
+  }
+
+  /**
+   * @return True if a runtime filter can be built on the keys of the given types.
+   */
+  public static boolean isSupportedType(Type type) {
+    return isIntegral(type) || isFloatingPoint(type) || isBytes(type);
+  }
+
+  /**
+   * @return True if the keys of the given types are hashed in the same way when they are equal.
+   */
+  public static boolean isCompatible(Type buildType, Type probeType) {
+    if (!isSupportedType(buildType) || !isSupportedType(probeType)) {
+      return false;
+    }
+    if (isIntegral(buildType)) {
+      return isIntegral(probeType);
+    } else if (isFloatingPoint(buildType)) {
+      return isFloatingPoint(probeType);
+    } else {
+      return buildType == probeType;
+    }
+  }
+
+  private static boolean isIntegral(Type type) {
+    return type == Type.INT1 || type == Type.INT2 || type == Type.INT4 || type == Type.INT8;
+  }
+
+  private static boolean isFloatingPoint(Type type) {
+    return type == Type.FLOAT4 || type == Type.FLOAT8;
+  }
+
+  private static boolean isBytes(Type type) {
+    return type == Type.TEXT || type == Type.BLOB;
+  }
+
+  /**
+   * Adds the key of a build-side tuple.
+   */
+  public void add(Tuple tuple, int [] keyIds) {
+    if (!setKey(tuple, keyIds)) {
+      return;
+    }
+    bloomFilter.add(key);
+    numKeys++;
+
+    if (keyIds.length == 1 && isIntegral(tuple.get(keyIds[0]).type())) {
+      long value = tuple.get(keyIds[0]).asInt8();
+      minValue = Math.min(minValue, value);
+      maxValue = Math.max(maxValue, value);
+    }
+  }
+
+  /**
+   * @return False if the probe-side tuple never matches any key added to this filter.
+   */
+  public boolean mightContain(Tuple tuple, int [] keyIds) {
+    if (keyIds.length == 1 && hasRange()) {
+      Datum datum = tuple.get(keyIds[0]);
+      if (datum != null && isIntegral(datum.type())) {
+        long value = datum.asInt8();
+        if (value < minValue || value > maxValue) {
+          return false;
+        }
+      }
+    }
+    return setKey(tuple, keyIds) && bloomFilter.membershipTest(key);
+  }
+
+  /**
+   * Builds the bytes of the key columns into the reusable key.
+   *
+   * @return False if any key column is null
+   */
+  private boolean setKey(Tuple tuple, int [] keyIds) {
+    keyBytes.reset();
+    for (int keyId : keyIds) {
+      Datum datum = tuple.get(keyId);
+      if (datum == null || datum.isNull()) {
+        return false;
+      }
+      Type type = datum.type();
+      if (isIntegral(type)) {
+        writeLong(datum.asInt8());
+      } else if (isFloatingPoint(type)) {
+        double value = datum.asFloat8();
+        // 0.0 and -0.0 are equal, but their bits are different.
+        writeLong(Double.doubleToLongBits(value == 0.0d ? 0.0d : value));
+      } else {
+        byte [] bytes = datum.asByteArray();
+        writeLong(bytes.length);
+        keyBytes.write(bytes, 0, bytes.length);
+      }
+    }
+    key.set(keyBytes.toByteArray(), 1.0);
+    return true;
+  }
+
+  private void writeLong(long value) {
+    for (int i = 56; i >= 0; i -= 8) {
+      keyBytes.write((int) (value >>> i));
+    }
+  }
+
+  /**
+   * Merges the keys of another filter which is built with the same size.
+   */
+  public void merge(RuntimeFilter other) {
+    bloomFilter.or(other.bloomFilter);
+    numKeys += other.numKeys;
+    minValue = Math.min(minValue, other.minValue);
+    maxValue = Math.max(maxValue, other.maxValue);
+  }
+
+  /**
+   * @return the number of added keys including duplicated ones
+   */
+  public long getNumKeys() {
+    return numKeys;
+  }
+
+  public boolean hasRange() {
+    return minValue <= maxValue;
+  }
+
+  @Override
+  public RuntimeFilterProto getProto() {
+    RuntimeFilterProto.Builder builder = RuntimeFilterProto.newBuilder();
+    DataOutputBuffer out = new DataOutputBuffer();
+    try {
+      bloomFilter.write(out);
+    } catch (IOException e) {
+      // DataOutputBuffer never throws IOException.
+      throw new IllegalStateException(e);
+    }
+    builder.setBloomFilter(ByteString.copyFrom(out.getData(), 0, out.getLength()));
+    builder.setNumKeys(numKeys);
+    if (hasRange()) {
+      builder.setMinValue(minValue);
+      builder.setMaxValue(maxValue);
+    }
+    return builder.build();
+  }
+
+  @Override
+  public String toString() {
+    return "numKeys=" + numKeys + (hasRange() ? ", range=[" + minValue + ", " + maxValue + "]" : "");
+  }
+}
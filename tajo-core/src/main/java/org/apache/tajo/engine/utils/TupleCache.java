@@ -18,28 +18,49 @@
 
 package org.apache.tajo.engine.utils;
 
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.apache.tajo.ExecutionBlockId;
 import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.engine.planner.physical.BroadcastHashTable;
+import org.apache.tajo.storage.BinaryTupleList;
+import org.apache.tajo.storage.MemoryUtil;
 import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.util.FileUtil;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.Callable;
 
+/**
+ * A worker-wide cache of broadcast tables, which is shared by all tasks on a worker. A broadcast table is cached
+ * as a list of tuples, and the hash table built from it for a hash join is cached, too. All cached data of an
+ * execution block are removed together when the task runner of the execution block stops.
+ */
 public class TupleCache {
+  private static final Log LOG = LogFactory.getLog(TupleCache.class);
   private static TupleCache instance;
 
   private Map<TupleCacheKey, List<Tuple>> broadcastTupleCacheData
       = new HashMap<TupleCacheKey, List<Tuple>>();
+  private Map<TupleCacheKey, BroadcastHashTable> broadcastHashTables
+      = new HashMap<TupleCacheKey, BroadcastHashTable>();
   private Map<TupleCacheKey, TupleCacheStatus> broadcastTupleCacheStatus
       = new HashMap<TupleCacheKey, TupleCacheStatus>();
+  /** the cache keys of each execution block */
+  private Map<String, Set<TupleCacheKey>> ebCacheKeys = new HashMap<String, Set<TupleCacheKey>>();
+  /** the estimated memory size of each cached data */
+  private Map<TupleCacheKey, Long> cachedBytes = new HashMap<TupleCacheKey, Long>();
+  private long totalCachedBytes = 0;
 
   private Object lockMonitor = new Object();
 
   public static enum TupleCacheStatus {
     STARTED,
-    ENDED
+    ENDED,
+    /** the data is not cached because the cache is full. */
+    SKIPPED
   };
 
   private TupleCache() {
@@ -56,43 +77,78 @@ public class TupleCache {
     return lockMonitor;
   }
 
+  private void setStatus(TupleCacheKey cacheKey, TupleCacheStatus status) {
+    broadcastTupleCacheStatus.put(cacheKey, status);
+    Set<TupleCacheKey> keys = ebCacheKeys.get(cacheKey.ebId);
+    if (keys == null) {
+      keys = new HashSet<TupleCacheKey>();
+      ebCacheKeys.put(cacheKey.ebId, keys);
+    }
+    keys.add(cacheKey);
+  }
+
+  private void addCachedBytes(TupleCacheKey cacheKey, long bytes) {
+    cachedBytes.put(cacheKey, bytes);
+    totalCachedBytes += bytes;
+  }
+
   public void removeBroadcastCache(ExecutionBlockId ebId) {
     if (ebId == null) {
       return;
     }
     synchronized (lockMonitor) {
-      TupleCacheKey matchedKey = null;
-      for (TupleCacheKey eachKey: broadcastTupleCacheStatus.keySet()) {
-        if (eachKey.ebId.equals(ebId.toString())) {
-          matchedKey = eachKey;
-          break;
-        }
+      Set<TupleCacheKey> keys = ebCacheKeys.remove(ebId.toString());
+      if (keys == null) {
+        return;
       }
-      if (matchedKey != null) {
-        broadcastTupleCacheStatus.remove(matchedKey);
-        broadcastTupleCacheData.remove(matchedKey);
+      long removedBytes = 0;
+      for (TupleCacheKey key : keys) {
+        broadcastTupleCacheStatus.remove(key);
+        broadcastTupleCacheData.remove(key);
+        broadcastHashTables.remove(key);
+        Long bytes = cachedBytes.remove(key);
+        if (bytes != null) {
+          removedBytes += bytes;
+        }
       }
+      totalCachedBytes -= removedBytes;
+      LOG.info("Broadcast cache of " + ebId + " is removed (" + keys.size() + " entries, "
+          + FileUtil.humanReadableByteCount(removedBytes, false) + ")");
+      lockMonitor.notifyAll();
     }
   }
 
   public void addBroadcastCache(TupleCacheKey cacheKey, List<Tuple> cacheData) {
+    long bytes = estimateMemorySize(cacheData);
     synchronized (lockMonitor) {
       if (broadcastTupleCacheStatus.containsKey(cacheKey) &&
           broadcastTupleCacheStatus.get(cacheKey) == TupleCacheStatus.ENDED) {
         return;
       }
       broadcastTupleCacheData.put(cacheKey, cacheData);
-      broadcastTupleCacheStatus.put(cacheKey, TupleCacheStatus.ENDED);
+      setStatus(cacheKey, TupleCacheStatus.ENDED);
+      addCachedBytes(cacheKey, bytes);
       lockMonitor.notifyAll();
     }
   }
 
+  private static long estimateMemorySize(List<Tuple> cacheData) {
+    if (cacheData instanceof BinaryTupleList) {
+      return ((BinaryTupleList) cacheData).getAllocatedBytes();
+    }
+    long bytes = 0;
+    for (Tuple tuple : cacheData) {
+      bytes += MemoryUtil.calculateMemorySize(tuple);
+    }
+    return bytes;
+  }
+
   public boolean lockBroadcastScan(TupleCacheKey cacheKey) {
     synchronized (lockMonitor) {
       if (broadcastTupleCacheStatus.containsKey(cacheKey)) {
         return false;
       } else {
-        broadcastTupleCacheStatus.put(cacheKey, TupleCacheStatus.STARTED);
+        setStatus(cacheKey, TupleCacheStatus.STARTED);
         return true;
       }
     }
@@ -119,4 +175,89 @@ public class TupleCache {
       }
     }
   }
+
+  /**
+   * Returns the shared hash table of the given key. If it is not cached yet, the calling thread builds it with the
+   * builder while the other threads wait for it. If the cache does not have room for it, the built hash table is
+   * returned without being cached, and the other threads build their own hash tables.
+   *
+   * <p>A hash table is always built outside the lock, so building one does not block the other cache operations
+   * of the worker.</p>
+   *
+   * @param maxBytes the maximum memory size of all cached data
+   */
+  public BroadcastHashTable getOrBuildHashTable(TupleCacheKey cacheKey, long maxBytes,
+                                                Callable<BroadcastHashTable> builder) throws IOException {
+    boolean skipped;
+    synchronized (lockMonitor) {
+      while (true) {
+        TupleCacheStatus status = broadcastTupleCacheStatus.get(cacheKey);
+        if (status == null) {
+          setStatus(cacheKey, TupleCacheStatus.STARTED);
+          skipped = false;
+          break;
+        } else if (status == TupleCacheStatus.ENDED) {
+          return broadcastHashTables.get(cacheKey);
+        } else if (status == TupleCacheStatus.SKIPPED) {
+          skipped = true;
+          break;
+        }
+        try {
+          lockMonitor.wait();
+        } catch (InterruptedException e) {
+          throw new IOException("Interrupted while waiting for the hash table of " + cacheKey, e);
+        }
+      }
+    }
+
+    if (skipped) {
+      return callBuilder(builder);
+    }
+
+    BroadcastHashTable hashTable = null;
+    try {
+      hashTable = callBuilder(builder);
+    } finally {
+      synchronized (lockMonitor) {
+        if (hashTable == null) {
+          // the next waiting thread will try to build it.
+          broadcastTupleCacheStatus.remove(cacheKey);
+        } else if (totalCachedBytes + hashTable.getMemoryBytes() > maxBytes) {
+          LOG.info("Hash table of " + cacheKey + " (" + FileUtil.humanReadableByteCount(hashTable.getMemoryBytes(),
+              false) + ") is not cached because the broadcast cache is full");
+          setStatus(cacheKey, TupleCacheStatus.SKIPPED);
+        } else {
+          broadcastHashTables.put(cacheKey, hashTable);
+          setStatus(cacheKey, TupleCacheStatus.ENDED);
+          addCachedBytes(cacheKey, hashTable.getMemoryBytes());
+          LOG.info("Hash table of " + cacheKey + " is cached (" + hashTable.getRowNum() + " rows, "
+              + FileUtil.humanReadableByteCount(hashTable.getMemoryBytes(), false) + ")");
+        }
+        lockMonitor.notifyAll();
+      }
+    }
+    return hashTable;
+  }
+
+  private static BroadcastHashTable callBuilder(Callable<BroadcastHashTable> builder) throws IOException {
+    try {
+      return builder.call();
+    } catch (IOException e) {
+      throw e;
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IOException(e);
+    }
+  }
+
+  /**
+   * @return the estimated memory size of all cached data
+   */
+  @VisibleForTesting
+  public long getCachedBytes() {
+    synchronized (lockMonitor) {
+      return totalCachedBytes;
+    }
+  }
 }
@@ -21,10 +21,17 @@ package org.apache.tajo.engine.utils;
 public class TupleCacheKey {
   String ebId;
   String tableName;
+  /** the join keys of a shared hash table, or null for the cached tuples of a table */
+  String joinKeys;
 
   public TupleCacheKey(String ebId, String tableName) {
+    this(ebId, tableName, null);
+  }
+
+  public TupleCacheKey(String ebId, String tableName, String joinKeys) {
     this.ebId = ebId;
     this.tableName = tableName;
+    this.joinKeys = joinKeys;
   }
 
   public String getEbId() {
@@ -43,6 +50,10 @@ public class TupleCacheKey {
     this.tableName = tableName;
   }
 
+  public String getJoinKeys() {
+    return joinKeys;
+  }
+
   @Override
   public int hashCode() {
     return toString().hashCode();
@@ -55,6 +66,6 @@ public class TupleCacheKey {
 
   @Override
   public String toString() {
-    return ebId + "," + tableName;
+    return ebId + "," + tableName + (joinKeys == null ? "" : "," + joinKeys);
   }
 }
@@ -0,0 +1,662 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.utils;
+
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.storage.BinaryTuple;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+
+import java.util.*;
+
+/**
+ * A hash map whose keys are the values of some columns in tuples. Callers give a tuple and the ids of its key columns
+ * instead of building a key tuple, so looking up an existing key does not allocate any object.
+ *
+ * <p>{@link #create(Type[], int)} chooses the implementation according to the key types. A single integral,
+ * date or timestamp key is stored in an open-addressing table of primitive longs, and a single text or blob key
+ * is stored in an open-addressing table of byte arrays. Other keys are stored in a {@link HashMap} of
+ * {@link VTuple}s. Values must not be null.</p>
+ *
+ * <p>Primitive keys are read by typed getters, so looking up a key of a {@link BinaryTuple} does not decode it into
+ * a datum, and a text or blob key is hashed and compared in its page.</p>
+ *
+ * @param <V> the type of values
+ */
+public abstract class TupleKeyHashMap<V> {
+  /**
+   * Creates the best hash map for the given key types.
+   */
+  public static <V> TupleKeyHashMap<V> create(Type [] keyTypes, int initialCapacity) {
+    if (keyTypes.length == 1) {
+      switch (keyTypes[0]) {
+      case INT1:
+      case INT2:
+      case INT4:
+      case INT8:
+      case DATE:
+      case TIMESTAMP:
+        return new LongKeyHashMap<V>(initialCapacity);
+      case TEXT:
+      case BLOB:
+        return new BytesKeyHashMap<V>(initialCapacity);
+      default:
+      }
+    }
+    return new GenericKeyHashMap<V>(keyTypes.length, initialCapacity);
+  }
+
+  /**
+   * Creates the best hash map for the keys of both sides of a join. Primitive keys are used only if both sides
+   * have the same key types, so that two keys are equal in the map only if their key tuples are equal.
+   */
+  public static <V> TupleKeyHashMap<V> create(Type [] keyTypes, Type [] otherKeyTypes, int initialCapacity) {
+    if (Arrays.equals(keyTypes, otherKeyTypes)) {
+      return create(keyTypes, initialCapacity);
+    } else {
+      return new GenericKeyHashMap<V>(keyTypes.length, initialCapacity);
+    }
+  }
+
+  public static Type [] getKeyTypes(Schema schema, int [] keyIds) {
+    Type [] types = new Type[keyIds.length];
+    for (int i = 0; i < keyIds.length; i++) {
+      types[i] = schema.getColumn(keyIds[i]).getDataType().getType();
+    }
+    return types;
+  }
+
+  /**
+   * @return the value of the key in the given key columns of the tuple, or null if there is no such key.
+   */
+  public abstract V get(Tuple tuple, int [] keyIds);
+
+  /**
+   * Puts a value with the key in the given key columns of the tuple. The key is copied from the tuple.
+   */
+  public abstract void put(Tuple tuple, int [] keyIds, V value);
+
+  /**
+   * @return the hash code of the key in the given key columns. Equal keys always have the same hash code.
+   */
+  public abstract int hash(Tuple tuple, int [] keyIds);
+
+  public abstract int size();
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  public abstract void clear();
+
+  /**
+   * Returns a map sharing all entries of this map, which can be used by another thread for lookups. Once the
+   * entries are shared, this map must not be modified. Lookups of primitive keys do not have any state, so this map
+   * itself is returned.
+   */
+  public TupleKeyHashMap<V> newReader() {
+    return this;
+  }
+
+  /**
+   * @return an iterator over all entries, whose keys are key tuples. It supports {@link Iterator#remove()}.
+   */
+  public abstract Iterator<Map.Entry<Tuple, V>> entryIterator();
+
+  private static int mix(long h) {
+    h ^= (h >>> 33);
+    h *= 0xff51afd7ed558ccdL;
+    h ^= (h >>> 33);
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= (h >>> 33);
+    return (int) h;
+  }
+
+  private static boolean isNullKey(Tuple tuple, int keyId) {
+    if (tuple instanceof BinaryTuple) {
+      return tuple.isNull(keyId);
+    }
+    Datum datum = tuple.get(keyId);
+    return datum == null || datum.isNull();
+  }
+
+  private static int tableSizeFor(int capacity) {
+    int size = 16;
+    while (size < capacity / 3 * 4 + 1 && size < (1 << 30)) {
+      size <<= 1;
+    }
+    return size;
+  }
+
+  /** it marks a removed slot in open-addressing tables */
+  private static final Object REMOVED = new Object();
+
+  /**
+   * An open-addressing hash map keyed on a single column whose values can be represented as a long.
+   */
+  static class LongKeyHashMap<V> extends TupleKeyHashMap<V> {
+    private long [] keys;
+    /** original key datums, which are used when entries are iterated */
+    private Datum [] keyDatums;
+    private Object [] values;
+    private int size;
+    /** the number of slots which are occupied or removed */
+    private int used;
+
+    private Datum nullKeyDatum;
+    private V nullKeyValue;
+
+    LongKeyHashMap(int initialCapacity) {
+      allocate(tableSizeFor(initialCapacity));
+    }
+
+    private void allocate(int tableSize) {
+      keys = new long[tableSize];
+      keyDatums = new Datum[tableSize];
+      values = new Object[tableSize];
+    }
+
+    private int indexOf(long key) {
+      int mask = values.length - 1;
+      int idx = mix(key) & mask;
+      Object value;
+      while ((value = values[idx]) != null) {
+        if (value != REMOVED && keys[idx] == key) {
+          return idx;
+        }
+        idx = (idx + 1) & mask;
+      }
+      return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V get(Tuple tuple, int[] keyIds) {
+      if (isNullKey(tuple, keyIds[0])) {
+        return nullKeyValue;
+      }
+      int idx = indexOf(tuple.getInt8(keyIds[0]));
+      return idx < 0 ? null : (V) values[idx];
+    }
+
+    @Override
+    public void put(Tuple tuple, int[] keyIds, V value) {
+      Datum datum = tuple.get(keyIds[0]);
+      if (datum == null || datum.isNull()) {
+        if (nullKeyValue == null) {
+          size++;
+        }
+        nullKeyDatum = datum;
+        nullKeyValue = value;
+        return;
+      }
+
+      long key = datum.asInt8();
+      int idx = indexOf(key);
+      if (idx >= 0) {
+        values[idx] = value;
+        return;
+      }
+
+      if ((used + 1) * 4 > values.length * 3) {
+        rehash();
+      }
+      int mask = values.length - 1;
+      idx = mix(key) & mask;
+      while (values[idx] != null && values[idx] != REMOVED) {
+        idx = (idx + 1) & mask;
+      }
+      if (values[idx] == null) {
+        used++;
+      }
+      keys[idx] = key;
+      keyDatums[idx] = datum;
+      values[idx] = value;
+      size++;
+    }
+
+    private void rehash() {
+      long [] oldKeys = keys;
+      Datum [] oldKeyDatums = keyDatums;
+      Object [] oldValues = values;
+      // it does not grow if most of the used slots are removed ones
+      int nonNullSize = nullKeyValue == null ? size : size - 1;
+      allocate(nonNullSize * 2 >= oldValues.length * 3 / 4 ? oldValues.length << 1 : oldValues.length);
+      used = 0;
+
+      int mask = values.length - 1;
+      for (int i = 0; i < oldValues.length; i++) {
+        if (oldValues[i] != null && oldValues[i] != REMOVED) {
+          int idx = mix(oldKeys[i]) & mask;
+          while (values[idx] != null) {
+            idx = (idx + 1) & mask;
+          }
+          keys[idx] = oldKeys[i];
+          keyDatums[idx] = oldKeyDatums[i];
+          values[idx] = oldValues[i];
+          used++;
+        }
+      }
+    }
+
+    @Override
+    public int hash(Tuple tuple, int[] keyIds) {
+      if (isNullKey(tuple, keyIds[0])) {
+        return 0;
+      }
+      long key = tuple.getInt8(keyIds[0]);
+      return (int) (key ^ (key >>> 32));
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public void clear() {
+      Arrays.fill(keyDatums, null);
+      Arrays.fill(values, null);
+      size = 0;
+      used = 0;
+      nullKeyDatum = null;
+      nullKeyValue = null;
+    }
+
+    @Override
+    public Iterator<Map.Entry<Tuple, V>> entryIterator() {
+      return new SlotIterator<V>() {
+        @Override
+        int slotNum() {
+          return values.length;
+        }
+
+        @Override
+        boolean isOccupied(int slot) {
+          return values[slot] != null && values[slot] != REMOVED;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        Map.Entry<Tuple, V> entry(int slot) {
+          return newEntry(keyDatums[slot], (V) values[slot]);
+        }
+
+        @Override
+        void remove(int slot) {
+          keyDatums[slot] = null;
+          values[slot] = REMOVED;
+          size--;
+        }
+
+        @Override
+        V nullKeyValue() {
+          return nullKeyValue;
+        }
+
+        @Override
+        Map.Entry<Tuple, V> nullKeyEntry() {
+          return newEntry(nullKeyDatum, nullKeyValue);
+        }
+
+        @Override
+        void removeNullKey() {
+          nullKeyDatum = null;
+          nullKeyValue = null;
+          size--;
+        }
+      };
+    }
+  }
+
+  /**
+   * An open-addressing hash map keyed on a single column whose values can be represented as a byte array.
+   * Keys refer to the byte arrays of the original datums without copying them.
+   */
+  static class BytesKeyHashMap<V> extends TupleKeyHashMap<V> {
+    private int [] hashes;
+    /** original key datums, whose byte arrays are compared */
+    private Datum [] keyDatums;
+    private Object [] values;
+    private int size;
+    /** the number of slots which are occupied or removed */
+    private int used;
+
+    private Datum nullKeyDatum;
+    private V nullKeyValue;
+
+    BytesKeyHashMap(int initialCapacity) {
+      allocate(tableSizeFor(initialCapacity));
+    }
+
+    private void allocate(int tableSize) {
+      hashes = new int[tableSize];
+      keyDatums = new Datum[tableSize];
+      values = new Object[tableSize];
+    }
+
+    /**
+     * It is the same as {@link BinaryTuple#hashBytes(int)}.
+     */
+    private static int hashBytes(byte [] bytes) {
+      return Arrays.hashCode(bytes);
+    }
+
+    private int indexOf(byte [] key, int hash) {
+      int mask = values.length - 1;
+      int idx = mix(hash) & mask;
+      Object value;
+      while ((value = values[idx]) != null) {
+        if (value != REMOVED && hashes[idx] == hash && Arrays.equals(keyDatums[idx].asByteArray(), key)) {
+          return idx;
+        }
+        idx = (idx + 1) & mask;
+      }
+      return -1;
+    }
+
+    private int indexOf(BinaryTuple tuple, int keyId, int hash) {
+      int mask = values.length - 1;
+      int idx = mix(hash) & mask;
+      Object value;
+      while ((value = values[idx]) != null) {
+        if (value != REMOVED && hashes[idx] == hash && tuple.equalsBytes(keyId, keyDatums[idx].asByteArray())) {
+          return idx;
+        }
+        idx = (idx + 1) & mask;
+      }
+      return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V get(Tuple tuple, int[] keyIds) {
+      if (isNullKey(tuple, keyIds[0])) {
+        return nullKeyValue;
+      }
+      int idx;
+      if (tuple instanceof BinaryTuple) {
+        BinaryTuple binaryTuple = (BinaryTuple) tuple;
+        idx = indexOf(binaryTuple, keyIds[0], binaryTuple.hashBytes(keyIds[0]));
+      } else {
+        byte [] key = tuple.get(keyIds[0]).asByteArray();
+        idx = indexOf(key, hashBytes(key));
+      }
+      return idx < 0 ? null : (V) values[idx];
+    }
+
+    @Override
+    public void put(Tuple tuple, int[] keyIds, V value) {
+      Datum datum = tuple.get(keyIds[0]);
+      if (datum == null || datum.isNull()) {
+        if (nullKeyValue == null) {
+          size++;
+        }
+        nullKeyDatum = datum;
+        nullKeyValue = value;
+        return;
+      }
+
+      byte [] key = datum.asByteArray();
+      int hash = hashBytes(key);
+      int idx = indexOf(key, hash);
+      if (idx >= 0) {
+        values[idx] = value;
+        return;
+      }
+
+      if ((used + 1) * 4 > values.length * 3) {
+        rehash();
+      }
+      int mask = values.length - 1;
+      idx = mix(hash) & mask;
+      while (values[idx] != null && values[idx] != REMOVED) {
+        idx = (idx + 1) & mask;
+      }
+      if (values[idx] == null) {
+        used++;
+      }
+      hashes[idx] = hash;
+      keyDatums[idx] = datum;
+      values[idx] = value;
+      size++;
+    }
+
+    private void rehash() {
+      int [] oldHashes = hashes;
+      Datum [] oldKeyDatums = keyDatums;
+      Object [] oldValues = values;
+      // it does not grow if most of the used slots are removed ones
+      int nonNullSize = nullKeyValue == null ? size : size - 1;
+      allocate(nonNullSize * 2 >= oldValues.length * 3 / 4 ? oldValues.length << 1 : oldValues.length);
+      used = 0;
+
+      int mask = values.length - 1;
+      for (int i = 0; i < oldValues.length; i++) {
+        if (oldValues[i] != null && oldValues[i] != REMOVED) {
+          int idx = mix(oldHashes[i]) & mask;
+          while (values[idx] != null) {
+            idx = (idx + 1) & mask;
+          }
+          hashes[idx] = oldHashes[i];
+          keyDatums[idx] = oldKeyDatums[i];
+          values[idx] = oldValues[i];
+          used++;
+        }
+      }
+    }
+
+    @Override
+    public int hash(Tuple tuple, int[] keyIds) {
+      if (isNullKey(tuple, keyIds[0])) {
+        return 0;
+      } else if (tuple instanceof BinaryTuple) {
+        return ((BinaryTuple) tuple).hashBytes(keyIds[0]);
+      }
+      return hashBytes(tuple.get(keyIds[0]).asByteArray());
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public void clear() {
+      Arrays.fill(keyDatums, null);
+      Arrays.fill(values, null);
+      size = 0;
+      used = 0;
+      nullKeyDatum = null;
+      nullKeyValue = null;
+    }
+
+    @Override
+    public Iterator<Map.Entry<Tuple, V>> entryIterator() {
+      return new SlotIterator<V>() {
+        @Override
+        int slotNum() {
+          return values.length;
+        }
+
+        @Override
+        boolean isOccupied(int slot) {
+          return values[slot] != null && values[slot] != REMOVED;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        Map.Entry<Tuple, V> entry(int slot) {
+          return newEntry(keyDatums[slot], (V) values[slot]);
+        }
+
+        @Override
+        void remove(int slot) {
+          keyDatums[slot] = null;
+          values[slot] = REMOVED;
+          size--;
+        }
+
+        @Override
+        V nullKeyValue() {
+          return nullKeyValue;
+        }
+
+        @Override
+        Map.Entry<Tuple, V> nullKeyEntry() {
+          return newEntry(nullKeyDatum, nullKeyValue);
+        }
+
+        @Override
+        void removeNullKey() {
+          nullKeyDatum = null;
+          nullKeyValue = null;
+          size--;
+        }
+      };
+    }
+  }
+
+  private static <V> Map.Entry<Tuple, V> newEntry(Datum keyDatum, V value) {
+    return new AbstractMap.SimpleImmutableEntry<Tuple, V>(new VTuple(new Datum[] {keyDatum}), value);
+  }
+
+  /**
+   * An iterator over the slots of an open-addressing table. The entry of a null key is returned at first.
+   */
+  private static abstract class SlotIterator<V> implements Iterator<Map.Entry<Tuple, V>> {
+    /** -1 means the null key */
+    private int next = -1;
+    private int current = -2;
+
+    abstract int slotNum();
+    abstract boolean isOccupied(int slot);
+    abstract Map.Entry<Tuple, V> entry(int slot);
+    abstract void remove(int slot);
+    abstract V nullKeyValue();
+    abstract Map.Entry<Tuple, V> nullKeyEntry();
+    abstract void removeNullKey();
+
+    private void seek() {
+      if (next == -1) {
+        if (nullKeyValue() != null) {
+          return;
+        }
+        next = 0;
+      }
+      while (next < slotNum() && !isOccupied(next)) {
+        next++;
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      seek();
+      return next < slotNum();
+    }
+
+    @Override
+    public Map.Entry<Tuple, V> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      current = next++;
+      return current == -1 ? nullKeyEntry() : entry(current);
+    }
+
+    @Override
+    public void remove() {
+      if (current == -2) {
+        throw new IllegalStateException();
+      }
+      if (current == -1) {
+        removeNullKey();
+      } else {
+        remove(current);
+      }
+      current = -2;
+    }
+  }
+
+  /**
+   * A hash map for multiple key columns or key types which do not have a primitive representation.
+   */
+  static class GenericKeyHashMap<V> extends TupleKeyHashMap<V> {
+    private final Map<Tuple, V> map;
+    /** a reusable key tuple for lookups */
+    private final Tuple probeKey;
+
+    GenericKeyHashMap(int keyNum, int initialCapacity) {
+      this(new HashMap<Tuple, V>(initialCapacity), keyNum);
+    }
+
+    private GenericKeyHashMap(Map<Tuple, V> map, int keyNum) {
+      this.map = map;
+      this.probeKey = new VTuple(keyNum);
+    }
+
+    @Override
+    public TupleKeyHashMap<V> newReader() {
+      return new GenericKeyHashMap<V>(map, probeKey.size());
+    }
+
+    private Tuple fillProbeKey(Tuple tuple, int [] keyIds) {
+      for (int i = 0; i < keyIds.length; i++) {
+        probeKey.put(i, tuple.get(keyIds[i]));
+      }
+      return probeKey;
+    }
+
+    @Override
+    public V get(Tuple tuple, int[] keyIds) {
+      return map.get(fillProbeKey(tuple, keyIds));
+    }
+
+    @Override
+    public void put(Tuple tuple, int[] keyIds, V value) {
+      Tuple keyTuple = new VTuple(keyIds.length);
+      for (int i = 0; i < keyIds.length; i++) {
+        keyTuple.put(i, tuple.get(keyIds[i]));
+      }
+      map.put(keyTuple, value);
+    }
+
+    @Override
+    public int hash(Tuple tuple, int[] keyIds) {
+      return fillProbeKey(tuple, keyIds).hashCode();
+    }
+
+    @Override
+    public int size() {
+      return map.size();
+    }
+
+    @Override
+    public void clear() {
+      map.clear();
+    }
+
+    @Override
+    public Iterator<Map.Entry<Tuple, V>> entryIterator() {
+      return map.entrySet().iterator();
+    }
+  }
+}
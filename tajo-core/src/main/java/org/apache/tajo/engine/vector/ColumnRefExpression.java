@@ -0,0 +1,44 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.vector;
+
+import org.apache.tajo.common.TajoDataTypes.Type;
+
+/**
+ * It returns a column vector of the input batch as it is.
+ */
+public class ColumnRefExpression extends VectorExpression {
+  private final int columnId;
+  private final Type type;
+
+  public ColumnRefExpression(int columnId, Type type) {
+    this.columnId = columnId;
+    this.type = type;
+  }
+
+  @Override
+  public ColumnVector evaluate(RowBatch batch) {
+    return batch.getColumn(columnId);
+  }
+
+  @Override
+  public Type getOutputType() {
+    return type;
+  }
+}
@@ -0,0 +1,91 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.vector;
+
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+
+import java.util.Arrays;
+
+/**
+ * A column of a {@link RowBatch}. Values are stored in a primitive array if possible.
+ *
+ * <p>Arrays and flags are exposed as fields so that vector expressions can access them in tight loops.
+ * If {@link #isRepeating} is true, the value at index 0 is used for all rows.</p>
+ */
+public abstract class ColumnVector {
+  protected final Type type;
+  /** whether the value at each row is null or not. It is meaningful only if {@link #noNulls} is false. */
+  public final boolean [] isNull;
+  public boolean noNulls = true;
+  public boolean isRepeating = false;
+
+  public ColumnVector(Type type, int capacity) {
+    this.type = type;
+    this.isNull = new boolean[capacity];
+  }
+
+  /**
+   * Creates a column vector for the given data type.
+   */
+  public static ColumnVector create(Type type, int capacity) {
+    switch (type) {
+    case INT2:
+    case INT4:
+    case INT8:
+      return new LongColumnVector(type, capacity);
+    case FLOAT4:
+    case FLOAT8:
+      return new DoubleColumnVector(type, capacity);
+    default:
+      return new DatumColumnVector(type, capacity);
+    }
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public void reset() {
+    if (!noNulls) {
+      Arrays.fill(isNull, false);
+    }
+    noNulls = true;
+    isRepeating = false;
+  }
+
+  protected void setNull(int row) {
+    isNull[row] = true;
+    noNulls = false;
+  }
+
+  protected boolean isNullAt(int row) {
+    return !noNulls && isNull[row];
+  }
+
+  /**
+   * Sets a value at the given row. A null datum is stored as a null flag.
+   */
+  public abstract void setDatum(int row, Datum datum);
+
+  /**
+   * @return the value at the given row as a datum
+   */
+  public abstract Datum getDatum(int row);
+}
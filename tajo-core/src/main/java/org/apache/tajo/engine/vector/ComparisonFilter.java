@@ -0,0 +1,153 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.vector;
+
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.engine.eval.EvalType;
+import org.apache.tajo.engine.eval.InvalidEvalException;
+
+/**
+ * A vectorized comparison predicate. Integral operands are compared as longs, and floating point operands are
+ * compared as doubles in the same way as datums do. Other operands are compared by the comparison methods of datums.
+ * A comparison with a null value is never true.
+ */
+public class ComparisonFilter extends VectorFilter {
+  private enum CompareMode {
+    LONG,
+    DOUBLE,
+    DATUM
+  }
+
+  private final EvalType op;
+  private final VectorExpression left;
+  private final VectorExpression right;
+  private final CompareMode mode;
+  private boolean [] passed;
+
+  public ComparisonFilter(EvalType op, VectorExpression left, VectorExpression right) {
+    this.op = op;
+    this.left = left;
+    this.right = right;
+    this.mode = getCompareMode(left.getOutputType(), right.getOutputType());
+  }
+
+  private static boolean isIntegral(Type type) {
+    return type == Type.INT2 || type == Type.INT4 || type == Type.INT8;
+  }
+
+  private static CompareMode getCompareMode(Type left, Type right) {
+    if (isIntegral(left) && isIntegral(right)) {
+      return CompareMode.LONG;
+    }
+    // an integral value is compared with a FLOAT4 value as a float, so it is left to datums.
+    if ((left == Type.FLOAT8 && (isIntegral(right) || right == Type.FLOAT4 || right == Type.FLOAT8))
+        || (right == Type.FLOAT8 && (isIntegral(left) || left == Type.FLOAT4))
+        || (left == Type.FLOAT4 && right == Type.FLOAT4)) {
+      return CompareMode.DOUBLE;
+    }
+    return CompareMode.DATUM;
+  }
+
+  private boolean compare(long a, long b) {
+    switch (op) {
+    case EQUAL:
+      return a == b;
+    case NOT_EQUAL:
+      return a != b;
+    case LTH:
+      return a < b;
+    case LEQ:
+      return a <= b;
+    case GTH:
+      return a > b;
+    case GEQ:
+      return a >= b;
+    default:
+      throw new InvalidEvalException("Not supported vectorized comparison: " + op);
+    }
+  }
+
+  private boolean compare(double a, double b) {
+    switch (op) {
+    case EQUAL:
+      return a == b;
+    case NOT_EQUAL:
+      return a != b;
+    case LTH:
+      return a < b;
+    case LEQ:
+      return a <= b;
+    case GTH:
+      return a > b;
+    case GEQ:
+      return a >= b;
+    default:
+      throw new InvalidEvalException("Not supported vectorized comparison: " + op);
+    }
+  }
+
+  private boolean compareDatums(Datum lhs, Datum rhs) {
+    switch (op) {
+    case EQUAL:
+      return lhs.equalsTo(rhs).isTrue();
+    case NOT_EQUAL:
+      return lhs.notEqualsTo(rhs).isTrue();
+    case LTH:
+      return lhs.lessThan(rhs).isTrue();
+    case LEQ:
+      return lhs.lessThanEqual(rhs).isTrue();
+    case GTH:
+      return lhs.greaterThan(rhs).isTrue();
+    case GEQ:
+      return lhs.greaterThanEqual(rhs).isTrue();
+    default:
+      throw new InvalidEvalException("Not supported vectorized comparison: " + op);
+    }
+  }
+
+  @Override
+  public void filter(RowBatch batch) {
+    ColumnVector lhs = left.evaluate(batch);
+    ColumnVector rhs = right.evaluate(batch);
+    if (passed == null || passed.length < batch.getCapacity()) {
+      passed = new boolean[batch.getCapacity()];
+    }
+
+    boolean mayHaveNulls = !lhs.noNulls || !rhs.noNulls;
+
+    for (int i = 0; i < batch.size; i++) {
+      int row = batch.selectedInUse ? batch.selected[i] : i;
+      int l = lhs.isRepeating ? 0 : row;
+      int r = rhs.isRepeating ? 0 : row;
+      if (mayHaveNulls && (lhs.isNullAt(l) || rhs.isNullAt(r))) {
+        passed[row] = false;
+      } else if (mode == CompareMode.LONG) {
+        passed[row] = compare(((LongColumnVector) lhs).vector[l], ((LongColumnVector) rhs).vector[r]);
+      } else if (mode == CompareMode.DOUBLE) {
+        passed[row] = compare(DoubleArithmeticExpression.getDouble(lhs, l),
+            DoubleArithmeticExpression.getDouble(rhs, r));
+      } else {
+        passed[row] = compareDatums(lhs.getDatum(row), rhs.getDatum(row));
+      }
+    }
+
+    select(batch, passed);
+  }
+}
@@ -0,0 +1,45 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.vector;
+
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+
+/**
+ * It returns a repeating column vector of a constant value.
+ */
+public class ConstantExpression extends VectorExpression {
+  private final ColumnVector vector;
+
+  public ConstantExpression(Datum value) {
+    this.vector = ColumnVector.create(value.type(), 1);
+    this.vector.setDatum(0, value);
+    this.vector.isRepeating = true;
+  }
+
+  @Override
+  public ColumnVector evaluate(RowBatch batch) {
+    return vector;
+  }
+
+  @Override
+  public Type getOutputType() {
+    return vector.getType();
+  }
+}
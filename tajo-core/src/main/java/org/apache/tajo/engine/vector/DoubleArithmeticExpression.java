@@ -0,0 +1,99 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.vector;
+
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.engine.eval.EvalType;
+import org.apache.tajo.engine.eval.InvalidEvalException;
+
+/**
+ * A vectorized arithmetic expression whose result is FLOAT8. At least one operand must be FLOAT8,
+ * and the other one can be any numeric type.
+ */
+public class DoubleArithmeticExpression extends VectorExpression {
+  private final EvalType op;
+  private final VectorExpression left;
+  private final VectorExpression right;
+  private DoubleColumnVector output;
+
+  public DoubleArithmeticExpression(EvalType op, VectorExpression left, VectorExpression right) {
+    this.op = op;
+    this.left = left;
+    this.right = right;
+  }
+
+  static double getDouble(ColumnVector vector, int idx) {
+    if (vector instanceof DoubleColumnVector) {
+      return ((DoubleColumnVector) vector).vector[idx];
+    } else {
+      return ((LongColumnVector) vector).vector[idx];
+    }
+  }
+
+  @Override
+  public ColumnVector evaluate(RowBatch batch) {
+    ColumnVector lhs = left.evaluate(batch);
+    ColumnVector rhs = right.evaluate(batch);
+    if (output == null || output.vector.length < batch.getCapacity()) {
+      output = new DoubleColumnVector(Type.FLOAT8, batch.getCapacity());
+    }
+    output.reset();
+
+    double [] out = output.vector;
+    boolean mayHaveNulls = !lhs.noNulls || !rhs.noNulls;
+
+    for (int i = 0; i < batch.size; i++) {
+      int row = batch.selectedInUse ? batch.selected[i] : i;
+      int l = lhs.isRepeating ? 0 : row;
+      int r = rhs.isRepeating ? 0 : row;
+      if (mayHaveNulls && (lhs.isNullAt(l) || rhs.isNullAt(r))) {
+        output.setNull(row);
+        continue;
+      }
+
+      double a = getDouble(lhs, l);
+      double b = getDouble(rhs, r);
+      switch (op) {
+      case PLUS:
+        out[row] = a + b;
+        break;
+      case MINUS:
+        out[row] = a - b;
+        break;
+      case MULTIPLY:
+        out[row] = a * b;
+        break;
+      case DIVIDE:
+        out[row] = a / b;
+        break;
+      case MODULAR:
+        out[row] = a % b;
+        break;
+      default:
+        throw new InvalidEvalException("Not supported vectorized operation: " + op);
+      }
+    }
+    return output;
+  }
+
+  @Override
+  public Type getOutputType() {
+    return Type.FLOAT8;
+  }
+}
@@ -0,0 +1,54 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.vector;
+
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.engine.eval.EvalNode;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+
+/**
+ * A filter which evaluates a predicate row by row. It is used for predicates which cannot be vectorized.
+ */
+public class EvalFilter extends VectorFilter {
+  private final Schema schema;
+  private final EvalNode qual;
+  private final Tuple tuple;
+  private boolean [] passed;
+
+  public EvalFilter(Schema schema, EvalNode qual) {
+    this.schema = schema;
+    this.qual = qual;
+    this.tuple = new VTuple(schema.size());
+  }
+
+  @Override
+  public void filter(RowBatch batch) {
+    if (passed == null || passed.length < batch.getCapacity()) {
+      passed = new boolean[batch.getCapacity()];
+    }
+
+    for (int i = 0; i < batch.size; i++) {
+      int row = batch.getRow(i);
+      batch.getTuple(row, tuple);
+      passed[row] = qual.eval(schema, tuple).isTrue();
+    }
+    select(batch, passed);
+  }
+}
@@ -0,0 +1,117 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.vector;
+
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.engine.eval.EvalType;
+import org.apache.tajo.engine.eval.InvalidEvalException;
+
+/**
+ * A vectorized arithmetic expression between two integral operands.
+ */
+public class LongArithmeticExpression extends VectorExpression {
+  private final EvalType op;
+  private final VectorExpression left;
+  private final VectorExpression right;
+  private final Type outputType;
+  private LongColumnVector output;
+
+  public LongArithmeticExpression(EvalType op, VectorExpression left, VectorExpression right) {
+    this.op = op;
+    this.left = left;
+    this.right = right;
+    this.outputType = getResultType(op, left.getOutputType(), right.getOutputType());
+  }
+
+  /**
+   * It follows the result types of integral datums' arithmetic operations.
+   */
+  public static Type getResultType(EvalType op, Type left, Type right) {
+    if (left == Type.INT8 || right == Type.INT8) {
+      return Type.INT8;
+    } else if (left == Type.INT2 && right == Type.INT2 && op != EvalType.MULTIPLY) {
+      return Type.INT2;
+    } else {
+      return Type.INT4;
+    }
+  }
+
+  @Override
+  public ColumnVector evaluate(RowBatch batch) {
+    LongColumnVector lhs = (LongColumnVector) left.evaluate(batch);
+    LongColumnVector rhs = (LongColumnVector) right.evaluate(batch);
+    if (output == null || output.vector.length < batch.getCapacity()) {
+      output = new LongColumnVector(outputType, batch.getCapacity());
+    }
+    output.reset();
+
+    long [] lv = lhs.vector;
+    long [] rv = rhs.vector;
+    long [] out = output.vector;
+    boolean mayHaveNulls = !lhs.noNulls || !rhs.noNulls;
+
+    for (int i = 0; i < batch.size; i++) {
+      int row = batch.selectedInUse ? batch.selected[i] : i;
+      int l = lhs.isRepeating ? 0 : row;
+      int r = rhs.isRepeating ? 0 : row;
+      if (mayHaveNulls && (lhs.isNullAt(l) || rhs.isNullAt(r))) {
+        output.setNull(row);
+        continue;
+      }
+
+      long value;
+      switch (op) {
+      case PLUS:
+        value = lv[l] + rv[r];
+        break;
+      case MINUS:
+        value = lv[l] - rv[r];
+        break;
+      case MULTIPLY:
+        value = lv[l] * rv[r];
+        break;
+      case DIVIDE:
+        value = lv[l] / rv[r];
+        break;
+      case MODULAR:
+        value = lv[l] % rv[r];
+        break;
+      default:
+        throw new InvalidEvalException("Not supported vectorized operation: " + op);
+      }
+
+      switch (outputType) {
+      case INT2:
+        out[row] = (short) value;
+        break;
+      case INT4:
+        out[row] = (int) value;
+        break;
+      default:
+        out[row] = value;
+      }
+    }
+    return output;
+  }
+
+  @Override
+  public Type getOutputType() {
+    return outputType;
+  }
+}
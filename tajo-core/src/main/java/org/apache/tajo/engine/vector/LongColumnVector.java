@@ -0,0 +1,62 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.vector;
+
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+
+/**
+ * A column vector for INT2, INT4 and INT8 values.
+ */
+public class LongColumnVector extends ColumnVector {
+  public final long [] vector;
+
+  public LongColumnVector(Type type, int capacity) {
+    super(type, capacity);
+    this.vector = new long[capacity];
+  }
+
+  @Override
+  public void setDatum(int row, Datum datum) {
+    if (datum == null || datum.isNull()) {
+      setNull(row);
+    } else {
+      vector[row] = datum.asInt8();
+    }
+  }
+
+  @Override
+  public Datum getDatum(int row) {
+    int idx = isRepeating ? 0 : row;
+    if (isNullAt(idx)) {
+      return NullDatum.get();
+    }
+
+    switch (type) {
+    case INT2:
+      return DatumFactory.createInt2((short) vector[idx]);
+    case INT4:
+      return DatumFactory.createInt4((int) vector[idx]);
+    default:
+      return DatumFactory.createInt8(vector[idx]);
+    }
+  }
+}
@@ -0,0 +1,76 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.vector;
+
+/**
+ * A vectorized disjunction. Both filters are applied to the same active rows, and a row remains active if it
+ * passes either of them.
+ */
+public class OrFilter extends VectorFilter {
+  private final VectorFilter left;
+  private final VectorFilter right;
+  private int [] original;
+  private boolean [] passed;
+
+  public OrFilter(VectorFilter left, VectorFilter right) {
+    this.left = left;
+    this.right = right;
+  }
+
+  @Override
+  public void filter(RowBatch batch) {
+    if (original == null || original.length < batch.getCapacity()) {
+      original = new int[batch.getCapacity()];
+      passed = new boolean[batch.getCapacity()];
+    }
+
+    // remember the active rows
+    int size = batch.size;
+    boolean selectedInUse = batch.selectedInUse;
+    if (selectedInUse) {
+      System.arraycopy(batch.selected, 0, original, 0, size);
+    }
+    for (int i = 0; i < size; i++) {
+      passed[selectedInUse ? original[i] : i] = false;
+    }
+
+    left.filter(batch);
+    for (int i = 0; i < batch.size; i++) {
+      passed[batch.getRow(i)] = true;
+    }
+
+    // restore the active rows, and apply the right filter to them
+    batch.size = size;
+    batch.selectedInUse = selectedInUse;
+    if (selectedInUse) {
+      System.arraycopy(original, 0, batch.selected, 0, size);
+    }
+    right.filter(batch);
+    for (int i = 0; i < batch.size; i++) {
+      passed[batch.getRow(i)] = true;
+    }
+
+    batch.size = size;
+    batch.selectedInUse = selectedInUse;
+    if (selectedInUse) {
+      System.arraycopy(original, 0, batch.selected, 0, size);
+    }
+    select(batch, passed);
+  }
+}
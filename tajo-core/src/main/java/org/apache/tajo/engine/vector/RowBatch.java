@@ -0,0 +1,139 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.vector;
+
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.storage.Tuple;
+
+/**
+ * A batch of rows which are stored as column vectors.
+ *
+ * <p>{@link #size} is the number of active rows. If {@link #selectedInUse} is true, the first {@link #size} elements
+ * of {@link #selected} are the row numbers of active rows in ascending order. Otherwise, rows from 0 to
+ * size - 1 are active. Filters shrink the selection instead of moving values.</p>
+ */
+public class RowBatch {
+  public static final int DEFAULT_SIZE = 1024;
+
+  private final Schema schema;
+  private final ColumnVector [] columns;
+  private final int capacity;
+
+  public int size;
+  public final int [] selected;
+  public boolean selectedInUse;
+
+  /**
+   * Creates a batch which has column vectors for all columns of the schema.
+   */
+  public RowBatch(Schema schema, int capacity) {
+    this(schema, capacity, null);
+  }
+
+  /**
+   * Creates a batch which has column vectors only for the required columns.
+   *
+   * @param required whether each column is required or not. If it is null, all columns are required.
+   */
+  public RowBatch(Schema schema, int capacity, boolean [] required) {
+    this.schema = schema;
+    this.capacity = capacity;
+    this.columns = new ColumnVector[schema.size()];
+    for (int i = 0; i < columns.length; i++) {
+      if (required == null || required[i]) {
+        columns[i] = ColumnVector.create(schema.getColumn(i).getDataType().getType(), capacity);
+      }
+    }
+    this.selected = new int[capacity];
+  }
+
+  public Schema getSchema() {
+    return schema;
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public ColumnVector getColumn(int columnId) {
+    return columns[columnId];
+  }
+
+  public void setColumn(int columnId, ColumnVector vector) {
+    columns[columnId] = vector;
+  }
+
+  public void reset() {
+    size = 0;
+    selectedInUse = false;
+    for (ColumnVector column : columns) {
+      if (column != null) {
+        column.reset();
+      }
+    }
+  }
+
+  public boolean isFull() {
+    return size >= capacity;
+  }
+
+  /**
+   * Appends a tuple to the batch. It must be called before any selection is applied.
+   */
+  public void addTuple(Tuple tuple) {
+    for (int i = 0; i < columns.length; i++) {
+      if (columns[i] != null) {
+        columns[i].setDatum(size, tuple.get(i));
+      }
+    }
+    size++;
+  }
+
+  /**
+   * @return the row number of the i-th active row
+   */
+  public int getRow(int i) {
+    return selectedInUse ? selected[i] : i;
+  }
+
+  /**
+   * Writes the values at the given row number into the tuple.
+   */
+  public void getTuple(int row, Tuple out) {
+    for (int i = 0; i < columns.length; i++) {
+      if (columns[i] != null) {
+        out.put(i, columns[i].getDatum(row));
+      } else {
+        out.put(i, NullDatum.get());
+      }
+    }
+  }
+
+  /**
+   * Makes this batch have the same active rows as the given batch.
+   */
+  public void setSelection(RowBatch batch) {
+    size = batch.size;
+    selectedInUse = batch.selectedInUse;
+    if (selectedInUse) {
+      System.arraycopy(batch.selected, 0, selected, 0, size);
+    }
+  }
+}
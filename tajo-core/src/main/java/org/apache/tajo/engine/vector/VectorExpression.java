@@ -0,0 +1,39 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.vector;
+
+import org.apache.tajo.common.TajoDataTypes.Type;
+
+/**
+ * A vectorized version of a value expression. It evaluates the active rows of a batch at once.
+ */
+public abstract class VectorExpression {
+  /**
+   * Evaluates the active rows of the batch.
+   *
+   * @return the column vector which contains the results at the row numbers of active rows. It is only valid
+   * until the next evaluation.
+   */
+  public abstract ColumnVector evaluate(RowBatch batch);
+
+  /**
+   * @return the data type of results, which is the same as the type of datums computed by the row-based path.
+   */
+  public abstract Type getOutputType();
+}
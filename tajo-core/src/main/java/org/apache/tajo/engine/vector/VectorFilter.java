@@ -0,0 +1,53 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.vector;
+
+/**
+ * A vectorized version of a predicate. It removes the rows, for which the predicate is not true,
+ * from the active rows of a batch.
+ */
+public abstract class VectorFilter {
+  public abstract void filter(RowBatch batch);
+
+  /**
+   * Keeps only the active rows which are marked as passed.
+   *
+   * @param passed whether each row number passes the filter or not
+   */
+  protected static void select(RowBatch batch, boolean [] passed) {
+    int newSize = 0;
+    int [] selected = batch.selected;
+    if (batch.selectedInUse) {
+      for (int i = 0; i < batch.size; i++) {
+        int row = selected[i];
+        if (passed[row]) {
+          selected[newSize++] = row;
+        }
+      }
+    } else {
+      for (int row = 0; row < batch.size; row++) {
+        if (passed[row]) {
+          selected[newSize++] = row;
+        }
+      }
+      batch.selectedInUse = true;
+    }
+    batch.size = newSize;
+  }
+}
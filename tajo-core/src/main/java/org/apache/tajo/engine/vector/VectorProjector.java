@@ -0,0 +1,104 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.vector;
+
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.engine.planner.PlannerUtil;
+import org.apache.tajo.engine.planner.Projector;
+import org.apache.tajo.engine.planner.Target;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+
+/**
+ * A vectorized version of {@link Projector}. If any target cannot be vectorized, all targets are evaluated
+ * row by row, and the results are written into the column vectors of the output batch.
+ */
+public class VectorProjector {
+  private final Schema outSchema;
+  private final VectorExpression [] exprs;
+
+  // for the row-based fallback
+  private final Projector projector;
+  private final Tuple inTuple;
+  private final Tuple outTuple;
+
+  public VectorProjector(Schema inSchema, Schema outSchema, Target [] targets) {
+    this.outSchema = outSchema;
+    if (targets == null) {
+      targets = PlannerUtil.schemaToTargets(outSchema);
+    }
+
+    VectorExpression [] exprs = new VectorExpression[targets.length];
+    for (int i = 0; i < targets.length; i++) {
+      exprs[i] = Vectorizer.createExpression(inSchema, targets[i].getEvalTree());
+      if (exprs[i] == null) {
+        exprs = null;
+        break;
+      }
+    }
+    this.exprs = exprs;
+
+    if (exprs == null) {
+      projector = new Projector(inSchema, outSchema, targets);
+      inTuple = new VTuple(inSchema.size());
+      outTuple = new VTuple(outSchema.size());
+    } else {
+      projector = null;
+      inTuple = null;
+      outTuple = null;
+    }
+  }
+
+  public boolean isVectorized() {
+    return exprs != null;
+  }
+
+  /**
+   * Creates an output batch for {@link #eval(RowBatch, RowBatch)}. In the vectorized mode, column vectors are
+   * not allocated because they are replaced with the results of vector expressions.
+   */
+  public RowBatch createOutputBatch(int capacity) {
+    if (exprs != null) {
+      return new RowBatch(outSchema, capacity, new boolean[outSchema.size()]);
+    } else {
+      return new RowBatch(outSchema, capacity);
+    }
+  }
+
+  /**
+   * Evaluates the active rows of the input batch. The output batch has the same active rows as the input batch.
+   * In the vectorized mode, the output batch may share column vectors with the input batch, so the output batch
+   * must not be reset or modified by callers.
+   */
+  public void eval(RowBatch in, RowBatch out) {
+    if (exprs != null) {
+      for (int i = 0; i < exprs.length; i++) {
+        out.setColumn(i, exprs[i].evaluate(in));
+      }
+      out.setSelection(in);
+    } else {
+      out.reset();
+      for (int i = 0; i < in.size; i++) {
+        in.getTuple(in.getRow(i), inTuple);
+        projector.eval(inTuple, outTuple);
+        out.addTuple(outTuple);
+      }
+    }
+  }
+}
@@ -0,0 +1,123 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.vector;
+
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.engine.eval.ConstEval;
+import org.apache.tajo.engine.eval.EvalNode;
+import org.apache.tajo.engine.eval.EvalType;
+import org.apache.tajo.engine.eval.FieldEval;
+
+/**
+ * It converts an {@link EvalNode} tree into vectorized expressions. If a tree contains any expression which does
+ * not have a vectorized version, it returns null so that callers can fall back to the row-based evaluation.
+ *
+ * <p>Supported expressions are column references, constants, arithmetic operators on numeric operands,
+ * comparison operators, AND and OR.</p>
+ */
+public class Vectorizer {
+
+  private static boolean isIntegral(Type type) {
+    return type == Type.INT2 || type == Type.INT4 || type == Type.INT8;
+  }
+
+  private static boolean isNumeric(Type type) {
+    return isIntegral(type) || type == Type.FLOAT4 || type == Type.FLOAT8;
+  }
+
+  /**
+   * @return a vectorized expression which computes the same values as the given expression, or null if not supported.
+   */
+  public static VectorExpression createExpression(Schema schema, EvalNode eval) {
+    switch (eval.getType()) {
+    case FIELD: {
+      FieldEval field = (FieldEval) eval;
+      int columnId = schema.getColumnId(field.getColumnRef().getQualifiedName());
+      if (columnId < 0) {
+        return null;
+      }
+      return new ColumnRefExpression(columnId, schema.getColumn(columnId).getDataType().getType());
+    }
+
+    case CONST:
+      return new ConstantExpression(((ConstEval) eval).getValue());
+
+    case PLUS:
+    case MINUS:
+    case MULTIPLY:
+    case DIVIDE:
+    case MODULAR: {
+      VectorExpression left = createExpression(schema, eval.getLeftExpr());
+      VectorExpression right = createExpression(schema, eval.getRightExpr());
+      if (left == null || right == null) {
+        return null;
+      }
+      Type leftType = left.getOutputType();
+      Type rightType = right.getOutputType();
+      if (isIntegral(leftType) && isIntegral(rightType)) {
+        return new LongArithmeticExpression(eval.getType(), left, right);
+      }
+      // FLOAT4 arithmetic results depend on the operand types, so only FLOAT8 results are vectorized.
+      if ((leftType == Type.FLOAT8 && isNumeric(rightType)) || (rightType == Type.FLOAT8 && isNumeric(leftType))) {
+        return new DoubleArithmeticExpression(eval.getType(), left, right);
+      }
+      return null;
+    }
+
+    default:
+      return null;
+    }
+  }
+
+  /**
+   * @return a vectorized filter which keeps the rows for which the given predicate is true, or null if not supported.
+   */
+  public static VectorFilter createFilter(Schema schema, EvalNode eval) {
+    switch (eval.getType()) {
+    case AND:
+    case OR: {
+      VectorFilter left = createFilter(schema, eval.getLeftExpr());
+      VectorFilter right = createFilter(schema, eval.getRightExpr());
+      if (left == null || right == null) {
+        return null;
+      }
+      return eval.getType() == EvalType.AND ?
+          new AndFilter(left, right) : new OrFilter(left, right);
+    }
+
+    case EQUAL:
+    case NOT_EQUAL:
+    case LTH:
+    case LEQ:
+    case GTH:
+    case GEQ: {
+      VectorExpression left = createExpression(schema, eval.getLeftExpr());
+      VectorExpression right = createExpression(schema, eval.getRightExpr());
+      if (left == null || right == null) {
+        return null;
+      }
+      return new ComparisonFilter(eval.getType(), left, right);
+    }
+
+    default:
+      return null;
+    }
+  }
+}
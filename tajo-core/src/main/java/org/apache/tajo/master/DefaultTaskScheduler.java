@@ -186,7 +186,11 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
         if (context.isLeafQuery()) {
           QueryUnitAttemptScheduleContext queryUnitContext = new QueryUnitAttemptScheduleContext();
           QueryUnit task = SubQuery.newEmptyQueryUnit(context, queryUnitContext, subQuery, nextTaskId++);
-          task.addFragment(castEvent.getLeftFragment(), true);
+          if (castEvent.isCombined()) {
+            task.addFragments(castEvent.getCombinedFragment());
+          } else {
+            task.addFragment(castEvent.getLeftFragment(), true);
+          }
           scheduledObjectNum++;
           if (castEvent.hasRightFragments()) {
             task.addFragments(castEvent.getRightFragments());
@@ -344,6 +348,8 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
     }
 
     public synchronized void addQueryUnitAttempt(int volumeId, QueryUnitAttempt attemptId){
+      // a task whose fragments are in multiple volumes of this host is counted once.
+      boolean newTask = !containsQueryUnitAttempt(attemptId);
       synchronized (unassignedTaskForEachVolume){
         LinkedHashSet<QueryUnitAttempt> list = unassignedTaskForEachVolume.get(volumeId);
         if (list == null) {
@@ -353,7 +359,9 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
         list.add(attemptId);
       }
 
-      remainTasksNum.incrementAndGet();
+      if (newTask) {
+        remainTasksNum.incrementAndGet();
+      }
 
       if(!diskVolumeLoads.containsKey(volumeId)) diskVolumeLoads.put(volumeId, 0);
     }
@@ -443,6 +451,17 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
           if (!this.getHost().equals(location.getHost())) {
             HostVolumeMapping volumeMapping = scheduledRequests.leafTaskHostMapping.get(location.getHost());
             volumeMapping.removeQueryUnitAttempt(location.getVolumeId(), queryUnitAttempt);
+          } else if (location.getVolumeId() != volumeId) {
+            // a combined task can be in the other volumes of this host. It is already uncounted.
+            synchronized (unassignedTaskForEachVolume) {
+              LinkedHashSet<QueryUnitAttempt> tasks = unassignedTaskForEachVolume.get(location.getVolumeId());
+              if (tasks != null) {
+                tasks.remove(queryUnitAttempt);
+                if (tasks.isEmpty()) {
+                  unassignedTaskForEachVolume.remove(location.getVolumeId());
+                }
+              }
+            }
           }
         }
       }
@@ -459,13 +478,26 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
       LinkedHashSet<QueryUnitAttempt> tasks  = unassignedTaskForEachVolume.get(volumeId);
 
       if(tasks != null && tasks.size() > 0){
-        tasks.remove(queryUnitAttempt);
-        remainTasksNum.getAndDecrement();
+        // the task is uncounted when it is removed from the last volume of this host containing it.
+        if (tasks.remove(queryUnitAttempt) && !containsQueryUnitAttempt(queryUnitAttempt)) {
+          remainTasksNum.getAndDecrement();
+        }
       } else {
         unassignedTaskForEachVolume.remove(volumeId);
       }
     }
 
+    private boolean containsQueryUnitAttempt(QueryUnitAttempt queryUnitAttempt) {
+      synchronized (unassignedTaskForEachVolume) {
+        for (LinkedHashSet<QueryUnitAttempt> tasks : unassignedTaskForEachVolume.values()) {
+          if (tasks.contains(queryUnitAttempt)) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+
     /**
      * Increase the count of running tasks and disk loads for a certain task runner.
      *
@@ -95,7 +95,7 @@ public class GlobalEngine extends AbstractService {
       converter = new HiveQLAnalyzer();
       preVerifier = new PreLogicalPlanVerifier(context.getCatalog());
       planner = new LogicalPlanner(context.getCatalog());
-      optimizer = new LogicalOptimizer(context.getConf());
+      optimizer = new LogicalOptimizer(context.getConf(), context.getCatalog());
       annotatedPlanVerifier = new LogicalPlanVerifier(context.getConf(), context.getCatalog());
 
       hookManager = new DistributedQueryHookManager();
@@ -142,6 +142,12 @@ public class GlobalEngine extends AbstractService {
 
       context.getSystemMetrics().counter("Query", "totalQuery").inc();
 
+      // a shuffle compression codec can be chosen for each session
+      String shuffleCodec = session.getAllVariables().get(TajoConf.ConfVars.SHUFFLE_COMPRESSION_CODEC.varname);
+      if (shuffleCodec != null) {
+        queryContext.put(TajoConf.ConfVars.SHUFFLE_COMPRESSION_CODEC, shuffleCodec);
+      }
+
       Expr planningContext = hiveQueryMode ? converter.parse(sql) : analyzer.parse(sql);
       LogicalPlan plan = createLogicalPlan(session, planningContext);
       SubmitQueryResponse response = executeQueryInternal(queryContext, session, plan, sql);
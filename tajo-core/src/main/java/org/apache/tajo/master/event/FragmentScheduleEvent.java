@@ -19,6 +19,7 @@
 package org.apache.tajo.master.event;
 
 import org.apache.tajo.ExecutionBlockId;
+import org.apache.tajo.storage.fragment.CombinedFileFragment;
 import org.apache.tajo.storage.fragment.FileFragment;
 
 import java.util.Collection;
@@ -26,6 +27,7 @@ import java.util.Collection;
 public class FragmentScheduleEvent extends TaskSchedulerEvent {
   private final FileFragment leftFragment;
   private final Collection<FileFragment> rightFragments;
+  private final CombinedFileFragment combinedFragment;
 
   public FragmentScheduleEvent(final EventType eventType, final ExecutionBlockId blockId,
                                final FileFragment fragment) {
@@ -39,6 +41,24 @@ public class FragmentScheduleEvent extends TaskSchedulerEvent {
     super(eventType, blockId);
     this.leftFragment = leftFragment;
     this.rightFragments = rightFragments;
+    this.combinedFragment = null;
+  }
+
+  public FragmentScheduleEvent(final EventType eventType,
+                               final ExecutionBlockId blockId,
+                               final CombinedFileFragment combinedFragment) {
+    super(eventType, blockId);
+    this.leftFragment = null;
+    this.rightFragments = null;
+    this.combinedFragment = combinedFragment;
+  }
+
+  public boolean isCombined() {
+    return combinedFragment != null;
+  }
+
+  public CombinedFileFragment getCombinedFragment() {
+    return combinedFragment;
   }
 
   public boolean hasRightFragments() {
@@ -56,6 +76,7 @@ public class FragmentScheduleEvent extends TaskSchedulerEvent {
     return "FragmentScheduleEvent{" +
         "leftFragment=" + leftFragment +
         ", rightFragments=" + rightFragments +
+        ", combinedFragment=" + combinedFragment +
         '}';
   }
 }
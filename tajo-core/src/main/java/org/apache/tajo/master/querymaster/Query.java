@@ -23,6 +23,7 @@ import org.apache.commons.lang.exception.ExceptionUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.fs.ContentSummary;
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.yarn.Clock;
@@ -33,8 +34,10 @@ import org.apache.tajo.QueryId;
 import org.apache.tajo.TajoConstants;
 import org.apache.tajo.TajoProtos.QueryState;
 import org.apache.tajo.catalog.CatalogService;
+import org.apache.tajo.catalog.CatalogUtil;
 import org.apache.tajo.catalog.TableDesc;
 import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.partition.PartitionDesc;
 import org.apache.tajo.catalog.statistics.TableStats;
 import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.engine.planner.global.DataChannel;
@@ -45,6 +48,7 @@ import org.apache.tajo.engine.planner.logical.CreateTableNode;
 import org.apache.tajo.engine.planner.logical.InsertNode;
 import org.apache.tajo.engine.planner.logical.NodeType;
 import org.apache.tajo.engine.query.QueryContext;
+import org.apache.tajo.engine.utils.RuntimeFilter;
 import org.apache.tajo.master.event.*;
 import org.apache.tajo.storage.AbstractStorageManager;
 import org.apache.tajo.util.TUtil;
@@ -55,6 +59,8 @@ import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import static org.apache.tajo.catalog.proto.CatalogProtos.PartitionType;
+
 public class Query implements EventHandler<QueryEvent> {
   private static final Log LOG = LogFactory.getLog(Query.class);
 
@@ -420,6 +426,9 @@ public class Query implements EventHandler<QueryEvent> {
                 fs.rename(oldTableDir, finalOutputDir);
               }
             }
+          } else if (fs.exists(finalOutputDir)) { // INSERT INTO an existing table
+            moveResultFiles(fs, stagingResultDir, finalOutputDir, query.getId());
+            LOG.info("Appended from the staging dir to the output directory '" + finalOutputDir);
           } else {
             fs.rename(stagingResultDir, finalOutputDir);
             LOG.info("Moved from the staging dir to the output directory '" + finalOutputDir);
@@ -434,6 +443,25 @@ public class Query implements EventHandler<QueryEvent> {
       return finalOutputDir;
     }
 
+    /**
+     * It moves the result files into an existing directory while keeping their relative paths, such as
+     * partition directories. A file whose name is already taken is suffixed with the query id.
+     */
+    private void moveResultFiles(FileSystem fs, Path srcDir, Path destDir, QueryId queryId) throws IOException {
+      for (FileStatus status : fs.listStatus(srcDir)) {
+        Path dest = new Path(destDir, status.getPath().getName());
+        if (status.isDirectory()) {
+          fs.mkdirs(dest);
+          moveResultFiles(fs, status.getPath(), dest, queryId);
+        } else {
+          if (fs.exists(dest)) {
+            dest = new Path(destDir, status.getPath().getName() + "_" + queryId);
+          }
+          fs.rename(status.getPath(), dest);
+        }
+      }
+    }
+
     private static interface QueryHook {
       boolean isEligible(QueryContext queryContext, Query query, ExecutionBlockId finalExecBlockId, Path finalOutputDir);
       void execute(QueryMaster.QueryMasterContext context, QueryContext queryContext, Query query,
@@ -530,6 +558,7 @@ public class Query implements EventHandler<QueryEvent> {
         query.setResultDesc(tableDescTobeCreated);
 
         catalog.createTable(tableDescTobeCreated);
+        addPartitions(catalog, tableDescTobeCreated, lastStage, new ArrayList<PartitionDesc>());
       }
     }
 
@@ -555,9 +584,23 @@ public class Query implements EventHandler<QueryEvent> {
         InsertNode insertNode = (InsertNode) lastStage.getBlock().getPlan();
 
         TableDesc finalTable;
+        // the partitions which are kept by INSERT INTO, or null if the table has partitions not registered
+        List<PartitionDesc> existingPartitions = new ArrayList<PartitionDesc>();
         if (insertNode.hasTargetTable()) {
           String tableName = insertNode.getTableName();
           finalTable = catalog.getTableDesc(tableName);
+          if (!queryContext.isOutputOverwrite() && finalTable.hasPartition()) {
+            existingPartitions = catalog.getPartitions(CatalogUtil.extractQualifier(tableName),
+                CatalogUtil.extractSimpleName(tableName));
+            TableStats oldStats = finalTable.getStats();
+            if (existingPartitions.isEmpty() && oldStats != null && oldStats.getNumBytes() > 0) {
+              existingPartitions = null;
+            }
+          }
+          // the rows of INSERT INTO are appended to the existing rows
+          if (!queryContext.isOutputOverwrite() && finalTable.getStats() != null) {
+            stats.setNumRows(stats.getNumRows() + finalTable.getStats().getNumRows());
+          }
         } else {
           String tableName = query.getId().toString();
           finalTable = new TableDesc(tableName, lastStage.getSchema(), meta, finalOutputDir);
@@ -570,12 +613,67 @@ public class Query implements EventHandler<QueryEvent> {
         if (insertNode.hasTargetTable()) {
           catalog.dropTable(insertNode.getTableName());
           catalog.createTable(finalTable);
+          if (existingPartitions != null) {
+            addPartitions(catalog, finalTable, lastStage, existingPartitions);
+          }
         }
 
         query.setResultDesc(finalTable);
       }
     }
 
+    /**
+     * Registers the partitions written by the last stage to the catalog, so that the partitions of the table are
+     * pruned without listing its directories. A partition written into an existing partition is merged with it.
+     *
+     * @param existingPartitions the partitions which were registered before this query
+     */
+    private void addPartitions(CatalogService catalog, TableDesc table, SubQuery lastStage,
+                               List<PartitionDesc> existingPartitions) {
+      if (!table.hasPartition() || table.getPartitionMethod().getPartitionType() != PartitionType.COLUMN) {
+        return;
+      }
+
+      Map<String, PartitionDesc> partitions = new TreeMap<String, PartitionDesc>();
+      for (PartitionDesc partition : existingPartitions) {
+        partitions.put(partition.getName(), partition);
+      }
+      for (PartitionDesc written : lastStage.mergePartitions()) {
+        PartitionDesc partition = partitions.get(written.getName());
+        if (partition == null) {
+          written.setPath(new Path(table.getPath(), written.getName()).toString());
+          written.setPartitionValue(getPartitionValues(written.getName()));
+          partitions.put(written.getName(), written);
+        } else {
+          partition.setNumBytes(partition.getNumBytes() + written.getNumBytes());
+          partition.setNumRows(partition.getNumRows() + written.getNumRows());
+        }
+      }
+
+      if (partitions.isEmpty()) {
+        return;
+      }
+      if (!catalog.addPartitions(CatalogUtil.extractQualifier(table.getName()),
+          CatalogUtil.extractSimpleName(table.getName()), partitions.values())) {
+        LOG.warn("Cannot register the partitions of " + table.getName() + " to the catalog");
+      }
+    }
+
+    /**
+     * @param partitionName a partition name like <code>col1=a/col2=b</code>
+     * @return the partition values like <code>a/b</code>
+     */
+    private String getPartitionValues(String partitionName) {
+      StringBuilder sb = new StringBuilder();
+      for (String keyValue : partitionName.split("/")) {
+        if (sb.length() > 0) {
+          sb.append("/");
+        }
+        sb.append(keyValue.substring(keyValue.indexOf('=') + 1));
+      }
+      return sb.toString();
+    }
+
     private long getTableVolume(TajoConf systemConf, Path tablePath) throws IOException {
       FileSystem fs = tablePath.getFileSystem(systemConf);
       ContentSummary directorySummary = fs.getContentSummary(tablePath);
@@ -594,6 +692,9 @@ public class Query implements EventHandler<QueryEvent> {
     private void executeNextBlock(Query query) {
       ExecutionBlockCursor cursor = query.getExecutionBlockCursor();
       ExecutionBlock nextBlock = cursor.nextBlock();
+      if (nextBlock.hasRuntimeFilterSource()) {
+        addRuntimeFilter(query, nextBlock);
+      }
       SubQuery nextSubQuery = new SubQuery(query.context, query.getPlan(), nextBlock, query.sm);
       nextSubQuery.setPriority(query.priority--);
       query.addSubQuery(nextSubQuery);
@@ -606,6 +707,31 @@ public class Query implements EventHandler<QueryEvent> {
       }
     }
 
+    /**
+     * Ships the runtime filter merged from the tasks of the source block to the tasks of the given block.
+     * If the filter is not available, the given block is executed without any filter.
+     */
+    private void addRuntimeFilter(Query query, ExecutionBlock block) {
+      SubQuery source = query.getSubQuery(block.getRuntimeFilterSource());
+      List<DataChannel> channels = query.getPlan().getOutgoingChannels(block.getId());
+      if (source == null || channels.size() != 1 || !channels.get(0).hasShuffleKeys()) {
+        return;
+      }
+
+      try {
+        RuntimeFilter filter = source.mergeRuntimeFilters(
+            query.systemConf.getLongVar(TajoConf.ConfVars.DIST_QUERY_JOIN_RUNTIME_FILTER_MAX_KEYS));
+        if (filter == null) {
+          LOG.info("Runtime filter of " + source.getId() + " is not available for " + block.getId());
+          return;
+        }
+        block.getEnforcer().addRuntimeFilter(channels.get(0).getShuffleKeys(), filter.getProto());
+        LOG.info("Runtime filter (" + filter + ") of " + source.getId() + " is shipped to " + block.getId());
+      } catch (IOException e) {
+        LOG.warn("Cannot merge the runtime filter of " + source.getId() + ": " + e.getMessage(), e);
+      }
+    }
+
     @Override
     public void transition(Query query, QueryEvent event) {
       try {
@@ -310,7 +310,7 @@ public class QueryMasterTask extends CompositeService {
       }
       CatalogService catalog = getQueryTaskContext().getQueryMasterContext().getWorkerContext().getCatalog();
       LogicalPlanner planner = new LogicalPlanner(catalog);
-      LogicalOptimizer optimizer = new LogicalOptimizer(systemConf);
+      LogicalOptimizer optimizer = new LogicalOptimizer(systemConf, catalog);
       Expr expr;
       if (queryContext.isHiveQueryMode()) {
         HiveQLAnalyzer HiveQLAnalyzer = new HiveQLAnalyzer();
@@ -412,7 +412,9 @@ public class QueryMasterTask extends CompositeService {
       /////////////////////////////////////////////////
       if (queryContext.hasOutputPath()) {
         outputDir = queryContext.getOutputPath();
-        if (!queryContext.isOutputOverwrite()) {
+        // INSERT INTO an existing table appends the result to the table directory.
+        boolean appendToTable = queryContext.isInsert() && queryContext.hasOutputTable();
+        if (!queryContext.isOutputOverwrite() && !appendToTable) {
           if (defaultFS.exists(outputDir)) {
             throw new IOException("The output directory '" + outputDir + " already exists.");
           }
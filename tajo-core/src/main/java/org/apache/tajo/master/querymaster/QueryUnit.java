@@ -38,6 +38,7 @@ import org.apache.tajo.master.TaskState;
 import org.apache.tajo.master.event.*;
 import org.apache.tajo.master.event.QueryUnitAttemptScheduleEvent.QueryUnitAttemptScheduleContext;
 import org.apache.tajo.storage.DataLocation;
+import org.apache.tajo.storage.fragment.CombinedFileFragment;
 import org.apache.tajo.storage.fragment.FileFragment;
 import org.apache.tajo.util.TajoIdUtils;
 
@@ -227,7 +228,14 @@ public class QueryUnit implements EventHandler<TaskEvent> {
     String[] hosts = fragment.getHosts();
     int[] diskIds = fragment.getDiskIds();
     for (int i = 0; i < hosts.length; i++) {
-      dataLocations.add(new DataLocation(hosts[i], diskIds[i]));
+      addDataLocation(new DataLocation(hosts[i], diskIds[i]));
+    }
+  }
+
+  private void addDataLocation(DataLocation location) {
+    // the same location is registered once, otherwise the task would be counted twice for the location.
+    if (!dataLocations.contains(location)) {
+      dataLocations.add(location);
     }
   }
 
@@ -252,6 +260,17 @@ public class QueryUnit implements EventHandler<TaskEvent> {
     }
   }
 
+  /**
+   * Adds all fragments of a combined fragment. The data locations of the task are the ones shared by the
+   * fragments rather than all replicas of each fragment.
+   */
+  public void addFragments(CombinedFileFragment combinedFragment) {
+    addFragments(combinedFragment.getFragments());
+    for (DataLocation location : combinedFragment.getDataLocations()) {
+      addDataLocation(location);
+    }
+  }
+
   public void setFragment(FragmentPair[] fragmentPairs) {
     for (FragmentPair eachFragmentPair : fragmentPairs) {
       this.addFragment(eachFragmentPair.getLeftFragment(), true);
@@ -615,14 +634,22 @@ public class QueryUnit implements EventHandler<TaskEvent> {
     int partId;
     String pullHost;
     int port;
+    /** the bytes of the partition. It is 0 if unknown. */
+    long volume;
 
     public IntermediateEntry(int taskId, int attemptId, int partId,
                              String pullServerAddr, int pullServerPort) {
+      this(taskId, attemptId, partId, pullServerAddr, pullServerPort, 0);
+    }
+
+    public IntermediateEntry(int taskId, int attemptId, int partId,
+                             String pullServerAddr, int pullServerPort, long volume) {
       this.taskId = taskId;
       this.attemptId = attemptId;
       this.partId = partId;
       this.pullHost = pullServerAddr;
       this.port = pullServerPort;
+      this.volume = volume;
     }
 
     public int getTaskId() {
@@ -649,6 +676,10 @@ public class QueryUnit implements EventHandler<TaskEvent> {
       return pullHost + ":" + port;
     }
 
+    public long getVolume() {
+      return volume;
+    }
+
     @Override
     public int hashCode() {
       return Objects.hashCode(taskId, attemptId, partId, pullHost, port);
@@ -40,6 +40,8 @@ import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import static org.apache.tajo.catalog.proto.CatalogProtos.PartitionDescProto;
+import static org.apache.tajo.ipc.TajoWorkerProtocol.RuntimeFilterProto;
 import static org.apache.tajo.ipc.TajoWorkerProtocol.ShuffleFileOutput;
 
 public class QueryUnitAttempt implements EventHandler<TaskAttemptEvent> {
@@ -67,6 +69,8 @@ public class QueryUnitAttempt implements EventHandler<TaskAttemptEvent> {
   private float progress;
   private CatalogProtos.TableStatsProto inputStats;
   private CatalogProtos.TableStatsProto resultStats;
+  private RuntimeFilterProto runtimeFilter;
+  private List<PartitionDescProto> partitions;
 
   protected static final StateMachineFactory
       <QueryUnitAttempt, TaskAttemptState, TaskAttemptEventType, TaskAttemptEvent>
@@ -258,6 +262,27 @@ public class QueryUnitAttempt implements EventHandler<TaskAttemptEvent> {
     return new TableStats(resultStats);
   }
 
+  /**
+   * @return the runtime filter of the join keys built by this attempt, or null if it is not built.
+   */
+  public RuntimeFilterProto getRuntimeFilter() {
+    return runtimeFilter;
+  }
+
+  /**
+   * Releases the runtime filter of this attempt after it is merged by the QueryMaster.
+   */
+  public void clearRuntimeFilter() {
+    runtimeFilter = null;
+  }
+
+  /**
+   * @return the partitions of a column-partitioned table written by this attempt
+   */
+  public List<PartitionDescProto> getPartitions() {
+    return partitions;
+  }
+
   private void fillTaskStatistics(TaskCompletionReport report) {
     this.progress = 1.0f;
 
@@ -268,7 +293,7 @@ public class QueryUnitAttempt implements EventHandler<TaskAttemptEvent> {
 
       for (ShuffleFileOutput p : report.getShuffleFileOutputsList()) {
         IntermediateEntry entry = new IntermediateEntry(getId().getQueryUnitId().getId(),
-            getId().getId(), p.getPartId(), getHost(), getPullServerPort());
+            getId().getId(), p.getPartId(), getHost(), getPullServerPort(), p.hasVolume() ? p.getVolume() : 0);
         partitions.add(entry);
       }
     }
@@ -281,6 +306,10 @@ public class QueryUnitAttempt implements EventHandler<TaskAttemptEvent> {
       this.resultStats = report.getResultStats();
       this.getQueryUnit().setStats(new TableStats(resultStats));
     }
+    if (report.hasRuntimeFilter()) {
+      this.runtimeFilter = report.getRuntimeFilter();
+    }
+    this.partitions = report.getPartitionsList();
   }
 
   private static class TaskAttemptScheduleTransition implements
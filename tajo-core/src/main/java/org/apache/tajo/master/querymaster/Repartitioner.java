@@ -45,6 +45,7 @@ import org.apache.tajo.storage.AbstractStorageManager;
 import org.apache.tajo.storage.RowStoreUtil;
 import org.apache.tajo.storage.TupleRange;
 import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.util.FileUtil;
 import org.apache.tajo.util.TUtil;
 import org.apache.tajo.util.TajoIdUtils;
 
@@ -67,6 +68,8 @@ public class Repartitioner {
   private static final Log LOG = LogFactory.getLog(Repartitioner.class);
 
   private static int HTTP_REQUEST_MAXIMUM_LENGTH = 1900;
+  // A keep-alive fetcher sends parameters as a request body, which is limited by the aggregator of pull servers.
+  private static int HTTP_REQUEST_BODY_MAXIMUM_LENGTH = 60 * 1024;
   private final static String UNKNOWN_HOST = "unknown";
 
   public static void scheduleFragmentsForJoinQuery(TaskSchedulerContext schedulerContext, SubQuery subQuery)
@@ -220,14 +223,66 @@ public class Repartitioner {
 
       SubQuery.scheduleFragment(subQuery, fragments[0], Arrays.asList(new FileFragment[]{fragments[1]}));
 
-      // Assign partitions to tasks in a round robin manner.
-      for (Entry<Integer, Map<String, List<IntermediateEntry>>> entry
-          : hashEntries.entrySet()) {
-        addJoinShuffle(subQuery, entry.getKey(), entry.getValue());
+      // Find skewed partitions of the tables which can be split
+      long taskVolume = (long) desireJoinTaskVolumn * 1048576L;
+      Map<String, Set<Integer>> skewedPartitions = new HashMap<String, Set<Integer>>();
+      if (subQuery.getContext().getConf().getBoolVar(ConfVars.DIST_QUERY_SKEW_JOIN_ENABLED) && joinNode != null) {
+        float skewFactor = subQuery.getContext().getConf().getFloatVar(ConfVars.DIST_QUERY_SKEW_PARTITION_FACTOR);
+        for (String tableName : getSplittableJoinTables(joinNode)) {
+          skewedPartitions.put(tableName,
+              findSkewedPartitions(getPartitionVolumes(hashEntries, tableName), skewFactor, taskVolume));
+        }
+      }
+
+      // The number of partitions is decided from the estimated input volumes of the child blocks. Adjacent small
+      // partitions are coalesced into a task up to the task volume if the actual volumes of all partitions are known.
+      boolean coalesce = subQuery.getContext().getConf().getBoolVar(ConfVars.DIST_QUERY_SHUFFLE_COALESCE_ENABLED)
+          && isVolumeKnown(hashEntries);
+      SortedMap<Integer, Long> coalescedVolumes = new TreeMap<Integer, Long>();
+      Map<Integer, Map<String, List<URI>>> coalescedFetches = new HashMap<Integer, Map<String, List<URI>>>();
+      int scheduledTaskNum = 0;
+
+      // Assign partitions to tasks. A skewed partition is assigned to multiple tasks.
+      for (Integer partitionId : new TreeSet<Integer>(hashEntries.keySet())) {
+        Map<String, List<IntermediateEntry>> grouppedPartitions = hashEntries.get(partitionId);
+        String splitTable = chooseSplitTable(partitionId, grouppedPartitions, skewedPartitions);
+        if (splitTable != null) {
+          scheduledTaskNum += splitJoinShuffle(subQuery, partitionId, grouppedPartitions, splitTable, taskVolume);
+          continue;
+        }
+
+        Map<String, List<URI>> fetches = getJoinFetches(subQuery, partitionId, grouppedPartitions);
+        if (fetches == null) {
+          continue;
+        }
+        if (coalesce) {
+          long volume = 0;
+          for (List<IntermediateEntry> entries : grouppedPartitions.values()) {
+            volume += getTotalVolume(entries);
+          }
+          coalescedVolumes.put(partitionId, volume);
+          coalescedFetches.put(partitionId, fetches);
+        } else {
+          SubQuery.scheduleFetches(subQuery, fetches);
+          scheduledTaskNum++;
+        }
+      }
+
+      for (List<Integer> partitionIds : coalescePartitions(coalescedVolumes, taskVolume)) {
+        Map<String, List<URI>> fetches = new HashMap<String, List<URI>>();
+        for (int partitionId : partitionIds) {
+          for (Entry<String, List<URI>> fetch : coalescedFetches.get(partitionId).entrySet()) {
+            TUtil.putCollectionToNestedList(fetches, fetch.getKey(), fetch.getValue());
+          }
+        }
+        SubQuery.scheduleFetches(subQuery, fetches);
+        scheduledTaskNum++;
       }
+      LOG.info(subQuery.getId() + ", " + hashEntries.size() + " partitions are scheduled as "
+          + scheduledTaskNum + " join tasks");
 
       schedulerContext.setTaskSize((int) Math.ceil((double) bothFetchSize / joinTaskNum));
-      schedulerContext.setEstimatedTaskNum(joinTaskNum);
+      schedulerContext.setEstimatedTaskNum(Math.max(1, scheduledTaskNum));
     }
   }
 
@@ -282,25 +337,278 @@ public class Repartitioner {
 
   private static void addJoinShuffle(SubQuery subQuery, int partitionId,
                                      Map<String, List<IntermediateEntry>> grouppedPartitions) {
+    Map<String, List<URI>> fetches = getJoinFetches(subQuery, partitionId, grouppedPartitions);
+    if (fetches != null) {
+      SubQuery.scheduleFetches(subQuery, fetches);
+    }
+  }
+
+  /**
+   * @return the fetch uris of a partition for each child block, or null if any child block has no data of the
+   * partition
+   */
+  private static Map<String, List<URI>> getJoinFetches(SubQuery subQuery, int partitionId,
+                                                       Map<String, List<IntermediateEntry>> grouppedPartitions) {
     Map<String, List<URI>> fetches = new HashMap<String, List<URI>>();
     for (ExecutionBlock execBlock : subQuery.getMasterPlan().getChilds(subQuery.getId())) {
       Map<String, List<IntermediateEntry>> requests;
       if (grouppedPartitions.containsKey(execBlock.getId().toString())) {
           requests = mergeHashShuffleRequest(grouppedPartitions.get(execBlock.getId().toString()));
       } else {
-        return;
+        return null;
       }
       Set<URI> fetchURIs = TUtil.newHashSet();
       for (Entry<String, List<IntermediateEntry>> requestPerNode : requests.entrySet()) {
         Collection<URI> uris = createHashFetchURL(requestPerNode.getKey(),
             execBlock.getId(),
             partitionId, HASH_SHUFFLE,
-            requestPerNode.getValue());
+            requestPerNode.getValue(), getFetchRequestMaxLength(subQuery));
         fetchURIs.addAll(uris);
       }
       fetches.put(execBlock.getId().toString(), Lists.newArrayList(fetchURIs));
     }
-    SubQuery.scheduleFetches(subQuery, fetches);
+    return fetches;
+  }
+
+  /**
+   * Groups adjacent partitions so that the volume of each group does not exceed the task volume. A partition
+   * bigger than the task volume forms a group by itself.
+   *
+   * @param volumes the volume of each partition in the order of partition ids
+   * @return the ids of partitions in each group
+   */
+  public static List<List<Integer>> coalescePartitions(SortedMap<Integer, Long> volumes, long taskVolume) {
+    List<List<Integer>> groups = new ArrayList<List<Integer>>();
+    List<Integer> group = new ArrayList<Integer>();
+    long groupVolume = 0;
+    for (Entry<Integer, Long> entry : volumes.entrySet()) {
+      if (!group.isEmpty() && groupVolume + entry.getValue() > taskVolume) {
+        groups.add(group);
+        group = new ArrayList<Integer>();
+        groupVolume = 0;
+      }
+      group.add(entry.getKey());
+      groupVolume += entry.getValue();
+    }
+    if (!group.isEmpty()) {
+      groups.add(group);
+    }
+    return groups;
+  }
+
+  /**
+   * @return True if all intermediate entries have their volumes. Workers which do not report volumes leave them 0.
+   */
+  private static boolean isVolumeKnown(Map<Integer, Map<String, List<IntermediateEntry>>> hashEntries) {
+    for (Map<String, List<IntermediateEntry>> grouppedPartitions : hashEntries.values()) {
+      for (List<IntermediateEntry> entries : grouppedPartitions.values()) {
+        for (IntermediateEntry entry : entries) {
+          if (entry.getVolume() <= 0) {
+            return false;
+          }
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the tables of a join whose partitions can be split into multiple tasks. If a partition of a table is
+   * split, the same partition of the other table is replicated to all the tasks. So, the rows of the other table
+   * must not be preserved, i.e., they must not be emitted without a matching row.
+   */
+  private static Set<String> getSplittableJoinTables(JoinNode joinNode) {
+    Set<String> tables = TUtil.newHashSet();
+    if (joinNode.getLeftChild() instanceof ScanNode && canSplitJoinSide(joinNode.getJoinType(), true)) {
+      tables.add(((ScanNode) joinNode.getLeftChild()).getCanonicalName());
+    }
+    if (joinNode.getRightChild() instanceof ScanNode && canSplitJoinSide(joinNode.getJoinType(), false)) {
+      tables.add(((ScanNode) joinNode.getRightChild()).getCanonicalName());
+    }
+    return tables;
+  }
+
+  /**
+   * @return True if the partitions of the given side of a join can be split into multiple tasks
+   */
+  public static boolean canSplitJoinSide(JoinType joinType, boolean left) {
+    switch (joinType) {
+      case CROSS:
+      case INNER:
+        return true;
+      case LEFT_OUTER:
+      case LEFT_SEMI:
+      case LEFT_ANTI:
+        return left;
+      case RIGHT_OUTER:
+      case RIGHT_SEMI:
+      case RIGHT_ANTI:
+        return !left;
+      default:
+        return false;
+    }
+  }
+
+  private static Map<Integer, Long> getPartitionVolumes(Map<Integer, Map<String, List<IntermediateEntry>>> hashEntries,
+                                                        String tableName) {
+    Map<Integer, Long> volumes = new HashMap<Integer, Long>();
+    for (Entry<Integer, Map<String, List<IntermediateEntry>>> entry : hashEntries.entrySet()) {
+      List<IntermediateEntry> entries = entry.getValue().get(tableName);
+      if (entries != null && !entries.isEmpty()) {
+        volumes.put(entry.getKey(), getTotalVolume(entries));
+      }
+    }
+    return volumes;
+  }
+
+  private static long getTotalVolume(List<IntermediateEntry> entries) {
+    long volume = 0;
+    for (IntermediateEntry entry : entries) {
+      volume += entry.getVolume();
+    }
+    return volume;
+  }
+
+  /**
+   * A partition is skewed if its volume is larger than both the given factor times the median volume of all
+   * partitions and the given minimum volume.
+   *
+   * @param volumes the volume of each partition
+   * @return the ids of skewed partitions
+   */
+  public static Set<Integer> findSkewedPartitions(Map<Integer, Long> volumes, float skewFactor, long minVolume) {
+    Set<Integer> skewed = TUtil.newHashSet();
+    if (volumes.isEmpty()) {
+      return skewed;
+    }
+    List<Long> sorted = new ArrayList<Long>(volumes.values());
+    Collections.sort(sorted);
+    long median = sorted.get(sorted.size() / 2);
+    long threshold = Math.max((long) (median * skewFactor), minVolume);
+    for (Entry<Integer, Long> entry : volumes.entrySet()) {
+      if (entry.getValue() > threshold) {
+        skewed.add(entry.getKey());
+      }
+    }
+    return skewed;
+  }
+
+  /**
+   * @return the table whose partition is split, or null if the partition is not skewed. If the partitions of both
+   * tables are skewed, the bigger one is split.
+   */
+  private static String chooseSplitTable(int partitionId, Map<String, List<IntermediateEntry>> grouppedPartitions,
+                                         Map<String, Set<Integer>> skewedPartitions) {
+    String splitTable = null;
+    long maxVolume = 0;
+    for (Entry<String, Set<Integer>> entry : skewedPartitions.entrySet()) {
+      if (entry.getValue().contains(partitionId)) {
+        long volume = getTotalVolume(grouppedPartitions.get(entry.getKey()));
+        if (splitTable == null || volume > maxVolume) {
+          splitTable = entry.getKey();
+          maxVolume = volume;
+        }
+      }
+    }
+    return splitTable;
+  }
+
+  /**
+   * Splits a skewed partition of a table into multiple tasks by dividing the intermediate entries of the table.
+   * Each task fetches the same partition of the other table entirely.
+   *
+   * @return the number of tasks
+   */
+  private static int splitJoinShuffle(SubQuery subQuery, int partitionId,
+                                      Map<String, List<IntermediateEntry>> grouppedPartitions,
+                                      String splitTable, long taskVolume) {
+    List<IntermediateEntry> entries = grouppedPartitions.get(splitTable);
+    long volume = getTotalVolume(entries);
+    int splitNum = (int) Math.min(entries.size(), (volume + taskVolume - 1) / taskVolume);
+    if (splitNum <= 1) {
+      addJoinShuffle(subQuery, partitionId, grouppedPartitions);
+      return 1;
+    }
+
+    for (List<IntermediateEntry> split : splitEntries(entries, splitNum)) {
+      Map<String, List<IntermediateEntry>> requests = new HashMap<String, List<IntermediateEntry>>(grouppedPartitions);
+      requests.put(splitTable, split);
+      addJoinShuffle(subQuery, partitionId, requests);
+    }
+
+    String description = "Partition " + partitionId + " of " + splitTable + " ("
+        + FileUtil.humanReadableByteCount(volume, false) + ") is split into " + splitNum
+        + " tasks, and the other side is replicated";
+    LOG.info(subQuery.getId() + ", " + description);
+    subQuery.addSkewedPartition(description);
+    return splitNum;
+  }
+
+  /**
+   * Divides intermediate entries into the given number of groups whose volumes are as even as possible.
+   */
+  public static List<List<IntermediateEntry>> splitEntries(List<IntermediateEntry> entries, int num) {
+    long [] volumes = new long[entries.size()];
+    for (int i = 0; i < volumes.length; i++) {
+      volumes[i] = entries.get(i).getVolume();
+    }
+    int [] assigned = assignByVolume(volumes, num);
+
+    List<List<IntermediateEntry>> groups = new ArrayList<List<IntermediateEntry>>(num);
+    for (int i = 0; i < num; i++) {
+      groups.add(new ArrayList<IntermediateEntry>());
+    }
+    for (int i = 0; i < assigned.length; i++) {
+      groups.get(assigned[i]).add(entries.get(i));
+    }
+    return groups;
+  }
+
+  /**
+   * Assigns items to the given number of bins. The biggest item is assigned first to the bin having the smallest
+   * volume, and a tie is broken by the number of items in the bins.
+   *
+   * @return the bin of each item
+   */
+  private static int [] assignByVolume(final long [] volumes, int num) {
+    Integer [] order = new Integer[volumes.length];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer o1, Integer o2) {
+        return Long.valueOf(volumes[o2]).compareTo(volumes[o1]);
+      }
+    });
+
+    final long [] binVolumes = new long[num];
+    final int [] binSizes = new int[num];
+    PriorityQueue<Integer> bins = new PriorityQueue<Integer>(num, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer o1, Integer o2) {
+        if (binVolumes[o1] != binVolumes[o2]) {
+          return binVolumes[o1] < binVolumes[o2] ? -1 : 1;
+        }
+        if (binSizes[o1] != binSizes[o2]) {
+          return binSizes[o1] < binSizes[o2] ? -1 : 1;
+        }
+        return o1.compareTo(o2);
+      }
+    });
+    for (int i = 0; i < num; i++) {
+      bins.add(i);
+    }
+
+    int [] assigned = new int[volumes.length];
+    for (int item : order) {
+      int bin = bins.poll();
+      assigned[item] = bin;
+      binVolumes[bin] += volumes[item];
+      binSizes[bin]++;
+      bins.add(bin);
+    }
+    return assigned;
   }
 
   /**
@@ -449,6 +757,32 @@ public class Repartitioner {
     }
   }
 
+  /**
+   * Divides partitions into the given number of tasks so that the volumes of tasks are as even as possible.
+   * If the volumes are unknown, partitions are divided evenly by their number.
+   */
+  public static void scheduleFetchesByVolume(SubQuery subQuery, Map<Integer, Collection<URI>> partitions,
+                                             Map<Integer, Long> partitionVolumes, String tableName, int num) {
+    List<Integer> partIds = new ArrayList<Integer>(partitions.keySet());
+    long [] volumes = new long[partIds.size()];
+    for (int i = 0; i < volumes.length; i++) {
+      Long volume = partitionVolumes.get(partIds.get(i));
+      volumes[i] = volume == null ? 0 : volume;
+    }
+    int [] assigned = assignByVolume(volumes, num);
+
+    Map<String, List<URI>>[] fetchesArray = new Map[num];
+    for (int i = 0; i < num; i++) {
+      fetchesArray[i] = new HashMap<String, List<URI>>();
+    }
+    for (int i = 0; i < assigned.length; i++) {
+      TUtil.putCollectionToNestedList(fetchesArray[assigned[i]], tableName, partitions.get(partIds.get(i)));
+    }
+    for (Map<String, List<URI>> eachFetches : fetchesArray) {
+      SubQuery.scheduleFetches(subQuery, eachFetches);
+    }
+  }
+
   public static String createBasicFetchUri(String hostName, int port,
                                            ExecutionBlockId childSid,
                                            int taskId, int attemptId) {
@@ -485,6 +819,7 @@ public class Repartitioner {
 
     Map<String, List<IntermediateEntry>> hashedByHost;
     Map<Integer, Collection<URI>> finalFetchURI = new HashMap<Integer, Collection<URI>>();
+    Map<Integer, Long> partitionVolumes = new HashMap<Integer, Long>();
 
     for (ExecutionBlock block : masterPlan.getChilds(execBlock)) {
       List<IntermediateEntry> partitions = new ArrayList<IntermediateEntry>();
@@ -495,10 +830,12 @@ public class Repartitioner {
       }
       Map<Integer, List<IntermediateEntry>> hashed = hashByKey(partitions);
       for (Entry<Integer, List<IntermediateEntry>> interm : hashed.entrySet()) {
+        Long volume = partitionVolumes.get(interm.getKey());
+        partitionVolumes.put(interm.getKey(), (volume == null ? 0 : volume) + getTotalVolume(interm.getValue()));
         hashedByHost = hashByHost(interm.getValue());
         for (Entry<String, List<IntermediateEntry>> e : hashedByHost.entrySet()) {
           Collection<URI> uris = createHashFetchURL(e.getKey(), block.getId(),
-              interm.getKey(), channel.getShuffleType(), e.getValue());
+              interm.getKey(), channel.getShuffleType(), e.getValue(), getFetchRequestMaxLength(subQuery));
 
           if (finalFetchURI.containsKey(interm.getKey())) {
             finalFetchURI.get(interm.getKey()).addAll(uris);
@@ -517,16 +854,50 @@ public class Repartitioner {
       determinedTaskNum = 1;
       LOG.info(subQuery.getId() + ", No Grouping Column - determinedTaskNum is set to 1");
     }
+    WindowAggNode windowAgg = PlannerUtil.findMostBottomNode(subQuery.getBlock().getPlan(), NodeType.WINDOW_AGG);
+    if (windowAgg != null && !windowAgg.hasPartitionKeys()) {
+      determinedTaskNum = 1;
+      LOG.info(subQuery.getId() + ", No Window Partition Key - determinedTaskNum is set to 1");
+    }
+
+    // Skewed partitions cannot be split, because all rows of a group must be processed in a single task.
+    long taskVolume = (long) subQuery.getContext().getConf().getIntVar(ConfVars.DIST_QUERY_GROUPBY_TASK_VOLUME)
+        * 1048576L;
+    float skewFactor = subQuery.getContext().getConf().getFloatVar(ConfVars.DIST_QUERY_SKEW_PARTITION_FACTOR);
+    for (int partId : findSkewedPartitions(partitionVolumes, skewFactor, taskVolume)) {
+      String description = "Partition " + partId + " ("
+          + FileUtil.humanReadableByteCount(partitionVolumes.get(partId), false) + ") is skewed";
+      LOG.info(subQuery.getId() + ", " + description);
+      subQuery.addSkewedPartition(description);
+    }
 
     // set the proper number of tasks to the estimated task num
     schedulerContext.setEstimatedTaskNum(determinedTaskNum);
-    // divide fetch uris into the the proper number of tasks in a round robin manner.
-    scheduleFetchesByRoundRobin(subQuery, finalFetchURI, scan.getTableName(), determinedTaskNum);
+    // divide fetch uris into the the proper number of tasks by their volumes.
+    scheduleFetchesByVolume(subQuery, finalFetchURI, partitionVolumes, scan.getTableName(), determinedTaskNum);
     LOG.info(subQuery.getId() + ", DeterminedTaskNum : " + determinedTaskNum);
   }
 
+  /**
+   * Fetchers with keep-alive connections send task ids in a request body, so that much more task ids can be
+   * requested in a single request.
+   */
+  private static int getFetchRequestMaxLength(SubQuery subQuery) {
+    if (subQuery.getContext().getConf().getBoolVar(ConfVars.SHUFFLE_FETCHER_KEEPALIVE_ENABLED)) {
+      return HTTP_REQUEST_BODY_MAXIMUM_LENGTH;
+    } else {
+      return HTTP_REQUEST_MAXIMUM_LENGTH;
+    }
+  }
+
   public static Collection<URI> createHashFetchURL(String hostAndPort, ExecutionBlockId ebid,
                                        int partitionId, ShuffleType type, List<IntermediateEntry> entries) {
+    return createHashFetchURL(hostAndPort, ebid, partitionId, type, entries, HTTP_REQUEST_MAXIMUM_LENGTH);
+  }
+
+  public static Collection<URI> createHashFetchURL(String hostAndPort, ExecutionBlockId ebid,
+                                                   int partitionId, ShuffleType type,
+                                                   List<IntermediateEntry> entries, int maxRequestLength) {
     String scheme = "http://";
     StringBuilder urlPrefix = new StringBuilder(scheme);
     urlPrefix.append(hostAndPort).append("/?")
@@ -544,7 +915,8 @@ public class Repartitioner {
     // If the get request is longer than 2000 characters,
     // the long request uri may cause HTTP Status Code - 414 Request-URI Too Long.
     // Refer to http://www.w3.org/Protocols/rfc2616/rfc2616-sec10.html#sec10.4.15
-    // The below code transforms a long request to multiple requests.
+    // The below code transforms a long request to multiple requests. If the parameters are sent as
+    // a request body, a much larger maximum length is given.
     List<String> taskIdsParams = new ArrayList<String>();
     boolean first = true;
     StringBuilder taskIdListBuilder = new StringBuilder();
@@ -560,7 +932,7 @@ public class Repartitioner {
       taskAttemptId.append(entry.getTaskId()).append("_").
           append(entry.getAttemptId());
       if (taskIdListBuilder.length() + taskAttemptId.length()
-          > HTTP_REQUEST_MAXIMUM_LENGTH) {
+          > maxRequestLength) {
         taskIdsParams.add(taskIdListBuilder.toString());
         taskIdListBuilder = new StringBuilder(entry.getTaskId() + "_" + entry.getAttemptId());
       } else {
@@ -36,6 +36,7 @@ import org.apache.tajo.ExecutionBlockId;
 import org.apache.tajo.QueryIdFactory;
 import org.apache.tajo.QueryUnitId;
 import org.apache.tajo.catalog.*;
+import org.apache.tajo.catalog.partition.PartitionDesc;
 import org.apache.tajo.catalog.proto.CatalogProtos;
 import org.apache.tajo.catalog.statistics.ColumnStats;
 import org.apache.tajo.catalog.statistics.StatisticsUtil;
@@ -49,12 +50,15 @@ import org.apache.tajo.engine.planner.logical.GroupbyNode;
 import org.apache.tajo.engine.planner.logical.NodeType;
 import org.apache.tajo.engine.planner.logical.ScanNode;
 import org.apache.tajo.engine.planner.logical.StoreTableNode;
+import org.apache.tajo.engine.planner.logical.WindowAggNode;
+import org.apache.tajo.engine.utils.RuntimeFilter;
 import org.apache.tajo.ipc.TajoMasterProtocol;
 import org.apache.tajo.master.*;
 import org.apache.tajo.master.TaskRunnerGroupEvent.EventType;
 import org.apache.tajo.master.event.*;
 import org.apache.tajo.master.event.QueryUnitAttemptScheduleEvent.QueryUnitAttemptScheduleContext;
 import org.apache.tajo.storage.AbstractStorageManager;
+import org.apache.tajo.storage.fragment.CombinedFileFragment;
 import org.apache.tajo.storage.fragment.FileFragment;
 
 import java.io.IOException;
@@ -88,6 +92,8 @@ public class SubQuery implements EventHandler<SubQueryEvent> {
   private AbstractTaskScheduler taskScheduler;
   private QueryMasterTask.QueryMasterTaskContext context;
   private final List<String> diagnostics = new ArrayList<String>();
+  /** the descriptions of skewed partitions and how they are scheduled */
+  private final List<String> skewedPartitions = new ArrayList<String>();
 
   private long startTime;
   private long finishTime;
@@ -409,6 +415,68 @@ public class SubQuery implements EventHandler<SubQueryEvent> {
     return tasks.values().toArray(new QueryUnit[tasks.size()]);
   }
   
+  /**
+   * Merges the runtime filters built by the succeeded attempts of all tasks. The filters of the attempts are
+   * released whether they are merged or not, because they are not used any more.
+   *
+   * @param maxKeys the maximum number of keys which keeps the filter selective
+   * @return the merged filter, or null if any task does not build its filter or the filter has too many keys.
+   */
+  public RuntimeFilter mergeRuntimeFilters(long maxKeys) throws IOException {
+    try {
+      RuntimeFilter merged = null;
+      for (QueryUnit task : getQueryUnits()) {
+        QueryUnitAttempt attempt = task.getSuccessfulAttempt();
+        if (attempt == null || attempt.getRuntimeFilter() == null) {
+          return null;
+        }
+        RuntimeFilter filter = new RuntimeFilter(attempt.getRuntimeFilter());
+        if (merged == null) {
+          merged = filter;
+        } else {
+          merged.merge(filter);
+        }
+        if (merged.getNumKeys() > maxKeys) {
+          return null;
+        }
+      }
+      return merged;
+    } finally {
+      for (QueryUnit task : getQueryUnits()) {
+        QueryUnitAttempt attempt = task.getSuccessfulAttempt();
+        if (attempt != null) {
+          attempt.clearRuntimeFilter();
+        }
+      }
+    }
+  }
+
+  /**
+   * Merges the partitions of a column-partitioned table written by the succeeded attempts of all tasks.
+   * The sizes and the numbers of rows of a partition written by several tasks are summed.
+   *
+   * @return the partitions in the order of their names
+   */
+  public Collection<PartitionDesc> mergePartitions() {
+    Map<String, PartitionDesc> merged = new TreeMap<String, PartitionDesc>();
+    for (QueryUnit task : getQueryUnits()) {
+      QueryUnitAttempt attempt = task.getSuccessfulAttempt();
+      if (attempt == null || attempt.getPartitions() == null) {
+        continue;
+      }
+      for (CatalogProtos.PartitionDescProto proto : attempt.getPartitions()) {
+        PartitionDesc partition = merged.get(proto.getPartitionName());
+        if (partition == null) {
+          merged.put(proto.getPartitionName(), new PartitionDesc(proto));
+        } else {
+          partition.setNumBytes(partition.getNumBytes() + proto.getNumBytes());
+          partition.setNumRows(partition.getNumRows() + proto.getNumRows());
+        }
+      }
+    }
+    return merged.values();
+  }
+
   public QueryUnit getQueryUnit(QueryUnitId qid) {
     return tasks.get(qid);
   }
@@ -442,6 +510,24 @@ public class SubQuery implements EventHandler<SubQueryEvent> {
     diagnostics.add(diag);
   }
 
+  public List<String> getSkewedPartitions() {
+    readLock.lock();
+    try {
+      return new ArrayList<String>(skewedPartitions);
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  void addSkewedPartition(String description) {
+    writeLock.lock();
+    try {
+      skewedPartitions.add(description);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
   public String toString() {
     StringBuilder sb = new StringBuilder();
     sb.append(this.getId());
@@ -708,8 +794,10 @@ public class SubQuery implements EventHandler<SubQueryEvent> {
       ExecutionBlock parent = masterPlan.getParent(subQuery.getBlock());
 
       GroupbyNode grpNode = null;
+      WindowAggNode windowAggNode = null;
       if (parent != null) {
         grpNode = PlannerUtil.findMostBottomNode(parent.getPlan(), NodeType.GROUP_BY);
+        windowAggNode = PlannerUtil.findMostBottomNode(parent.getPlan(), NodeType.WINDOW_AGG);
       }
 
       // Is this subquery the first step of join?
@@ -762,10 +850,12 @@ public class SubQuery implements EventHandler<SubQueryEvent> {
 
         return taskNum;
 
-        // Is this subquery the first step of group-by?
-      } else if (grpNode != null) {
+        // Is this subquery the first step of group-by or window aggregation?
+      } else if (grpNode != null || windowAggNode != null) {
 
-        if (grpNode.getGroupingColumns().length == 0) {
+        boolean noShuffleKeys = grpNode != null ?
+            grpNode.getGroupingColumns().length == 0 : !windowAggNode.hasPartitionKeys();
+        if (noShuffleKeys) {
           return 1;
         } else {
           long volume = getInputVolume(subQuery.masterPlan, subQuery.context, subQuery.block);
@@ -904,14 +994,24 @@ public class SubQuery implements EventHandler<SubQueryEvent> {
         fragments = subQuery.getStorageManager().getSplits(scan.getCanonicalName(), meta, table.getSchema(), inputPath);
       }
 
-      SubQuery.scheduleFragments(subQuery, fragments);
-      if (subQuery.getTaskScheduler() instanceof DefaultTaskScheduler) {
+      TajoConf conf = subQuery.context.getConf();
+      if (subQuery.getTaskScheduler() instanceof DefaultTaskScheduler &&
+          conf.getBoolVar(ConfVars.COMBINE_SPLITS_ENABLED)) {
+        // small fragments are combined so that many small files are not scanned by as many tasks.
+        long targetSize = conf.getIntVar(ConfVars.COMBINE_SPLITS_TARGET_SIZE) * 1048576L;
+        List<CombinedFileFragment> combinedFragments =
+            subQuery.getStorageManager().combineSplits(Lists.newArrayList(fragments), targetSize);
+        SubQuery.scheduleCombinedFragments(subQuery, combinedFragments);
+        subQuery.schedulerContext.setTaskSize(combinedFragments.size());
+        subQuery.schedulerContext.setEstimatedTaskNum(combinedFragments.size());
+      } else if (subQuery.getTaskScheduler() instanceof DefaultTaskScheduler) {
+        SubQuery.scheduleFragments(subQuery, fragments);
         //Leaf task of DefaultTaskScheduler should be fragment size
         // EstimatedTaskNum determined number of initial container
         subQuery.schedulerContext.setTaskSize(fragments.size());
         subQuery.schedulerContext.setEstimatedTaskNum(fragments.size());
       } else {
-        TajoConf conf = subQuery.context.getConf();
+        SubQuery.scheduleFragments(subQuery, fragments);
         subQuery.schedulerContext.setTaskSize(conf.getIntVar(ConfVars.TASK_DEFAULT_SIZE) * 1024 * 1024);
         int estimatedTaskNum = (int) Math.ceil((double) table.getStats().getNumBytes() /
             (double) subQuery.schedulerContext.getTaskSize());
@@ -932,6 +1032,13 @@ public class SubQuery implements EventHandler<SubQueryEvent> {
     }
   }
 
+  public static void scheduleCombinedFragments(SubQuery subQuery, Collection<CombinedFileFragment> fragments) {
+    for (CombinedFileFragment eachFragment : fragments) {
+      subQuery.taskScheduler.handle(new FragmentScheduleEvent(TaskSchedulerEvent.EventType.T_SCHEDULE,
+          subQuery.getId(), eachFragment));
+    }
+  }
+
   public static void scheduleFragments(SubQuery subQuery, Collection<FileFragment> leftFragments,
                                        Collection<FileFragment> broadcastFragments) {
     for (FileFragment eachLeafFragment : leftFragments) {
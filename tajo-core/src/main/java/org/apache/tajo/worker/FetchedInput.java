@@ -0,0 +1,110 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.worker;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.storage.fragment.FileFragment;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FetchedInput collects the fetched files of an input table in the order of their completion.
+ * It allows a scan to consume each fetched file as soon as its fetch is done while the other fetches
+ * of the same table are still in progress.
+ */
+public class FetchedInput {
+  private static final long POLL_INTERVAL_MS = 100;
+
+  private final String tableName;
+  private final LinkedBlockingQueue<FileFragment> fetched = new LinkedBlockingQueue<FileFragment>();
+  private final int fetchNum;
+  private final CountDownLatch remainingFetches;
+  private volatile boolean stopped = false;
+
+  public FetchedInput(String tableName, int fetchNum) {
+    this.tableName = tableName;
+    this.fetchNum = fetchNum;
+    this.remainingFetches = new CountDownLatch(fetchNum);
+  }
+
+  public String getTableName() {
+    return tableName;
+  }
+
+  public int getFetchNum() {
+    return fetchNum;
+  }
+
+  /**
+   * It is called when a fetch of this table is finished.
+   *
+   * @param file The fetched file. It is null if the fetch failed.
+   */
+  public void fetchFinished(File file) {
+    if (file != null && file.exists() && file.length() > 0) {
+      fetched.add(new FileFragment(tableName, new Path(file.getAbsolutePath()), 0, file.length()));
+    }
+    remainingFetches.countDown();
+  }
+
+  public boolean isCompleted() {
+    return remainingFetches.getCount() == 0;
+  }
+
+  /**
+   * Waits until all fetches of this table are finished.
+   */
+  public void awaitCompletion() throws InterruptedException {
+    remainingFetches.await();
+  }
+
+  /**
+   * Wakes up a consumer waiting for the next fetched file. The consumer will see no more files.
+   */
+  public void stop() {
+    stopped = true;
+  }
+
+  /**
+   * Waits for the next fetched file.
+   *
+   * @return The fragment of the next fetched file. It returns null if all fetched files are consumed.
+   */
+  public FileFragment take() throws IOException {
+    try {
+      while (!stopped) {
+        // the completion must be checked before polling, so that the last file is not missed.
+        boolean completed = isCompleted();
+        FileFragment fragment = fetched.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        if (fragment != null) {
+          return fragment;
+        } else if (completed) {
+          return null;
+        }
+      }
+      return null;
+    } catch (InterruptedException e) {
+      throw new IOException("Interrupted while waiting for fetched data of " + tableName, e);
+    }
+  }
+}
@@ -0,0 +1,182 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.worker;
+
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.statistics.ColumnStats;
+import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.storage.Scanner;
+import org.apache.tajo.storage.StorageManagerFactory;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.util.TUtil;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * FetchedInputScanner reads fetched files of an input table while they are being fetched.
+ * Like {@link org.apache.tajo.storage.MergeScanner}, it reads files one by one, but it takes the next file from
+ * {@link FetchedInput} in the order of fetch completion. So, it blocks only if no fetched file is available yet.
+ */
+public class FetchedInputScanner implements Scanner {
+  private final TajoConf conf;
+  private final Schema schema;
+  private final TableMeta meta;
+  private final FetchedInput input;
+  private Schema target;
+
+  /** fragments which have been taken from the input */
+  private final List<FileFragment> taken = TUtil.newList();
+  /** It is not null after reset(), when all fragments are replayed from the taken list. */
+  private Iterator<FileFragment> replay;
+  private Scanner currentScanner;
+  private TableStats tableStats;
+  private boolean finished = false;
+
+  public FetchedInputScanner(TajoConf conf, Schema schema, TableMeta meta, FetchedInput input, Schema target) {
+    this.conf = conf;
+    this.schema = schema;
+    this.meta = meta;
+    this.input = input;
+    this.target = target;
+  }
+
+  @Override
+  public void init() throws IOException {
+    tableStats = new TableStats();
+    for(Column eachColumn: schema.getColumns()) {
+      tableStats.addColumnStat(new ColumnStats(eachColumn));
+    }
+  }
+
+  @Override
+  public Tuple next() throws IOException {
+    Tuple tuple;
+    while (true) {
+      if (currentScanner != null && (tuple = currentScanner.next()) != null) {
+        return tuple;
+      }
+      closeCurrentScanner();
+      if (!openNextScanner()) {
+        return null;
+      }
+    }
+  }
+
+  private boolean openNextScanner() throws IOException {
+    FileFragment fragment;
+    if (replay != null) {
+      fragment = replay.hasNext() ? replay.next() : null;
+    } else {
+      fragment = finished ? null : input.take();
+      if (fragment != null) {
+        taken.add(fragment);
+        tableStats.setNumBytes(tableStats.getNumBytes() + fragment.getEndKey());
+        tableStats.setNumBlocks(taken.size());
+      } else {
+        finished = true;
+      }
+    }
+
+    if (fragment == null) {
+      return false;
+    }
+    currentScanner = StorageManagerFactory.getStorageManager(conf).getScanner(meta, schema, fragment, target);
+    currentScanner.init();
+    return true;
+  }
+
+  private void closeCurrentScanner() throws IOException {
+    if (currentScanner != null) {
+      currentScanner.close();
+      TableStats scannerStats = currentScanner.getInputStats();
+      if (scannerStats != null && replay == null) {
+        tableStats.setReadBytes(tableStats.getReadBytes() + scannerStats.getReadBytes());
+        tableStats.setNumRows(tableStats.getNumRows() + scannerStats.getNumRows());
+      }
+      currentScanner = null;
+    }
+  }
+
+  /**
+   * It waits for all remaining fetches, and then it scans all fetched files from the first.
+   */
+  @Override
+  public void reset() throws IOException {
+    closeCurrentScanner();
+    FileFragment fragment;
+    while (!finished && (fragment = input.take()) != null) {
+      taken.add(fragment);
+      tableStats.setNumBytes(tableStats.getNumBytes() + fragment.getEndKey());
+    }
+    finished = true;
+    tableStats.setNumBlocks(taken.size());
+    replay = taken.iterator();
+  }
+
+  @Override
+  public void close() throws IOException {
+    closeCurrentScanner();
+    replay = null;
+  }
+
+  @Override
+  public boolean isProjectable() {
+    return false;
+  }
+
+  @Override
+  public void setTarget(Column[] targets) {
+    this.target = new Schema(targets);
+  }
+
+  @Override
+  public boolean isSelectable() {
+    return false;
+  }
+
+  @Override
+  public void setSearchCondition(Object expr) {
+  }
+
+  @Override
+  public Schema getSchema() {
+    return schema;
+  }
+
+  @Override
+  public boolean isSplittable() {
+    return false;
+  }
+
+  @Override
+  public float getProgress() {
+    return finished && currentScanner == null ? 1.0f : 0.0f;
+  }
+
+  @Override
+  public TableStats getInputStats() {
+    return tableStats;
+  }
+}
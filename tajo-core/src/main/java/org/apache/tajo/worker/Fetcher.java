@@ -23,9 +23,11 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.io.IOUtils;
 import org.jboss.netty.bootstrap.ClientBootstrap;
 import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
 import org.jboss.netty.channel.*;
 import org.jboss.netty.channel.socket.ClientSocketChannelFactory;
 import org.jboss.netty.handler.codec.http.*;
+import org.jboss.netty.util.CharsetUtil;
 
 import java.io.File;
 import java.io.FileNotFoundException;
@@ -34,12 +36,17 @@ import java.io.RandomAccessFile;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.nio.channels.FileChannel;
+import java.util.concurrent.CountDownLatch;
 
 import static org.jboss.netty.channel.Channels.pipeline;
 
 /**
  * Fetcher fetches data from a given uri via HTTP protocol and stores them into
  * a specific file. It aims at asynchronous and efficient data transmit.
+ *
+ * If a {@link ShuffleConnectionPool} is given, the fetcher borrows a keep-alive connection from the pool and
+ * sends the query string of the uri as a POST body. So, many task ids can be requested in a single request.
+ * Otherwise, it opens a new connection for each fetch, and the server closes it after the response.
  */
 public class Fetcher {
   private final static Log LOG = LogFactory.getLog(Fetcher.class);
@@ -56,8 +63,26 @@ public class Fetcher {
   private int messageReceiveCount;
 
   private ClientBootstrap bootstrap;
+  private ShuffleConnectionPool connectionPool;
 
   public Fetcher(URI uri, File file, ClientSocketChannelFactory factory) {
+    this(uri, file);
+
+    bootstrap = new ClientBootstrap(factory);
+    bootstrap.setOption("connectTimeoutMillis", 5000L); // set 5 sec
+    bootstrap.setOption("receiveBufferSize", 1048576); // set 1M
+    bootstrap.setOption("tcpNoDelay", true);
+
+    ChannelPipelineFactory pipelineFactory = new HttpClientPipelineFactory(file);
+    bootstrap.setPipelineFactory(pipelineFactory);
+  }
+
+  public Fetcher(URI uri, File file, ShuffleConnectionPool connectionPool) {
+    this(uri, file);
+    this.connectionPool = connectionPool;
+  }
+
+  private Fetcher(URI uri, File file) {
     this.uri = uri;
     this.file = file;
 
@@ -71,14 +96,6 @@ public class Fetcher {
         this.port = 443;
       }
     }
-
-    bootstrap = new ClientBootstrap(factory);
-    bootstrap.setOption("connectTimeoutMillis", 5000L); // set 5 sec
-    bootstrap.setOption("receiveBufferSize", 1048576); // set 1M
-    bootstrap.setOption("tcpNoDelay", true);
-
-    ChannelPipelineFactory pipelineFactory = new HttpClientPipelineFactory(file);
-    bootstrap.setPipelineFactory(pipelineFactory);
   }
 
   public long getStartTime() {
@@ -112,6 +129,10 @@ public class Fetcher {
   public File get() throws IOException {
     startTime = System.currentTimeMillis();
 
+    if (connectionPool != null) {
+      return getWithPooledConnection();
+    }
+
     ChannelFuture future = bootstrap.connect(new InetSocketAddress(host, port));
 
     // Wait until the connection attempt succeeds or fails.
@@ -121,18 +142,10 @@ public class Fetcher {
       throw new IOException(future.getCause());
     }
 
-    String query = uri.getPath()
-        + (uri.getRawQuery() != null ? "?" + uri.getRawQuery() : "");
-    // Prepare the HTTP request.
-    HttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, query);
-    request.setHeader(HttpHeaders.Names.HOST, host);
     LOG.info("Fetch: " + uri);
-    request.setHeader(HttpHeaders.Names.CONNECTION, HttpHeaders.Values.CLOSE);
-    request.setHeader(HttpHeaders.Names.ACCEPT_ENCODING, HttpHeaders.Values.GZIP);
-
 
     // Send the HTTP request.
-    ChannelFuture channelFuture = channel.write(request);
+    ChannelFuture channelFuture = channel.write(createRequest(false));
 
     // Wait for the server to close the connection.
     channel.getCloseFuture().awaitUninterruptibly();
@@ -145,6 +158,59 @@ public class Fetcher {
     return file;
   }
 
+  private File getWithPooledConnection() throws IOException {
+    InetSocketAddress addr = new InetSocketAddress(host, port);
+    Channel channel = connectionPool.acquire(addr);
+    final HttpClientHandler handler = new HttpClientHandler(file);
+    channel.getPipeline().addLast(ShuffleConnectionPool.HANDLER_NAME, handler);
+
+    boolean completed = false;
+    try {
+      LOG.info("Fetch: " + uri);
+      channel.write(createRequest(true)).addListener(new ChannelFutureListener() {
+        @Override
+        public void operationComplete(ChannelFuture future) throws Exception {
+          // a pooled connection may have been closed by the server.
+          if (!future.isSuccess()) {
+            handler.finishResponse(false);
+          }
+        }
+      });
+      completed = handler.awaitResponse();
+    } finally {
+      connectionPool.release(addr, channel, completed && handler.isKeepAlive());
+    }
+
+    finishTime = System.currentTimeMillis();
+    if (!completed) {
+      throw new IOException("The response is not completed: " + uri);
+    }
+    return file;
+  }
+
+  private HttpRequest createRequest(boolean keepAlive) {
+    HttpRequest request;
+    if (keepAlive && uri.getRawQuery() != null) {
+      // The query string is sent as the body, so it is not limited by the maximum length of a request uri.
+      String path = uri.getPath() == null || uri.getPath().isEmpty() ? "/" : uri.getPath();
+      request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, path);
+      ChannelBuffer content = ChannelBuffers.copiedBuffer(uri.getRawQuery(), CharsetUtil.UTF_8);
+      request.setHeader(HttpHeaders.Names.CONTENT_TYPE, "application/x-www-form-urlencoded");
+      HttpHeaders.setContentLength(request, content.readableBytes());
+      request.setContent(content);
+    } else {
+      String query = uri.getPath()
+          + (uri.getRawQuery() != null ? "?" + uri.getRawQuery() : "");
+      request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, query);
+    }
+
+    request.setHeader(HttpHeaders.Names.HOST, host);
+    request.setHeader(HttpHeaders.Names.CONNECTION,
+        keepAlive ? HttpHeaders.Values.KEEP_ALIVE : HttpHeaders.Values.CLOSE);
+    request.setHeader(HttpHeaders.Names.ACCEPT_ENCODING, HttpHeaders.Values.GZIP);
+    return request;
+  }
+
   public URI getURI() {
     return this.uri;
   }
@@ -156,6 +222,12 @@ public class Fetcher {
     private FileChannel fc;
     private long length = -1;
 
+    // for a keep-alive connection
+    private final CountDownLatch responseDone = new CountDownLatch(1);
+    private volatile boolean completed = false;
+    private volatile boolean keepAlive = false;
+    private boolean failed = false;
+
     public HttpClientHandler(File file) throws FileNotFoundException {
       this.file = file;
     }
@@ -164,6 +236,10 @@ public class Fetcher {
     public void messageReceived(ChannelHandlerContext ctx, MessageEvent e)
         throws Exception {
       messageReceiveCount++;
+      if (failed) {
+        return;
+      }
+
       try {
         if (!readingChunks) {
           HttpResponse response = (HttpResponse) e.getMessage();
@@ -189,13 +265,24 @@ public class Fetcher {
           if (LOG.isDebugEnabled()) {
             LOG.debug(sb.toString());
           }
+          keepAlive = HttpHeaders.isKeepAlive(response);
 
           if (response.getStatus() == HttpResponseStatus.NO_CONTENT) {
             LOG.info("There are no data corresponding to the request");
+            finishResponse(true);
+            return;
+          }
+
+          if (response.getStatus() != HttpResponseStatus.OK) {
+            LOG.error("Fetch failed: " + uri + " (" + response.getStatus() + ")");
+            failed = true;
+            finishResponse(false);
             return;
           }
 
           this.raf = new RandomAccessFile(file, "rw");
+          // a retried fetch must not leave the data of the previous try.
+          raf.setLength(0);
           this.fc = raf.getChannel();
 
           if (response.isChunked()) {
@@ -205,6 +292,7 @@ public class Fetcher {
             if (content.readable()) {
               fc.write(content.toByteBuffer());
             }
+            finishResponse(length == -1 || fc.size() == length);
           }
         } else {
           HttpChunk chunk = (HttpChunk) e.getMessage();
@@ -218,6 +306,7 @@ public class Fetcher {
               LOG.info("Data fetch is done, but cannot get all data "
                   + "(received/total: " + fileLength + "/" + length + ")");
             }
+            finishResponse(length == -1 || fileLength == length);
           } else {
             fc.write(chunk.getContent().toByteBuffer());
           }
@@ -233,6 +322,45 @@ public class Fetcher {
         }
       }
     }
+
+    @Override
+    public void channelClosed(ChannelHandlerContext ctx, ChannelStateEvent e) throws Exception {
+      finishResponse(false);
+      super.channelClosed(ctx, e);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, ExceptionEvent e) throws Exception {
+      LOG.error("Fetch failed: " + uri, e.getCause());
+      finishResponse(false);
+      e.getChannel().close();
+    }
+
+    private void finishResponse(boolean success) {
+      if (responseDone.getCount() > 0) {
+        completed = success;
+        IOUtils.cleanup(LOG, fc, raf);
+        responseDone.countDown();
+      }
+    }
+
+    /**
+     * Waits until the response is completely read or the connection is closed.
+     *
+     * @return True if the response is completely read.
+     */
+    boolean awaitResponse() throws IOException {
+      try {
+        responseDone.await();
+      } catch (InterruptedException e) {
+        throw new IOException("Interrupted while fetching " + uri, e);
+      }
+      return completed;
+    }
+
+    boolean isKeepAlive() {
+      return keepAlive;
+    }
   }
 
   class HttpClientPipelineFactory implements
@@ -0,0 +1,177 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.worker;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.rpc.RpcChannelFactory;
+import org.jboss.netty.bootstrap.ClientBootstrap;
+import org.jboss.netty.channel.*;
+import org.jboss.netty.channel.group.ChannelGroup;
+import org.jboss.netty.channel.group.DefaultChannelGroup;
+import org.jboss.netty.channel.socket.ClientSocketChannelFactory;
+import org.jboss.netty.handler.codec.http.HttpClientCodec;
+import org.jboss.netty.handler.codec.http.HttpContentDecompressor;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.jboss.netty.channel.Channels.pipeline;
+
+/**
+ * ShuffleConnectionPool keeps idle keep-alive connections to pull servers, so that fetches of the same worker
+ * reuse connections across tasks and execution blocks instead of connecting to a pull server for every fetch.
+ *
+ * A pooled channel has only the http codec. A {@link Fetcher} adds its response handler to the channel while it
+ * uses the channel, and it returns the channel only if the response has been completely read.
+ */
+public class ShuffleConnectionPool {
+  private static final Log LOG = LogFactory.getLog(ShuffleConnectionPool.class);
+
+  public static final String HANDLER_NAME = "handler";
+
+  private static ShuffleConnectionPool instance;
+
+  private final ConcurrentMap<InetSocketAddress, Queue<Channel>> idleChannels =
+      new ConcurrentHashMap<InetSocketAddress, Queue<Channel>>();
+  private final ChannelGroup allChannels = new DefaultChannelGroup();
+  private final ClientSocketChannelFactory channelFactory;
+  private final ClientBootstrap bootstrap;
+  private final int maxIdleNumPerHost;
+
+  private ShuffleConnectionPool(TajoConf conf, ClientSocketChannelFactory channelFactory) {
+    this.channelFactory = channelFactory;
+    this.maxIdleNumPerHost = conf.getIntVar(TajoConf.ConfVars.SHUFFLE_FETCHER_KEEPALIVE_MAX_IDLE_CONNECTIONS);
+
+    bootstrap = new ClientBootstrap(channelFactory);
+    bootstrap.setOption("connectTimeoutMillis", 5000L); // set 5 sec
+    bootstrap.setOption("receiveBufferSize", 1048576); // set 1M
+    bootstrap.setOption("tcpNoDelay", true);
+    bootstrap.setOption("keepAlive", true);
+    bootstrap.setPipelineFactory(new ChannelPipelineFactory() {
+      @Override
+      public ChannelPipeline getPipeline() throws Exception {
+        ChannelPipeline pipeline = pipeline();
+        pipeline.addLast("codec", new HttpClientCodec());
+        pipeline.addLast("inflater", new HttpContentDecompressor());
+        return pipeline;
+      }
+    });
+  }
+
+  public synchronized static ShuffleConnectionPool getPool(TajoConf conf) {
+    if (instance == null) {
+      int workerNum = conf.getIntVar(TajoConf.ConfVars.SHUFFLE_FETCHER_PARALLEL_EXECUTION_MAX_NUM);
+      instance = new ShuffleConnectionPool(conf,
+          RpcChannelFactory.createClientChannelFactory("ShuffleFetcher", workerNum));
+    }
+    return instance;
+  }
+
+  /**
+   * @return An idle connection to the address if exists. Otherwise, it returns a new connection.
+   */
+  public Channel acquire(InetSocketAddress addr) throws IOException {
+    Queue<Channel> idles = idleChannels.get(addr);
+    if (idles != null) {
+      Channel channel;
+      while ((channel = idles.poll()) != null) {
+        if (channel.isConnected()) {
+          return channel;
+        }
+        channel.close();
+      }
+    }
+
+    ChannelFuture future = bootstrap.connect(addr);
+    // Wait until the connection attempt succeeds or fails.
+    Channel channel = future.awaitUninterruptibly().getChannel();
+    if (!future.isSuccess()) {
+      channel.close();
+      throw new IOException(future.getCause());
+    }
+    allChannels.add(channel);
+    return channel;
+  }
+
+  /**
+   * Returns a connection to the pool.
+   *
+   * @param reusable False if the connection has an unfinished or failed response.
+   */
+  public void release(InetSocketAddress addr, Channel channel, boolean reusable) {
+    if (channel.getPipeline().get(HANDLER_NAME) != null) {
+      channel.getPipeline().remove(HANDLER_NAME);
+    }
+
+    if (!reusable || !channel.isConnected()) {
+      channel.close();
+      return;
+    }
+
+    Queue<Channel> idles = idleChannels.get(addr);
+    if (idles == null) {
+      idleChannels.putIfAbsent(addr, new ConcurrentLinkedQueue<Channel>());
+      idles = idleChannels.get(addr);
+    }
+
+    if (idles.size() < maxIdleNumPerHost) {
+      idles.offer(channel);
+    } else {
+      channel.close();
+    }
+  }
+
+  @VisibleForTesting
+  int getIdleConnectionNum(InetSocketAddress addr) {
+    Queue<Channel> idles = idleChannels.get(addr);
+    return idles == null ? 0 : idles.size();
+  }
+
+  public synchronized void close() {
+    idleChannels.clear();
+    try {
+      allChannels.close().awaitUninterruptibly(10, TimeUnit.SECONDS);
+    } catch (Throwable t) {
+      LOG.error(t);
+    }
+  }
+
+  public synchronized void shutdown() {
+    close();
+    channelFactory.releaseExternalResources();
+  }
+
+  /**
+   * Shuts down the pool of this process if it has been created.
+   */
+  public synchronized static void shutdownPool() {
+    if (instance != null) {
+      instance.shutdown();
+      instance = null;
+    }
+  }
+}
@@ -336,6 +336,8 @@ public class TajoWorker extends CompositeService {
       RpcChannelFactory.shutdown();
     }
 
+    ShuffleConnectionPool.shutdownPool();
+
     if(webServer != null && webServer.isAlive()) {
       try {
         webServer.stop();
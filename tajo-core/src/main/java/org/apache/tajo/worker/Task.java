@@ -35,11 +35,13 @@ import org.apache.tajo.TajoProtos.TaskAttemptState;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.TableDesc;
 import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.partition.PartitionDesc;
 import org.apache.tajo.catalog.proto.CatalogProtos;
 import org.apache.tajo.catalog.statistics.TableStats;
 import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.engine.json.CoreGsonHelper;
 import org.apache.tajo.engine.planner.PlannerUtil;
+import org.apache.tajo.engine.planner.enforce.Enforcer;
 import org.apache.tajo.engine.planner.logical.LogicalNode;
 import org.apache.tajo.engine.planner.logical.NodeType;
 import org.apache.tajo.engine.planner.logical.ScanNode;
@@ -49,13 +51,16 @@ import org.apache.tajo.engine.query.QueryContext;
 import org.apache.tajo.engine.query.QueryUnitRequest;
 import org.apache.tajo.ipc.QueryMasterProtocol.QueryMasterProtocolService;
 import org.apache.tajo.ipc.TajoWorkerProtocol.*;
+import org.apache.tajo.ipc.TajoWorkerProtocol.EnforceProperty.EnforceType;
 import org.apache.tajo.rpc.NullCallback;
 import org.apache.tajo.rpc.RpcChannelFactory;
+import org.apache.tajo.storage.StorageConstants;
 import org.apache.tajo.storage.StorageUtil;
 import org.apache.tajo.storage.TupleComparator;
 import org.apache.tajo.storage.fragment.FileFragment;
 import org.apache.tajo.util.ApplicationIdUtils;
 import org.jboss.netty.channel.socket.ClientSocketChannelFactory;
+import org.jboss.netty.handler.codec.http.QueryStringDecoder;
 
 import java.io.File;
 import java.io.IOException;
@@ -83,6 +88,8 @@ public class Task {
   private final QueryUnitRequest request;
   private TaskAttemptContext context;
   private List<Fetcher> fetcherRunners;
+  /** fetched input tables by table name */
+  private final Map<String, FetchedInput> fetchedInputs = Maps.newHashMap();
   private LogicalNode plan;
   private final Map<String, TableDesc> descs = Maps.newHashMap();
   private PhysicalExec executor;
@@ -151,6 +158,7 @@ public class Task {
         request.getFragments().toArray(new FragmentProto[request.getFragments().size()]), taskDir);
     this.context.setDataChannel(request.getDataChannel());
     this.context.setEnforcer(request.getEnforcer());
+    this.context.setShuffleCompressionCodec(queryContext.get(TajoConf.ConfVars.SHUFFLE_COMPRESSION_CODEC));
     this.inputStats = new TableStats();
 
     this.reporter = new Reporter(taskId, masterProxy);
@@ -162,6 +170,7 @@ public class Task {
       ScanNode scan = (ScanNode)node;
       descs.put(scan.getCanonicalName(), scan.getTableDesc());
     }
+    setShuffleCompressionCodec(request.getFetches());
 
     interQuery = request.getProto().getInterQuery();
     if (interQuery) {
@@ -262,8 +271,10 @@ public class Task {
   }
 
   public void fetch() {
-    for (Fetcher f : fetcherRunners) {
-      taskRunnerContext.getFetchLauncher().submit(new FetchRunner(context, f));
+    // fetcherRunners are created in the order of fetches in the request.
+    for (int i = 0; i < fetcherRunners.size(); i++) {
+      FetchedInput input = fetchedInputs.get(request.getFetches().get(i).getName());
+      taskRunnerContext.getFetchLauncher().submit(new FetchRunner(context, fetcherRunners.get(i), input));
     }
   }
 
@@ -344,23 +355,105 @@ public class Task {
         Entry<Integer,String> entry = it.next();
         ShuffleFileOutput.Builder part = ShuffleFileOutput.newBuilder();
         part.setPartId(entry.getKey());
+        Long volume = context.getShuffleFileVolume(entry.getKey());
+        if (volume != null) {
+          part.setVolume(volume);
+        }
         builder.addShuffleFileOutputs(part.build());
       } while (it.hasNext());
     }
 
+    if (context.hasRuntimeFilter()) {
+      builder.setRuntimeFilter(context.getRuntimeFilter().getProto());
+    }
+
+    for (PartitionDesc partition : context.getPartitions()) {
+      builder.addPartitions(partition.getProto());
+    }
+
     return builder.build();
   }
 
-  private void waitForFetch() throws InterruptedException, IOException {
-    context.getFetchLatch().await();
-    LOG.info(context.getTaskId() + " All fetches are done!");
+  /**
+   * Hash shuffle outputs of this query are compressed with the same codec, so it is given to the meta of
+   * hash shuffled input tables.
+   */
+  private void setShuffleCompressionCodec(List<Fetch> fetches) {
+    String codec = context.getShuffleCompressionCodec();
+    if (codec == null) {
+      return;
+    }
+
+    for (Fetch f : fetches) {
+      TableDesc desc = descs.get(f.getName());
+      List<String> types = new QueryStringDecoder(URI.create(f.getUrls())).getParameters().get("type");
+      if (desc != null && desc.getMeta().getStoreType() == CatalogProtos.StoreType.RAW &&
+          types != null && types.contains("h")) {
+        desc.getMeta().putOption(StorageConstants.COMPRESSION_CODEC, codec);
+      }
+    }
+  }
+
+  /**
+   * Waits for fetches, and then it assigns fetched files to input tables.
+   *
+   * @param streamedInput An input table which is scanned while it is being fetched. If it is given, this method
+   *                      does not wait for its fetches. If it is null, this method waits for all fetches.
+   */
+  private void waitForFetch(FetchedInput streamedInput) throws InterruptedException, IOException {
+    if (streamedInput == null) {
+      context.getFetchLatch().await();
+      LOG.info(context.getTaskId() + " All fetches are done!");
+    } else {
+      for (FetchedInput input : fetchedInputs.values()) {
+        if (input != streamedInput) {
+          input.awaitCompletion();
+        }
+      }
+      LOG.info(context.getTaskId() + " All fetches except " + streamedInput.getTableName() + " are done. "
+          + streamedInput.getTableName() + " (fetches: " + streamedInput.getFetchNum()
+          + ") will be scanned while being fetched.");
+      context.setFetchedInput(streamedInput);
+    }
+
     Collection<String> inputs = Lists.newArrayList(context.getInputTables());
     for (String inputTable: inputs) {
       File tableDir = new File(context.getFetchIn(), inputTable);
       FileFragment[] frags = localizeFetchedData(tableDir, inputTable, descs.get(inputTable).getMeta());
       context.updateAssignedFragments(inputTable, frags);
     }
-    releaseChannelFactory();
+
+    if (streamedInput == null) {
+      releaseChannelFactory();
+    }
+  }
+
+  /**
+   * Chooses an input table which is scanned while it is being fetched, so that the network transfer overlaps
+   * with the execution. The table with the most fetches is chosen, and the other input tables are fetched
+   * completely before the execution because the planner needs their volumes.
+   *
+   * @return A fetched input table to be streamed. It is null if the streaming fetch is disabled or not applicable.
+   */
+  private FetchedInput getStreamedInput() {
+    if (!systemConf.getBoolVar(TajoConf.ConfVars.SHUFFLE_FETCHER_STREAMING_ENABLED) || fetchedInputs.isEmpty()) {
+      return null;
+    }
+
+    // a sorted input is merged from all fetched runs at once.
+    Enforcer enforcer = context.getEnforcer();
+    if (enforcer != null && enforcer.hasEnforceProperty(EnforceType.SORTED_INPUT)) {
+      return null;
+    }
+
+    FetchedInput streamedInput = null;
+    for (FetchedInput input : fetchedInputs.values()) {
+      if (descs.containsKey(input.getTableName()) &&
+          (streamedInput == null || input.getFetchNum() > streamedInput.getFetchNum())) {
+        streamedInput = input;
+      }
+    }
+    return streamedInput;
   }
 
   public void run() {
@@ -371,10 +464,13 @@ public class Task {
 
       if (context.hasFetchPhase()) {
         // If the fetch is still in progress, the query unit must wait for
-        // complete.
-        waitForFetch();
-        context.setFetcherProgress(FETCHER_PROGRESS);
-        context.setProgress(FETCHER_PROGRESS);
+        // complete. In the streaming fetch, it waits for all input tables except a streamed one.
+        FetchedInput streamedInput = getStreamedInput();
+        waitForFetch(streamedInput);
+        if (streamedInput == null) {
+          context.setFetcherProgress(FETCHER_PROGRESS);
+          context.setProgress(FETCHER_PROGRESS);
+        }
       }
 
       if (context.getFragmentSize() > 0) {
@@ -455,6 +551,7 @@ public class Task {
     taskRunnerContext = null;
 
     fetcherRunners.clear();
+    fetchedInputs.clear();
     executor = null;
     plan = null;
     context = null;
@@ -481,6 +578,10 @@ public class Task {
       if (context.getResultStats() != null) {
         taskHistory.setOutputStats((TableStats)context.getResultStats().clone());
       }
+      if (context.getShuffleCompressionCodec() != null) {
+        taskHistory.setCompressionStats(context.getShuffleCompressionCodec(),
+            context.getUncompressedIntermediateBytes(), context.getCompressedIntermediateBytes());
+      }
 
       if (hasFetchPhase()) {
         Map<URI, TaskHistory.FetcherHistory> fetcherHistories = new HashMap<URI, TaskHistory.FetcherHistory>();
@@ -547,10 +648,12 @@ public class Task {
   private class FetchRunner implements Runnable {
     private final TaskAttemptContext ctx;
     private final Fetcher fetcher;
+    private final FetchedInput input;
 
-    public FetchRunner(TaskAttemptContext ctx, Fetcher fetcher) {
+    public FetchRunner(TaskAttemptContext ctx, Fetcher fetcher, FetchedInput input) {
       this.ctx = ctx;
       this.fetcher = fetcher;
+      this.input = input;
     }
 
     @Override
@@ -558,6 +661,7 @@ public class Task {
       int retryNum = 0;
       int maxRetryNum = 5;
       int retryWaitTime = 1000;
+      File fetched = null;
 
       try { // for releasing fetch latch
         while(retryNum < maxRetryNum) {
@@ -570,7 +674,7 @@ public class Task {
             LOG.warn("Retry on the fetch: " + fetcher.getURI() + " (" + retryNum + ")");
           }
           try {
-            File fetched = fetcher.get();
+            fetched = fetcher.get();
             if (fetched != null) {
               break;
             }
@@ -580,6 +684,9 @@ public class Task {
           retryNum++;
         }
       } finally {
+        if (input != null) {
+          input.fetchFinished(fetched);
+        }
         fetcherFinished(ctx);
       }
 
@@ -627,9 +734,14 @@ public class Task {
 
       releaseChannelFactory();
 
-
-      int workerNum = ctx.getConf().getIntVar(TajoConf.ConfVars.SHUFFLE_FETCHER_PARALLEL_EXECUTION_MAX_NUM);
-      channelFactory = RpcChannelFactory.createClientChannelFactory("Fetcher", workerNum);
+      // keep-alive connections are shared by all tasks of this worker.
+      ShuffleConnectionPool connectionPool = null;
+      if (ctx.getConf().getBoolVar(TajoConf.ConfVars.SHUFFLE_FETCHER_KEEPALIVE_ENABLED)) {
+        connectionPool = ShuffleConnectionPool.getPool(ctx.getConf());
+      } else {
+        int workerNum = ctx.getConf().getIntVar(TajoConf.ConfVars.SHUFFLE_FETCHER_PARALLEL_EXECUTION_MAX_NUM);
+        channelFactory = RpcChannelFactory.createClientChannelFactory("Fetcher", workerNum);
+      }
       Path inputDir = lDirAllocator.
           getLocalPathToRead(
               getTaskAttemptDir(ctx.getTaskId()).toString(), systemConf);
@@ -638,16 +750,27 @@ public class Task {
       int i = 0;
       File storeFile;
       List<Fetcher> runnerList = Lists.newArrayList();
+      Map<String, Integer> fetchNums = Maps.newHashMap();
       for (Fetch f : fetches) {
         storeDir = new File(inputDir.toString(), f.getName());
         if (!storeDir.exists()) {
           storeDir.mkdirs();
         }
         storeFile = new File(storeDir, "in_" + i);
-        Fetcher fetcher = new Fetcher(URI.create(f.getUrls()), storeFile, channelFactory);
+        Fetcher fetcher;
+        if (connectionPool != null) {
+          fetcher = new Fetcher(URI.create(f.getUrls()), storeFile, connectionPool);
+        } else {
+          fetcher = new Fetcher(URI.create(f.getUrls()), storeFile, channelFactory);
+        }
         runnerList.add(fetcher);
+        fetchNums.put(f.getName(), fetchNums.containsKey(f.getName()) ? fetchNums.get(f.getName()) + 1 : 1);
         i++;
       }
+      fetchedInputs.clear();
+      for (Entry<String, Integer> entry : fetchNums.entrySet()) {
+        fetchedInputs.put(entry.getKey(), new FetchedInput(entry.getKey(), entry.getValue()));
+      }
       ctx.addFetchPhase(runnerList.size(), new File(inputDir.toString()));
       return runnerList;
     } else {
@@ -26,10 +26,13 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.fs.Path;
 import org.apache.tajo.QueryUnitAttemptId;
 import org.apache.tajo.TajoProtos.TaskAttemptState;
+import org.apache.tajo.catalog.partition.PartitionDesc;
 import org.apache.tajo.catalog.statistics.TableStats;
 import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.engine.codegen.EvalCompiler;
 import org.apache.tajo.engine.planner.enforce.Enforcer;
 import org.apache.tajo.engine.planner.global.DataChannel;
+import org.apache.tajo.engine.utils.RuntimeFilter;
 import org.apache.tajo.storage.fragment.Fragment;
 import org.apache.tajo.storage.fragment.FragmentConvertor;
 
@@ -62,12 +65,23 @@ public class TaskAttemptContext {
 
   /** a map of shuffled file outputs */
   private Map<Integer, String> shuffleFileOutputs;
+  /** the bytes of each shuffled partition */
+  private final Map<Integer, Long> shuffleFileVolumes = Maps.newHashMap();
   private File fetchIn;
+  /** input tables which are scanned while they are being fetched */
+  private final Map<String, FetchedInput> fetchedInputs = Maps.newHashMap();
   private boolean stopped = false;
   private boolean interQuery = false;
   private Path outputPath;
   private DataChannel dataChannel;
   private Enforcer enforcer;
+  private EvalCompiler evalCompiler;
+  private String shuffleCompressionCodec;
+  private long uncompressedIntermediateBytes = 0;
+  private long compressedIntermediateBytes = 0;
+  private RuntimeFilter runtimeFilter;
+  /** the partitions of a column-partitioned table written by this task */
+  private final Map<String, PartitionDesc> partitions = Maps.newTreeMap();
 
   public TaskAttemptContext(TajoConf conf, final QueryUnitAttemptId queryId,
                             final FragmentProto[] fragments,
@@ -101,6 +115,46 @@ public class TaskAttemptContext {
     return this.conf;
   }
   
+  /**
+   * @return the compiler of expressions, which caches compiled expressions of this task
+   */
+  public EvalCompiler getEvalCompiler() {
+    if (evalCompiler == null) {
+      evalCompiler = new EvalCompiler(conf.getBoolVar(TajoConf.ConfVars.EXECUTOR_EXPR_COMPILE_ENABLED));
+    }
+    return evalCompiler;
+  }
+  
+  public void setShuffleCompressionCodec(String codecClassName) {
+    this.shuffleCompressionCodec = codecClassName;
+  }
+
+  /**
+   * @return The class name of a compression codec for hash shuffle outputs and sort spill files. It is null if
+   * they are not compressed. A codec given by the query precedes the system configuration.
+   */
+  public String getShuffleCompressionCodec() {
+    String codec = shuffleCompressionCodec != null ?
+        shuffleCompressionCodec : conf.getVar(TajoConf.ConfVars.SHUFFLE_COMPRESSION_CODEC);
+    return codec == null || codec.isEmpty() ? null : codec;
+  }
+
+  /**
+   * Adds the number of bytes of compressed intermediate data, such as shuffle outputs and sort spill files.
+   */
+  public synchronized void addCompressionStats(long uncompressedBytes, long compressedBytes) {
+    this.uncompressedIntermediateBytes += uncompressedBytes;
+    this.compressedIntermediateBytes += compressedBytes;
+  }
+
+  public synchronized long getUncompressedIntermediateBytes() {
+    return uncompressedIntermediateBytes;
+  }
+
+  public synchronized long getCompressedIntermediateBytes() {
+    return compressedIntermediateBytes;
+  }
+
   public TaskAttemptState getState() {
     return this.state;
   }
@@ -126,6 +180,42 @@ public class TaskAttemptContext {
     return this.enforcer;
   }
 
+  /**
+   * Sets the runtime filter of join keys built from the output of this task, which is reported to the QueryMaster.
+   */
+  public void setRuntimeFilter(RuntimeFilter runtimeFilter) {
+    this.runtimeFilter = runtimeFilter;
+  }
+
+  public boolean hasRuntimeFilter() {
+    return runtimeFilter != null;
+  }
+
+  public RuntimeFilter getRuntimeFilter() {
+    return runtimeFilter;
+  }
+
+  /**
+   * Adds the size and the number of rows of a partition written by this task, which are reported to the
+   * QueryMaster to register the partition to the catalog.
+   *
+   * @param partitionName the partition directory name, like <code>col1=a/col2=b</code>
+   */
+  public void addPartition(String partitionName, TableStats stats) {
+    PartitionDesc partition = partitions.get(partitionName);
+    if (partition == null) {
+      partition = new PartitionDesc();
+      partition.setName(partitionName);
+      partitions.put(partitionName, partition);
+    }
+    partition.setNumBytes(partition.getNumBytes() + stats.getNumBytes());
+    partition.setNumRows(partition.getNumRows() + stats.getNumRows());
+  }
+
+  public Collection<PartitionDesc> getPartitions() {
+    return partitions.values();
+  }
+
   public boolean hasResultStats() {
     return resultStats != null;
   }
@@ -160,6 +250,9 @@ public class TaskAttemptContext {
   
   public void stop() {
     this.stopped = true;
+    for (FetchedInput input : fetchedInputs.values()) {
+      input.stop();
+    }
   }
   
   public void addFetchPhase(int count, File fetchIn) {
@@ -168,6 +261,23 @@ public class TaskAttemptContext {
     this.fetchIn = fetchIn;
   }
   
+  /**
+   * Registers an input table which is scanned while it is being fetched. Its fragments are replaced by
+   * the fetched input.
+   */
+  public void setFetchedInput(FetchedInput input) {
+    fragmentMap.remove(input.getTableName());
+    fetchedInputs.put(input.getTableName(), input);
+  }
+
+  public boolean hasFetchedInput(String tableId) {
+    return fetchedInputs.containsKey(tableId);
+  }
+
+  public FetchedInput getFetchedInput(String tableId) {
+    return fetchedInputs.get(tableId);
+  }
+
   public File getFetchIn() {
     return this.fetchIn;
   }
@@ -183,6 +293,18 @@ public class TaskAttemptContext {
   public void addShuffleFileOutput(int partId, String fileName) {
     shuffleFileOutputs.put(partId, fileName);
   }
+
+  public void addShuffleFileOutput(int partId, String fileName, long volume) {
+    shuffleFileOutputs.put(partId, fileName);
+    shuffleFileVolumes.put(partId, volume);
+  }
+
+  /**
+   * @return the bytes of a shuffled partition, or null if unknown
+   */
+  public Long getShuffleFileVolume(int partId) {
+    return shuffleFileVolumes.get(partId);
+  }
   
   public Iterator<Entry<Integer,String>> getShuffleFileOutputs() {
     return shuffleFileOutputs.entrySet().iterator();
@@ -240,7 +362,7 @@ public class TaskAttemptContext {
   }
 
   public int getFragmentSize() {
-    return fragmentMap.size();
+    return fragmentMap.size() + fetchedInputs.size();
   }
 
   public Collection<String> getInputTables() {
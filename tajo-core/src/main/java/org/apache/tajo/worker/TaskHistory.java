@@ -37,6 +37,10 @@ public class TaskHistory {
   private TableStats inputStats;
   private TableStats outputStats;
 
+  private String compressionCodec;
+  private long uncompressedBytes;
+  private long compressedBytes;
+
   Map<URI, FetcherHistory> fetchers;
 
   public static class FetcherHistory {
@@ -173,6 +177,45 @@ public class TaskHistory {
     this.outputStats = outputStats;
   }
 
+  public void setCompressionStats(String compressionCodec, long uncompressedBytes, long compressedBytes) {
+    this.compressionCodec = compressionCodec;
+    this.uncompressedBytes = uncompressedBytes;
+    this.compressedBytes = compressedBytes;
+  }
+
+  public boolean hasCompressionStats() {
+    return compressionCodec != null;
+  }
+
+  public String getCompressionCodec() {
+    return compressionCodec;
+  }
+
+  public long getUncompressedBytes() {
+    return uncompressedBytes;
+  }
+
+  public long getCompressedBytes() {
+    return compressedBytes;
+  }
+
+  public String toCompressionStatsString() {
+    if (!hasCompressionStats()) {
+      return "No compression";
+    }
+
+    String result = "Codec: " + compressionCodec;
+    result += ", UncompressedBytes: " + FileUtil.humanReadableByteCount(uncompressedBytes, false) + " ("
+        + uncompressedBytes + " B)";
+    result += ", CompressedBytes: " + FileUtil.humanReadableByteCount(compressedBytes, false) + " ("
+        + compressedBytes + " B)";
+    if (uncompressedBytes > 0) {
+      result += ", Ratio: " + String.format("%.2f", (float) compressedBytes / (float) uncompressedBytes);
+    }
+
+    return result;
+  }
+
   public static String toInputStatsString(TableStats tableStats) {
     if (tableStats == null) {
       return "No input statistics";
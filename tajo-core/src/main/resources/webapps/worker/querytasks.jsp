@@ -36,6 +36,7 @@
 <%@ page import="java.text.NumberFormat" %>
 <%@ page import="org.apache.tajo.engine.planner.PlannerUtil" %>
 <%@ page import="org.apache.tajo.util.FileUtil" %>
+<%@ page import="org.apache.commons.lang.StringUtils" %>
 
 <%
   String paramQueryId = request.getParameter("queryId");
@@ -164,6 +165,7 @@
     <tr><td align='right'>Input Rows:</td><td><%=nf.format(totalReadRows)%></td></tr>
     <tr><td align='right'>Output Bytes:</td><td><%=FileUtil.humanReadableByteCount(totalWriteBytes, false) + " (" + nf.format(totalWriteBytes) + " B)"%></td></tr>
     <tr><td align='right'>Output Rows:</td><td><%=nf.format(totalWriteRows)%></td></tr>
+    <tr><td align='right'>Skewed Partitions:</td><td><%=subQuery.getSkewedPartitions().isEmpty() ? "-" : StringUtils.join(subQuery.getSkewedPartitions(), "<br/>")%></td></tr>
   </table>
   <hr/>
 
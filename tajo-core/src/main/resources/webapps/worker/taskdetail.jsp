@@ -91,6 +91,7 @@
         <tr><td align="right">Working Path</td><td><%=taskHistory.getWorkingPath()%></td></tr>
         <tr><td align="right">Input Statistics</td><td><%=TaskHistory.toInputStatsString(taskHistory.getInputStats())%></td></tr>
         <tr><td align="right">Output Statistics</td><td><%=TaskHistory.toOutputStatsString(taskHistory.getOutputStats())%></td></tr>
+        <tr><td align="right">Intermediate Compression</td><td><%=taskHistory.toCompressionStatsString()%></td></tr>
     </table>
 
 <%
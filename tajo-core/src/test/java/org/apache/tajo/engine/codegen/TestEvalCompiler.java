@@ -0,0 +1,142 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.codegen;
+
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.engine.eval.*;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.util.TUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.apache.tajo.common.TajoDataTypes.Type.*;
+import static org.junit.Assert.*;
+
+public class TestEvalCompiler {
+  private Schema schema;
+  private List<Tuple> tuples;
+  private FieldEval a;
+  private FieldEval b;
+  private FieldEval c;
+  private FieldEval d;
+  private FieldEval e;
+
+  @Before
+  public void setUp() {
+    schema = new Schema();
+    schema.addColumn("t.a", INT4);
+    schema.addColumn("t.b", INT8);
+    schema.addColumn("t.c", FLOAT8);
+    schema.addColumn("t.d", TEXT);
+    schema.addColumn("t.e", FLOAT4);
+
+    a = new FieldEval("t.a", CatalogUtil.newSimpleDataType(INT4));
+    b = new FieldEval("t.b", CatalogUtil.newSimpleDataType(INT8));
+    c = new FieldEval("t.c", CatalogUtil.newSimpleDataType(FLOAT8));
+    d = new FieldEval("t.d", CatalogUtil.newSimpleDataType(TEXT));
+    e = new FieldEval("t.e", CatalogUtil.newSimpleDataType(FLOAT4));
+
+    tuples = TUtil.newList();
+    for (int i = 0; i < 100; i++) {
+      Tuple tuple = new VTuple(5);
+      tuple.put(0, i % 13 == 0 ? NullDatum.get() : DatumFactory.createInt4(i + 1));
+      tuple.put(1, i % 7 == 0 ? NullDatum.get() : DatumFactory.createInt8(i * 3L));
+      tuple.put(2, i % 11 == 0 ? NullDatum.get() : DatumFactory.createFloat8(i * 0.5));
+      tuple.put(3, i % 17 == 0 ? NullDatum.get() : DatumFactory.createText("x" + (i % 10)));
+      tuple.put(4, DatumFactory.createFloat4(i * 0.25f));
+      tuples.add(tuple);
+    }
+  }
+
+  private static ConstEval constant(int value) {
+    return new ConstEval(DatumFactory.createInt4(value));
+  }
+
+  private void assertCompiled(EvalNode eval) {
+    CompiledEval compiled = new EvalCompiler(true).compile(schema, eval);
+    for (Tuple tuple : tuples) {
+      Datum expected = eval.eval(schema, tuple);
+      Datum result = compiled.eval(tuple);
+      assertEquals(eval.toString(), expected, result);
+      assertEquals(eval.toString(), expected.type(), result.type());
+      assertEquals(eval.toString(), expected.isTrue(), compiled.isTrue(tuple));
+    }
+  }
+
+  @Test
+  public void testArithmetic() {
+    assertCompiled(new BinaryEval(EvalType.PLUS, a, b));
+    assertCompiled(new BinaryEval(EvalType.MULTIPLY, a, constant(3)));
+    assertCompiled(new BinaryEval(EvalType.MODULAR, b, constant(4)));
+    assertCompiled(new BinaryEval(EvalType.DIVIDE, c, a));
+    assertCompiled(new BinaryEval(EvalType.MINUS, new BinaryEval(EvalType.MULTIPLY, c, b), e));
+    assertCompiled(new BinaryEval(EvalType.PLUS, e, a));
+    assertCompiled(new BinaryEval(EvalType.CONCATENATE, d, new ConstEval(DatumFactory.createText("_y"))));
+  }
+
+  @Test
+  public void testPredicates() {
+    EvalNode aGreater = new BinaryEval(EvalType.GTH, a, constant(30));
+    EvalNode bLess = new BinaryEval(EvalType.LTH, b, constant(200));
+    EvalNode cEqual = new BinaryEval(EvalType.LEQ, c, new ConstEval(DatumFactory.createFloat8(20.5)));
+    EvalNode dEqual = new BinaryEval(EvalType.EQUAL, d, new ConstEval(DatumFactory.createText("x3")));
+    EvalNode eCompare = new BinaryEval(EvalType.GEQ, e, a);
+
+    assertCompiled(aGreater);
+    assertCompiled(cEqual);
+    assertCompiled(dEqual);
+    assertCompiled(eCompare);
+    assertCompiled(new BinaryEval(EvalType.NOT_EQUAL, e, new ConstEval(DatumFactory.createFloat4(2.5f))));
+    assertCompiled(new BinaryEval(EvalType.AND, aGreater, bLess));
+    assertCompiled(new BinaryEval(EvalType.OR, aGreater, bLess));
+    assertCompiled(new BinaryEval(EvalType.OR, new BinaryEval(EvalType.AND, cEqual, dEqual), new NotEval(bLess)));
+    assertCompiled(new IsNullEval(false, new BinaryEval(EvalType.PLUS, a, b)));
+    assertCompiled(new IsNullEval(true, d));
+  }
+
+  @Test
+  public void testCaseWhen() {
+    CaseWhenEval inner = new CaseWhenEval();
+    inner.addWhen(new BinaryEval(EvalType.GTH, b, constant(100)), new BinaryEval(EvalType.PLUS, b, constant(1)));
+    inner.setElseResult(new ConstEval(DatumFactory.createInt8(0)));
+
+    CaseWhenEval caseWhen = new CaseWhenEval();
+    caseWhen.addWhen(new BinaryEval(EvalType.LTH, a, constant(20)), new BinaryEval(EvalType.MULTIPLY, b, a));
+    caseWhen.addWhen(new IsNullEval(false, c), inner);
+    assertCompiled(caseWhen);
+
+    // a CASE WHEN in an arithmetic expression
+    assertCompiled(new BinaryEval(EvalType.PLUS, inner, b));
+  }
+
+  @Test
+  public void testCache() {
+    EvalCompiler compiler = new EvalCompiler(true);
+    EvalNode eval = new BinaryEval(EvalType.PLUS, a, b);
+    assertSame(compiler.compile(schema, eval), compiler.compile(schema, eval));
+    assertNotSame(compiler.compile(schema, eval), compiler.compile(schema, new BinaryEval(EvalType.PLUS, a, b)));
+  }
+}
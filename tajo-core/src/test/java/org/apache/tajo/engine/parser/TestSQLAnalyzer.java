@@ -20,10 +20,17 @@ package org.apache.tajo.engine.parser;
 
 import org.antlr.v4.runtime.ANTLRInputStream;
 import org.antlr.v4.runtime.CommonTokenStream;
+import org.apache.tajo.algebra.ColumnReferenceExpr;
 import org.apache.tajo.algebra.CreateTable;
 import org.apache.tajo.algebra.Expr;
 import org.apache.tajo.algebra.LiteralValue;
 import org.apache.tajo.algebra.OpType;
+import org.apache.tajo.algebra.Projection;
+import org.apache.tajo.algebra.WindowFunctionExpr;
+import org.apache.tajo.algebra.WindowSpec;
+import org.apache.tajo.algebra.WindowSpec.WindowFrame;
+import org.apache.tajo.algebra.WindowSpec.WindowFrameBoundType;
+import org.apache.tajo.algebra.WindowSpec.WindowFrameUnit;
 import org.apache.tajo.engine.parser.SQLParser.SqlContext;
 import org.apache.tajo.util.FileUtil;
 import org.junit.Test;
@@ -33,6 +40,7 @@ import java.io.IOException;
 import java.util.Iterator;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -421,6 +429,86 @@ public class TestSQLAnalyzer {
     parseQuery(sql);
   }
 
+  private static WindowSpec getWindowSpec(Projection projection, int targetIdx) {
+    Expr expr = projection.getNamedExprs()[targetIdx].getExpr();
+    assertEquals(OpType.WindowFunction, expr.getType());
+    return ((WindowFunctionExpr) expr).getWindowSpec();
+  }
+
+  @Test
+  public void testWindowFunction1() throws IOException {
+    String sql = FileUtil.readTextFile(new File("src/test/resources/queries/default/window_function_1.sql"));
+    Expr expr = parseQuery(sql);
+    assertEquals(OpType.Projection, expr.getType());
+    Projection projection = (Projection) expr;
+    assertEquals(4, projection.size());
+
+    // row_number() over (partition by l_orderkey order by l_linenumber desc)
+    WindowFunctionExpr rowNumber = (WindowFunctionExpr) projection.getNamedExprs()[1].getExpr();
+    assertEquals("row_number", rowNumber.getFunction().getSignature().toLowerCase());
+    WindowSpec windowSpec = getWindowSpec(projection, 1);
+    assertEquals(1, windowSpec.getPartitionKeys().length);
+    assertEquals("l_orderkey", ((ColumnReferenceExpr) windowSpec.getPartitionKeys()[0]).getName());
+    assertEquals(1, windowSpec.getSortSpecs().length);
+    assertEquals("l_linenumber", ((ColumnReferenceExpr) windowSpec.getSortSpecs()[0].getKey()).getName());
+    assertFalse(windowSpec.getSortSpecs()[0].isAscending());
+    assertFalse(windowSpec.hasFrame());
+
+    // sum(l_quantity) over (partition by l_orderkey, l_partkey order by l_linenumber
+    //                       rows between 2 preceding and current row)
+    windowSpec = getWindowSpec(projection, 2);
+    assertEquals(2, windowSpec.getPartitionKeys().length);
+    assertEquals("l_partkey", ((ColumnReferenceExpr) windowSpec.getPartitionKeys()[1]).getName());
+    assertTrue(windowSpec.getSortSpecs()[0].isAscending());
+    WindowFrame frame = windowSpec.getFrame();
+    assertEquals(WindowFrameUnit.ROW, frame.getUnit());
+    assertEquals(WindowFrameBoundType.PRECEDING, frame.getStartBound().getBoundType());
+    assertEquals(2, frame.getStartBound().getOffset());
+    assertEquals(WindowFrameBoundType.CURRENT_ROW, frame.getEndBound().getBoundType());
+
+    // avg(l_quantity) over (order by l_linenumber range between unbounded preceding and unbounded following)
+    windowSpec = getWindowSpec(projection, 3);
+    assertFalse(windowSpec.hasPartitionKeys());
+    assertTrue(windowSpec.hasSortSpecs());
+    frame = windowSpec.getFrame();
+    assertEquals(WindowFrameUnit.RANGE, frame.getUnit());
+    assertEquals(WindowFrameBoundType.UNBOUNDED_PRECEDING, frame.getStartBound().getBoundType());
+    assertEquals(WindowFrameBoundType.UNBOUNDED_FOLLOWING, frame.getEndBound().getBoundType());
+  }
+
+  @Test
+  public void testWindowFunction2() throws IOException {
+    String sql = FileUtil.readTextFile(new File("src/test/resources/queries/default/window_function_2.sql"));
+    Expr expr = parseQuery(sql);
+    assertEquals(OpType.Projection, expr.getType());
+    Projection projection = (Projection) expr;
+
+    // count(l_partkey) over (rows unbounded preceding) ends at the current row.
+    WindowSpec windowSpec = getWindowSpec(projection, 0);
+    assertFalse(windowSpec.hasPartitionKeys());
+    assertFalse(windowSpec.hasSortSpecs());
+    WindowFrame frame = windowSpec.getFrame();
+    assertEquals(WindowFrameUnit.ROW, frame.getUnit());
+    assertEquals(WindowFrameBoundType.UNBOUNDED_PRECEDING, frame.getStartBound().getBoundType());
+    assertEquals(WindowFrameBoundType.CURRENT_ROW, frame.getEndBound().getBoundType());
+
+    // max(l_quantity) over (partition by l_orderkey range between current row and 1 following)
+    windowSpec = getWindowSpec(projection, 1);
+    assertTrue(windowSpec.hasPartitionKeys());
+    assertFalse(windowSpec.hasSortSpecs());
+    frame = windowSpec.getFrame();
+    assertEquals(WindowFrameUnit.RANGE, frame.getUnit());
+    assertEquals(WindowFrameBoundType.CURRENT_ROW, frame.getStartBound().getBoundType());
+    assertEquals(WindowFrameBoundType.FOLLOWING, frame.getEndBound().getBoundType());
+    assertEquals(1, frame.getEndBound().getOffset());
+
+    // rank() over ()
+    windowSpec = getWindowSpec(projection, 2);
+    assertFalse(windowSpec.hasPartitionKeys());
+    assertFalse(windowSpec.hasSortSpecs());
+    assertFalse(windowSpec.hasFrame());
+  }
+
   static String[] exprs = {
       "1 + 2", // 0
       "3 - 4", // 1
@@ -181,4 +181,59 @@ public class TestExternalSortExec {
     exec.close();
     System.out.println("Sort Time: " + (end - start) + " msc");
   }
+
+  @Test
+  public final void testParallelSort() throws IOException, PlanningException {
+    TajoConf parallelConf = new TajoConf(conf);
+    parallelConf.setIntVar(TajoConf.ConfVars.EXECUTOR_EXTERNAL_SORT_THREAD_NUM, 4);
+
+    // the first one spills pipelined runs, and the second one sorts all tuples in memory.
+    int [] sortBufferBytes = {1024 * 1024, Integer.MAX_VALUE};
+    for (int bufferBytes : sortBufferBytes) {
+      FileFragment[] frags = StorageManager.splitNG(parallelConf, "default.employee", employee.getMeta(),
+          employee.getPath(), Integer.MAX_VALUE);
+      Path workDir = new Path(testDir, TestExternalSortExec.class.getName() + "_" + bufferBytes);
+      TaskAttemptContext ctx = new TaskAttemptContext(parallelConf,
+          LocalTajoTestingUtility.newQueryUnitAttemptId(), new FileFragment[] { frags[0] }, workDir);
+      ctx.setEnforcer(new Enforcer());
+      Expr expr = analyzer.parse(QUERIES[0]);
+      LogicalPlan plan = planner.createPlan(LocalTajoTestingUtility.createDummySession(), expr);
+      LogicalNode rootNode = plan.getRootBlock().getRoot();
+
+      PhysicalPlanner phyPlanner = new PhysicalPlannerImpl(parallelConf, sm);
+      PhysicalExec exec = phyPlanner.createPlan(ctx, rootNode);
+      ProjectionExec proj = (ProjectionExec) exec;
+
+      ExternalSortExec extSort;
+      if (proj.getChild() instanceof ExternalSortExec) {
+        extSort = proj.getChild();
+      } else {
+        UnaryPhysicalExec sortExec = proj.getChild();
+        SeqScanExec scan = sortExec.getChild();
+        extSort = new ExternalSortExec(ctx, sm, ((MemSortExec)sortExec).getPlan(), scan);
+        proj.setChild(extSort);
+      }
+      extSort.setSortBufferBytesNum(bufferBytes);
+
+      TupleComparator comparator = new TupleComparator(proj.getSchema(),
+          new SortSpec[]{
+              new SortSpec(new Column("managerid", Type.INT4)),
+              new SortSpec(new Column("empid", Type.INT4))
+          });
+
+      Tuple tuple;
+      Tuple preVal = null;
+      int cnt = 0;
+      exec.init();
+      while ((tuple = exec.next()) != null) {
+        if (preVal != null) {
+          assertTrue("prev: " + preVal + ", but cur: " + tuple, comparator.compare(preVal, tuple) <= 0);
+        }
+        preVal = tuple;
+        cnt++;
+      }
+      assertEquals(numTuple, cnt);
+      exec.close();
+    }
+  }
 }
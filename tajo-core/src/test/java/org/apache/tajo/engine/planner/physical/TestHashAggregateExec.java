@@ -0,0 +1,215 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.LocalTajoTestingUtility;
+import org.apache.tajo.TajoConstants;
+import org.apache.tajo.TajoTestingCluster;
+import org.apache.tajo.algebra.Expr;
+import org.apache.tajo.catalog.*;
+import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.engine.parser.SQLAnalyzer;
+import org.apache.tajo.engine.planner.*;
+import org.apache.tajo.engine.planner.enforce.Enforcer;
+import org.apache.tajo.engine.planner.global.GlobalPlanner;
+import org.apache.tajo.engine.planner.logical.GroupbyNode;
+import org.apache.tajo.engine.planner.logical.LogicalNode;
+import org.apache.tajo.engine.planner.logical.NodeType;
+import org.apache.tajo.master.TajoMaster;
+import org.apache.tajo.storage.*;
+import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.apache.tajo.worker.TaskAttemptContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.apache.tajo.TajoConstants.DEFAULT_TABLESPACE_NAME;
+import static org.junit.Assert.*;
+
+public class TestHashAggregateExec {
+  private TajoConf conf;
+  private TajoTestingCluster util;
+  private final String TEST_PATH = "target/test-data/TestHashAggregateExec";
+  private CatalogService catalog;
+  private SQLAnalyzer analyzer;
+  private LogicalPlanner planner;
+  private AbstractStorageManager sm;
+  private Path testDir;
+
+  private final int numTuple = 20000;
+  private final int numGroup = 5000;
+
+  private TableDesc employee;
+
+  @Before
+  public void setUp() throws Exception {
+    this.conf = new TajoConf();
+    util = new TajoTestingCluster();
+    catalog = util.startCatalogCluster().getCatalog();
+    testDir = CommonTestingUtil.getTestDir(TEST_PATH);
+    catalog.createTablespace(DEFAULT_TABLESPACE_NAME, testDir.toUri().toString());
+    catalog.createDatabase(TajoConstants.DEFAULT_DATABASE_NAME, DEFAULT_TABLESPACE_NAME);
+    for (FunctionDesc funcDesc : TajoMaster.initBuiltinFunctions()) {
+      catalog.createFunction(funcDesc);
+    }
+    conf.setVar(TajoConf.ConfVars.WORKER_TEMPORAL_DIR, testDir.toString());
+    sm = StorageManagerFactory.getStorageManager(conf, testDir);
+
+    Schema schema = new Schema();
+    schema.addColumn("managerid", Type.INT4);
+    schema.addColumn("empid", Type.INT4);
+    schema.addColumn("deptname", Type.TEXT);
+
+    TableMeta employeeMeta = CatalogUtil.newTableMeta(StoreType.CSV);
+    Path employeePath = new Path(testDir, "employee.csv");
+    Appender appender = StorageManagerFactory.getStorageManager(conf).getAppender(employeeMeta, schema, employeePath);
+    appender.init();
+    Tuple tuple = new VTuple(schema.size());
+    for (int i = 0; i < numTuple; i++) {
+      tuple.put(new Datum[] {
+          DatumFactory.createInt4(i % numGroup),
+          DatumFactory.createInt4(1),
+          DatumFactory.createText("dept_" + (i % numGroup)),
+      });
+      appender.addTuple(tuple);
+    }
+    appender.flush();
+    appender.close();
+
+    employee = new TableDesc("default.employee", schema, employeeMeta, employeePath);
+    catalog.createTable(employee);
+    analyzer = new SQLAnalyzer();
+    planner = new LogicalPlanner(catalog);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    CommonTestingUtil.cleanupTestDir(TEST_PATH);
+    util.shutdownCatalogCluster();
+  }
+
+  String[] QUERIES = {
+      "select managerid, deptname, count(*) as cnt, sum(empid) as total from employee group by managerid, deptname"
+  };
+
+  private void verifyResult(PhysicalExec exec) throws IOException {
+    boolean [] found = new boolean[numGroup];
+    Tuple tuple;
+    int cnt = 0;
+    while ((tuple = exec.next()) != null) {
+      int key = tuple.get(0).asInt4();
+      assertFalse("duplicated group: " + key, found[key]);
+      found[key] = true;
+      assertEquals("dept_" + key, tuple.get(1).asChars());
+      assertEquals(numTuple / numGroup, tuple.get(2).asInt8());
+      assertEquals(numTuple / numGroup, tuple.get(3).asInt8());
+      cnt++;
+    }
+    assertEquals(numGroup, cnt);
+  }
+
+  @Test
+  public final void testSpilledHashAggregation() throws IOException, PlanningException {
+    FileFragment[] frags = StorageManager.splitNG(conf, "default.employee", employee.getMeta(), employee.getPath(),
+        Integer.MAX_VALUE);
+    Path workDir = new Path(testDir, TestHashAggregateExec.class.getName());
+    TaskAttemptContext ctx = new TaskAttemptContext(conf,
+        LocalTajoTestingUtility.newQueryUnitAttemptId(), new FileFragment[] { frags[0] }, workDir);
+    ctx.setEnforcer(new Enforcer());
+    Expr expr = analyzer.parse(QUERIES[0]);
+    LogicalPlan plan = planner.createPlan(LocalTajoTestingUtility.createDummySession(), expr);
+    LogicalNode rootNode = plan.getRootBlock().getRoot();
+
+    PhysicalPlanner phyPlanner = new PhysicalPlannerImpl(conf, sm);
+    PhysicalExec exec = phyPlanner.createPlan(ctx, rootNode);
+
+    HashAggregateExec hashAgg = PhysicalPlanUtil.findExecutor(exec, HashAggregateExec.class);
+    assertNotNull(hashAgg);
+    // it forces the hash table to spill partitions many times.
+    hashAgg.setHashTableBufferBytesNum(16 * 1024);
+
+    exec.init();
+    verifyResult(exec);
+    assertTrue(hashAgg.getSpilledFileNum() > 0);
+
+    // for rescan test
+    exec.rescan();
+    verifyResult(exec);
+    assertTrue(hashAgg.getSpilledFileNum() > 0);
+    exec.close();
+  }
+
+  private void verifyPartialResult(PhysicalExec exec) throws IOException {
+    long [] counts = new long[numGroup];
+    long [] totals = new long[numGroup];
+    Tuple tuple;
+    while ((tuple = exec.next()) != null) {
+      int key = tuple.get(0).asInt4();
+      assertEquals("dept_" + key, tuple.get(1).asChars());
+      counts[key] += tuple.get(2).asInt8();
+      totals[key] += tuple.get(3).asInt8();
+    }
+    for (int i = 0; i < numGroup; i++) {
+      assertEquals(numTuple / numGroup, counts[i]);
+      assertEquals(numTuple / numGroup, totals[i]);
+    }
+  }
+
+  @Test
+  public final void testPartialAggregation() throws IOException, PlanningException {
+    FileFragment[] frags = StorageManager.splitNG(conf, "default.employee", employee.getMeta(), employee.getPath(),
+        Integer.MAX_VALUE);
+    Path workDir = new Path(testDir, TestHashAggregateExec.class.getName() + "_partial");
+    TaskAttemptContext ctx = new TaskAttemptContext(conf,
+        LocalTajoTestingUtility.newQueryUnitAttemptId(), new FileFragment[] { frags[0] }, workDir);
+    ctx.setEnforcer(new Enforcer());
+    Expr expr = analyzer.parse(QUERIES[0]);
+    LogicalPlan plan = planner.createPlan(LocalTajoTestingUtility.createDummySession(), expr);
+    GroupbyNode groupbyNode = PlannerUtil.findTopNode(plan.getRootBlock().getRoot(), NodeType.GROUP_BY);
+    GroupbyNode firstPhase = GlobalPlanner.createFirstPhaseGroupBy(plan, groupbyNode);
+
+    PhysicalPlanner phyPlanner = new PhysicalPlannerImpl(conf, sm);
+    PhysicalExec exec = phyPlanner.createPlan(ctx, firstPhase);
+    PartialAggregateExec partialAgg = PhysicalPlanUtil.findExecutor(exec, PartialAggregateExec.class);
+    assertNotNull(partialAgg);
+
+    // a small buffer makes the hash table flushed many times, and the same group is emitted more than once.
+    partialAgg.setBufferBytesNum(16 * 1024);
+    exec.init();
+    verifyPartialResult(exec);
+    assertTrue(partialAgg.getFlushNum() > 0);
+    assertFalse(partialAgg.isBypassed());
+
+    // 5000 groups of 10000 rows do not satisfy the reduction ratio, so the remaining rows are passed through.
+    exec.rescan();
+    partialAgg.setBufferBytesNum(Long.MAX_VALUE);
+    partialAgg.setReductionCheck(numTuple / 2, 0.1f);
+    verifyPartialResult(exec);
+    assertTrue(partialAgg.isBypassed());
+    exec.close();
+  }
+}
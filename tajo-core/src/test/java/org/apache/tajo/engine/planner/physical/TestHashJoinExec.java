@@ -19,7 +19,9 @@
 package org.apache.tajo.engine.planner.physical;
 
 import org.apache.hadoop.fs.Path;
+import org.apache.tajo.ExecutionBlockId;
 import org.apache.tajo.LocalTajoTestingUtility;
+import org.apache.tajo.QueryIdFactory;
 import org.apache.tajo.TajoConstants;
 import org.apache.tajo.TajoTestingCluster;
 import org.apache.tajo.algebra.Expr;
@@ -35,6 +37,8 @@ import org.apache.tajo.engine.planner.enforce.Enforcer;
 import org.apache.tajo.engine.planner.logical.JoinNode;
 import org.apache.tajo.engine.planner.logical.LogicalNode;
 import org.apache.tajo.engine.planner.logical.NodeType;
+import org.apache.tajo.engine.planner.logical.ScanNode;
+import org.apache.tajo.engine.utils.TupleCache;
 import org.apache.tajo.master.session.Session;
 import org.apache.tajo.storage.*;
 import org.apache.tajo.storage.fragment.FileFragment;
@@ -178,6 +182,115 @@ public class TestHashJoinExec {
     assertEquals(10 / 2, count);
   }
 
+  @Test
+  public final void testSpilledHashInnerJoin() throws IOException, PlanningException {
+    Expr expr = analyzer.parse(QUERIES[0]);
+    LogicalNode plan = planner.createPlan(session, expr).getRootBlock().getRoot();
+
+    JoinNode joinNode = PlannerUtil.findTopNode(plan, NodeType.JOIN);
+    Enforcer enforcer = new Enforcer();
+    enforcer.enforceJoinAlgorithm(joinNode.getPID(), JoinAlgorithm.IN_MEMORY_HASH_JOIN);
+
+    FileFragment[] empFrags = StorageManager.splitNG(conf, "default.e", employee.getMeta(), employee.getPath(), Integer.MAX_VALUE);
+    FileFragment[] peopleFrags = StorageManager.splitNG(conf, "default.p", people.getMeta(), people.getPath(), Integer.MAX_VALUE);
+    FileFragment[] merged = TUtil.concat(empFrags, peopleFrags);
+
+    Path workDir = CommonTestingUtil.getTestDir("target/test-data/testSpilledHashInnerJoin");
+    TajoConf localConf = new TajoConf(conf);
+    localConf.setVar(TajoConf.ConfVars.WORKER_TEMPORAL_DIR, workDir.toString());
+    TaskAttemptContext ctx = new TaskAttemptContext(localConf,
+        LocalTajoTestingUtility.newQueryUnitAttemptId(), merged, workDir);
+    ctx.setEnforcer(enforcer);
+
+    PhysicalPlanner phyPlanner = new PhysicalPlannerImpl(localConf, sm);
+    PhysicalExec exec = phyPlanner.createPlan(ctx, plan);
+
+    ProjectionExec proj = (ProjectionExec) exec;
+    assertTrue(proj.getChild() instanceof HashJoinExec);
+    HashJoinExec joinExec = proj.getChild();
+    // it forces the hash table to spill all partitions of the build relation.
+    joinExec.getGraceHashJoinTable().setBufferBytesNum(1);
+
+    exec.init();
+    for (int round = 0; round < 2; round++) {
+      boolean [] found = new boolean[10];
+      Tuple tuple;
+      int count = 0;
+      while ((tuple = exec.next()) != null) {
+        int i = tuple.get(0).asInt4();
+        assertFalse(found[i]);
+        found[i] = true;
+        assertEquals(1, i % 2);
+        assertEquals(i, tuple.get(1).asInt4());
+        assertEquals("dept_" + i, tuple.get(2).asChars());
+        assertEquals(10 + i, tuple.get(3).asInt4());
+        count++;
+      }
+      assertEquals(10 / 2, count);
+      assertTrue(joinExec.getGraceHashJoinTable().getSpilledPartitionNum() > 0);
+
+      // for rescan test
+      exec.rescan();
+    }
+    exec.close();
+  }
+
+  @Test
+  public final void testSharedBroadcastHashInnerJoin() throws IOException, PlanningException {
+    FileFragment[] empFrags = StorageManager.splitNG(conf, "default.e", employee.getMeta(), employee.getPath(), Integer.MAX_VALUE);
+    FileFragment[] peopleFrags = StorageManager.splitNG(conf, "default.p", people.getMeta(), people.getPath(), Integer.MAX_VALUE);
+    FileFragment[] merged = TUtil.concat(empFrags, peopleFrags);
+    Path workDir = CommonTestingUtil.getTestDir("target/test-data/testSharedBroadcastHashInnerJoin");
+
+    TupleCache tupleCache = TupleCache.getInstance();
+    long cachedBytes = tupleCache.getCachedBytes();
+    ExecutionBlockId ebId = QueryIdFactory.newExecutionBlockId(LocalTajoTestingUtility.newQueryId());
+
+    // two tasks of the same execution block share the hash table of the broadcast table.
+    for (int task = 0; task < 2; task++) {
+      Expr expr = analyzer.parse(QUERIES[0]);
+      LogicalNode plan = planner.createPlan(session, expr).getRootBlock().getRoot();
+      for (LogicalNode scan : PlannerUtil.findAllNodes(plan, NodeType.SCAN)) {
+        ((ScanNode) scan).setBroadcastTable(true);
+      }
+
+      JoinNode joinNode = PlannerUtil.findTopNode(plan, NodeType.JOIN);
+      Enforcer enforcer = new Enforcer();
+      enforcer.enforceJoinAlgorithm(joinNode.getPID(), JoinAlgorithm.IN_MEMORY_HASH_JOIN);
+
+      TaskAttemptContext ctx = new TaskAttemptContext(conf,
+          QueryIdFactory.newQueryUnitAttemptId(QueryIdFactory.newQueryUnitId(ebId), 0), merged, workDir);
+      ctx.setEnforcer(enforcer);
+
+      PhysicalPlanner phyPlanner = new PhysicalPlannerImpl(conf, sm);
+      PhysicalExec exec = phyPlanner.createPlan(ctx, plan);
+
+      ProjectionExec proj = (ProjectionExec) exec;
+      assertTrue(proj.getChild() instanceof HashJoinExec);
+      HashJoinExec joinExec = proj.getChild();
+      assertTrue(joinExec.getGraceHashJoinTable().isShared());
+
+      Tuple tuple;
+      int count = 0;
+      exec.init();
+      while ((tuple = exec.next()) != null) {
+        int i = tuple.get(0).asInt4();
+        assertEquals(1, i % 2);
+        assertEquals(i, tuple.get(1).asInt4());
+        assertEquals("dept_" + i, tuple.get(2).asChars());
+        assertEquals(10 + i, tuple.get(3).asInt4());
+        count++;
+      }
+      exec.close();
+      assertEquals(10 / 2, count);
+      assertTrue(tupleCache.getCachedBytes() > cachedBytes);
+    }
+
+    // all cached data of the execution block are released when its task runner stops.
+    tupleCache.removeBroadcastCache(ebId);
+    assertEquals(cachedBytes, tupleCache.getCachedBytes());
+  }
+
   @Test
   public final void testCheckIfInMemoryInnerJoinIsPossible() throws IOException, PlanningException {
     Expr expr = analyzer.parse(QUERIES[0]);
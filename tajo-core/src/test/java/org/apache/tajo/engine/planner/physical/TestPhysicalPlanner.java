@@ -61,7 +61,9 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -515,13 +517,23 @@ public class TestPhysicalPlanner {
     assertTrue(exec instanceof SortBasedColPartitionStoreExec);
   }
 
+  /**
+   * @return a configuration which writes one file per partition in hash shuffle
+   */
+  private static TajoConf getPerPartitionShuffleConf() {
+    TajoConf perPartitionConf = new TajoConf(conf);
+    perPartitionConf.setBoolVar(TajoConf.ConfVars.SHUFFLE_HASH_CONSOLIDATED_ENABLED, false);
+    return perPartitionConf;
+  }
+
   @Test
   public final void testPartitionedStorePlan() throws IOException, PlanningException {
     FileFragment[] frags = StorageManager.splitNG(conf, "default.score", score.getMeta(), score.getPath(),
         Integer.MAX_VALUE);
     QueryUnitAttemptId id = LocalTajoTestingUtility.newQueryUnitAttemptId(masterPlan);
     Path workDir = CommonTestingUtil.getTestDir("target/test-data/testPartitionedStorePlan");
-    TaskAttemptContext ctx = new TaskAttemptContext(conf, id, new FileFragment[] { frags[0] }, workDir);
+    TaskAttemptContext ctx = new TaskAttemptContext(getPerPartitionShuffleConf(), id,
+        new FileFragment[] { frags[0] }, workDir);
     ctx.setEnforcer(new Enforcer());
     Expr context = analyzer.parse(QUERIES[7]);
     LogicalPlan plan = planner.createPlan(session, context);
@@ -572,6 +584,89 @@ public class TestPhysicalPlanner {
     assertEquals(10, ctx.getResultStats().getNumRows().longValue());
   }
 
+  @Test
+  public final void testConsolidatedPartitionedStorePlan() throws IOException, PlanningException {
+    FileFragment[] frags = StorageManager.splitNG(conf, "default.score", score.getMeta(), score.getPath(),
+        Integer.MAX_VALUE);
+    QueryUnitAttemptId id = LocalTajoTestingUtility.newQueryUnitAttemptId(masterPlan);
+    Path workDir = CommonTestingUtil.getTestDir("target/test-data/testConsolidatedPartitionedStorePlan");
+    TajoConf consolidatedConf = new TajoConf(conf);
+    consolidatedConf.setBoolVar(TajoConf.ConfVars.SHUFFLE_HASH_CONSOLIDATED_ENABLED, true);
+    TaskAttemptContext ctx = new TaskAttemptContext(consolidatedConf, id, new FileFragment[] { frags[0] }, workDir);
+    ctx.setEnforcer(new Enforcer());
+    Expr context = analyzer.parse(QUERIES[7]);
+    LogicalPlan plan = planner.createPlan(session, context);
+
+    int numPartitions = 3;
+    Column key1 = new Column("default.score.deptname", Type.TEXT);
+    Column key2 = new Column("default.score.class", Type.TEXT);
+    DataChannel dataChannel = new DataChannel(masterPlan.newExecutionBlockId(), masterPlan.newExecutionBlockId(),
+        ShuffleType.HASH_SHUFFLE, numPartitions);
+    dataChannel.setShuffleKeys(new Column[]{key1, key2});
+    ctx.setDataChannel(dataChannel);
+    LogicalNode rootNode = optimizer.optimize(plan);
+
+    TableMeta outputMeta = CatalogUtil.newTableMeta(dataChannel.getStoreType());
+    assertEquals(StoreType.RAW, outputMeta.getStoreType());
+
+    PhysicalPlanner phyPlanner = new PhysicalPlannerImpl(consolidatedConf, sm);
+    PhysicalExec exec = phyPlanner.createPlan(ctx, rootNode);
+    exec.init();
+    exec.next();
+    exec.close();
+
+    // all partitions are written into a single data file and its index
+    Path path = new Path(workDir, "output");
+    FileSystem fs = sm.getFileSystem();
+    FileStatus [] list = fs.listStatus(path);
+    assertEquals(2, list.length);
+    Path dataPath = new Path(path, HashShuffleIndex.DATA_FILE_NAME);
+    Path indexPath = new Path(path, HashShuffleIndex.INDEX_FILE_NAME);
+    assertTrue(fs.exists(dataPath));
+    assertTrue(fs.exists(indexPath));
+
+    // copy the byte ranges of each partition into a file as a fetcher does
+    HashShuffleIndex index = HashShuffleIndex.read(new File(indexPath.toUri().getPath()));
+    RandomAccessFile data = new RandomAccessFile(new File(dataPath.toUri().getPath()), "r");
+    Path fetchedDir = new Path(workDir, "fetched");
+    fs.mkdirs(fetchedDir);
+    List<FileFragment> fragments = TUtil.newList();
+    long totalLength = 0;
+    for (int partId : index.getPartitionIds()) {
+      assertTrue(partId < numPartitions);
+      Path partitionPath = new Path(fetchedDir, String.valueOf(partId));
+      FileOutputStream out = new FileOutputStream(new File(partitionPath.toUri().getPath()));
+      for (HashShuffleIndex.Segment segment : index.getSegments(partId)) {
+        byte [] bytes = new byte[(int) segment.getLength()];
+        data.seek(segment.getOffset());
+        data.readFully(bytes);
+        out.write(bytes);
+        totalLength += segment.getLength();
+      }
+      out.close();
+      fragments.add(new FileFragment("partition", partitionPath, 0, fs.getFileStatus(partitionPath).getLen()));
+    }
+    data.close();
+    assertEquals(fs.getFileStatus(dataPath).getLen(), totalLength);
+
+    Scanner scanner = new MergeScanner(consolidatedConf, rootNode.getOutSchema(), outputMeta, fragments);
+    scanner.init();
+
+    Tuple tuple;
+    int i = 0;
+    while ((tuple = scanner.next()) != null) {
+      assertEquals(6, tuple.get(2).asInt4()); // sum
+      assertEquals(3, tuple.get(3).asInt4()); // max
+      assertEquals(1, tuple.get(4).asInt4()); // min
+      i++;
+    }
+    assertEquals(10, i);
+    scanner.close();
+
+    // Examine the statistics information
+    assertEquals(10, ctx.getResultStats().getNumRows().longValue());
+  }
+
   @Test
   public final void testPartitionedStorePlanWithEmptyGroupingSet()
       throws IOException, PlanningException {
@@ -581,7 +676,8 @@ public class TestPhysicalPlanner {
 
     Path workDir = CommonTestingUtil.getTestDir(
         "target/test-data/testPartitionedStorePlanWithEmptyGroupingSet");
-    TaskAttemptContext ctx = new TaskAttemptContext(conf, id, new FileFragment[] { frags[0] }, workDir);
+    TaskAttemptContext ctx = new TaskAttemptContext(getPerPartitionShuffleConf(), id,
+        new FileFragment[] { frags[0] }, workDir);
     ctx.setEnforcer(new Enforcer());
     Expr expr = analyzer.parse(QUERIES[14]);
     LogicalPlan plan = planner.createPlan(session, expr);
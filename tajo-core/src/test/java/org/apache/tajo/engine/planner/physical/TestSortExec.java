@@ -42,9 +42,11 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 
 public class TestSortExec {
   private static TajoConf conf;
@@ -103,7 +105,22 @@ public class TestSortExec {
   }
 
   public static String[] QUERIES = {
-      "select managerId, empId, deptName from employee order by managerId, empId desc" };
+      "select managerId, empId, deptName from employee order by managerId, empId desc",
+      "select managerId, empId, deptName from employee order by managerId, empId desc limit 10" };
+
+  private PhysicalExec createPhysicalPlan(String query) throws IOException, PlanningException {
+    FileFragment[] frags = StorageManager.splitNG(conf, "default.employee", employeeMeta, tablePath, Integer.MAX_VALUE);
+    Path workDir = CommonTestingUtil.getTestDir("target/test-data/TestSortExec");
+    TaskAttemptContext ctx = new TaskAttemptContext(conf, LocalTajoTestingUtility
+        .newQueryUnitAttemptId(), new FileFragment[] { frags[0] }, workDir);
+    ctx.setEnforcer(new Enforcer());
+    Expr context = analyzer.parse(query);
+    LogicalPlan plan = planner.createPlan(LocalTajoTestingUtility.createDummySession(), context);
+    LogicalNode rootNode = optimizer.optimize(plan);
+
+    PhysicalPlanner phyPlanner = new PhysicalPlannerImpl(conf, sm);
+    return phyPlanner.createPlan(ctx, rootNode);
+  }
 
   @Test
   public final void testNext() throws IOException, PlanningException {
@@ -134,6 +151,39 @@ public class TestSortExec {
     exec.close();
   }
 
+  @Test
+  public final void testTopN() throws IOException, PlanningException {
+    PhysicalExec sortExec = createPhysicalPlan(QUERIES[0]);
+    List<Tuple> expected = new ArrayList<Tuple>();
+    Tuple tuple;
+    sortExec.init();
+    while ((tuple = sortExec.next()) != null && expected.size() < 10) {
+      expected.add(new VTuple(tuple));
+    }
+    sortExec.close();
+
+    PhysicalExec exec = createPhysicalPlan(QUERIES[1]);
+    assertNotNull(PhysicalPlanUtil.findExecutor(exec, TopNExec.class));
+
+    int cnt = 0;
+    exec.init();
+    while ((tuple = exec.next()) != null) {
+      // ties of (managerId, empId) can be returned in any order, but their sort keys must be the same.
+      assertEquals(expected.get(cnt).get(0), tuple.get(0));
+      assertEquals(expected.get(cnt).get(1), tuple.get(1));
+      cnt++;
+    }
+    assertEquals(10, cnt);
+
+    exec.rescan();
+    cnt = 0;
+    while (exec.next() != null) {
+      cnt++;
+    }
+    assertEquals(10, cnt);
+    exec.close();
+  }
+
   @Test
   /**
    * TODO - Now, in FSM branch, TestUniformRangePartition is ported to Java.
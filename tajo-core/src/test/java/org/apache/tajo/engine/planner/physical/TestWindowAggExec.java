@@ -0,0 +1,238 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.LocalTajoTestingUtility;
+import org.apache.tajo.TajoConstants;
+import org.apache.tajo.TajoTestingCluster;
+import org.apache.tajo.algebra.Expr;
+import org.apache.tajo.catalog.*;
+import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.engine.parser.SQLAnalyzer;
+import org.apache.tajo.engine.planner.*;
+import org.apache.tajo.engine.planner.enforce.Enforcer;
+import org.apache.tajo.engine.planner.logical.LogicalNode;
+import org.apache.tajo.master.TajoMaster;
+import org.apache.tajo.storage.*;
+import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.apache.tajo.worker.TaskAttemptContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.apache.tajo.TajoConstants.DEFAULT_TABLESPACE_NAME;
+import static org.junit.Assert.*;
+
+public class TestWindowAggExec {
+  private TajoConf conf;
+  private TajoTestingCluster util;
+  private final String TEST_PATH = "target/test-data/TestWindowAggExec";
+  private CatalogService catalog;
+  private SQLAnalyzer analyzer;
+  private LogicalPlanner planner;
+  private AbstractStorageManager sm;
+  private Path testDir;
+
+  private final int numTuple = 1000;
+  private final int numDept = 10;
+  private final int rowsPerDept = numTuple / numDept;
+
+  private TableDesc employee;
+
+  @Before
+  public void setUp() throws Exception {
+    this.conf = new TajoConf();
+    util = new TajoTestingCluster();
+    catalog = util.startCatalogCluster().getCatalog();
+    testDir = CommonTestingUtil.getTestDir(TEST_PATH);
+    catalog.createTablespace(DEFAULT_TABLESPACE_NAME, testDir.toUri().toString());
+    catalog.createDatabase(TajoConstants.DEFAULT_DATABASE_NAME, DEFAULT_TABLESPACE_NAME);
+    for (FunctionDesc funcDesc : TajoMaster.initBuiltinFunctions()) {
+      catalog.createFunction(funcDesc);
+    }
+    conf.setVar(TajoConf.ConfVars.WORKER_TEMPORAL_DIR, testDir.toString());
+    sm = StorageManagerFactory.getStorageManager(conf, testDir);
+
+    Schema schema = new Schema();
+    schema.addColumn("deptid", Type.INT4);
+    schema.addColumn("empid", Type.INT4);
+    schema.addColumn("score", Type.INT4);
+    schema.addColumn("salary", Type.INT8);
+
+    TableMeta employeeMeta = CatalogUtil.newTableMeta(StoreType.CSV);
+    Path employeePath = new Path(testDir, "employee.csv");
+    Appender appender = StorageManagerFactory.getStorageManager(conf).getAppender(employeeMeta, schema, employeePath);
+    appender.init();
+    Tuple tuple = new VTuple(schema.size());
+    // In each department, every two employees have the same score.
+    for (int i = numTuple - 1; i >= 0; i--) {
+      tuple.put(new Datum[] {
+          DatumFactory.createInt4(i % numDept),
+          DatumFactory.createInt4(i),
+          DatumFactory.createInt4((i / numDept) / 2),
+          DatumFactory.createInt8(1),
+      });
+      appender.addTuple(tuple);
+    }
+    appender.flush();
+    appender.close();
+
+    employee = new TableDesc("default.employee", schema, employeeMeta, employeePath);
+    catalog.createTable(employee);
+    analyzer = new SQLAnalyzer();
+    planner = new LogicalPlanner(catalog);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    CommonTestingUtil.cleanupTestDir(TEST_PATH);
+    util.shutdownCatalogCluster();
+  }
+
+  String[] QUERIES = {
+      "select deptid, score, row_number() over (partition by deptid order by score) as rn, " +
+          "rank() over (partition by deptid order by score) as rk, " +
+          "dense_rank() over (partition by deptid order by score) as drk from employee",
+      "select deptid, score, sum(salary) over (partition by deptid order by score) as running, " +
+          "count(*) over (partition by deptid order by score rows between 1 preceding and 1 following) as cnt, " +
+          "sum(salary) over (partition by deptid order by score " +
+          "rows between unbounded preceding and unbounded following) as total from employee",
+      "select empid, row_number() over (order by empid) as rn, " +
+          "sum(salary) over (order by empid rows between current row and unbounded following) as rest, " +
+          "count(*) over (order by empid rows between 2 preceding and 2 following) as cnt from employee",
+      "select deptid, rank() over (order by deptid) as rk, sum(salary) over (order by deptid) as running, " +
+          "count(*) over (order by deptid rows between 3 preceding and current row) as cnt from employee"
+  };
+
+  private PhysicalExec createPlan(String query) throws IOException, PlanningException {
+    FileFragment[] frags = StorageManager.splitNG(conf, "default.employee", employee.getMeta(), employee.getPath(),
+        Integer.MAX_VALUE);
+    Path workDir = new Path(testDir, TestWindowAggExec.class.getName());
+    TaskAttemptContext ctx = new TaskAttemptContext(conf,
+        LocalTajoTestingUtility.newQueryUnitAttemptId(), new FileFragment[] { frags[0] }, workDir);
+    ctx.setEnforcer(new Enforcer());
+    Expr expr = analyzer.parse(query);
+    LogicalPlan plan = planner.createPlan(LocalTajoTestingUtility.createDummySession(), expr);
+    LogicalNode rootNode = plan.getRootBlock().getRoot();
+
+    PhysicalPlanner phyPlanner = new PhysicalPlannerImpl(conf, sm);
+    PhysicalExec exec = phyPlanner.createPlan(ctx, rootNode);
+    assertNotNull(PhysicalPlanUtil.findExecutor(exec, WindowAggExec.class));
+    return exec;
+  }
+
+  @Test
+  public final void testRankingFunctions() throws IOException, PlanningException {
+    PhysicalExec exec = createPlan(QUERIES[0]);
+    exec.init();
+
+    Tuple tuple;
+    int cnt = 0;
+    while ((tuple = exec.next()) != null) {
+      int position = cnt % rowsPerDept;
+      int score = tuple.get(1).asInt4();
+      assertEquals(cnt / rowsPerDept, tuple.get(0).asInt4());
+      assertEquals(position / 2, score);
+      assertEquals(position + 1, tuple.get(2).asInt8());
+      assertEquals(score * 2 + 1, tuple.get(3).asInt8());
+      assertEquals(score + 1, tuple.get(4).asInt8());
+      cnt++;
+    }
+    assertEquals(numTuple, cnt);
+    exec.close();
+  }
+
+  @Test
+  public final void testAggregationFunctions() throws IOException, PlanningException {
+    PhysicalExec exec = createPlan(QUERIES[1]);
+    exec.init();
+
+    Tuple tuple;
+    int cnt = 0;
+    while ((tuple = exec.next()) != null) {
+      int position = cnt % rowsPerDept;
+      int score = tuple.get(1).asInt4();
+      assertEquals(cnt / rowsPerDept, tuple.get(0).asInt4());
+      // the default frame of an ordered window ends with the last peer of the current row.
+      assertEquals(score * 2 + 2, tuple.get(2).asInt8());
+      if (position == 0 || position == rowsPerDept - 1) {
+        assertEquals(2, tuple.get(3).asInt8());
+      } else {
+        assertEquals(3, tuple.get(3).asInt8());
+      }
+      assertEquals(rowsPerDept, tuple.get(4).asInt8());
+      cnt++;
+    }
+    assertEquals(numTuple, cnt);
+    exec.close();
+  }
+
+  @Test
+  public final void testSpillWholePartition() throws IOException, PlanningException {
+    PhysicalExec exec = createPlan(QUERIES[2]);
+    WindowAggExec windowAgg = PhysicalPlanUtil.findExecutor(exec, WindowAggExec.class);
+    // a frame ending at unbounded following needs the whole partition, which exceeds the buffer.
+    windowAgg.setBufferBytesNum(16 * 1024);
+    exec.init();
+
+    Tuple tuple;
+    int cnt = 0;
+    while ((tuple = exec.next()) != null) {
+      assertEquals(cnt, tuple.get(0).asInt4());
+      assertEquals(cnt + 1, tuple.get(1).asInt8());
+      assertEquals(numTuple - cnt, tuple.get(2).asInt8());
+      assertEquals(Math.min(cnt, 2) + 1 + Math.min(numTuple - 1 - cnt, 2), tuple.get(3).asInt8());
+      cnt++;
+    }
+    assertEquals(numTuple, cnt);
+    assertTrue(windowAgg.getSpilledFileNum() > 0);
+    exec.close();
+  }
+
+  @Test
+  public final void testStreamingFrames() throws IOException, PlanningException {
+    PhysicalExec exec = createPlan(QUERIES[3]);
+    WindowAggExec windowAgg = PhysicalPlanUtil.findExecutor(exec, WindowAggExec.class);
+    // the partition exceeds the buffer, but each frame only needs the current peer group.
+    windowAgg.setBufferBytesNum(32 * 1024);
+    exec.init();
+
+    Tuple tuple;
+    int cnt = 0;
+    while ((tuple = exec.next()) != null) {
+      int deptid = tuple.get(0).asInt4();
+      assertEquals(cnt / rowsPerDept, deptid);
+      assertEquals(deptid * rowsPerDept + 1, tuple.get(1).asInt8());
+      assertEquals((deptid + 1) * rowsPerDept, tuple.get(2).asInt8());
+      assertEquals(Math.min(cnt, 3) + 1, tuple.get(3).asInt8());
+      cnt++;
+    }
+    assertEquals(numTuple, cnt);
+    assertEquals(0, windowAgg.getSpilledFileNum());
+    exec.close();
+  }
+}
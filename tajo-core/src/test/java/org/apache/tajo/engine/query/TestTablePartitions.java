@@ -21,6 +21,7 @@ package org.apache.tajo.engine.query;
 import com.google.common.collect.Maps;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.FileUtil;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.compress.CompressionCodec;
 import org.apache.hadoop.io.compress.CompressionCodecFactory;
@@ -31,10 +32,12 @@ import org.apache.tajo.TajoTestingCluster;
 import org.apache.tajo.catalog.CatalogService;
 import org.apache.tajo.catalog.CatalogUtil;
 import org.apache.tajo.catalog.TableDesc;
+import org.apache.tajo.catalog.partition.PartitionDesc;
 import org.junit.Test;
 
 import java.io.IOException;
 import java.sql.ResultSet;
+import java.util.List;
 import java.util.Map;
 
 import static org.apache.tajo.TajoConstants.DEFAULT_DATABASE_NAME;
@@ -486,4 +489,131 @@ public class TestTablePartitions extends QueryTestCaseBase {
     assertFalse(res.next());
     res.close();
   }
+
+  private void assertRegisteredPartitions(TableDesc desc, String [] partitionNames, long [] numRows)
+      throws IOException {
+    List<PartitionDesc> partitions = catalog.getPartitions(DEFAULT_DATABASE_NAME,
+        CatalogUtil.extractSimpleName(desc.getName()));
+    assertEquals(partitionNames.length, partitions.size());
+
+    FileSystem fs = FileSystem.get(conf);
+    for (int i = 0; i < partitionNames.length; i++) {
+      PartitionDesc partition = partitions.get(i);
+      Path partitionPath = new Path(desc.getPath(), partitionNames[i]);
+      assertEquals(partitionNames[i], partition.getName());
+      assertEquals(partitionPath, new Path(partition.getPath()));
+      assertEquals(numRows[i], partition.getNumRows());
+      assertEquals(fs.getContentSummary(partitionPath).getLength(), partition.getNumBytes());
+    }
+  }
+
+  @Test
+  public final void testColumnPartitionsRegisteredByCTAS() throws Exception {
+    String tableName = CatalogUtil.normalizeIdentifier("testColumnPartitionsRegisteredByCTAS");
+    ResultSet res = executeString(
+        "create table " + tableName + " (col1 int4, col2 int4) partition by column(key float8) as " +
+            "select l_orderkey, l_partkey, l_quantity from lineitem");
+    res.close();
+
+    TableDesc desc = catalog.getTableDesc(DEFAULT_DATABASE_NAME, tableName);
+    assertPartitionDirectories(desc);
+    if (!testingCluster.isHCatalogStoreRunning()) {
+      assertRegisteredPartitions(desc,
+          new String[]{"key=17.0", "key=36.0", "key=38.0", "key=45.0", "key=49.0"}, new long[]{1, 1, 1, 1, 1});
+    }
+  }
+
+  @Test
+  public final void testColumnPartitionsRegisteredByInsert() throws Exception {
+    String tableName = CatalogUtil.normalizeIdentifier("testColumnPartitionsRegisteredByInsert");
+    ResultSet res = executeString(
+        "create table " + tableName + " (col1 int4, col2 int4) partition by column(key float8) ");
+    res.close();
+
+    res = executeString(
+        "insert overwrite into " + tableName + " select l_orderkey, l_partkey, l_quantity from lineitem");
+    res.close();
+
+    TableDesc desc = catalog.getTableDesc(DEFAULT_DATABASE_NAME, tableName);
+    assertPartitionDirectories(desc);
+    if (!testingCluster.isHCatalogStoreRunning()) {
+      assertRegisteredPartitions(desc,
+          new String[]{"key=17.0", "key=36.0", "key=38.0", "key=45.0", "key=49.0"}, new long[]{1, 1, 1, 1, 1});
+    }
+
+    // INSERT INTO merges the written partitions into the registered ones
+    res = executeString(
+        "insert into " + tableName + " select l_orderkey, l_partkey, l_quantity from lineitem where l_orderkey = 3");
+    res.close();
+
+    desc = catalog.getTableDesc(DEFAULT_DATABASE_NAME, tableName);
+    if (!testingCluster.isHCatalogStoreRunning()) {
+      assertEquals(7, desc.getStats().getNumRows().intValue());
+      assertRegisteredPartitions(desc,
+          new String[]{"key=17.0", "key=36.0", "key=38.0", "key=45.0", "key=49.0"}, new long[]{1, 1, 1, 2, 2});
+    }
+
+    res = executeString("select col1, col2, key from " + tableName + " where key > 40.0 order by key");
+    assertResultSet(res, "case14.result");
+    res.close();
+
+    // INSERT OVERWRITE replaces the registered partitions
+    res = executeString(
+        "insert overwrite into " + tableName + " select l_orderkey, l_partkey, l_quantity from lineitem " +
+            "where l_orderkey = 1");
+    res.close();
+
+    desc = catalog.getTableDesc(DEFAULT_DATABASE_NAME, tableName);
+    if (!testingCluster.isHCatalogStoreRunning()) {
+      assertEquals(2, desc.getStats().getNumRows().intValue());
+      assertRegisteredPartitions(desc, new String[]{"key=17.0", "key=36.0"}, new long[]{1, 1});
+    }
+  }
+
+  @Test
+  public final void testRangePredicateOnRegisteredColumnPartitions() throws Exception {
+    String tableName = CatalogUtil.normalizeIdentifier("testRangePredicateOnRegisteredColumnPartitions");
+    String externalTableName = CatalogUtil.normalizeIdentifier("testRangePredicateOnListedColumnPartitions");
+    ResultSet res = executeString(
+        "create table " + tableName + " (col1 int4, col2 int4) partition by column(key float8) as " +
+            "select l_orderkey, l_partkey, l_quantity from lineitem");
+    res.close();
+
+    // the external table has no registered partitions, so its partitions are found by listing its directories.
+    TableDesc desc = catalog.getTableDesc(DEFAULT_DATABASE_NAME, tableName);
+    res = executeString(
+        "create external table " + externalTableName + " (col1 int4, col2 int4) using csv " +
+            "partition by column(key float8) location '" + desc.getPath() + "'");
+    res.close();
+    if (!testingCluster.isHCatalogStoreRunning()) {
+      assertEquals(5, catalog.getPartitions(DEFAULT_DATABASE_NAME, tableName).size());
+      assertTrue(catalog.getPartitions(DEFAULT_DATABASE_NAME, externalTableName).isEmpty());
+    }
+
+    res = executeString("select col1, col2, key from " + tableName + " where key > 37.0 and key <= 45.0 " +
+        "order by key");
+    assertResultSet(res, "case15.result");
+    res.close();
+
+    res = executeString("select col1, col2, key from " + externalTableName + " where key > 37.0 and key <= 45.0 " +
+        "order by key");
+    assertResultSet(res, "case15.result");
+    res.close();
+
+    if (!testingCluster.isHCatalogStoreRunning()) {
+      // a partition directory which is not registered is only found by listing the directories.
+      FileSystem fs = FileSystem.get(conf);
+      FileUtil.copy(fs, new Path(desc.getPath(), "key=38.0"), fs, new Path(desc.getPath(), "key=40.0"), false, conf);
+
+      res = executeString("select col1, col2, key from " + tableName + " where key > 37.0 and key <= 45.0 " +
+          "order by key");
+      assertResultSet(res, "case15.result");
+      res.close();
+
+      res = executeString("select col1, col2, key from " + externalTableName + " where key > 37.0 and key <= 45.0 " +
+          "order by key");
+      assertResultSet(res, "case16.result");
+      res.close();
+    }
+  }
 }
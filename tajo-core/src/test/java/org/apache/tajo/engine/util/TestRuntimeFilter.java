@@ -0,0 +1,96 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.util;
+
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.engine.utils.RuntimeFilter;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class TestRuntimeFilter {
+  private static final int [] KEY_IDS = new int [] {1};
+  private static final int NUM = 10000;
+
+  private static Tuple createTuple(Datum key) {
+    return new VTuple(new Datum[] {DatumFactory.createText("value"), key});
+  }
+
+  @Test
+  public final void testMergedFilter() throws IOException {
+    TajoConf conf = new TajoConf();
+    // the filter is sized for the 1000 build keys
+    int numBits = RuntimeFilter.computeNumBits(conf, 1000);
+    RuntimeFilter first = new RuntimeFilter(numBits);
+    RuntimeFilter second = new RuntimeFilter(numBits);
+    // build keys are even numbers between 1000 and 2998, which are divided into two tasks.
+    for (int i = 1000; i < 3000; i += 2) {
+      RuntimeFilter filter = i < 2000 ? first : second;
+      filter.add(createTuple(DatumFactory.createInt4(i)), KEY_IDS);
+    }
+    first.add(createTuple(NullDatum.get()), KEY_IDS);
+
+    // the filter is shipped through the QueryMaster
+    RuntimeFilter merged = new RuntimeFilter(first.getProto());
+    merged.merge(new RuntimeFilter(second.getProto()));
+    merged = new RuntimeFilter(merged.getProto());
+    assertEquals(1000, merged.getNumKeys());
+    assertTrue(merged.hasRange());
+
+    // no false negative even for the keys of a different integral type
+    for (int i = 1000; i < 3000; i += 2) {
+      assertTrue(merged.mightContain(createTuple(DatumFactory.createInt8(i)), KEY_IDS));
+      assertTrue(merged.mightContain(createTuple(DatumFactory.createInt2((short) i)), KEY_IDS));
+    }
+    assertFalse(merged.mightContain(createTuple(NullDatum.get()), KEY_IDS));
+
+    // keys out of the range are always discarded, and most of other keys are discarded by the bloom filter.
+    int passed = 0;
+    for (int i = 0; i < NUM; i++) {
+      boolean mightContain = merged.mightContain(createTuple(DatumFactory.createInt8(i)), KEY_IDS);
+      if (i < 1000 || i > 2998) {
+        assertFalse(mightContain);
+      }
+      if (mightContain) {
+        passed++;
+      }
+    }
+    assertTrue(passed < 1000 + 100);
+
+    // the size is capped by the max keys, and the max keys are assumed if the build side rows are unknown.
+    long maxKeys = conf.getLongVar(TajoConf.ConfVars.DIST_QUERY_JOIN_RUNTIME_FILTER_MAX_KEYS);
+    assertTrue(numBits < RuntimeFilter.computeNumBits(conf, maxKeys));
+    assertEquals(RuntimeFilter.computeNumBits(conf, maxKeys), RuntimeFilter.computeNumBits(conf, maxKeys * 10));
+    assertEquals(RuntimeFilter.computeNumBits(conf, maxKeys), RuntimeFilter.computeNumBits(conf, -1));
+
+    assertTrue(RuntimeFilter.isCompatible(Type.INT4, Type.INT8));
+    assertFalse(RuntimeFilter.isCompatible(Type.INT4, Type.FLOAT8));
+    assertTrue(RuntimeFilter.isCompatible(Type.TEXT, Type.TEXT));
+    assertFalse(RuntimeFilter.isCompatible(Type.TEXT, Type.INT4));
+    assertFalse(RuntimeFilter.isCompatible(Type.BOOLEAN, Type.BOOLEAN));
+  }
+}
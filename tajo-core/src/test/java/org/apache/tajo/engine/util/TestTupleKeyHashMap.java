@@ -0,0 +1,135 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.util;
+
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.engine.utils.TupleKeyHashMap;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TestTupleKeyHashMap {
+  private static final int [] KEY_IDS = new int [] {1};
+  private static final int NUM = 10000;
+
+  private static Tuple createTuple(Datum key) {
+    return new VTuple(new Datum[] {DatumFactory.createText("value"), key});
+  }
+
+  private static Datum createKey(Type type, int i) {
+    switch (type) {
+    case INT4:
+      return DatumFactory.createInt4(i);
+    case INT8:
+      return DatumFactory.createInt8(i * 1000000007L);
+    case TEXT:
+      return DatumFactory.createText("key_" + i);
+    default:
+      return DatumFactory.createFloat8(i);
+    }
+  }
+
+  private static void assertHashMap(Type type) {
+    TupleKeyHashMap<Integer> map = TupleKeyHashMap.create(new Type[] {type}, 16);
+    for (int i = 0; i < NUM; i++) {
+      map.put(createTuple(createKey(type, i)), KEY_IDS, i);
+    }
+    map.put(createTuple(NullDatum.get()), KEY_IDS, -1);
+    assertEquals(NUM + 1, map.size());
+
+    for (int i = 0; i < NUM; i++) {
+      Tuple probe = createTuple(createKey(type, i));
+      assertEquals(i, map.get(probe, KEY_IDS).intValue());
+      assertEquals(map.hash(createTuple(createKey(type, i)), KEY_IDS), map.hash(probe, KEY_IDS));
+    }
+    assertEquals(-1, map.get(createTuple(NullDatum.get()), KEY_IDS).intValue());
+    assertNull(map.get(createTuple(createKey(type, NUM)), KEY_IDS));
+
+    // overwrite an existing key
+    map.put(createTuple(createKey(type, 7)), KEY_IDS, 70);
+    assertEquals(70, map.get(createTuple(createKey(type, 7)), KEY_IDS).intValue());
+    assertEquals(NUM + 1, map.size());
+
+    // remove the entries of even values and the null key
+    Iterator<Map.Entry<Tuple, Integer>> it = map.entryIterator();
+    int iterated = 0;
+    while (it.hasNext()) {
+      Map.Entry<Tuple, Integer> entry = it.next();
+      if (entry.getValue() % 2 == 0 || entry.getValue() < 0) {
+        it.remove();
+      }
+      iterated++;
+    }
+    assertEquals(NUM + 1, iterated);
+    assertEquals(NUM / 2 - 1, map.size());
+    assertNull(map.get(createTuple(NullDatum.get()), KEY_IDS));
+
+    // removed slots are reused
+    for (int i = 0; i < NUM; i += 2) {
+      map.put(createTuple(createKey(type, i)), KEY_IDS, i);
+    }
+    for (int i = 0; i < NUM; i++) {
+      if (i != 7) {
+        assertEquals(i, map.get(createTuple(createKey(type, i)), KEY_IDS).intValue());
+      }
+    }
+    assertNull(map.get(createTuple(createKey(type, 7)), KEY_IDS));
+
+    map.clear();
+    assertTrue(map.isEmpty());
+    assertFalse(map.entryIterator().hasNext());
+  }
+
+  @Test
+  public void testLongKeyHashMap() {
+    assertHashMap(Type.INT4);
+    assertHashMap(Type.INT8);
+  }
+
+  @Test
+  public void testBytesKeyHashMap() {
+    assertHashMap(Type.TEXT);
+  }
+
+  @Test
+  public void testGenericKeyHashMap() {
+    assertHashMap(Type.FLOAT8);
+  }
+
+  @Test
+  public void testMultipleKeys() {
+    int [] keyIds = new int [] {0, 1};
+    TupleKeyHashMap<Integer> map = TupleKeyHashMap.create(new Type[] {Type.INT4, Type.TEXT}, 16);
+    for (int i = 0; i < 100; i++) {
+      map.put(new VTuple(new Datum[] {DatumFactory.createInt4(i), DatumFactory.createText("k" + i)}), keyIds, i);
+    }
+    assertEquals(100, map.size());
+    assertEquals(5, map.get(new VTuple(new Datum[] {DatumFactory.createInt4(5), DatumFactory.createText("k5")}),
+        keyIds).intValue());
+    assertNull(map.get(new VTuple(new Datum[] {DatumFactory.createInt4(5), DatumFactory.createText("k6")}), keyIds));
+  }
+}
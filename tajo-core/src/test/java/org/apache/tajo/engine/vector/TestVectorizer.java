@@ -0,0 +1,187 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.vector;
+
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.engine.eval.*;
+import org.apache.tajo.engine.planner.Projector;
+import org.apache.tajo.engine.planner.Target;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.util.TUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.apache.tajo.common.TajoDataTypes.Type.*;
+import static org.junit.Assert.*;
+
+public class TestVectorizer {
+  private static final int ROW_NUM = 100;
+
+  private Schema schema;
+  private List<Tuple> tuples;
+  private FieldEval a;
+  private FieldEval b;
+  private FieldEval c;
+  private FieldEval d;
+
+  @Before
+  public void setUp() {
+    schema = new Schema();
+    schema.addColumn("t.a", INT4);
+    schema.addColumn("t.b", INT8);
+    schema.addColumn("t.c", FLOAT8);
+    schema.addColumn("t.d", TEXT);
+
+    a = new FieldEval("t.a", CatalogUtil.newSimpleDataType(INT4));
+    b = new FieldEval("t.b", CatalogUtil.newSimpleDataType(INT8));
+    c = new FieldEval("t.c", CatalogUtil.newSimpleDataType(FLOAT8));
+    d = new FieldEval("t.d", CatalogUtil.newSimpleDataType(TEXT));
+
+    tuples = TUtil.newList();
+    for (int i = 0; i < ROW_NUM; i++) {
+      Tuple tuple = new VTuple(4);
+      tuple.put(0, DatumFactory.createInt4(i + 1));
+      tuple.put(1, i % 7 == 0 ? NullDatum.get() : DatumFactory.createInt8(i * 3L));
+      tuple.put(2, i % 11 == 0 ? NullDatum.get() : DatumFactory.createFloat8(i * 0.5));
+      tuple.put(3, DatumFactory.createText("x" + (i % 10)));
+      tuples.add(tuple);
+    }
+  }
+
+  /**
+   * @return a batch which is filled with rows from the given offset
+   */
+  private RowBatch createBatch(int capacity, int offset) {
+    RowBatch batch = new RowBatch(schema, capacity);
+    for (int i = offset; i < tuples.size() && !batch.isFull(); i++) {
+      batch.addTuple(tuples.get(i));
+    }
+    return batch;
+  }
+
+  private void assertFilter(VectorFilter filter, EvalNode qual) {
+    int capacity = 16;
+    Tuple tuple = new VTuple(schema.size());
+    for (int offset = 0; offset < ROW_NUM; offset += capacity) {
+      RowBatch batch = createBatch(capacity, offset);
+      filter.filter(batch);
+
+      int expectedSize = 0;
+      for (int row = 0; row < capacity && offset + row < ROW_NUM; row++) {
+        if (qual.eval(schema, tuples.get(offset + row)).isTrue()) {
+          assertEquals(row, batch.getRow(expectedSize));
+          batch.getTuple(row, tuple);
+          assertEquals(tuples.get(offset + row), tuple);
+          expectedSize++;
+        }
+      }
+      assertEquals(expectedSize, batch.size);
+    }
+  }
+
+  @Test
+  public void testVectorizedFilter() {
+    EvalNode sum = new BinaryEval(EvalType.PLUS, a, b);
+    EvalNode qual = new BinaryEval(EvalType.OR,
+        new BinaryEval(EvalType.AND,
+            new BinaryEval(EvalType.GTH, sum, new ConstEval(DatumFactory.createInt4(100))),
+            new BinaryEval(EvalType.LTH, c, new ConstEval(DatumFactory.createFloat8(40.5)))),
+        new BinaryEval(EvalType.EQUAL, d, new ConstEval(DatumFactory.createText("x5"))));
+
+    VectorFilter filter = Vectorizer.createFilter(schema, qual);
+    assertNotNull(filter);
+    assertFilter(filter, qual);
+  }
+
+  @Test
+  public void testFallbackFilter() {
+    EvalNode qual = new BinaryEval(EvalType.AND,
+        new IsNullEval(false, b),
+        new BinaryEval(EvalType.GEQ, a, new ConstEval(DatumFactory.createInt4(10))));
+
+    assertNull(Vectorizer.createFilter(schema, qual));
+    assertFilter(new EvalFilter(schema, qual), qual);
+  }
+
+  private void assertProjection(Target [] targets, boolean vectorized) {
+    Schema outSchema = new Schema();
+    for (int i = 0; i < targets.length; i++) {
+      outSchema.addColumn("col_" + i, targets[i].getEvalTree().getValueType());
+    }
+
+    VectorProjector vectorProjector = new VectorProjector(schema, outSchema, targets);
+    assertEquals(vectorized, vectorProjector.isVectorized());
+    Projector projector = new Projector(schema, outSchema, targets);
+
+    // a filter is applied before the projection so that only selected rows are evaluated.
+    EvalNode qual = new BinaryEval(EvalType.NOT_EQUAL,
+        new BinaryEval(EvalType.MODULAR, a, new ConstEval(DatumFactory.createInt4(3))),
+        new ConstEval(DatumFactory.createInt4(0)));
+    VectorFilter filter = Vectorizer.createFilter(schema, qual);
+
+    int capacity = 16;
+    RowBatch out = vectorProjector.createOutputBatch(capacity);
+    Tuple expected = new VTuple(outSchema.size());
+    for (int offset = 0; offset < ROW_NUM; offset += capacity) {
+      RowBatch in = createBatch(capacity, offset);
+      filter.filter(in);
+      vectorProjector.eval(in, out);
+      assertEquals(in.size, out.size);
+
+      for (int i = 0; i < in.size; i++) {
+        projector.eval(tuples.get(offset + in.getRow(i)), expected);
+        int outRow = out.getRow(i);
+        for (int j = 0; j < targets.length; j++) {
+          Datum datum = out.getColumn(j).getDatum(outRow);
+          assertEquals(expected.get(j), datum);
+          assertEquals(expected.get(j).type(), datum.type());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testVectorizedProjection() {
+    Target [] targets = new Target[] {
+        new Target(a),
+        new Target(new BinaryEval(EvalType.PLUS, new BinaryEval(EvalType.MULTIPLY, a,
+            new ConstEval(DatumFactory.createInt4(2))), b), "e1"),
+        new Target(new BinaryEval(EvalType.DIVIDE, c, a), "e2"),
+        new Target(new BinaryEval(EvalType.MINUS, a, new ConstEval(DatumFactory.createInt4(1))), "e3"),
+        new Target(d)
+    };
+    assertProjection(targets, true);
+  }
+
+  @Test
+  public void testFallbackProjection() {
+    Target [] targets = new Target[] {
+        new Target(new BinaryEval(EvalType.PLUS, a, b), "e1"),
+        new Target(new IsNullEval(false, c), "e2")
+    };
+    assertProjection(targets, false);
+  }
+}
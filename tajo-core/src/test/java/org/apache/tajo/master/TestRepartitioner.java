@@ -21,6 +21,7 @@ package org.apache.tajo.master;
 import org.apache.tajo.ExecutionBlockId;
 import org.apache.tajo.QueryId;
 import org.apache.tajo.TestTajoIds;
+import org.apache.tajo.algebra.JoinType;
 import org.apache.tajo.ipc.TajoWorkerProtocol;
 import org.apache.tajo.master.querymaster.QueryUnit;
 import org.apache.tajo.master.querymaster.Repartitioner;
@@ -32,6 +33,8 @@ import java.net.URI;
 import java.util.*;
 
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
 
 public class TestRepartitioner {
   @Test
@@ -64,6 +67,101 @@ public class TestRepartitioner {
     }
   }
 
+  @Test
+  public void testCreateHashFetchURLWithLongRequest() throws Exception {
+    QueryId q1 = TestTajoIds.createQueryId(1315890136000l, 2);
+    String hostName = "tajo1";
+    int port = 1234;
+    ExecutionBlockId sid = new ExecutionBlockId(q1, 2);
+    int partitionId = 2;
+
+    List<QueryUnit.IntermediateEntry> intermediateEntries = TUtil.newList();
+    for (int i = 0; i < 1000; i++) {
+      intermediateEntries.add(new QueryUnit.IntermediateEntry(i, 0, partitionId, hostName, port));
+    }
+
+    // task ids sent as a request body are not split into multiple requests.
+    Collection<URI> uris = Repartitioner.
+        createHashFetchURL(hostName + ":" + port, sid, partitionId,
+            TajoWorkerProtocol.ShuffleType.HASH_SHUFFLE, intermediateEntries, 60 * 1024);
+    assertEquals(1, uris.size());
+
+    final Map<String, List<String>> params =
+        new QueryStringDecoder(uris.iterator().next()).getParameters();
+    List<String> taList = splitMaps(params.get("ta"));
+    assertEquals(1000, taList.size());
+    int checkTaskId = 0;
+    for (String ta : taList) {
+      assertEquals(checkTaskId++, Integer.parseInt(ta.split("_")[0]));
+    }
+  }
+
+  @Test
+  public void testSplitSkewedPartition() throws Exception {
+    Map<Integer, Long> volumes = new HashMap<Integer, Long>();
+    for (int partId = 0; partId < 10; partId++) {
+      volumes.put(partId, 100L);
+    }
+    volumes.put(3, 5000L);
+    volumes.put(7, 300L);
+    assertEquals(TUtil.newHashSet(3), Repartitioner.findSkewedPartitions(volumes, 4.0f, 200));
+    assertEquals(TUtil.newHashSet(3, 7), Repartitioner.findSkewedPartitions(volumes, 2.0f, 200));
+    assertTrue(Repartitioner.findSkewedPartitions(volumes, 4.0f, 10000).isEmpty());
+
+    // the entries of the skewed partition are divided evenly by their volumes.
+    List<QueryUnit.IntermediateEntry> entries = TUtil.newList();
+    entries.add(new QueryUnit.IntermediateEntry(0, 0, 3, "tajo1", 1234, 2000));
+    for (int i = 1; i < 7; i++) {
+      entries.add(new QueryUnit.IntermediateEntry(i, 0, 3, "tajo" + (i % 2), 1234, 500));
+    }
+    List<List<QueryUnit.IntermediateEntry>> splits = Repartitioner.splitEntries(entries, 3);
+    assertEquals(3, splits.size());
+    Set<Integer> taskIds = TUtil.newHashSet();
+    for (List<QueryUnit.IntermediateEntry> split : splits) {
+      long volume = 0;
+      for (QueryUnit.IntermediateEntry entry : split) {
+        assertTrue(taskIds.add(entry.getTaskId()));
+        volume += entry.getVolume();
+      }
+      assertTrue(volume == 1500 || volume == 2000);
+    }
+    assertEquals(entries.size(), taskIds.size());
+
+    // the rows of a replicated side must not be preserved.
+    assertTrue(Repartitioner.canSplitJoinSide(JoinType.INNER, false));
+    assertTrue(Repartitioner.canSplitJoinSide(JoinType.LEFT_OUTER, true));
+    assertFalse(Repartitioner.canSplitJoinSide(JoinType.LEFT_OUTER, false));
+    assertFalse(Repartitioner.canSplitJoinSide(JoinType.RIGHT_SEMI, true));
+    assertFalse(Repartitioner.canSplitJoinSide(JoinType.FULL_OUTER, true));
+  }
+
+  @Test
+  public void testCoalescePartitions() throws Exception {
+    SortedMap<Integer, Long> volumes = new TreeMap<Integer, Long>();
+    for (int partId = 0; partId < 100; partId++) {
+      volumes.put(partId, 10L);
+    }
+    volumes.put(50, 1000L);
+
+    List<List<Integer>> groups = Repartitioner.coalescePartitions(volumes, 200);
+    // 50 small partitions before and 49 after the big one
+    assertEquals(3 + 1 + 3, groups.size());
+    int nextPartId = 0;
+    for (List<Integer> group : groups) {
+      long volume = 0;
+      for (int partId : group) {
+        // adjacent partitions are coalesced in order.
+        assertEquals(nextPartId++, partId);
+        volume += volumes.get(partId);
+      }
+      assertTrue(volume <= 200 || group.size() == 1);
+    }
+    assertEquals(100, nextPartId);
+    assertEquals(TUtil.newList(50), groups.get(3));
+
+    assertTrue(Repartitioner.coalescePartitions(new TreeMap<Integer, Long>(), 200).isEmpty());
+  }
+
   private List<String> splitMaps(List<String> mapq) {
     if (null == mapq) {
       return null;
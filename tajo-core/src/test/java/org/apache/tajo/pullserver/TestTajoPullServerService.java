@@ -0,0 +1,139 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.pullserver;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.SortSpec;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.pullserver.retriever.FileChunk;
+import org.apache.tajo.storage.*;
+import org.apache.tajo.storage.RowStoreUtil.RowStoreEncoder;
+import org.apache.tajo.storage.index.bst.BSTIndex;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class TestTajoPullServerService {
+
+  @Test
+  public void testRangeRead() throws IOException {
+    assertArrayEquals(new long[] {100, 199}, TajoPullServerService.parseRange("bytes=100-199", 1000));
+    assertArrayEquals(new long[] {100, 999}, TajoPullServerService.parseRange("bytes=100-", 1000));
+    assertArrayEquals(new long[] {900, 999}, TajoPullServerService.parseRange("bytes=-100", 1000));
+    assertArrayEquals(new long[] {900, 999}, TajoPullServerService.parseRange("bytes=900-5000", 1000));
+    assertArrayEquals(new long[] {0, 999}, TajoPullServerService.parseRange("bytes=-5000", 1000));
+
+    // not satisfiable
+    long [] range = TajoPullServerService.parseRange("bytes=1000-", 1000);
+    assertTrue(range[0] > range[1]);
+
+    // ignored
+    assertNull(TajoPullServerService.parseRange("bytes=200-100", 1000));
+    assertNull(TajoPullServerService.parseRange("bytes=0-10,20-30", 1000));
+    assertNull(TajoPullServerService.parseRange("lines=0-10", 1000));
+    assertNull(TajoPullServerService.parseRange("bytes=a-b", 1000));
+
+    // three chunks of 100 bytes each in two files
+    File first = new File("first");
+    File second = new File("second");
+    FileChunk [] chunks = new FileChunk[] {
+        new FileChunk(first, 0, 100), new FileChunk(second, 500, 100), new FileChunk(first, 300, 100)};
+
+    FileChunk [] sliced = TajoPullServerService.sliceChunks(chunks, 150, 100);
+    assertEquals(2, sliced.length);
+    assertEquals(second, sliced[0].getFile());
+    assertEquals(550, sliced[0].startOffset());
+    assertEquals(50, sliced[0].length());
+    assertEquals(first, sliced[1].getFile());
+    assertEquals(300, sliced[1].startOffset());
+    assertEquals(50, sliced[1].length());
+
+    sliced = TajoPullServerService.sliceChunks(chunks, 0, 300);
+    assertEquals(3, sliced.length);
+    for (int i = 0; i < chunks.length; i++) {
+      assertEquals(chunks[i].startOffset(), sliced[i].startOffset());
+      assertEquals(chunks[i].length(), sliced[i].length());
+    }
+  }
+
+  private static String encodeKey(RowStoreEncoder encoder, int key) {
+    Tuple tuple = new VTuple(1);
+    tuple.put(0, DatumFactory.createInt4(key));
+    return new String(Base64.encodeBase64(encoder.toBytes(tuple), false));
+  }
+
+  @Test
+  public void testGetFileChunksFromDescendingOrder() throws IOException {
+    TajoConf conf = new TajoConf();
+    Path outDir = CommonTestingUtil.getTestDir();
+
+    Schema schema = new Schema();
+    schema.addColumn("id", Type.INT4);
+    SortSpec [] sortSpecs = new SortSpec[] {new SortSpec(schema.getColumn(0), false, false)};
+    TupleComparator comp = new TupleComparator(schema, sortSpecs);
+
+    // a range shuffle output sorted by id in descending order
+    int rowNum = 100;
+    long [] offsets = new long[rowNum];
+    TableMeta meta = CatalogUtil.newTableMeta(StoreType.RAW);
+    FileAppender appender = (FileAppender) StorageManagerFactory.getStorageManager(conf).getAppender(meta, schema,
+        new Path(outDir, "output"));
+    appender.init();
+    BSTIndex.BSTIndexWriter indexWriter = new BSTIndex(conf).getIndexWriter(new Path(outDir, "index"),
+        BSTIndex.TWO_LEVEL_INDEX, schema, comp);
+    indexWriter.setLoadNum(10);
+    indexWriter.open();
+    for (int i = rowNum - 1; i >= 0; i--) {
+      Tuple tuple = new VTuple(1);
+      tuple.put(0, DatumFactory.createInt4(i));
+      offsets[i] = appender.getOffset();
+      appender.addTuple(tuple);
+      indexWriter.write(tuple, offsets[i]);
+    }
+    appender.flush();
+    appender.close();
+    indexWriter.flush();
+    indexWriter.close();
+
+    // a range of a descending key is requested from the lower key to the higher key.
+    RowStoreEncoder encoder = RowStoreUtil.createEncoder(schema);
+    TajoPullServerService pullServer = new TajoPullServerService();
+    FileChunk chunk = pullServer.getFileCunks(outDir, encodeKey(encoder, 20), encodeKey(encoder, 40), false);
+    assertNotNull(chunk);
+    assertEquals(offsets[40], chunk.startOffset());
+    assertEquals(offsets[20] - offsets[40], chunk.length());
+
+    // the last range reads up to the end of the file.
+    chunk = pullServer.getFileCunks(outDir, encodeKey(encoder, 0), encodeKey(encoder, 20), true);
+    assertNotNull(chunk);
+    assertEquals(offsets[20], chunk.startOffset());
+    assertEquals(new File(new Path(outDir, "output").toUri()).length() - offsets[20], chunk.length());
+  }
+}
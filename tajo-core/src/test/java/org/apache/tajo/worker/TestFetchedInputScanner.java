@@ -0,0 +1,144 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.worker;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.storage.Appender;
+import org.apache.tajo.storage.StorageManagerFactory;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class TestFetchedInputScanner {
+  private static final String TEST_PATH = "target/test-data/TestFetchedInputScanner";
+  private static final int FILE_NUM = 3;
+  private static final int ROWS_PER_FILE = 100;
+
+  private TajoConf conf;
+  private Schema schema;
+  private TableMeta meta;
+  private Path testDir;
+
+  @Before
+  public void setUp() throws Exception {
+    conf = new TajoConf();
+    testDir = CommonTestingUtil.getTestDir(TEST_PATH);
+    schema = new Schema();
+    schema.addColumn("id", Type.INT4);
+    schema.addColumn("name", Type.TEXT);
+    meta = CatalogUtil.newTableMeta(StoreType.RAW);
+  }
+
+  private File writeFetchedFile(int fileId) throws IOException {
+    Path path = new Path(testDir, "in_" + fileId);
+    Appender appender = StorageManagerFactory.getStorageManager(conf).getAppender(meta, schema, path);
+    appender.init();
+    Tuple tuple = new VTuple(schema.size());
+    for (int i = 0; i < ROWS_PER_FILE; i++) {
+      tuple.put(0, DatumFactory.createInt4(fileId * ROWS_PER_FILE + i));
+      tuple.put(1, DatumFactory.createText("name_" + i));
+      appender.addTuple(tuple);
+    }
+    appender.close();
+    return new File(path.toUri().getPath());
+  }
+
+  @Test
+  public void testScanWhileFetching() throws Exception {
+    final File [] files = new File[FILE_NUM];
+    for (int i = 0; i < FILE_NUM; i++) {
+      files[i] = writeFetchedFile(i);
+    }
+
+    // one of fetches fails, and it does not produce any file.
+    final FetchedInput input = new FetchedInput("default.t1", FILE_NUM + 1);
+    Thread fetchThread = new Thread() {
+      public void run() {
+        try {
+          for (File file : files) {
+            Thread.sleep(200);
+            input.fetchFinished(file);
+          }
+          input.fetchFinished(null);
+        } catch (InterruptedException e) {
+          throw new RuntimeException(e);
+        }
+      }
+    };
+    fetchThread.start();
+
+    FetchedInputScanner scanner = new FetchedInputScanner(conf, schema, meta, input, schema);
+    scanner.init();
+    boolean [] found = new boolean[FILE_NUM * ROWS_PER_FILE];
+    int cnt = 0;
+    Tuple tuple;
+    while ((tuple = scanner.next()) != null) {
+      found[tuple.get(0).asInt4()] = true;
+      cnt++;
+    }
+    fetchThread.join();
+
+    assertTrue(input.isCompleted());
+    assertEquals(FILE_NUM * ROWS_PER_FILE, cnt);
+    for (boolean f : found) {
+      assertTrue(f);
+    }
+    assertEquals(FILE_NUM * ROWS_PER_FILE, scanner.getInputStats().getNumRows().longValue());
+
+    // a rescan replays all fetched files.
+    scanner.reset();
+    cnt = 0;
+    while (scanner.next() != null) {
+      cnt++;
+    }
+    assertEquals(FILE_NUM * ROWS_PER_FILE, cnt);
+    scanner.close();
+  }
+
+  @Test
+  public void testStop() throws Exception {
+    FetchedInput input = new FetchedInput("default.t1", 2);
+    input.fetchFinished(writeFetchedFile(0));
+    FetchedInputScanner scanner = new FetchedInputScanner(conf, schema, meta, input, schema);
+    scanner.init();
+    for (int i = 0; i < ROWS_PER_FILE; i++) {
+      assertNotNull(scanner.next());
+    }
+
+    // the remaining fetch is never finished, but the scanner must not wait after the task is stopped.
+    input.stop();
+    assertNull(scanner.next());
+    assertFalse(input.isCompleted());
+    scanner.close();
+  }
+}
@@ -83,6 +83,46 @@ public class TestFetcher {
     assertEquals(inStatus.getLen(), outStatus.getLen());
   }
 
+  @Test
+  public void testGetWithPooledConnection() throws IOException {
+    Random rnd = new Random();
+    for (int i = 0; i < 2; i++) {
+      FileWriter writer = new FileWriter(INPUT_DIR + "data" + i);
+      for (int j = 0; j < 100; j++) {
+        writer.write("" + rnd.nextInt());
+      }
+      writer.flush();
+      writer.close();
+    }
+
+    DataRetriever ret = new DirectoryRetriever(INPUT_DIR);
+    HttpDataServer server = new HttpDataServer(
+        NetUtils.createSocketAddr("127.0.0.1:0"), ret);
+    server.start();
+    InetSocketAddress addr = server.getBindAddress();
+    InetSocketAddress serverAddr = new InetSocketAddress("127.0.0.1", addr.getPort());
+
+    ShuffleConnectionPool pool = ShuffleConnectionPool.getPool(new TajoConf());
+    FileSystem fs = FileSystem.getLocal(new TajoConf());
+    try {
+      for (int i = 0; i < 2; i++) {
+        URI uri = URI.create("http://127.0.0.1:" + addr.getPort() + "/data" + i);
+        Fetcher fetcher = new Fetcher(uri, new File(OUTPUT_DIR + "data" + i), pool);
+        fetcher.get();
+
+        // the connection is returned to the pool, and the next fetch reuses it.
+        assertEquals(1, pool.getIdleConnectionNum(serverAddr));
+
+        FileStatus inStatus = fs.getFileStatus(new Path(INPUT_DIR, "data" + i));
+        FileStatus outStatus = fs.getFileStatus(new Path(OUTPUT_DIR, "data" + i));
+        assertEquals(inStatus.getLen(), outStatus.getLen());
+      }
+    } finally {
+      server.stop();
+      ShuffleConnectionPool.shutdownPool();
+    }
+  }
+
   @Test
   public void testAdjustFetchProcess() {
     assertEquals(0.05f, Task.adjustFetchProcess(10, 9), 0);
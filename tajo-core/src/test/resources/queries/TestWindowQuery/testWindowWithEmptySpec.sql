@@ -0,0 +1,9 @@
+select
+  l_orderkey,
+  l_linenumber,
+  count(l_partkey) over () as num_rows,
+  min(l_quantity) over () as min_qty
+from
+  lineitem
+order by
+  l_orderkey, l_linenumber;
@@ -0,0 +1,11 @@
+select
+  l_orderkey,
+  l_linenumber,
+  row_number() over (partition by l_orderkey order by l_linenumber) as row_num,
+  sum(l_quantity) over (partition by l_orderkey order by l_linenumber rows between unbounded preceding and current row) as running_qty,
+  sum(l_quantity) over (partition by l_orderkey order by l_linenumber rows between current row and unbounded following) as rest_qty,
+  count(l_partkey) over (partition by l_orderkey order by l_linenumber rows between unbounded preceding and unbounded following) as num_items
+from
+  lineitem
+order by
+  l_orderkey, l_linenumber;
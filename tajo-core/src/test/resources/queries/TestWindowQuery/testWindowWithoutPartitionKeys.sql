@@ -0,0 +1,11 @@
+select
+  l_orderkey,
+  l_quantity,
+  rank() over (order by l_orderkey) as rnk,
+  dense_rank() over (order by l_orderkey) as dense_rnk,
+  sum(l_quantity) over (order by l_orderkey) as cum_qty,
+  sum(l_quantity) over (order by l_orderkey range between current row and unbounded following) as rest_qty
+from
+  lineitem
+order by
+  l_orderkey, l_quantity;
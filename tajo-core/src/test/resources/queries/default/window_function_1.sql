@@ -0,0 +1,7 @@
+select
+  l_orderkey,
+  row_number() over (partition by l_orderkey order by l_linenumber desc) as row_num,
+  sum(l_quantity) over (partition by l_orderkey, l_partkey order by l_linenumber rows between 2 preceding and current row) as moving_sum,
+  avg(l_quantity) over (order by l_linenumber range between unbounded preceding and unbounded following) as avg_qty
+from
+  lineitem
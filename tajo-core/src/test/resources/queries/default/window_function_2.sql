@@ -0,0 +1,6 @@
+select
+  count(l_partkey) over (rows unbounded preceding) as cnt,
+  max(l_quantity) over (partition by l_orderkey range between current row and 1 following) as max_qty,
+  rank() over () as rnk
+from
+  lineitem
@@ -30,6 +30,7 @@ import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.TableMeta;
 import org.apache.tajo.catalog.proto.CatalogProtos;
 import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.storage.fragment.CombinedFileFragment;
 import org.apache.tajo.storage.fragment.FileFragment;
 import org.apache.tajo.storage.fragment.Fragment;
 import org.apache.tajo.storage.fragment.FragmentConvertor;
@@ -616,6 +617,125 @@ public abstract class AbstractStorageManager {
     return splits;
   }
 
+  /**
+   * Combines small splits into groups of up to the target size, so that a table of many small files is not
+   * scanned by as many tasks. A split which is not smaller than the target size makes a group by itself.
+   *
+   * Small splits are combined only with the splits in the same directory, because all fragments of a task
+   * must belong to the same partition of a column-partitioned table. The splits local to a host are combined
+   * first, filling the hosts with more local data first. The remaining splits, which do not make a large enough
+   * group on any host, are combined regardless of their locations.
+   *
+   * @param splits the splits returned by {@link #getSplits(String, TableMeta, Schema, Path...)}
+   * @param targetSize the target bytes of a group
+   * @return the groups of splits, each of which is scanned by a task
+   */
+  public List<CombinedFileFragment> combineSplits(List<FileFragment> splits, long targetSize) {
+    List<CombinedFileFragment> combined = Lists.newArrayList();
+    Map<Path, List<FileFragment>> smallSplitsPerDir = new LinkedHashMap<Path, List<FileFragment>>();
+    for (FileFragment split : splits) {
+      if (split.getEndKey() >= targetSize) {
+        combined.add(new CombinedFileFragment(split));
+      } else {
+        Path dir = split.getPath().getParent();
+        List<FileFragment> smallSplits = smallSplitsPerDir.get(dir);
+        if (smallSplits == null) {
+          smallSplits = Lists.newArrayList();
+          smallSplitsPerDir.put(dir, smallSplits);
+        }
+        smallSplits.add(split);
+      }
+    }
+
+    for (List<FileFragment> smallSplits : smallSplitsPerDir.values()) {
+      combineSmallSplits(smallSplits, targetSize, combined);
+    }
+    LOG.info("# of splits: " + splits.size() + ", # of combined splits: " + combined.size());
+    return combined;
+  }
+
+  private void combineSmallSplits(List<FileFragment> splits, long targetSize, List<CombinedFileFragment> combined) {
+    final Map<String, List<FileFragment>> splitsPerHost = new LinkedHashMap<String, List<FileFragment>>();
+    final Map<String, Long> volumePerHost = new HashMap<String, Long>();
+    for (FileFragment split : splits) {
+      for (String host : split.getHosts()) {
+        List<FileFragment> hostSplits = splitsPerHost.get(host);
+        if (hostSplits == null) {
+          hostSplits = Lists.newArrayList();
+          splitsPerHost.put(host, hostSplits);
+          volumePerHost.put(host, 0L);
+        }
+        hostSplits.add(split);
+        volumePerHost.put(host, volumePerHost.get(host) + split.getEndKey());
+      }
+    }
+
+    List<String> hosts = Lists.newArrayList(splitsPerHost.keySet());
+    Collections.sort(hosts, new Comparator<String>() {
+      @Override
+      public int compare(String h1, String h2) {
+        return volumePerHost.get(h2).compareTo(volumePerHost.get(h1));
+      }
+    });
+
+    Set<FileFragment> assigned = new HashSet<FileFragment>();
+    for (String host : hosts) {
+      CombinedFileFragment group = null;
+      for (FileFragment split : splitsPerHost.get(host)) {
+        if (assigned.contains(split)) {
+          continue;
+        }
+        if (group == null) {
+          group = new CombinedFileFragment(split.getTableName());
+        }
+        group.addFragment(split);
+        group.addDataLocation(new DataLocation(host, getDiskId(split, host)));
+        assigned.add(split);
+        if (group.getLength() >= targetSize) {
+          combined.add(group);
+          group = null;
+        }
+      }
+
+      // a too small remainder is left to be combined with the splits of the other hosts.
+      if (group != null) {
+        if (group.getLength() >= targetSize / 2) {
+          combined.add(group);
+        } else {
+          assigned.removeAll(group.getFragments());
+        }
+      }
+    }
+
+    CombinedFileFragment group = null;
+    for (FileFragment split : splits) {
+      if (assigned.contains(split)) {
+        continue;
+      }
+      if (group == null) {
+        group = new CombinedFileFragment(split.getTableName());
+      }
+      group.addFragment(split);
+      if (group.getLength() >= targetSize) {
+        combined.add(group);
+        group = null;
+      }
+    }
+    if (group != null) {
+      combined.add(group);
+    }
+  }
+
+  private static int getDiskId(FileFragment split, String host) {
+    String [] hosts = split.getHosts();
+    for (int i = 0; i < hosts.length; i++) {
+      if (hosts[i].equals(host)) {
+        return split.getDiskIds()[i];
+      }
+    }
+    return -1;
+  }
+
   private void setVolumeMeta(List<FileFragment> splits, final List<BlockLocation> blockLocations)
       throws IOException {
 
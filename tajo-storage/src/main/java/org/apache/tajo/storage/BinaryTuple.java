@@ -0,0 +1,412 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.storage;
+
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A read-only tuple which refers to a row stored in a page of {@link BinaryTupleList}.
+ * Values are decoded on each access, and they are not cached.
+ *
+ * <p>{@link #get(int)} creates a datum on each call. Typed getters, such as {@link #getInt8(int)}, read the slot
+ * directly without creating any object. {@link #compareField(BinaryTuple, BinaryTuple, int)},
+ * {@link #hashBytes(int)} and {@link #equalsBytes(int, byte[])} work on the bytes in the page, so comparisons
+ * and hash lookups do not decode values either.</p>
+ *
+ * @see BinaryTupleList
+ */
+public class BinaryTuple implements Tuple {
+  private final BinaryTupleList owner;
+  private final ByteBuffer page;
+  private final int rowStart;
+  private final long address;
+  private long offset;
+
+  BinaryTuple(BinaryTupleList owner, ByteBuffer page, int rowStart, long address) {
+    this.owner = owner;
+    this.page = page;
+    this.rowStart = rowStart;
+    this.address = address;
+  }
+
+  BinaryTupleList getOwner() {
+    return owner;
+  }
+
+  long getAddress() {
+    return address;
+  }
+
+  private int getSlot(int fieldId) {
+    return rowStart + owner.nullBytes + BinaryTupleList.SLOT_SIZE * fieldId;
+  }
+
+  @Override
+  public int size() {
+    return owner.types.length;
+  }
+
+  @Override
+  public boolean contains(int fieldid) {
+    return true;
+  }
+
+  @Override
+  public boolean isNull(int fieldid) {
+    return (page.get(rowStart + (fieldid >> 3)) & (1 << (fieldid & 7))) != 0;
+  }
+
+  @Override
+  public void clear() {
+    throw new UnsupportedOperationException("BinaryTuple is read-only");
+  }
+
+  @Override
+  public void put(int fieldId, Datum value) {
+    throw new UnsupportedOperationException("BinaryTuple is read-only");
+  }
+
+  @Override
+  public void put(int fieldId, Datum[] values) {
+    throw new UnsupportedOperationException("BinaryTuple is read-only");
+  }
+
+  @Override
+  public void put(int fieldId, Tuple tuple) {
+    throw new UnsupportedOperationException("BinaryTuple is read-only");
+  }
+
+  @Override
+  public void put(Datum[] values) {
+    throw new UnsupportedOperationException("BinaryTuple is read-only");
+  }
+
+  @Override
+  public Datum get(int fieldId) {
+    if (isNull(fieldId)) {
+      return NullDatum.get();
+    }
+
+    int slot = getSlot(fieldId);
+    switch (owner.types[fieldId].getType()) {
+    case BOOLEAN:
+      return DatumFactory.createBool(page.get(slot));
+    case BIT:
+      return DatumFactory.createBit(page.get(slot));
+    case INT2:
+      return DatumFactory.createInt2((short) page.getLong(slot));
+    case INT4:
+      return DatumFactory.createInt4((int) page.getLong(slot));
+    case INT8:
+      return DatumFactory.createInt8(page.getLong(slot));
+    case FLOAT4:
+      return DatumFactory.createFloat4(page.getFloat(slot));
+    case FLOAT8:
+      return DatumFactory.createFloat8(page.getDouble(slot));
+    case DATE:
+      return DatumFactory.createFromInt4(owner.types[fieldId], page.getInt(slot));
+    case TIME:
+    case TIMESTAMP:
+      return DatumFactory.createFromInt8(owner.types[fieldId], page.getLong(slot));
+    case NULL_TYPE:
+      return NullDatum.get();
+    default: // variable length types
+      return DatumFactory.createFromBytes(owner.types[fieldId], readBytes(slot));
+    }
+  }
+
+  private byte [] readBytes(int slot) {
+    int start = rowStart + page.getInt(slot);
+    byte [] bytes = new byte[page.getInt(slot + 4)];
+    if (page.hasArray()) {
+      System.arraycopy(page.array(), page.arrayOffset() + start, bytes, 0, bytes.length);
+    } else {
+      ByteBuffer duplicate = page.duplicate();
+      duplicate.position(start);
+      duplicate.get(bytes);
+    }
+    return bytes;
+  }
+
+  /**
+   * @return True if the field of both tuples can be compared by {@link #compareField(BinaryTuple, BinaryTuple, int)}
+   */
+  static boolean isComparableInPage(BinaryTuple t1, BinaryTuple t2, int fieldId) {
+    Type type = t1.owner.types[fieldId].getType();
+    if (type != t2.owner.types[fieldId].getType()) {
+      return false;
+    }
+    switch (type) {
+    case INT2:
+    case INT4:
+    case INT8:
+    case TIMESTAMP:
+    case DATE:
+    case FLOAT4:
+    case FLOAT8:
+    case TEXT:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  /**
+   * Compares non-null values of a field in the same way as {@link Datum#compareTo(Datum)}, but it reads the pages
+   * directly. The field must satisfy {@link #isComparableInPage(BinaryTuple, BinaryTuple, int)}.
+   */
+  static int compareField(BinaryTuple t1, BinaryTuple t2, int fieldId) {
+    int slot1 = t1.getSlot(fieldId);
+    int slot2 = t2.getSlot(fieldId);
+    switch (t1.owner.types[fieldId].getType()) {
+    case INT2:
+    case INT4:
+    case INT8:
+    case TIMESTAMP:
+      return compare(t1.page.getLong(slot1), t2.page.getLong(slot2));
+    case DATE:
+      return compare(t1.page.getInt(slot1), t2.page.getInt(slot2));
+    case FLOAT4:
+      return compare(t1.page.getFloat(slot1), t2.page.getFloat(slot2));
+    case FLOAT8:
+      return compare(t1.page.getDouble(slot1), t2.page.getDouble(slot2));
+    default: // TEXT
+      return compareBytes(t1, slot1, t2, slot2);
+    }
+  }
+
+  private static int compare(long v1, long v2) {
+    return v1 < v2 ? -1 : (v1 > v2 ? 1 : 0);
+  }
+
+  private static int compare(double v1, double v2) {
+    return v1 < v2 ? -1 : (v1 > v2 ? 1 : 0);
+  }
+
+  /**
+   * It compares bytes as unsigned values like {@link org.apache.tajo.datum.TextDatum#COMPARATOR}.
+   */
+  private static int compareBytes(BinaryTuple t1, int slot1, BinaryTuple t2, int slot2) {
+    int start1 = t1.rowStart + t1.page.getInt(slot1);
+    int length1 = t1.page.getInt(slot1 + 4);
+    int start2 = t2.rowStart + t2.page.getInt(slot2);
+    int length2 = t2.page.getInt(slot2 + 4);
+    int length = Math.min(length1, length2);
+    for (int i = 0; i < length; i++) {
+      int b1 = t1.page.get(start1 + i) & 0xff;
+      int b2 = t2.page.get(start2 + i) & 0xff;
+      if (b1 != b2) {
+        return b1 - b2;
+      }
+    }
+    return length1 - length2;
+  }
+
+  /**
+   * @return the same hash code as {@link Arrays#hashCode(byte[])} of {@link #getBytes(int)}. The field must be
+   * a non-null variable length value.
+   */
+  public int hashBytes(int fieldId) {
+    int slot = getSlot(fieldId);
+    int start = rowStart + page.getInt(slot);
+    int end = start + page.getInt(slot + 4);
+    int hash = 1;
+    for (int i = start; i < end; i++) {
+      hash = 31 * hash + page.get(i);
+    }
+    return hash;
+  }
+
+  /**
+   * @return True if the bytes of the field are equal to the given bytes. The field must be a non-null variable
+   * length value.
+   */
+  public boolean equalsBytes(int fieldId, byte [] bytes) {
+    int slot = getSlot(fieldId);
+    if (page.getInt(slot + 4) != bytes.length) {
+      return false;
+    }
+    int start = rowStart + page.getInt(slot);
+    for (int i = 0; i < bytes.length; i++) {
+      if (page.get(start + i) != bytes[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void setOffset(long offset) {
+    this.offset = offset;
+  }
+
+  @Override
+  public long getOffset() {
+    return offset;
+  }
+
+  @Override
+  public boolean getBool(int fieldId) {
+    return get(fieldId).asBool();
+  }
+
+  @Override
+  public byte getByte(int fieldId) {
+    if (!isNull(fieldId) && owner.types[fieldId].getType() == Type.BIT) {
+      return page.get(getSlot(fieldId));
+    }
+    return get(fieldId).asByte();
+  }
+
+  @Override
+  public char getChar(int fieldId) {
+    return get(fieldId).asChar();
+  }
+
+  @Override
+  public byte[] getBytes(int fieldId) {
+    if (!isNull(fieldId) && BinaryTupleList.isVariableLength(owner.types[fieldId])) {
+      return readBytes(getSlot(fieldId));
+    }
+    return get(fieldId).asByteArray();
+  }
+
+  @Override
+  public short getInt2(int fieldId) {
+    if (isIntegral(fieldId)) {
+      return (short) page.getLong(getSlot(fieldId));
+    }
+    return get(fieldId).asInt2();
+  }
+
+  @Override
+  public int getInt4(int fieldId) {
+    if (isIntegral(fieldId)) {
+      return (int) page.getLong(getSlot(fieldId));
+    }
+    return get(fieldId).asInt4();
+  }
+
+  @Override
+  public long getInt8(int fieldId) {
+    if (!isNull(fieldId)) {
+      switch (owner.types[fieldId].getType()) {
+      case INT2:
+      case INT4:
+      case INT8:
+      case TIME:
+      case TIMESTAMP:
+        return page.getLong(getSlot(fieldId));
+      case DATE:
+        return page.getInt(getSlot(fieldId));
+      default:
+      }
+    }
+    return get(fieldId).asInt8();
+  }
+
+  private boolean isIntegral(int fieldId) {
+    if (isNull(fieldId)) {
+      return false;
+    }
+    switch (owner.types[fieldId].getType()) {
+    case INT2:
+    case INT4:
+    case INT8:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  @Override
+  public float getFloat4(int fieldId) {
+    if (!isNull(fieldId) && owner.types[fieldId].getType() == Type.FLOAT4) {
+      return page.getFloat(getSlot(fieldId));
+    }
+    return get(fieldId).asFloat4();
+  }
+
+  @Override
+  public double getFloat8(int fieldId) {
+    if (!isNull(fieldId)) {
+      switch (owner.types[fieldId].getType()) {
+      case FLOAT4:
+        return page.getFloat(getSlot(fieldId));
+      case FLOAT8:
+        return page.getDouble(getSlot(fieldId));
+      default:
+      }
+    }
+    return get(fieldId).asFloat8();
+  }
+
+  @Override
+  public String getText(int fieldId) {
+    if (!isNull(fieldId) && owner.types[fieldId].getType() == Type.TEXT) {
+      return new String(readBytes(getSlot(fieldId)));
+    }
+    return get(fieldId).asChars();
+  }
+
+  /**
+   * @return a {@link VTuple} which has the same values
+   */
+  @Override
+  public Tuple clone() throws CloneNotSupportedException {
+    VTuple tuple = new VTuple(getValues());
+    tuple.setOffset(offset);
+    return tuple;
+  }
+
+  @Override
+  public Datum[] getValues() {
+    Datum [] values = new Datum[size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = get(i);
+    }
+    return values;
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(getValues());
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj instanceof Tuple) {
+      Tuple other = (Tuple) obj;
+      return Arrays.equals(getValues(), other.getValues());
+    }
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return new VTuple(getValues()).toString();
+  }
+}
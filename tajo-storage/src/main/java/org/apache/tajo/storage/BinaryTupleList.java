@@ -0,0 +1,325 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.storage;
+
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.DataType;
+import org.apache.tajo.datum.Datum;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A list of tuples which are stored in a compact binary row format on large byte pages.
+ *
+ * <p>Each row consists of a null bitmap, a fixed-width section, and a variable-length area. The fixed-width section
+ * has an 8-byte slot for each column. Primitive values are stored in the slot directly. For variable-length values,
+ * the slot has the offset from the start of the row and the length of the bytes in the variable-length area.
+ * A row never spans pages. If a row is bigger than a page, a dedicated page is allocated for the row.</p>
+ *
+ * <p>{@link #add(Tuple)} copies the given tuple, so a tuple reused by the caller can be added. {@link #get(int)}
+ * returns a read-only {@link BinaryTuple} which refers to the row in a page. {@link #set(int, Tuple)} with a
+ * tuple of this list only changes the position of the row, so sorting this list does not copy any row.</p>
+ *
+ * <p>Compared to a list of {@link VTuple}s, there is no datum object per value, and the memory consumption can be
+ * exactly measured by {@link #getUsedBytes()}.</p>
+ */
+public class BinaryTupleList extends AbstractList<Tuple> {
+  public static final int DEFAULT_PAGE_SIZE = 1024 * 1024;
+  /** the bytes of a fixed-width slot */
+  static final int SLOT_SIZE = 8;
+  /** the bytes of a row address */
+  private static final int ADDRESS_SIZE = 8;
+
+  private final Schema schema;
+  final DataType [] types;
+  final int nullBytes;
+  private final int fixedBytes;
+  private final int pageSize;
+
+  /** all allocated pages. Pages are kept by {@link #clear()} for reuse. */
+  private final List<ByteBuffer> pages = new ArrayList<ByteBuffer>();
+  private int currentPage = -1;
+  private int pagePosition = 0;
+
+  /** (page index << 32 | offset in the page) of each row */
+  private long [] addresses = new long[1024];
+  private int rowNum = 0;
+  private long usedBytes = 0;
+
+  public BinaryTupleList(Schema schema) {
+    this(schema, DEFAULT_PAGE_SIZE);
+  }
+
+  public BinaryTupleList(Schema schema, int pageSize) {
+    this.schema = schema;
+    this.types = new DataType[schema.size()];
+    for (int i = 0; i < types.length; i++) {
+      types[i] = schema.getColumn(i).getDataType();
+    }
+    this.nullBytes = (types.length + 7) / 8;
+    this.fixedBytes = nullBytes + SLOT_SIZE * types.length;
+    this.pageSize = pageSize;
+  }
+
+  /**
+   * @return True if all columns of the schema can be stored in the binary row format
+   */
+  public static boolean isSupported(Schema schema) {
+    for (int i = 0; i < schema.size(); i++) {
+      switch (schema.getColumn(i).getDataType().getType()) {
+      case NULL_TYPE:
+      case BOOLEAN:
+      case BIT:
+      case CHAR:
+      case INT2:
+      case INT4:
+      case INT8:
+      case FLOAT4:
+      case FLOAT8:
+      case DATE:
+      case TIME:
+      case TIMESTAMP:
+      case TEXT:
+      case BLOB:
+      case INET4:
+      case PROTOBUF:
+        break;
+      default:
+        return false;
+      }
+    }
+    return true;
+  }
+
+  static boolean isVariableLength(DataType type) {
+    switch (type.getType()) {
+    case CHAR:
+    case TEXT:
+    case BLOB:
+    case INET4:
+    case PROTOBUF:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  public Schema getSchema() {
+    return schema;
+  }
+
+  /**
+   * Copies the tuple into a page.
+   */
+  @Override
+  public boolean add(Tuple tuple) {
+    addTuple(tuple);
+    return true;
+  }
+
+  /**
+   * Copies the tuple into a page.
+   *
+   * @return the number of bytes consumed by the tuple
+   */
+  public long addTuple(Tuple tuple) {
+    ensureAddressCapacity(rowNum + 1);
+    long rowBytes = write(tuple);
+    addresses[rowNum++] = ((long) currentPage << 32) | (pagePosition - rowBytes);
+    usedBytes += rowBytes + ADDRESS_SIZE;
+    modCount++;
+    return rowBytes + ADDRESS_SIZE;
+  }
+
+  private int write(Tuple tuple) {
+    byte [][] varValues = null;
+    int rowBytes = fixedBytes;
+    for (int i = 0; i < types.length; i++) {
+      if (isVariableLength(types[i])) {
+        Datum datum = tuple.get(i);
+        if (datum != null && !datum.isNull()) {
+          if (varValues == null) {
+            varValues = new byte[types.length][];
+          }
+          varValues[i] = datum.asByteArray();
+          rowBytes += varValues[i].length;
+        }
+      }
+    }
+
+    ByteBuffer page = allocate(rowBytes);
+    int rowStart = pagePosition;
+    for (int i = 0; i < nullBytes; i++) {
+      page.put(rowStart + i, (byte) 0);
+    }
+
+    int varPosition = fixedBytes;
+    for (int i = 0; i < types.length; i++) {
+      int slot = rowStart + nullBytes + SLOT_SIZE * i;
+      Datum datum = tuple.get(i);
+      if (datum == null || datum.isNull()) {
+        page.put(rowStart + (i >> 3), (byte) (page.get(rowStart + (i >> 3)) | (1 << (i & 7))));
+        continue;
+      }
+
+      switch (types[i].getType()) {
+      case BOOLEAN:
+      case BIT:
+        page.put(slot, datum.asByte());
+        break;
+      case INT2:
+      case INT4:
+      case INT8:
+      case TIME:
+      case TIMESTAMP:
+        page.putLong(slot, datum.asInt8());
+        break;
+      case DATE:
+        page.putInt(slot, datum.asInt4());
+        break;
+      case FLOAT4:
+        page.putFloat(slot, datum.asFloat4());
+        break;
+      case FLOAT8:
+        page.putDouble(slot, datum.asFloat8());
+        break;
+      default: // variable length types
+        byte [] bytes = varValues[i];
+        page.putInt(slot, varPosition);
+        page.putInt(slot + 4, bytes.length);
+        for (int j = 0; j < bytes.length; j++) {
+          page.put(rowStart + varPosition + j, bytes[j]);
+        }
+        varPosition += bytes.length;
+      }
+    }
+
+    pagePosition += rowBytes;
+    return rowBytes;
+  }
+
+  /**
+   * @return the page which has enough space for a row of the given bytes
+   */
+  private ByteBuffer allocate(int rowBytes) {
+    if (currentPage >= 0 && pagePosition + rowBytes <= pages.get(currentPage).capacity()) {
+      return pages.get(currentPage);
+    }
+
+    // reuse pages kept by clear()
+    while (currentPage + 1 < pages.size()) {
+      currentPage++;
+      pagePosition = 0;
+      if (rowBytes <= pages.get(currentPage).capacity()) {
+        return pages.get(currentPage);
+      }
+    }
+
+    pages.add(ByteBuffer.allocate(Math.max(pageSize, rowBytes)));
+    currentPage = pages.size() - 1;
+    pagePosition = 0;
+    return pages.get(currentPage);
+  }
+
+  private void ensureAddressCapacity(int capacity) {
+    if (capacity > addresses.length) {
+      addresses = Arrays.copyOf(addresses, Math.max(capacity, addresses.length * 2));
+    }
+  }
+
+  @Override
+  public Tuple get(int index) {
+    checkIndex(index);
+    long address = addresses[index];
+    return new BinaryTuple(this, pages.get((int) (address >>> 32)), (int) address, address);
+  }
+
+  /**
+   * If the tuple was returned from this list, only the row address is changed. Otherwise, the tuple is copied.
+   */
+  @Override
+  public Tuple set(int index, Tuple tuple) {
+    Tuple previous = get(index);
+    if (tuple instanceof BinaryTuple && ((BinaryTuple) tuple).getOwner() == this) {
+      addresses[index] = ((BinaryTuple) tuple).getAddress();
+    } else {
+      long rowBytes = write(tuple);
+      addresses[index] = ((long) currentPage << 32) | (pagePosition - rowBytes);
+      usedBytes += rowBytes;
+    }
+    return previous;
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= rowNum) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + rowNum);
+    }
+  }
+
+  @Override
+  public int size() {
+    return rowNum;
+  }
+
+  /**
+   * Removes all rows. Allocated pages are kept in order to be reused.
+   * Tuples returned from this list become invalid.
+   */
+  @Override
+  public void clear() {
+    rowNum = 0;
+    usedBytes = 0;
+    currentPage = pages.isEmpty() ? -1 : 0;
+    pagePosition = 0;
+    modCount++;
+  }
+
+  /**
+   * Removes all rows and releases all pages.
+   */
+  public void release() {
+    clear();
+    pages.clear();
+    currentPage = -1;
+    addresses = new long[1024];
+  }
+
+  /**
+   * @return the bytes of all rows and their addresses
+   */
+  public long getUsedBytes() {
+    return usedBytes;
+  }
+
+  /**
+   * @return the bytes of all allocated pages
+   */
+  public long getAllocatedBytes() {
+    long bytes = 0;
+    for (ByteBuffer page : pages) {
+      bytes += page.capacity();
+    }
+    return bytes + (long) addresses.length * ADDRESS_SIZE;
+  }
+}
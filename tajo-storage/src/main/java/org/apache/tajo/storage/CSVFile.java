@@ -34,6 +34,7 @@ import org.apache.tajo.catalog.TableMeta;
 import org.apache.tajo.catalog.proto.CatalogProtos;
 import org.apache.tajo.catalog.statistics.TableStats;
 import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.conf.TajoConf.ConfVars;
 import org.apache.tajo.datum.Datum;
 import org.apache.tajo.datum.NullDatum;
 import org.apache.tajo.exception.UnsupportedException;
@@ -41,11 +42,15 @@ import org.apache.tajo.storage.compress.CodecPool;
 import org.apache.tajo.storage.exception.AlreadyExistsStorageException;
 import org.apache.tajo.storage.fragment.FileFragment;
 import org.apache.tajo.storage.rcfile.NonSyncByteArrayOutputStream;
-import org.apache.tajo.util.Bytes;
 
 import java.io.*;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class CSVFile {
 
@@ -269,9 +274,15 @@ public class CSVFile {
       } else {
         nullChars = nullCharacters.getBytes();
       }
+
+      parserThreadNum = conf.getInt(ConfVars.CSVFILE_PARSER_THREAD_NUM.varname,
+          ConfVars.CSVFILE_PARSER_THREAD_NUM.defaultIntVal);
     }
 
     private final static int DEFAULT_PAGE_SIZE = 256 * 1024;
+    /** the minimum number of lines split by a parser thread */
+    private final static int MIN_PARSER_ROWS = 512;
+    private final static byte[] EMPTY_BYTES = new byte[0];
     private char delimiter;
     private FileSystem fs;
     private FSDataInputStream fis;
@@ -293,6 +304,12 @@ public class CSVFile {
     private NonSyncByteArrayOutputStream buffer = new NonSyncByteArrayOutputStream(DEFAULT_PAGE_SIZE);
     private SerializerDeserializer serde;
 
+    /** the number of threads which split the lines of a page into fields, including the scanning thread */
+    private int parserThreadNum;
+    private ExecutorService parserPool;
+    /** the offset and the length of each target field of each line in a page, which is reused for all pages */
+    private int[] fieldOffsets = new int[0];
+
     @Override
     public void init() throws IOException {
 
@@ -350,6 +367,9 @@ public class CSVFile {
 
       super.init();
       Arrays.sort(targetColumnIndexes);
+      if (parserThreadNum > 1 && parserPool == null) {
+        parserPool = Executors.newFixedThreadPool(parserThreadNum - 1);
+      }
       if (LOG.isDebugEnabled()) {
         LOG.debug("CSVScanner open:" + fragment.getPath() + "," + startOffset + "," + end +
             "," + fs.getFileStatus(fragment.getPath()).getLen());
@@ -417,12 +437,128 @@ public class CSVFile {
           break;
         }
       }
+      splitFields();
+
       if (tableStats != null) {
         tableStats.setReadBytes(pos - startOffset);
         tableStats.setNumRows(recordCount);
       }
     }
 
+    /**
+     * Finds the target fields of all lines in the page. If there are enough lines, the lines are divided into
+     * chunks, and they are split by the parser threads concurrently.
+     */
+    private void splitFields() throws IOException {
+      int fieldNum = validIdx * targetColumnIndexes.length * 2;
+      if (fieldOffsets.length < fieldNum) {
+        fieldOffsets = new int[fieldNum];
+      }
+
+      int chunkSize = Math.max(MIN_PARSER_ROWS, (validIdx + parserThreadNum - 1) / parserThreadNum);
+      if (parserPool == null || validIdx <= chunkSize) {
+        splitFields(0, validIdx);
+        return;
+      }
+
+      List<Future<?>> futures = new ArrayList<Future<?>>();
+      for (int from = chunkSize; from < validIdx; from += chunkSize) {
+        final int chunkStart = from;
+        final int chunkEnd = Math.min(from + chunkSize, validIdx);
+        futures.add(parserPool.submit(new Runnable() {
+          @Override
+          public void run() {
+            splitFields(chunkStart, chunkEnd);
+          }
+        }));
+      }
+      splitFields(0, chunkSize);
+
+      try {
+        for (Future<?> future : futures) {
+          future.get();
+        }
+      } catch (InterruptedException e) {
+        throw new IOException(e);
+      } catch (ExecutionException e) {
+        throw new IOException(e.getCause());
+      }
+    }
+
+    /**
+     * Records the offset and the length of each target field of the given lines into fieldOffsets. A line is
+     * scanned only until its last target field. The offset of a field which the line does not have is -1.
+     */
+    private void splitFields(int startRow, int endRow) {
+      byte[] data = buffer.getData();
+      int targetNum = targetColumnIndexes.length;
+      for (int row = startRow; row < endRow; row++) {
+        int base = row * targetNum * 2;
+        int lineStart = startOffsets.get(row);
+        int lineEnd = lineStart + rowLengthList.get(row);
+        int fieldIdx = 0;
+        int fieldStart = lineStart;
+        int target = 0;
+        for (int i = lineStart; i <= lineEnd && target < targetNum; i++) {
+          if (i == lineEnd || data[i] == delimiter) {
+            if (fieldIdx == targetColumnIndexes[target]) {
+              fieldOffsets[base + target * 2] = fieldStart;
+              fieldOffsets[base + target * 2 + 1] = i - fieldStart;
+              target++;
+            }
+            fieldIdx++;
+            fieldStart = i + 1;
+          }
+        }
+        for (; target < targetNum; target++) {
+          fieldOffsets[base + target * 2] = -1;
+        }
+      }
+    }
+
+    /**
+     * Creates a tuple of a line in the page. Target fields are decoded only when they are accessed. The bytes
+     * from the first to the last target field are copied, because the page buffer is reused.
+     */
+    private Tuple toTuple(int row, long offset) {
+      byte[] data = buffer.getData();
+      int targetNum = targetColumnIndexes.length;
+      int base = row * targetNum * 2;
+      int spanStart = Integer.MAX_VALUE;
+      int spanEnd = 0;
+      for (int target = 0; target < targetNum; target++) {
+        int fieldStart = fieldOffsets[base + target * 2];
+        if (fieldStart >= 0) {
+          spanStart = Math.min(spanStart, fieldStart);
+          spanEnd = Math.max(spanEnd, fieldStart + fieldOffsets[base + target * 2 + 1]);
+        }
+      }
+      byte[] span = spanStart < spanEnd ? Arrays.copyOfRange(data, spanStart, spanEnd) : EMPTY_BYTES;
+
+      byte[][] textBytes = new byte[columnNum][];
+      int[] textOffsets = new int[columnNum];
+      int[] textLengths = new int[columnNum];
+      for (int target = 0; target < targetNum; target++) {
+        int columnId = targetColumnIndexes[target];
+        if (columnId < 0) {
+          continue;
+        }
+        int fieldStart = fieldOffsets[base + target * 2];
+        textBytes[columnId] = span;
+        if (fieldStart < 0) {
+          textOffsets[columnId] = -1;
+        } else if (span.length == 0) {
+          // all target fields are empty.
+          textOffsets[columnId] = 0;
+          textLengths[columnId] = 0;
+        } else {
+          textOffsets[columnId] = fieldStart - spanStart;
+          textLengths[columnId] = fieldOffsets[base + target * 2 + 1];
+        }
+      }
+      return new LazyTuple(schema, textBytes, textOffsets, textLengths, offset, nullChars, serde);
+    }
+
     @Override
     public float getProgress() {
       try {
@@ -463,10 +599,9 @@ public class CSVFile {
           offset = fileOffsets.get(currentIdx);
         }
 
-        byte[][] cells = Bytes.splitPreserveAllTokens(buffer.getData(), startOffsets.get(currentIdx),
-            rowLengthList.get(currentIdx),  delimiter, targetColumnIndexes);
+        Tuple tuple = toTuple(currentIdx, offset);
         currentIdx++;
-        return new LazyTuple(schema, cells, offset, nullChars, serde);
+        return tuple;
       } catch (Throwable t) {
         LOG.error("Tuple list length: " + (fileOffsets != null ? fileOffsets.size() : 0), t);
         LOG.error("Tuple list current index: " + currentIdx, t);
@@ -508,6 +643,10 @@ public class CSVFile {
           CodecPool.returnDecompressor(decompressor);
           decompressor = null;
         }
+        if (parserPool != null) {
+          parserPool.shutdown();
+          parserPool = null;
+        }
       }
     }
 
@@ -0,0 +1,127 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.datum.Datum;
+
+/**
+ * A comparison between a column and a constant, e.g., <code>col &lt; 10</code>. A scanner which is selectable
+ * receives a search condition as an array of them, which are implicitly combined with AND.
+ *
+ * <p>A scanner may use them to skip rows or blocks which never satisfy the condition, but the whole search
+ * condition is still evaluated on the scanned rows. A comparison with null is never satisfied.</p>
+ */
+public class ColumnPredicate {
+  public static enum Op {
+    EQUAL("="),
+    NOT_EQUAL("<>"),
+    LTH("<"),
+    LEQ("<="),
+    GTH(">"),
+    GEQ(">=");
+
+    private final String operator;
+
+    Op(String operator) {
+      this.operator = operator;
+    }
+
+    public String getOperator() {
+      return operator;
+    }
+  }
+
+  private final Column column;
+  private final Op op;
+  private final Datum value;
+
+  public ColumnPredicate(Column column, Op op, Datum value) {
+    this.column = column;
+    this.op = op;
+    this.value = value;
+  }
+
+  public Column getColumn() {
+    return column;
+  }
+
+  public Op getOp() {
+    return op;
+  }
+
+  public Datum getValue() {
+    return value;
+  }
+
+  /**
+   * @return True if the given value of the column satisfies this predicate
+   */
+  public boolean isTrue(Datum datum) {
+    if (datum == null || datum.isNull()) {
+      return false;
+    }
+    int cmp = datum.compareTo(value);
+    switch (op) {
+      case EQUAL:
+        return cmp == 0;
+      case NOT_EQUAL:
+        return cmp != 0;
+      case LTH:
+        return cmp < 0;
+      case LEQ:
+        return cmp <= 0;
+      case GTH:
+        return cmp > 0;
+      case GEQ:
+        return cmp >= 0;
+      default:
+        return true;
+    }
+  }
+
+  /**
+   * @param min the minimum non-null value of the column in a block
+   * @param max the maximum non-null value of the column in a block
+   * @return False if no value in the block satisfies this predicate
+   */
+  public boolean mightMatch(Datum min, Datum max) {
+    switch (op) {
+      case EQUAL:
+        return min.compareTo(value) <= 0 && max.compareTo(value) >= 0;
+      case NOT_EQUAL:
+        return min.compareTo(value) != 0 || max.compareTo(value) != 0;
+      case LTH:
+        return min.compareTo(value) < 0;
+      case LEQ:
+        return min.compareTo(value) <= 0;
+      case GTH:
+        return max.compareTo(value) > 0;
+      case GEQ:
+        return max.compareTo(value) >= 0;
+      default:
+        return true;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return column.getQualifiedName() + " " + op.getOperator() + " " + value;
+  }
+}
@@ -35,6 +35,20 @@ public class DataLocation {
     return volumeId;
   }
 
+  @Override
+  public boolean equals(Object o) {
+    if (o instanceof DataLocation) {
+      DataLocation other = (DataLocation) o;
+      return volumeId == other.volumeId && (host == null ? other.host == null : host.equals(other.host));
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * (host == null ? 0 : host.hashCode()) + volumeId;
+  }
+
   @Override
   public String toString() {
     return "DataLocation{" +
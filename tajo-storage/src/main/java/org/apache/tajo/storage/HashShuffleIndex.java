@@ -0,0 +1,122 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import org.apache.tajo.util.TUtil;
+
+import java.io.*;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * HashShuffleIndex describes a consolidated hash shuffle output. All partitions of a task are stored in a single
+ * data file, and each partition consists of one or more segments of the data file. This index keeps the offset
+ * and the length of every segment by partition id, so a pull server can serve a partition as byte ranges.
+ *
+ * The index file is a sequence of (partition id: int, offset: long, length: long) entries, which are preceded
+ * by the number of entries.
+ */
+public class HashShuffleIndex {
+  public static final String DATA_FILE_NAME = "hash.data";
+  public static final String INDEX_FILE_NAME = "hash.index";
+
+  private final Map<Integer, List<Segment>> segments = new TreeMap<Integer, List<Segment>>();
+  private int segmentNum = 0;
+
+  public void addSegment(int partId, long offset, long length) {
+    List<Segment> list = segments.get(partId);
+    if (list == null) {
+      list = TUtil.newList();
+      segments.put(partId, list);
+    }
+    list.add(new Segment(offset, length));
+    segmentNum++;
+  }
+
+  /**
+   * @return Segments of the partition in the order of offsets. It is empty if the partition has no data.
+   */
+  public List<Segment> getSegments(int partId) {
+    List<Segment> list = segments.get(partId);
+    return list == null ? Collections.<Segment>emptyList() : list;
+  }
+
+  public Iterable<Integer> getPartitionIds() {
+    return segments.keySet();
+  }
+
+  public int getSegmentNum() {
+    return segmentNum;
+  }
+
+  public void write(File file) throws IOException {
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+    try {
+      out.writeInt(segmentNum);
+      for (Map.Entry<Integer, List<Segment>> entry : segments.entrySet()) {
+        for (Segment segment : entry.getValue()) {
+          out.writeInt(entry.getKey());
+          out.writeLong(segment.offset);
+          out.writeLong(segment.length);
+        }
+      }
+    } finally {
+      out.close();
+    }
+  }
+
+  public static HashShuffleIndex read(File file) throws IOException {
+    HashShuffleIndex index = new HashShuffleIndex();
+    DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+    try {
+      int num = in.readInt();
+      for (int i = 0; i < num; i++) {
+        index.addSegment(in.readInt(), in.readLong(), in.readLong());
+      }
+    } finally {
+      in.close();
+    }
+    return index;
+  }
+
+  public static class Segment {
+    private final long offset;
+    private final long length;
+
+    public Segment(long offset, long length) {
+      this.offset = offset;
+      this.length = length;
+    }
+
+    public long getOffset() {
+      return offset;
+    }
+
+    public long getLength() {
+      return length;
+    }
+
+    @Override
+    public String toString() {
+      return "(offset=" + offset + ", length=" + length + ")";
+    }
+  }
+}
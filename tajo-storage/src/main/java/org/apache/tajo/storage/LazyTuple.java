@@ -28,6 +28,9 @@ public class LazyTuple implements Tuple, Cloneable {
   private long offset;
   private Datum[] values;
   private byte[][] textBytes;
+  /** the offsets of fields in textBytes, or null if each field is a whole byte array. -1 means a missing field. */
+  private int[] textOffsets;
+  private int[] textLengths;
   private Schema schema;
   private byte[] nullBytes;
   private SerializerDeserializer serializeDeserialize;
@@ -45,6 +48,19 @@ public class LazyTuple implements Tuple, Cloneable {
     this.serializeDeserialize = serde;
   }
 
+  /**
+   * Creates a tuple whose fields are parts of byte arrays. Fields of a row may share the same byte array.
+   *
+   * @param textOffsets the offset of each field in its byte array, or -1 if the row does not have the field
+   * @param textLengths the length of each field
+   */
+  public LazyTuple(Schema schema, byte[][] textBytes, int[] textOffsets, int[] textLengths, long offset,
+                   byte[] nullBytes, SerializerDeserializer serde) {
+    this(schema, textBytes, offset, nullBytes, serde);
+    this.textOffsets = textOffsets;
+    this.textLengths = textLengths;
+  }
+
   public LazyTuple(LazyTuple tuple) {
     this.values = tuple.getValues();
     this.offset = tuple.offset;
@@ -118,11 +134,17 @@ public class LazyTuple implements Tuple, Cloneable {
     else if (textBytes.length <= fieldId) {
       values[fieldId] = NullDatum.get();  // split error. (col : 3, separator: ',', row text: "a,")
     } else if (textBytes[fieldId] != null) {
-      try {
-        values[fieldId] = serializeDeserialize.deserialize(schema.getColumn(fieldId),
-            textBytes[fieldId], 0, textBytes[fieldId].length, nullBytes);
-      } catch (Exception e) {
+      int textOffset = textOffsets == null ? 0 : textOffsets[fieldId];
+      int textLength = textOffsets == null ? textBytes[fieldId].length : textLengths[fieldId];
+      if (textOffset < 0) {
         values[fieldId] = NullDatum.get();
+      } else {
+        try {
+          values[fieldId] = serializeDeserialize.deserialize(schema.getColumn(fieldId),
+              textBytes[fieldId], textOffset, textLength, nullBytes);
+        } catch (Exception e) {
+          values[fieldId] = NullDatum.get();
+        }
       }
       textBytes[fieldId] = null;
     } else {
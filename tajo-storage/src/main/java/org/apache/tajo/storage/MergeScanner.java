@@ -40,10 +40,13 @@ public class MergeScanner implements Scanner {
   private Iterator<FileFragment> iterator;
   private FileFragment currentFragment;
   private Scanner currentScanner;
+  /** the current scanner is initialized on the first read, so that the search condition is given to it. */
+  private boolean currentScannerInited = false;
   private Tuple tuple;
   private boolean projectable = false;
   private boolean selectable = false;
   private Schema target;
+  private Object searchCondition;
   private float progress;
   protected TableStats tableStats;
 
@@ -62,7 +65,8 @@ public class MergeScanner implements Scanner {
 
     // it should keep the input order. Otherwise, it causes wrong result of sort queries.
     this.fragments = ImmutableList.copyOf(rawFragmentList);
-    this.reset();
+    this.iterator = fragments.iterator();
+    this.currentScanner = getNextScanner();
 
     if (currentScanner != null) {
       this.projectable = currentScanner.isProjectable();
@@ -73,7 +77,7 @@ public class MergeScanner implements Scanner {
     long numBytes = 0;
 
     for (FileFragment eachFileFragment: rawFragmentList) {
-      numBytes += (eachFileFragment.getEndKey() - eachFileFragment.getStartKey());
+      numBytes += eachFileFragment.getEndKey();
     }
     tableStats.setNumBytes(numBytes);
     tableStats.setNumBlocks(rawFragmentList.size());
@@ -91,32 +95,43 @@ public class MergeScanner implements Scanner {
 
   @Override
   public Tuple next() throws IOException {
-    if (currentScanner != null)
+    // empty files are skipped until a file gives a tuple.
+    while (currentScanner != null) {
+      if (!currentScannerInited) {
+        if (searchCondition != null && currentScanner.isSelectable()) {
+          currentScanner.setSearchCondition(searchCondition);
+        }
+        currentScanner.init();
+        currentScannerInited = true;
+      }
+
       tuple = currentScanner.next();
+      if (tuple != null) {
+        return tuple;
+      }
 
-    if (tuple != null) {
-      return tuple;
-    } else {
-      if (currentScanner != null) {
-        currentScanner.close();
-        TableStats scannerTableStsts = currentScanner.getInputStats();
-        if (scannerTableStsts != null) {
-          tableStats.setReadBytes(tableStats.getReadBytes() + scannerTableStsts.getReadBytes());
-          tableStats.setNumRows(tableStats.getNumRows() + scannerTableStsts.getNumRows());
-        }
+      currentScanner.close();
+      TableStats scannerTableStsts = currentScanner.getInputStats();
+      if (scannerTableStsts != null) {
+        tableStats.setReadBytes(tableStats.getReadBytes() + scannerTableStsts.getReadBytes());
+        tableStats.setNumRows(tableStats.getNumRows() + scannerTableStsts.getNumRows());
       }
       currentScanner = getNextScanner();
-      if (currentScanner != null) {
-        tuple = currentScanner.next();
-      }
     }
-    return tuple;
+    tuple = null;
+    return null;
   }
 
   @Override
   public void reset() throws IOException {
+    if (currentScanner != null && currentScannerInited) {
+      currentScanner.close();
+    }
     this.iterator = fragments.iterator();
     this.currentScanner = getNextScanner();
+    tableStats.setReadBytes(0L);
+    tableStats.setNumRows(0L);
+    progress = 0.0f;
   }
 
   private Scanner getNextScanner() throws IOException {
@@ -124,7 +139,7 @@ public class MergeScanner implements Scanner {
       currentFragment = iterator.next();
       currentScanner = StorageManagerFactory.getStorageManager((TajoConf)conf).getScanner(meta, schema,
           currentFragment, target);
-      currentScanner.init();
+      currentScannerInited = false;
       return currentScanner;
     } else {
       return null;
@@ -133,7 +148,7 @@ public class MergeScanner implements Scanner {
 
   @Override
   public void close() throws IOException {
-    if(currentScanner != null) {
+    if(currentScanner != null && currentScannerInited) {
       currentScanner.close();
     }
     iterator = null;
@@ -155,8 +170,12 @@ public class MergeScanner implements Scanner {
     return selectable;
   }
 
+  /**
+   * The search condition is given to each scanner if the scanners are selectable.
+   */
   @Override
   public void setSearchCondition(Object expr) {
+    this.searchCondition = expr;
   }
 
   @Override
@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.storage;
+
+import com.google.common.primitives.UnsignedBytes;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A sort key encoded by {@link NormalizedKeyEncoder}. The byte-wise unsigned comparison of two encoded keys
+ * gives the same order as {@link TupleComparator} does for the original tuples.
+ *
+ * The first 8 bytes of the key are also kept as a long prefix, so most comparisons finish with a single long
+ * comparison. The tuple, from which the key is encoded, can be kept together so that a sorted array of keys
+ * gives sorted tuples.
+ */
+public class NormalizedKey implements Comparable<NormalizedKey> {
+  private static final Comparator<byte []> BYTES_COMPARATOR = UnsignedBytes.lexicographicalComparator();
+
+  private final long prefix;
+  private final byte [] bytes;
+  private final Tuple tuple;
+
+  public NormalizedKey(byte [] bytes, Tuple tuple) {
+    this.bytes = bytes;
+    this.prefix = computePrefix(bytes);
+    this.tuple = tuple;
+  }
+
+  /**
+   * The first 8 bytes are read in big endian, and its sign bit is flipped so that the signed long comparison
+   * gives the unsigned byte-wise order. If the key is shorter than 8 bytes, the remain bytes are filled with zero.
+   */
+  private static long computePrefix(byte [] bytes) {
+    long prefix = 0;
+    int len = Math.min(8, bytes.length);
+    for (int i = 0; i < len; i++) {
+      prefix |= (bytes[i] & 0xFFL) << (56 - (i * 8));
+    }
+    return prefix ^ Long.MIN_VALUE;
+  }
+
+  public byte [] getBytes() {
+    return bytes;
+  }
+
+  public Tuple getTuple() {
+    return tuple;
+  }
+
+  @Override
+  public int compareTo(NormalizedKey other) {
+    if (prefix != other.prefix) {
+      return prefix < other.prefix ? -1 : 1;
+    }
+    if (bytes.length <= 8 && other.bytes.length <= 8) {
+      return bytes.length - other.bytes.length;
+    }
+    return BYTES_COMPARATOR.compare(bytes, other.bytes);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj instanceof NormalizedKey) {
+      NormalizedKey other = (NormalizedKey) obj;
+      return prefix == other.prefix && Arrays.equals(bytes, other.bytes);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(bytes);
+  }
+}
@@ -0,0 +1,255 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.storage;
+
+import com.google.common.base.Preconditions;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.SortSpec;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.TimeDatum;
+
+/**
+ * It encodes sort keys of a tuple into a byte array whose unsigned byte-wise order is the same as the order
+ * of {@link TupleComparator}. Each sort key is encoded as follows:
+ *
+ * <ul>
+ *   <li>one byte null marker. A null value is encoded as only the marker, and it is placed before or after
+ *   all non-null values according to the null ordering. It is not affected by the sort direction.</li>
+ *   <li>INT2, INT4 and INT8 - 8 bytes big endian with the sign bit flipped</li>
+ *   <li>FLOAT4 and FLOAT8 - 8 bytes of IEEE 754 double bits, all bits flipped if negative,
+ *   otherwise only the sign bit flipped</li>
+ *   <li>DATE and TIME - 4 bytes big endian with the sign bit flipped</li>
+ *   <li>TIMESTAMP - 8 bytes big endian with the sign bit flipped</li>
+ *   <li>TEXT and CHAR - raw bytes where 0x00 is escaped to 0x00 0xFF, followed by the terminator 0x00 0x00</li>
+ * </ul>
+ *
+ * For descending keys, all bytes except for the null marker are inverted. This class does not have any mutable
+ * state, so it can be used by multiple threads at the same time.
+ */
+public class NormalizedKeyEncoder {
+  private static final byte NULL_FIRST = 0x00;
+  private static final byte NOT_NULL = 0x01;
+  private static final byte NULL_LAST = 0x02;
+
+  private final int [] sortKeyIds;
+  private final Type [] types;
+  private final boolean [] asc;
+  private final boolean [] nullFirsts;
+
+  /**
+   * @param schema The schema of input tuples
+   * @param sortKeys The description of sort keys. All of them must be supported.
+   */
+  public NormalizedKeyEncoder(Schema schema, SortSpec [] sortKeys) {
+    Preconditions.checkArgument(isSupported(schema, sortKeys), "Sort keys cannot be normalized.");
+
+    this.sortKeyIds = new int[sortKeys.length];
+    this.types = new Type[sortKeys.length];
+    this.asc = new boolean[sortKeys.length];
+    this.nullFirsts = new boolean[sortKeys.length];
+    for (int i = 0; i < sortKeys.length; i++) {
+      sortKeyIds[i] = schema.getColumnId(sortKeys[i].getSortKey().getQualifiedName());
+      types[i] = schema.getColumn(sortKeyIds[i]).getDataType().getType();
+      asc[i] = sortKeys[i].isAscending();
+      nullFirsts[i] = sortKeys[i].isNullFirst();
+    }
+  }
+
+  /**
+   * @return True if all sort keys have data types which can be normalized
+   */
+  public static boolean isSupported(Schema schema, SortSpec [] sortKeys) {
+    if (sortKeys.length == 0) {
+      return false;
+    }
+    for (SortSpec sortKey : sortKeys) {
+      int columnId = schema.getColumnId(sortKey.getSortKey().getQualifiedName());
+      if (columnId < 0 || !isSupported(schema.getColumn(columnId).getDataType().getType())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public static boolean isSupported(Type type) {
+    switch (type) {
+    case INT2:
+    case INT4:
+    case INT8:
+    case FLOAT4:
+    case FLOAT8:
+    case DATE:
+    case TIME:
+    case TIMESTAMP:
+    case TEXT:
+    case CHAR:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  /**
+   * @return True if keys encoded by this encoder can be compared to keys encoded by the other encoder.
+   */
+  public boolean isComparableTo(NormalizedKeyEncoder other) {
+    if (types.length != other.types.length) {
+      return false;
+    }
+    for (int i = 0; i < types.length; i++) {
+      if (getTypeFamily(types[i]) != getTypeFamily(other.types[i]) ||
+          asc[i] != other.asc[i] || nullFirsts[i] != other.nullFirsts[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static Type getTypeFamily(Type type) {
+    switch (type) {
+    case INT2:
+    case INT4:
+      return Type.INT8;
+    case FLOAT4:
+      return Type.FLOAT8;
+    case CHAR:
+      return Type.TEXT;
+    default:
+      return type;
+    }
+  }
+
+  public NormalizedKey encode(Tuple tuple) {
+    return new NormalizedKey(encodeToBytes(tuple), tuple);
+  }
+
+  /**
+   * Encode sort keys without keeping the tuple
+   */
+  public NormalizedKey encodeKeyOnly(Tuple tuple) {
+    return new NormalizedKey(encodeToBytes(tuple), null);
+  }
+
+  private byte [] encodeToBytes(Tuple tuple) {
+    Datum [] datums = new Datum[sortKeyIds.length];
+    int length = 0;
+    for (int i = 0; i < sortKeyIds.length; i++) {
+      datums[i] = tuple.get(sortKeyIds[i]);
+      length += getEncodedLength(types[i], datums[i]);
+    }
+
+    byte [] bytes = new byte[length];
+    int pos = 0;
+    for (int i = 0; i < sortKeyIds.length; i++) {
+      Datum datum = datums[i];
+      if (isNull(datum)) {
+        bytes[pos++] = nullFirsts[i] ? NULL_FIRST : NULL_LAST;
+        continue;
+      }
+
+      bytes[pos++] = NOT_NULL;
+      int start = pos;
+      switch (types[i]) {
+      case INT2:
+      case INT4:
+      case INT8:
+        pos = writeLong(bytes, pos, datum.asInt8() ^ Long.MIN_VALUE);
+        break;
+      case FLOAT4:
+      case FLOAT8:
+        pos = writeLong(bytes, pos, encodeDouble(datum.asFloat8()));
+        break;
+      case DATE:
+        pos = writeInt(bytes, pos, datum.asInt4() ^ Integer.MIN_VALUE);
+        break;
+      case TIME:
+        pos = writeInt(bytes, pos, ((TimeDatum) datum).getMillisOfDay() ^ Integer.MIN_VALUE);
+        break;
+      case TIMESTAMP:
+        pos = writeLong(bytes, pos, datum.asInt8() ^ Long.MIN_VALUE);
+        break;
+      default: // TEXT and CHAR
+        for (byte b : datum.asByteArray()) {
+          bytes[pos++] = b;
+          if (b == 0) {
+            bytes[pos++] = (byte) 0xFF;
+          }
+        }
+        bytes[pos++] = 0;
+        bytes[pos++] = 0;
+      }
+
+      if (!asc[i]) {
+        for (int j = start; j < pos; j++) {
+          bytes[j] = (byte) ~bytes[j];
+        }
+      }
+    }
+    return bytes;
+  }
+
+  private static boolean isNull(Datum datum) {
+    return datum == null || datum.isNull();
+  }
+
+  private static int getEncodedLength(Type type, Datum datum) {
+    if (isNull(datum)) {
+      return 1;
+    }
+
+    switch (type) {
+    case DATE:
+    case TIME:
+      return 1 + 4;
+    case TEXT:
+    case CHAR:
+      int length = 1 + 2;
+      for (byte b : datum.asByteArray()) {
+        length += b == 0 ? 2 : 1;
+      }
+      return length;
+    default:
+      return 1 + 8;
+    }
+  }
+
+  /**
+   * Both zeros are encoded into the same value as they are equal in comparison.
+   */
+  private static long encodeDouble(double val) {
+    long bits = Double.doubleToLongBits(val == 0.0d ? 0.0d : val);
+    return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+  }
+
+  private static int writeLong(byte [] bytes, int pos, long val) {
+    for (int shift = 56; shift >= 0; shift -= 8) {
+      bytes[pos++] = (byte) (val >>> shift);
+    }
+    return pos;
+  }
+
+  private static int writeInt(byte [] bytes, int pos, int val) {
+    for (int shift = 24; shift >= 0; shift -= 8) {
+      bytes[pos++] = (byte) (val >>> shift);
+    }
+    return pos;
+  }
+}
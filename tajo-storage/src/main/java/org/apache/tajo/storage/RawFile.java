@@ -19,10 +19,15 @@
 package org.apache.tajo.storage;
 
 import com.google.protobuf.Message;
+import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
+import org.apache.hadoop.io.compress.Compressor;
+import org.apache.hadoop.io.compress.Decompressor;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.TableMeta;
 import org.apache.tajo.catalog.statistics.TableStats;
@@ -30,18 +35,42 @@ import org.apache.tajo.common.TajoDataTypes.DataType;
 import org.apache.tajo.datum.DatumFactory;
 import org.apache.tajo.datum.NullDatum;
 import org.apache.tajo.datum.ProtobufDatumFactory;
+import org.apache.tajo.storage.compress.CodecPool;
 import org.apache.tajo.storage.fragment.FileFragment;
 import org.apache.tajo.util.BitArray;
 
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.Arrays;
 
+/**
+ * RawFile is a row-oriented file format for intermediate data, such as shuffle outputs and sort spill files.
+ *
+ * If a compression codec is given by the table option <code>compression.codec</code>, the file is written as
+ * a sequence of blocks, each of which is (raw length: int, compressed length: int, compressed bytes). A block
+ * always contains whole records, so compressed files can be concatenated like uncompressed ones. Seek is not
+ * supported for compressed files.
+ */
 public class RawFile {
   private static final Log LOG = LogFactory.getLog(RawFile.class);
+  private static final int BLOCK_HEADER_SIZE = 8;
+
+  private static CompressionCodec getCodec(Configuration conf, TableMeta meta) throws IOException {
+    String codecName = meta.getOption(StorageConstants.COMPRESSION_CODEC);
+    if (StringUtils.isEmpty(codecName)) {
+      return null;
+    }
+    CompressionCodec codec = new CompressionCodecFactory(conf).getCodecByClassName(codecName);
+    if (codec == null) {
+      throw new IOException("Unknown compression codec: " + codecName);
+    }
+    return codec;
+  }
 
   public static class RawFileScanner extends FileScanner implements SeekableScanner {
     private FileChannel channel;
@@ -59,6 +88,12 @@ public class RawFile {
     private FileInputStream fis;
     private long recordCount;
 
+    // for block compression
+    private Decompressor decompressor;
+    private ByteBuffer blockHeader;
+    private byte [] compressedBlock;
+    private byte [] rawBlock;
+
     public RawFileScanner(Configuration conf, Schema schema, TableMeta meta, Path path) throws IOException {
       super(conf, schema, meta, null);
       this.path = path;
@@ -95,6 +130,17 @@ public class RawFile {
 
       buffer = ByteBuffer.allocateDirect(128 * 1024);
 
+      CompressionCodec codec = getCodec(conf, meta);
+      if (codec != null) {
+        decompressor = CodecPool.getDecompressor(codec);
+        if (decompressor == null) {
+          throw new IOException(codec.getClass().getName() + " does not support block decompression");
+        }
+        blockHeader = ByteBuffer.allocate(BLOCK_HEADER_SIZE);
+        compressedBlock = new byte[64 * 1024];
+        rawBlock = new byte[64 * 1024];
+      }
+
       columnTypes = new DataType[schema.size()];
       for (int i = 0; i < schema.size(); i++) {
         columnTypes[i] = schema.getColumn(i).getDataType();
@@ -103,7 +149,7 @@ public class RawFile {
       tuple = new VTuple(columnTypes.length);
 
       // initial read
-      channel.read(buffer);
+      readToBuffer();
       buffer.flip();
 
       nullFlags = new BitArray(schema.size());
@@ -114,11 +160,17 @@ public class RawFile {
 
     @Override
     public long getNextOffset() throws IOException {
+      if (decompressor != null) {
+        throw new IOException("Compressed RawFile does not support offsets: " + path);
+      }
       return channel.position() - buffer.remaining();
     }
 
     @Override
     public void seek(long offset) throws IOException {
+      if (decompressor != null) {
+        throw new IOException("Compressed RawFile does not support seek: " + path);
+      }
       long currentPos = channel.position();
       if(currentPos < offset &&  offset < currentPos + buffer.limit()){
         buffer.position((int)(offset - currentPos));
@@ -131,9 +183,65 @@ public class RawFile {
       }
     }
 
+    /**
+     * Reads bytes into the buffer. If the file is compressed, it decompresses the next block into the buffer.
+     *
+     * @return The number of bytes added to the buffer, or -1 if the channel has reached end-of-stream
+     */
+    private int readToBuffer() throws IOException {
+      if (decompressor == null) {
+        return channel.read(buffer);
+      }
+
+      blockHeader.clear();
+      while (blockHeader.hasRemaining()) {
+        if (channel.read(blockHeader) == -1) {
+          if (blockHeader.position() == 0) {
+            return -1;
+          }
+          throw new EOFException("Unexpected end of a block header in " + path);
+        }
+      }
+      blockHeader.flip();
+      int rawLen = blockHeader.getInt();
+      int compressedLen = blockHeader.getInt();
+      if (rawLen > buffer.remaining()) {
+        throw new IOException("Block size (" + rawLen + ") exceeds the buffer in " + path);
+      }
+
+      if (compressedBlock.length < compressedLen) {
+        compressedBlock = new byte[compressedLen];
+      }
+      ByteBuffer compressed = ByteBuffer.wrap(compressedBlock, 0, compressedLen);
+      while (compressed.hasRemaining()) {
+        if (channel.read(compressed) == -1) {
+          throw new EOFException("Unexpected end of a block in " + path);
+        }
+      }
+
+      if (rawBlock.length < rawLen) {
+        rawBlock = new byte[rawLen];
+      }
+      decompressor.reset();
+      decompressor.setInput(compressedBlock, 0, compressedLen);
+      int decompressed = 0;
+      while (decompressed < rawLen) {
+        int n = decompressor.decompress(rawBlock, decompressed, rawLen - decompressed);
+        if (n == 0 && (decompressor.finished() || decompressor.needsInput())) {
+          break;
+        }
+        decompressed += n;
+      }
+      if (decompressed != rawLen) {
+        throw new IOException("Corrupted block (" + decompressed + " of " + rawLen + " bytes) in " + path);
+      }
+      buffer.put(rawBlock, 0, rawLen);
+      return rawLen;
+    }
+
     private boolean fillBuffer() throws IOException {
       buffer.compact();
-      if (channel.read(buffer) == -1) {
+      if (readToBuffer() == -1) {
         eof = true;
         return false;
       } else {
@@ -368,7 +476,7 @@ public class RawFile {
       buffer.clear();
       // reload initial buffer
       channel.position(0);
-      channel.read(buffer);
+      readToBuffer();
       buffer.flip();
       eof = false;
     }
@@ -382,6 +490,10 @@ public class RawFile {
       buffer.clear();
       channel.close();
       fis.close();
+      if (decompressor != null) {
+        CodecPool.returnDecompressor(decompressor);
+        decompressor = null;
+      }
     }
 
     @Override
@@ -439,6 +551,13 @@ public class RawFile {
 
     private TableStatistics stats;
 
+    // for block compression
+    private CompressionCodec codec;
+    private Compressor compressor;
+    private byte [] rawBlock;
+    private byte [] compressedBlock;
+    private long compressedBytes;
+
     public RawFileAppender(Configuration conf, Schema schema, TableMeta meta, Path path) throws IOException {
       super(conf, schema, meta, path);
     }
@@ -466,6 +585,17 @@ public class RawFile {
 
       buffer = ByteBuffer.allocateDirect(64 * 1024);
 
+      codec = getCodec(conf, meta);
+      if (codec != null) {
+        compressor = CodecPool.getCompressor(codec);
+        if (compressor == null) {
+          throw new IOException(codec.getClass().getName() + " does not support block compression");
+        }
+        rawBlock = new byte[buffer.capacity()];
+        compressedBlock = new byte[BLOCK_HEADER_SIZE + buffer.capacity() + (buffer.capacity() >> 3)];
+        compressedBytes = 0;
+      }
+
       // comput the number of bytes, representing the null flags
 
       nullFlags = new BitArray(schema.size());
@@ -478,15 +608,66 @@ public class RawFile {
       super.init();
     }
 
+    /**
+     * If the file is compressed, it returns the number of bytes written to the file so far. Tuples added after
+     * the last {@link #flush()} are not written yet, so the offset is the start of a block only after a flush.
+     */
     @Override
     public long getOffset() throws IOException {
+      return compressor == null ? pos : compressedBytes;
+    }
+
+    public boolean isCompressed() {
+      return compressor != null;
+    }
+
+    /**
+     * @return The number of bytes of the records before compression
+     */
+    public long getUncompressedBytes() {
       return pos;
     }
 
+    /**
+     * Writes the remaining bytes of the given buffer. If the file is compressed, they are written as one block.
+     */
+    private void write(ByteBuffer src) throws IOException {
+      if (compressor == null) {
+        channel.write(src);
+        return;
+      }
+
+      int rawLen = src.remaining();
+      if (rawLen == 0) {
+        return;
+      }
+      src.get(rawBlock, 0, rawLen);
+      compressor.reset();
+      compressor.setInput(rawBlock, 0, rawLen);
+      compressor.finish();
+      int compressedLen = 0;
+      while (!compressor.finished()) {
+        if (BLOCK_HEADER_SIZE + compressedLen == compressedBlock.length) {
+          compressedBlock = Arrays.copyOf(compressedBlock, compressedBlock.length * 2);
+        }
+        compressedLen += compressor.compress(compressedBlock, BLOCK_HEADER_SIZE + compressedLen,
+            compressedBlock.length - BLOCK_HEADER_SIZE - compressedLen);
+      }
+
+      ByteBuffer block = ByteBuffer.wrap(compressedBlock, 0, BLOCK_HEADER_SIZE + compressedLen);
+      block.putInt(rawLen);
+      block.putInt(compressedLen);
+      block.position(0);
+      while (block.hasRemaining()) {
+        channel.write(block);
+      }
+      compressedBytes += BLOCK_HEADER_SIZE + compressedLen;
+    }
+
     private void flushBuffer() throws IOException {
       buffer.limit(buffer.position());
       buffer.flip();
-      channel.write(buffer);
+      write(buffer);
       buffer.clear();
     }
 
@@ -500,7 +681,7 @@ public class RawFile {
         int limit = buffer.position();
         buffer.limit(recordOffset);
         buffer.flip();
-        channel.write(buffer);
+        write(buffer);
         buffer.position(recordOffset);
         buffer.limit(limit);
         buffer.compact();
@@ -721,6 +902,10 @@ public class RawFile {
       }
       channel.close();
       randomAccessFile.close();
+      if (compressor != null) {
+        CodecPool.returnCompressor(compressor);
+        compressor = null;
+      }
     }
 
     @Override
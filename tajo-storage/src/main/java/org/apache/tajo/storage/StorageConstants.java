@@ -51,6 +51,9 @@ public class StorageConstants {
   public static final String AVRO_SCHEMA_LITERAL = "avro.schema.literal";
   public static final String AVRO_SCHEMA_URL = "avro.schema.url";
 
+  public static final String COLUMNFILE_BLOCK_ROWS = "columnfile.block.rows";
+  public static final String COLUMNFILE_DEFAULT_BLOCK_ROWS = "65536";
+
   static {
     PARQUET_DEFAULT_BLOCK_SIZE =
         Integer.toString(ParquetWriter.DEFAULT_BLOCK_SIZE);
@@ -129,7 +129,7 @@ public class TextSerializerDeserializer implements SerializerDeserializer {
         break;
       case INT8:
         datum = isNull(bytes, offset, length, nullCharacters) ? NullDatum.get()
-            : DatumFactory.createInt8(new String(bytes, offset, length));
+            : DatumFactory.createInt8(Bytes.parseLong(bytes, offset, length));
         break;
       case FLOAT4:
         datum = isNull(bytes, offset, length, nullCharacters) ? NullDatum.get()
@@ -39,12 +39,7 @@ import static org.apache.tajo.index.IndexProtos.TupleComparatorProto;
 public class TupleComparator implements Comparator<Tuple>, ProtoObject<TupleComparatorProto> {
   private final int[] sortKeyIds;
   private final boolean[] asc;
-  @SuppressWarnings("unused")
-  private final boolean[] nullFirsts;  
-
-  private Datum left;
-  private Datum right;
-  private int compVal;
+  private final boolean[] nullFirsts;
 
   /**
    * @param schema The schema of input tuples
@@ -82,42 +77,71 @@ public class TupleComparator implements Comparator<Tuple>, ProtoObject<TupleComp
     return this.asc[0];
   }
 
+  /**
+   * It does not have any mutable state, so it can be used by multiple threads at the same time.
+   */
   @Override
   public int compare(Tuple tuple1, Tuple tuple2) {
+    if (tuple1 instanceof BinaryTuple && tuple2 instanceof BinaryTuple) {
+      return compareBinary((BinaryTuple) tuple1, (BinaryTuple) tuple2);
+    }
+
+    int compVal;
     for (int i = 0; i < sortKeyIds.length; i++) {
-      left = tuple1.get(sortKeyIds[i]);
-      right = tuple2.get(sortKeyIds[i]);
-
-      if (left instanceof NullDatum || right instanceof NullDatum) {
-        if (!left.equals(right)) {
-          if (left instanceof NullDatum) {
-            compVal = 1;
-          } else if (right instanceof NullDatum) {
-            compVal = -1;
-          }
-          if (nullFirsts[i]) {
-            if (compVal != 0) {
-              compVal *= -1;
-            }
-          }
-        } else {
-          compVal = 0;
-        }
+      compVal = compareDatums(i, tuple1.get(sortKeyIds[i]), tuple2.get(sortKeyIds[i]));
+      if (compVal != 0) {
+        return compVal;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Rows in pages are compared without decoding values into datums if possible.
+   */
+  private int compareBinary(BinaryTuple tuple1, BinaryTuple tuple2) {
+    int compVal;
+    for (int i = 0; i < sortKeyIds.length; i++) {
+      int keyId = sortKeyIds[i];
+      boolean leftNull = tuple1.isNull(keyId);
+      boolean rightNull = tuple2.isNull(keyId);
+      if (leftNull || rightNull) {
+        compVal = compareNulls(i, leftNull, rightNull);
+      } else if (BinaryTuple.isComparableInPage(tuple1, tuple2, keyId)) {
+        compVal = asc[i] ?
+            BinaryTuple.compareField(tuple1, tuple2, keyId) : BinaryTuple.compareField(tuple2, tuple1, keyId);
       } else {
-        if (asc[i]) {
-          compVal = left.compareTo(right);
-        } else {
-          compVal = right.compareTo(left);
-        }
+        compVal = compareDatums(i, tuple1.get(keyId), tuple2.get(keyId));
       }
 
-      if (compVal < 0 || compVal > 0) {
+      if (compVal != 0) {
         return compVal;
       }
     }
     return 0;
   }
 
+  private int compareDatums(int keyIdx, Datum left, Datum right) {
+    if (left instanceof NullDatum || right instanceof NullDatum) {
+      return compareNulls(keyIdx, left instanceof NullDatum, right instanceof NullDatum);
+    } else if (asc[keyIdx]) {
+      return left.compareTo(right);
+    } else {
+      return right.compareTo(left);
+    }
+  }
+
+  /**
+   * Nulls come last unless nulls first is specified.
+   */
+  private int compareNulls(int keyIdx, boolean leftNull, boolean rightNull) {
+    if (leftNull == rightNull) {
+      return 0;
+    }
+    int compVal = leftNull ? 1 : -1;
+    return nullFirsts[keyIdx] ? -compVal : compVal;
+  }
+
   @Override
   public int hashCode() {
     return Objects.hashCode(sortKeyIds);
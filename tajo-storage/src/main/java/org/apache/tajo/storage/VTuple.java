@@ -35,7 +35,7 @@ public class VTuple implements Tuple, Cloneable {
 
   public VTuple(Tuple tuple) {
     this.values = tuple.getValues().clone();
-    this.offset = ((VTuple)tuple).offset;
+    this.offset = tuple.getOffset();
   }
 
   public VTuple(Datum [] datum) {
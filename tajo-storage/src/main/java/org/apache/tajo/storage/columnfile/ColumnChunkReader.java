@@ -0,0 +1,206 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage.columnfile;
+
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.WritableUtils;
+import org.apache.tajo.common.TajoDataTypes.DataType;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+
+import java.io.IOException;
+
+import static org.apache.tajo.storage.columnfile.ColumnFileProtos.ColumnChunkProto;
+
+/**
+ * Decodes a whole column chunk written by {@link ColumnChunkWriter} into primitive arrays at once, so that
+ * the values of a block are decoded in a tight loop instead of one by one. The arrays are reused for the
+ * chunks of the next blocks.
+ */
+class ColumnChunkReader {
+  private final DataType dataType;
+  private final Type type;
+  private final boolean longType;
+  private final DataInputBuffer in = new DataInputBuffer();
+
+  private boolean [] nulls = new boolean[0];
+  /** decoded values of a long type, indexed by row */
+  private long [] longs = new long[0];
+  /** decoded values of the other types, indexed by row */
+  private byte [][] bytes = new byte[0][];
+  private long [] buffer = new long[0];
+  private int rowNum;
+
+  ColumnChunkReader(DataType dataType) {
+    this.dataType = dataType;
+    this.type = dataType.getType();
+    this.longType = ColumnFileUtil.isLongType(type);
+  }
+
+  /**
+   * Decodes a column chunk.
+   *
+   * @param data the bytes of the chunk
+   * @param rowNum the number of rows of the block
+   */
+  void decode(ColumnChunkProto chunk, byte [] data, int rowNum) throws IOException {
+    this.rowNum = rowNum;
+    if (nulls.length < rowNum) {
+      nulls = new boolean[rowNum];
+      if (longType) {
+        longs = new long[rowNum];
+      } else {
+        bytes = new byte[rowNum][];
+      }
+      buffer = new long[rowNum];
+    }
+
+    int valueNum = rowNum - chunk.getNullCount();
+    int pos = 0;
+    if (chunk.getNullCount() > 0) {
+      ColumnFileUtil.unpack(data, 0, rowNum, 1, buffer);
+      for (int i = 0; i < rowNum; i++) {
+        nulls[i] = buffer[i] != 0;
+      }
+      pos = ColumnFileUtil.packedLength(rowNum, 1);
+    } else {
+      for (int i = 0; i < rowNum; i++) {
+        nulls[i] = false;
+      }
+    }
+
+    if (valueNum == 0) {
+      return;
+    }
+    in.reset(data, pos, data.length - pos);
+    if (longType) {
+      decodeLongs(chunk, data, valueNum);
+    } else {
+      decodeBytes(chunk, data, valueNum);
+    }
+  }
+
+  private void decodeLongs(ColumnChunkProto chunk, byte [] data, int valueNum) throws IOException {
+    switch (chunk.getEncoding()) {
+      case BIT_PACKED: {
+        long min = in.readLong();
+        int bitWidth = in.readByte();
+        ColumnFileUtil.unpack(data, in.getPosition(), valueNum, bitWidth, buffer);
+        for (int i = 0; i < valueNum; i++) {
+          buffer[i] += min;
+        }
+        break;
+      }
+      case RLE: {
+        int runNum = WritableUtils.readVInt(in);
+        for (int run = 0, i = 0; run < runNum; run++) {
+          long value = WritableUtils.readVLong(in);
+          int runLength = WritableUtils.readVInt(in);
+          for (int end = i + runLength; i < end; i++) {
+            buffer[i] = value;
+          }
+        }
+        break;
+      }
+      case DICTIONARY: {
+        long [] dictionary = new long[WritableUtils.readVInt(in)];
+        for (int i = 0; i < dictionary.length; i++) {
+          dictionary[i] = WritableUtils.readVLong(in);
+        }
+        int codeWidth = in.readByte();
+        ColumnFileUtil.unpack(data, in.getPosition(), valueNum, codeWidth, buffer);
+        for (int i = 0; i < valueNum; i++) {
+          buffer[i] = dictionary[(int) buffer[i]];
+        }
+        break;
+      }
+      default:
+        throw new IOException("Unknown encoding of " + type + " column: " + chunk.getEncoding());
+    }
+
+    // spreads the non-null values over rows
+    for (int row = 0, i = 0; row < rowNum; row++) {
+      if (!nulls[row]) {
+        longs[row] = buffer[i++];
+      }
+    }
+  }
+
+  private void decodeBytes(ColumnChunkProto chunk, byte [] data, int valueNum) throws IOException {
+    switch (chunk.getEncoding()) {
+      case PLAIN: {
+        for (int row = 0; row < rowNum; row++) {
+          bytes[row] = nulls[row] ? null : readBytes();
+        }
+        break;
+      }
+      case DICTIONARY: {
+        byte [][] dictionary = new byte[WritableUtils.readVInt(in)][];
+        for (int i = 0; i < dictionary.length; i++) {
+          dictionary[i] = readBytes();
+        }
+        int codeWidth = in.readByte();
+        ColumnFileUtil.unpack(data, in.getPosition(), valueNum, codeWidth, buffer);
+        // values share the byte arrays of the dictionary, because datums never modify them.
+        for (int row = 0, i = 0; row < rowNum; row++) {
+          bytes[row] = nulls[row] ? null : dictionary[(int) buffer[i++]];
+        }
+        break;
+      }
+      default:
+        throw new IOException("Unknown encoding of " + type + " column: " + chunk.getEncoding());
+    }
+  }
+
+  private byte [] readBytes() throws IOException {
+    byte [] value = new byte[WritableUtils.readVInt(in)];
+    in.readFully(value);
+    return value;
+  }
+
+  boolean isNull(int row) {
+    return nulls[row];
+  }
+
+  /**
+   * @return the decoded values of a long type
+   */
+  long [] getLongs() {
+    return longs;
+  }
+
+  /**
+   * @return the decoded values of a type which is not a long type
+   */
+  byte [][] getBytes() {
+    return bytes;
+  }
+
+  Datum get(int row) {
+    if (nulls[row] || type == Type.NULL_TYPE) {
+      return NullDatum.get();
+    } else if (longType) {
+      return ColumnFileUtil.toDatum(type, longs[row]);
+    } else {
+      return DatumFactory.createFromBytes(dataType, bytes[row]);
+    }
+  }
+}
@@ -0,0 +1,314 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage.columnfile;
+
+import com.google.protobuf.ByteString;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.WritableUtils;
+import org.apache.tajo.common.TajoDataTypes.DataType;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.apache.tajo.storage.columnfile.ColumnFileProtos.ColumnChunkProto;
+import static org.apache.tajo.storage.columnfile.ColumnFileProtos.ColumnEncoding;
+
+/**
+ * Buffers the values of a column in a block, and encodes them into a column chunk.
+ *
+ * <p>A column chunk consists of a null bitmap, which exists only if the chunk has nulls, and the non-null values.
+ * Long values are encoded in the smallest one of the following encodings:
+ * <ul>
+ *   <li>BIT_PACKED: the minimum value and the differences from it in the fewest bits</li>
+ *   <li>RLE: pairs of a value and its run length</li>
+ *   <li>DICTIONARY: distinct values and their codes in the fewest bits</li>
+ * </ul>
+ * Byte array values are encoded in either PLAIN or DICTIONARY.</p>
+ */
+class ColumnChunkWriter {
+  /** If a chunk has more distinct values than it, the dictionary encoding is not used. */
+  static final int MAX_DICTIONARY_SIZE = 1 << 16;
+
+  private final DataType dataType;
+  private final Type type;
+  private final boolean longType;
+  private final boolean zoneMap;
+
+  private boolean [] nulls;
+  private long [] longs;
+  private byte [][] bytes;
+  private int rowNum = 0;
+  private int valueNum = 0;
+
+  // zone map
+  private Datum min;
+  private Datum max;
+  /** False if the zone map cannot be trusted, e.g., the chunk has NaN */
+  private boolean validZoneMap = true;
+
+  ColumnChunkWriter(DataType dataType, int capacity) {
+    this.dataType = dataType;
+    this.type = dataType.getType();
+    this.longType = ColumnFileUtil.isLongType(type);
+    this.zoneMap = ColumnFileUtil.hasZoneMap(type);
+    this.nulls = new boolean[capacity];
+    if (longType) {
+      longs = new long[capacity];
+    } else {
+      bytes = new byte[capacity][];
+    }
+  }
+
+  void add(Datum datum) {
+    if (datum == null || datum.isNull() || type == Type.NULL_TYPE) {
+      nulls[rowNum++] = true;
+      return;
+    }
+
+    nulls[rowNum++] = false;
+    byte [] copied = null;
+    if (longType) {
+      longs[valueNum++] = ColumnFileUtil.toLong(type, datum);
+    } else {
+      // the given byte array may be reused by the caller.
+      byte [] value = datum.asByteArray();
+      copied = Arrays.copyOf(value, value.length);
+      bytes[valueNum++] = copied;
+    }
+
+    if (zoneMap && validZoneMap) {
+      if ((type == Type.FLOAT4 || type == Type.FLOAT8) && Double.isNaN(datum.asFloat8())) {
+        validZoneMap = false;
+      } else {
+        if (min == null || datum.compareTo(min) < 0) {
+          min = copied == null ? datum : DatumFactory.createFromBytes(dataType, copied);
+        }
+        if (max == null || datum.compareTo(max) > 0) {
+          max = copied == null ? datum : DatumFactory.createFromBytes(dataType, copied);
+        }
+      }
+    }
+  }
+
+  int getRowNum() {
+    return rowNum;
+  }
+
+  /**
+   * Writes the buffered values as a column chunk, and clears the buffer.
+   *
+   * @param offset the offset of the chunk in the file
+   * @return the metadata of the written chunk
+   */
+  ColumnChunkProto write(long offset, DataOutputBuffer out) throws IOException {
+    int start = out.getLength();
+    int nullCount = rowNum - valueNum;
+    if (nullCount > 0) {
+      long [] bits = new long[rowNum];
+      for (int i = 0; i < rowNum; i++) {
+        bits[i] = nulls[i] ? 1 : 0;
+      }
+      ColumnFileUtil.pack(bits, rowNum, 1, out);
+    }
+
+    ColumnEncoding encoding;
+    if (longType) {
+      encoding = writeLongs(out);
+    } else {
+      encoding = writeBytes(out);
+    }
+
+    ColumnChunkProto.Builder builder = ColumnChunkProto.newBuilder();
+    builder.setOffset(offset);
+    builder.setLength(out.getLength() - start);
+    builder.setEncoding(encoding);
+    builder.setNullCount(nullCount);
+    if (validZoneMap && min != null) {
+      builder.setMinValue(ByteString.copyFrom(ColumnFileUtil.toZoneMapBytes(dataType, min)));
+      builder.setMaxValue(ByteString.copyFrom(ColumnFileUtil.toZoneMapBytes(dataType, max)));
+    }
+
+    clear();
+    return builder.build();
+  }
+
+  private void clear() {
+    if (bytes != null) {
+      Arrays.fill(bytes, 0, valueNum, null);
+    }
+    rowNum = 0;
+    valueNum = 0;
+    min = null;
+    max = null;
+    validZoneMap = true;
+  }
+
+  private ColumnEncoding writeLongs(DataOutputBuffer out) throws IOException {
+    if (valueNum == 0) {
+      return ColumnEncoding.PLAIN;
+    }
+
+    long minValue = Long.MAX_VALUE;
+    long maxValue = Long.MIN_VALUE;
+    int rleSize = 0;
+    int runNum = 0;
+    Map<Long, Integer> dictionary = new HashMap<Long, Integer>();
+    int dictionarySize = 0;
+    for (int i = 0; i < valueNum; i++) {
+      long value = longs[i];
+      minValue = Math.min(minValue, value);
+      maxValue = Math.max(maxValue, value);
+
+      if (i == 0 || value != longs[i - 1]) {
+        int runLength = runLength(i);
+        rleSize += WritableUtils.getVIntSize(value) + WritableUtils.getVIntSize(runLength);
+        runNum++;
+      }
+
+      if (dictionary != null && !dictionary.containsKey(value)) {
+        if (dictionary.size() == MAX_DICTIONARY_SIZE) {
+          dictionary = null;
+        } else {
+          dictionary.put(value, dictionary.size());
+          dictionarySize += WritableUtils.getVIntSize(value);
+        }
+      }
+    }
+    rleSize += WritableUtils.getVIntSize(runNum);
+
+    // the difference may overflow, but it is still correct as an unsigned value.
+    int bitWidth = ColumnFileUtil.bitWidth(maxValue - minValue);
+    int bitPackedSize = 9 + ColumnFileUtil.packedLength(valueNum, bitWidth);
+    int codeWidth = 0;
+    if (dictionary != null) {
+      codeWidth = ColumnFileUtil.bitWidth(dictionary.size() - 1);
+      dictionarySize += WritableUtils.getVIntSize(dictionary.size()) + 1 +
+          ColumnFileUtil.packedLength(valueNum, codeWidth);
+    }
+
+    if (dictionary != null && dictionarySize < bitPackedSize && dictionarySize < rleSize) {
+      long [] entries = new long[dictionary.size()];
+      for (Map.Entry<Long, Integer> entry : dictionary.entrySet()) {
+        entries[entry.getValue()] = entry.getKey();
+      }
+      WritableUtils.writeVInt(out, entries.length);
+      for (long entry : entries) {
+        WritableUtils.writeVLong(out, entry);
+      }
+      long [] codes = new long[valueNum];
+      for (int i = 0; i < valueNum; i++) {
+        codes[i] = dictionary.get(longs[i]);
+      }
+      out.writeByte(codeWidth);
+      ColumnFileUtil.pack(codes, valueNum, codeWidth, out);
+      return ColumnEncoding.DICTIONARY;
+
+    } else if (rleSize < bitPackedSize) {
+      WritableUtils.writeVInt(out, runNum);
+      for (int i = 0; i < valueNum; ) {
+        int runLength = runLength(i);
+        WritableUtils.writeVLong(out, longs[i]);
+        WritableUtils.writeVInt(out, runLength);
+        i += runLength;
+      }
+      return ColumnEncoding.RLE;
+
+    } else {
+      out.writeLong(minValue);
+      out.writeByte(bitWidth);
+      long [] deltas = new long[valueNum];
+      for (int i = 0; i < valueNum; i++) {
+        deltas[i] = longs[i] - minValue;
+      }
+      ColumnFileUtil.pack(deltas, valueNum, bitWidth, out);
+      return ColumnEncoding.BIT_PACKED;
+    }
+  }
+
+  /**
+   * @return the number of the same values which start at the given index
+   */
+  private int runLength(int start) {
+    int end = start + 1;
+    while (end < valueNum && longs[end] == longs[start]) {
+      end++;
+    }
+    return end - start;
+  }
+
+  private ColumnEncoding writeBytes(DataOutputBuffer out) throws IOException {
+    int plainSize = 0;
+    int dictionarySize = 0;
+    Map<ByteString, Integer> dictionary = new HashMap<ByteString, Integer>();
+    ByteString [] keys = new ByteString[valueNum];
+    for (int i = 0; i < valueNum; i++) {
+      int size = WritableUtils.getVIntSize(bytes[i].length) + bytes[i].length;
+      plainSize += size;
+      if (dictionary != null) {
+        keys[i] = ByteString.copyFrom(bytes[i]);
+        if (!dictionary.containsKey(keys[i])) {
+          if (dictionary.size() == MAX_DICTIONARY_SIZE) {
+            dictionary = null;
+          } else {
+            dictionary.put(keys[i], dictionary.size());
+            dictionarySize += size;
+          }
+        }
+      }
+    }
+
+    int codeWidth = 0;
+    if (dictionary != null) {
+      codeWidth = ColumnFileUtil.bitWidth(dictionary.size() - 1);
+      dictionarySize += WritableUtils.getVIntSize(dictionary.size()) + 1 +
+          ColumnFileUtil.packedLength(valueNum, codeWidth);
+    }
+
+    if (valueNum > 0 && dictionary != null && dictionarySize < plainSize) {
+      ByteString [] entries = new ByteString[dictionary.size()];
+      for (Map.Entry<ByteString, Integer> entry : dictionary.entrySet()) {
+        entries[entry.getValue()] = entry.getKey();
+      }
+      WritableUtils.writeVInt(out, entries.length);
+      for (ByteString entry : entries) {
+        WritableUtils.writeVInt(out, entry.size());
+        entry.writeTo(out);
+      }
+      long [] codes = new long[valueNum];
+      for (int i = 0; i < valueNum; i++) {
+        codes[i] = dictionary.get(keys[i]);
+      }
+      out.writeByte(codeWidth);
+      ColumnFileUtil.pack(codes, valueNum, codeWidth, out);
+      return ColumnEncoding.DICTIONARY;
+
+    } else {
+      for (int i = 0; i < valueNum; i++) {
+        WritableUtils.writeVInt(out, bytes[i].length);
+        out.write(bytes[i]);
+      }
+      return ColumnEncoding.PLAIN;
+    }
+  }
+}
@@ -0,0 +1,166 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage.columnfile;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.storage.FileAppender;
+import org.apache.tajo.storage.StorageConstants;
+import org.apache.tajo.storage.TableStatistics;
+import org.apache.tajo.storage.Tuple;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+
+import static org.apache.tajo.storage.columnfile.ColumnFileProtos.BlockProto;
+import static org.apache.tajo.storage.columnfile.ColumnFileProtos.FooterProto;
+
+/**
+ * Writes a column file, which is a Tajo-native columnar format.
+ *
+ * <p>Rows are divided into blocks of <code>columnfile.block.rows</code> rows, and each block stores the values of
+ * each column contiguously as a column chunk. A column file looks like:
+ * <pre>
+ *   [block 0][block 1]...[block n][footer][footer length (int)][magic (int)]
+ * </pre>
+ * The footer is a {@link FooterProto}, which keeps the offsets, encodings and zone maps of all column chunks.
+ * A zone map consists of the minimum and maximum non-null values and the number of nulls of a column chunk.
+ * </p>
+ */
+public class ColumnFileAppender extends FileAppender {
+  private FSDataOutputStream out;
+  private ColumnChunkWriter [] writers;
+  private int blockRows;
+  private final DataOutputBuffer blockBuffer = new DataOutputBuffer();
+  private FooterProto.Builder footer;
+  private long rowNum = 0;
+
+  private TableStatistics stats;
+
+  public ColumnFileAppender(Configuration conf, Schema schema, TableMeta meta, Path path) {
+    super(conf, schema, meta, path);
+  }
+
+  @Override
+  public void init() throws IOException {
+    FileSystem fs = path.getFileSystem(conf);
+    if (!fs.exists(path.getParent())) {
+      throw new FileNotFoundException(path.toString());
+    }
+    out = fs.create(path);
+
+    blockRows = Integer.parseInt(meta.getOption(StorageConstants.COLUMNFILE_BLOCK_ROWS,
+        StorageConstants.COLUMNFILE_DEFAULT_BLOCK_ROWS));
+    writers = new ColumnChunkWriter[schema.size()];
+    for (int i = 0; i < schema.size(); i++) {
+      writers[i] = new ColumnChunkWriter(schema.getColumn(i).getDataType(), blockRows);
+    }
+    footer = FooterProto.newBuilder();
+    footer.setVersion(ColumnFileUtil.VERSION);
+    footer.setColumnNum(schema.size());
+
+    if (enabledStats) {
+      this.stats = new TableStatistics(this.schema);
+    }
+
+    super.init();
+  }
+
+  @Override
+  public void addTuple(Tuple t) throws IOException {
+    for (int i = 0; i < writers.length; i++) {
+      Datum datum = t.get(i);
+      writers[i].add(datum);
+      if (enabledStats) {
+        stats.analyzeField(i, datum);
+      }
+    }
+    rowNum++;
+    if (enabledStats) {
+      stats.incrementRow();
+    }
+
+    if (writers.length > 0 && writers[0].getRowNum() == blockRows) {
+      writeBlock();
+    }
+  }
+
+  /**
+   * Writes the buffered rows as a block.
+   */
+  private void writeBlock() throws IOException {
+    int blockRowNum = writers.length > 0 ? writers[0].getRowNum() : 0;
+    if (blockRowNum == 0) {
+      return;
+    }
+
+    long offset = out.getPos();
+    BlockProto.Builder block = BlockProto.newBuilder();
+    block.setOffset(offset);
+    block.setRowCount(blockRowNum);
+    blockBuffer.reset();
+    for (ColumnChunkWriter writer : writers) {
+      block.addColumns(writer.write(offset + blockBuffer.getLength(), blockBuffer));
+    }
+    out.write(blockBuffer.getData(), 0, blockBuffer.getLength());
+    footer.addBlocks(block);
+  }
+
+  @Override
+  public long getOffset() throws IOException {
+    return out.getPos();
+  }
+
+  @Override
+  public void flush() throws IOException {
+    writeBlock();
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    writeBlock();
+    footer.setRowCount(rowNum);
+    byte [] footerBytes = footer.build().toByteArray();
+    out.write(footerBytes);
+    out.writeInt(footerBytes.length);
+    out.writeInt(ColumnFileUtil.MAGIC);
+
+    if (enabledStats) {
+      stats.setNumBytes(getOffset());
+    }
+    out.close();
+  }
+
+  @Override
+  public TableStats getStats() {
+    if (enabledStats) {
+      return stats.getTableStat();
+    } else {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,254 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage.columnfile;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.common.TajoDataTypes.DataType;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.storage.ColumnPredicate;
+import org.apache.tajo.storage.FileScanner;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.storage.fragment.FileFragment;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apache.tajo.storage.columnfile.ColumnFileProtos.BlockProto;
+import static org.apache.tajo.storage.columnfile.ColumnFileProtos.ColumnChunkProto;
+import static org.apache.tajo.storage.columnfile.ColumnFileProtos.FooterProto;
+
+/**
+ * Reads a column file written by {@link ColumnFileAppender}.
+ *
+ * <p>A fragment reads the blocks which start in the fragment. Only the column chunks of the target columns are
+ * read, and blocks whose zone maps show that no row satisfies the search condition are skipped without being
+ * read. The column chunks of a block are decoded into primitive arrays at once, and then rows are assembled
+ * from the arrays.</p>
+ */
+public class ColumnFileScanner extends FileScanner {
+  private static final Log LOG = LogFactory.getLog(ColumnFileScanner.class);
+
+  private FSDataInputStream in;
+  private ColumnPredicate [] predicates;
+
+  /** the blocks to read after skipping blocks by the search condition */
+  private List<BlockProto> blocks;
+  private int skippedBlockNum = 0;
+  /** the column ids of the target columns */
+  private int [] projectionMap;
+  private ColumnChunkReader [] readers;
+
+  private int blockIdx = 0;
+  private int blockRowNum = 0;
+  private int rowIdx = 0;
+  private long readBytes = 0;
+  private long readRowNum = 0;
+
+  public ColumnFileScanner(Configuration conf, Schema schema, TableMeta meta, FileFragment fragment) {
+    super(conf, schema, meta, fragment);
+  }
+
+  @Override
+  public void init() throws IOException {
+    if (targets == null) {
+      targets = schema.toArray();
+    }
+    projectionMap = new int[targets.length];
+    readers = new ColumnChunkReader[targets.length];
+    for (int i = 0; i < targets.length; i++) {
+      projectionMap[i] = schema.getColumnId(targets[i].getQualifiedName());
+      readers[i] = new ColumnChunkReader(schema.getColumn(projectionMap[i]).getDataType());
+    }
+
+    Path path = fragment.getPath();
+    FileSystem fs = path.getFileSystem(conf);
+    in = fs.open(path);
+    FooterProto footer = readFooter(fs.getFileStatus(path).getLen());
+    if (footer.getColumnNum() != schema.size()) {
+      throw new IOException("The file " + path + " has " + footer.getColumnNum() + " columns, but the schema has "
+          + schema.size() + " columns");
+    }
+
+    long start = fragment.getStartKey();
+    long end = start + fragment.getEndKey();
+    blocks = new ArrayList<BlockProto>();
+    for (BlockProto block : footer.getBlocksList()) {
+      if (block.getOffset() >= start && block.getOffset() < end) {
+        if (mightMatch(block)) {
+          blocks.add(block);
+        } else {
+          skippedBlockNum++;
+        }
+      }
+    }
+    if (skippedBlockNum > 0 && LOG.isDebugEnabled()) {
+      LOG.debug(skippedBlockNum + " blocks of " + path + " are skipped by " + predicates.length + " predicates");
+    }
+
+    super.init();
+  }
+
+  private FooterProto readFooter(long fileLength) throws IOException {
+    if (fileLength < ColumnFileUtil.TAIL_LENGTH) {
+      throw new IOException(fragment.getPath() + " is not a column file");
+    }
+    in.seek(fileLength - ColumnFileUtil.TAIL_LENGTH);
+    int footerLength = in.readInt();
+    if (in.readInt() != ColumnFileUtil.MAGIC) {
+      throw new IOException(fragment.getPath() + " is not a column file");
+    }
+    byte [] footerBytes = new byte[footerLength];
+    in.readFully(fileLength - ColumnFileUtil.TAIL_LENGTH - footerLength, footerBytes);
+    return FooterProto.parseFrom(footerBytes);
+  }
+
+  /**
+   * @return False if the zone maps of the block show that no row of the block satisfies the search condition
+   */
+  private boolean mightMatch(BlockProto block) {
+    if (predicates == null) {
+      return true;
+    }
+    for (ColumnPredicate predicate : predicates) {
+      int columnId = schema.getColumnId(predicate.getColumn().getQualifiedName());
+      if (columnId < 0) {
+        columnId = schema.getColumnIdByName(predicate.getColumn().getSimpleName());
+      }
+      if (columnId < 0) {
+        continue;
+      }
+
+      ColumnChunkProto chunk = block.getColumns(columnId);
+      // nulls never satisfy a predicate.
+      if (chunk.getNullCount() == block.getRowCount()) {
+        return false;
+      }
+      if (chunk.hasMinValue() && chunk.hasMaxValue()) {
+        DataType dataType = schema.getColumn(columnId).getDataType();
+        Datum min = ColumnFileUtil.fromZoneMapBytes(dataType, chunk.getMinValue().toByteArray());
+        Datum max = ColumnFileUtil.fromZoneMapBytes(dataType, chunk.getMaxValue().toByteArray());
+        if (!predicate.mightMatch(min, max)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Reads and decodes the target column chunks of the next block.
+   *
+   * @return False if there is no more block
+   */
+  private boolean nextBlock() throws IOException {
+    if (blockIdx == blocks.size()) {
+      return false;
+    }
+
+    BlockProto block = blocks.get(blockIdx++);
+    blockRowNum = block.getRowCount();
+    rowIdx = 0;
+    for (int i = 0; i < projectionMap.length; i++) {
+      ColumnChunkProto chunk = block.getColumns(projectionMap[i]);
+      byte [] data = new byte[chunk.getLength()];
+      in.readFully(chunk.getOffset(), data);
+      readers[i].decode(chunk, data, blockRowNum);
+      readBytes += data.length;
+    }
+
+    progress = (float) blockIdx / blocks.size();
+    tableStats.setReadBytes(readBytes);
+    return true;
+  }
+
+  @Override
+  public Tuple next() throws IOException {
+    while (rowIdx == blockRowNum) {
+      if (!nextBlock()) {
+        progress = 1.0f;
+        return null;
+      }
+    }
+
+    Tuple tuple = new VTuple(schema.size());
+    for (int i = 0; i < projectionMap.length; i++) {
+      tuple.put(projectionMap[i], readers[i].get(rowIdx));
+    }
+    rowIdx++;
+    tableStats.setNumRows(++readRowNum);
+    return tuple;
+  }
+
+  @Override
+  public void reset() throws IOException {
+    blockIdx = 0;
+    blockRowNum = 0;
+    rowIdx = 0;
+    readBytes = 0;
+    readRowNum = 0;
+    progress = 0.0f;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (in != null) {
+      in.close();
+      in = null;
+    }
+  }
+
+  @Override
+  public void setSearchCondition(Object expr) {
+    super.setSearchCondition(expr);
+    if (expr instanceof ColumnPredicate[]) {
+      predicates = (ColumnPredicate[]) expr;
+    }
+  }
+
+  /**
+   * @return the number of blocks of this fragment skipped by the search condition
+   */
+  public int getSkippedBlockNum() {
+    return skippedBlockNum;
+  }
+
+  @Override
+  public boolean isProjectable() {
+    return true;
+  }
+
+  @Override
+  public boolean isSelectable() {
+    return true;
+  }
+
+  @Override
+  public boolean isSplittable() {
+    return true;
+  }
+}
@@ -0,0 +1,203 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage.columnfile;
+
+import org.apache.tajo.common.TajoDataTypes.DataType;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.util.Bytes;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Constants and helper methods shared by {@link ColumnFileAppender} and {@link ColumnFileScanner}.
+ *
+ * <p>Values of fixed-size numeric types are handled as longs, and values of the other types are handled as
+ * the byte arrays of {@link Datum#asByteArray()}. Floating point values are stored as their raw bits.</p>
+ */
+final class ColumnFileUtil {
+  /** the last four bytes of a column file */
+  static final int MAGIC = 0x54434631; // "TCF1"
+  static final int VERSION = 1;
+  /** the footer length and the magic number */
+  static final int TAIL_LENGTH = 8;
+
+  private ColumnFileUtil() {
+  }
+
+  /**
+   * @return True if the values of the given type are handled as longs
+   */
+  static boolean isLongType(Type type) {
+    switch (type) {
+      case BOOLEAN:
+      case BIT:
+      case INT2:
+      case INT4:
+      case INT8:
+      case FLOAT4:
+      case FLOAT8:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * @return True if the minimum and maximum values of a column of the given type are kept in each block
+   */
+  static boolean hasZoneMap(Type type) {
+    switch (type) {
+      case INT2:
+      case INT4:
+      case INT8:
+      case FLOAT4:
+      case FLOAT8:
+      case TEXT:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  static long toLong(Type type, Datum datum) {
+    switch (type) {
+      case BOOLEAN:
+        return datum.asBool() ? 1 : 0;
+      case BIT:
+        return datum.asByte();
+      case INT2:
+        return datum.asInt2();
+      case INT4:
+        return datum.asInt4();
+      case INT8:
+        return datum.asInt8();
+      case FLOAT4:
+        return Float.floatToIntBits(datum.asFloat4());
+      case FLOAT8:
+        return Double.doubleToLongBits(datum.asFloat8());
+      default:
+        throw new IllegalArgumentException("Not a long type: " + type);
+    }
+  }
+
+  static Datum toDatum(Type type, long value) {
+    switch (type) {
+      case BOOLEAN:
+        return DatumFactory.createBool(value != 0);
+      case BIT:
+        return DatumFactory.createBit((byte) value);
+      case INT2:
+        return DatumFactory.createInt2((short) value);
+      case INT4:
+        return DatumFactory.createInt4((int) value);
+      case INT8:
+        return DatumFactory.createInt8(value);
+      case FLOAT4:
+        return DatumFactory.createFloat4(Float.intBitsToFloat((int) value));
+      case FLOAT8:
+        return DatumFactory.createFloat8(Double.longBitsToDouble(value));
+      default:
+        throw new IllegalArgumentException("Not a long type: " + type);
+    }
+  }
+
+  /**
+   * Serializes a value of a zone map.
+   */
+  static byte [] toZoneMapBytes(DataType dataType, Datum datum) {
+    if (isLongType(dataType.getType())) {
+      return Bytes.toBytes(toLong(dataType.getType(), datum));
+    } else {
+      return datum.asByteArray();
+    }
+  }
+
+  static Datum fromZoneMapBytes(DataType dataType, byte [] bytes) {
+    if (isLongType(dataType.getType())) {
+      return toDatum(dataType.getType(), Bytes.toLong(bytes));
+    } else {
+      return DatumFactory.createFromBytes(dataType, bytes);
+    }
+  }
+
+  /**
+   * @return the number of bits to represent the given value as an unsigned integer
+   */
+  static int bitWidth(long value) {
+    return 64 - Long.numberOfLeadingZeros(value);
+  }
+
+  /**
+   * @return the number of bytes of <code>num</code> values packed in <code>bitWidth</code> bits
+   */
+  static int packedLength(int num, int bitWidth) {
+    return (int) (((long) num * bitWidth + 7) / 8);
+  }
+
+  /**
+   * Writes the lowest <code>bitWidth</code> bits of each value, where the lowest bit is written first.
+   */
+  static void pack(long [] values, int num, int bitWidth, DataOutput out) throws IOException {
+    int current = 0;
+    int bitPos = 0;
+    for (int i = 0; i < num; i++) {
+      long value = values[i];
+      for (int written = 0; written < bitWidth; ) {
+        int bits = Math.min(8 - bitPos, bitWidth - written);
+        current |= (int) ((value >>> written) & ((1 << bits) - 1)) << bitPos;
+        bitPos += bits;
+        written += bits;
+        if (bitPos == 8) {
+          out.write(current);
+          current = 0;
+          bitPos = 0;
+        }
+      }
+    }
+    if (bitPos > 0) {
+      out.write(current);
+    }
+  }
+
+  /**
+   * Reads <code>num</code> values written by {@link #pack} from the given offset of a byte array.
+   */
+  static void unpack(byte [] bytes, int offset, int num, int bitWidth, long [] values) {
+    int pos = offset;
+    int bitPos = 8;
+    int current = 0;
+    for (int i = 0; i < num; i++) {
+      long value = 0;
+      for (int read = 0; read < bitWidth; ) {
+        if (bitPos == 8) {
+          current = bytes[pos++] & 0xff;
+          bitPos = 0;
+        }
+        int bits = Math.min(8 - bitPos, bitWidth - read);
+        value |= ((long) ((current >>> bitPos) & ((1 << bits) - 1))) << read;
+        bitPos += bits;
+        read += bits;
+      }
+      values[i] = value;
+    }
+  }
+}
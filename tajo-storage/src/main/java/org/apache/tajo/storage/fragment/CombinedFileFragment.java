@@ -0,0 +1,97 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage.fragment;
+
+import org.apache.tajo.storage.DataLocation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A group of file fragments of a table which are scanned by a single task.
+ *
+ * <p>Small files or blocks are combined into a group up to a target size, so that a table of many tiny files
+ * is not scanned by as many tasks. A group is not serialized by itself. Its member fragments are given to a task
+ * as the fragments of the table, and they are scanned one by one by a {@link org.apache.tajo.storage.MergeScanner}.
+ * </p>
+ */
+public class CombinedFileFragment {
+  private final String tableName;
+  private final List<FileFragment> fragments = new ArrayList<FileFragment>();
+  private final List<DataLocation> dataLocations = new ArrayList<DataLocation>();
+  private long length = 0;
+
+  public CombinedFileFragment(String tableName) {
+    this.tableName = tableName;
+  }
+
+  /**
+   * Makes a group of a single fragment, whose data locations are the replicas of the fragment.
+   */
+  public CombinedFileFragment(FileFragment fragment) {
+    this(fragment.getTableName());
+    addFragment(fragment);
+    String [] hosts = fragment.getHosts();
+    int [] diskIds = fragment.getDiskIds();
+    for (int i = 0; i < hosts.length; i++) {
+      addDataLocation(new DataLocation(hosts[i], diskIds[i]));
+    }
+  }
+
+  public void addFragment(FileFragment fragment) {
+    fragments.add(fragment);
+    length += fragment.getEndKey();
+  }
+
+  public void addDataLocation(DataLocation location) {
+    if (!dataLocations.contains(location)) {
+      dataLocations.add(location);
+    }
+  }
+
+  public String getTableName() {
+    return tableName;
+  }
+
+  public List<FileFragment> getFragments() {
+    return Collections.unmodifiableList(fragments);
+  }
+
+  /**
+   * @return the hosts and disk volumes where the fragments are local. It is empty if the fragments do not share
+   * a host.
+   */
+  public List<DataLocation> getDataLocations() {
+    return Collections.unmodifiableList(dataLocations);
+  }
+
+  /**
+   * @return the total bytes of the fragments
+   */
+  public long getLength() {
+    return length;
+  }
+
+  @Override
+  public String toString() {
+    return "\"combined fragment\": {\"id\": \"" + tableName + "\", \"fragments\": " + fragments.size()
+        + ", \"length\": " + length + ", \"locations\": " + dataLocations + "}";
+  }
+}
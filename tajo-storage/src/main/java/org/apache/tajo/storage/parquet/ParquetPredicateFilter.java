@@ -0,0 +1,223 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage.parquet;
+
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.storage.ColumnPredicate;
+import parquet.column.ColumnDescriptor;
+import parquet.column.ColumnReader;
+import parquet.column.statistics.DoubleStatistics;
+import parquet.column.statistics.FloatStatistics;
+import parquet.column.statistics.IntStatistics;
+import parquet.column.statistics.LongStatistics;
+import parquet.column.statistics.Statistics;
+import parquet.filter.RecordFilter;
+import parquet.filter.UnboundRecordFilter;
+import parquet.hadoop.metadata.BlockMetaData;
+import parquet.hadoop.metadata.ColumnChunkMetaData;
+import parquet.schema.MessageType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Evaluates the column predicates of a search condition on Parquet data before
+ * Tajo tuples are materialized. Row groups are skipped by the min/max
+ * statistics of their column chunks, and the records of the other row groups
+ * are filtered by the values of the predicate columns.
+ */
+class ParquetPredicateFilter implements UnboundRecordFilter {
+  private final ColumnPredicate[] predicates;
+
+  /**
+   * Creates a new ParquetPredicateFilter.
+   *
+   * @param predicates The column predicates of a search condition. The ones
+   *        on unsupported types are ignored.
+   */
+  public ParquetPredicateFilter(ColumnPredicate[] predicates) {
+    List<ColumnPredicate> supported = new ArrayList<ColumnPredicate>();
+    for (ColumnPredicate predicate : predicates) {
+      if (isSupportedType(predicate.getColumn().getDataType().getType())) {
+        supported.add(predicate);
+      }
+    }
+    this.predicates = supported.toArray(new ColumnPredicate[supported.size()]);
+  }
+
+  private static boolean isSupportedType(Type type) {
+    switch (type) {
+      case INT2:
+      case INT4:
+      case INT8:
+      case FLOAT4:
+      case FLOAT8:
+      case TEXT:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  public boolean isEmpty() {
+    return predicates.length == 0;
+  }
+
+  /**
+   * Returns whether some rows of a row group might satisfy the predicates.
+   *
+   * @param block The metadata of the row group.
+   * @param fileSchema The Parquet schema of the file.
+   * @return false if no row of the row group satisfies the predicates.
+   */
+  public boolean canMatch(BlockMetaData block, MessageType fileSchema) {
+    List<ColumnDescriptor> columns = fileSchema.getColumns();
+    List<ColumnChunkMetaData> chunks = block.getColumns();
+    for (ColumnPredicate predicate : predicates) {
+      int columnIdx = findColumn(columns, predicate.getColumn().getSimpleName());
+      if (columnIdx < 0 || columnIdx >= chunks.size()) {
+        continue;
+      }
+      Statistics statistics = chunks.get(columnIdx).getStatistics();
+      if (statistics == null || statistics.isEmpty()) {
+        continue;
+      }
+      Type type = predicate.getColumn().getDataType().getType();
+      Datum min = getMin(type, statistics);
+      Datum max = getMax(type, statistics);
+      if (min != null && max != null && !predicate.mightMatch(min, max)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int findColumn(List<ColumnDescriptor> columns, String name) {
+    for (int i = 0; i < columns.size(); i++) {
+      String[] path = columns.get(i).getPath();
+      if (path.length == 1 && path[0].equals(name)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Binary statistics are not used, because the writers of this Parquet
+   * version compare binaries as signed bytes while Tajo compares texts as
+   * unsigned bytes.
+   */
+  private static Datum getMin(Type type, Statistics statistics) {
+    if (statistics instanceof IntStatistics) {
+      int min = ((IntStatistics) statistics).getMin();
+      return type == Type.INT2 ? DatumFactory.createInt2((short) min) : DatumFactory.createInt4(min);
+    } else if (statistics instanceof LongStatistics) {
+      return DatumFactory.createInt8(((LongStatistics) statistics).getMin());
+    } else if (statistics instanceof FloatStatistics) {
+      return DatumFactory.createFloat4(((FloatStatistics) statistics).getMin());
+    } else if (statistics instanceof DoubleStatistics) {
+      return DatumFactory.createFloat8(((DoubleStatistics) statistics).getMin());
+    }
+    return null;
+  }
+
+  private static Datum getMax(Type type, Statistics statistics) {
+    if (statistics instanceof IntStatistics) {
+      int max = ((IntStatistics) statistics).getMax();
+      return type == Type.INT2 ? DatumFactory.createInt2((short) max) : DatumFactory.createInt4(max);
+    } else if (statistics instanceof LongStatistics) {
+      return DatumFactory.createInt8(((LongStatistics) statistics).getMax());
+    } else if (statistics instanceof FloatStatistics) {
+      return DatumFactory.createFloat4(((FloatStatistics) statistics).getMax());
+    } else if (statistics instanceof DoubleStatistics) {
+      return DatumFactory.createFloat8(((DoubleStatistics) statistics).getMax());
+    }
+    return null;
+  }
+
+  /**
+   * Binds the predicates to the column readers of a row group. Predicates on
+   * columns which are not read are ignored.
+   */
+  @Override
+  public RecordFilter bind(Iterable<ColumnReader> readers) {
+    List<ColumnPredicate> boundPredicates = new ArrayList<ColumnPredicate>();
+    List<ColumnReader> boundReaders = new ArrayList<ColumnReader>();
+    for (ColumnPredicate predicate : predicates) {
+      for (ColumnReader reader : readers) {
+        String[] path = reader.getDescriptor().getPath();
+        if (path.length == 1 && path[0].equals(predicate.getColumn().getSimpleName())) {
+          boundPredicates.add(predicate);
+          boundReaders.add(reader);
+          break;
+        }
+      }
+    }
+    return new PredicateRecordFilter(
+        boundPredicates.toArray(new ColumnPredicate[boundPredicates.size()]),
+        boundReaders.toArray(new ColumnReader[boundReaders.size()]));
+  }
+
+  private static class PredicateRecordFilter implements RecordFilter {
+    private final ColumnPredicate[] predicates;
+    private final ColumnReader[] readers;
+
+    PredicateRecordFilter(ColumnPredicate[] predicates, ColumnReader[] readers) {
+      this.predicates = predicates;
+      this.readers = readers;
+    }
+
+    /**
+     * Evaluates the predicates on the current values of the column readers.
+     */
+    @Override
+    public boolean isMatch() {
+      for (int i = 0; i < predicates.length; i++) {
+        if (!predicates[i].isTrue(readValue(predicates[i].getColumn().getDataType().getType(), readers[i]))) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static Datum readValue(Type type, ColumnReader reader) {
+      if (reader.getCurrentDefinitionLevel() < reader.getDescriptor().getMaxDefinitionLevel()) {
+        return null;
+      }
+      switch (type) {
+        case INT2:
+          return DatumFactory.createInt2((short) reader.getInteger());
+        case INT4:
+          return DatumFactory.createInt4(reader.getInteger());
+        case INT8:
+          return DatumFactory.createInt8(reader.getLong());
+        case FLOAT4:
+          return DatumFactory.createFloat4(reader.getFloat());
+        case FLOAT8:
+          return DatumFactory.createFloat8(reader.getDouble());
+        case TEXT:
+          return DatumFactory.createText(reader.getBinary().getBytes());
+        default:
+          return null;
+      }
+    }
+  }
+}
@@ -21,6 +21,7 @@ package org.apache.tajo.storage.parquet;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.storage.ColumnPredicate;
 import org.apache.tajo.storage.FileScanner;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.fragment.FileFragment;
@@ -32,6 +33,7 @@ import java.io.IOException;
  */
 public class ParquetScanner extends FileScanner {
   private TajoParquetReader reader;
+  private ColumnPredicate[] predicates;
 
   /**
    * Creates a new ParquetScanner.
@@ -55,8 +57,8 @@ public class ParquetScanner extends FileScanner {
     if (targets == null) {
       targets = schema.toArray();
     }
-    reader = new TajoParquetReader(fragment.getPath(), schema,
-                                   new Schema(targets));
+    reader = new TajoParquetReader(conf, fragment.getPath(), schema,
+                                   new Schema(targets), predicates);
     super.init();
   }
 
@@ -99,13 +101,38 @@ public class ParquetScanner extends FileScanner {
   }
 
   /**
-   * Returns whether this scanner is selectable.
+   * Returns whether this scanner is selectable. Row groups and records which
+   * never satisfy the search condition are skipped, but the other rows are
+   * not guaranteed to satisfy it.
    *
-   * @return false
+   * @return true
    */
   @Override
   public boolean isSelectable() {
-    return false;
+    return true;
+  }
+
+  /**
+   * Sets the search condition, which must be an array of
+   * {@link ColumnPredicate}s. Other conditions are ignored.
+   *
+   * @param expr The search condition.
+   */
+  @Override
+  public void setSearchCondition(Object expr) {
+    super.setSearchCondition(expr);
+    if (expr instanceof ColumnPredicate[]) {
+      predicates = (ColumnPredicate[]) expr;
+    }
+  }
+
+  /**
+   * Returns the number of row groups skipped by the search condition.
+   *
+   * @return The number of skipped row groups.
+   */
+  public int getSkippedRowGroupNum() {
+    return reader == null ? 0 : reader.getSkippedRowGroupNum();
   }
 
   /**
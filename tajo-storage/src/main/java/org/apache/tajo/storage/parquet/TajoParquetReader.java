@@ -18,20 +18,52 @@
 
 package org.apache.tajo.storage.parquet;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
 import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.storage.ColumnPredicate;
 import org.apache.tajo.storage.Tuple;
+import parquet.column.page.PageReadStore;
 import parquet.filter.UnboundRecordFilter;
-import parquet.hadoop.ParquetReader;
+import parquet.hadoop.ParquetFileReader;
+import parquet.hadoop.api.ReadSupport;
+import parquet.hadoop.metadata.BlockMetaData;
+import parquet.hadoop.metadata.ParquetMetadata;
+import parquet.io.ColumnIOFactory;
+import parquet.io.MessageColumnIO;
+import parquet.io.RecordReader;
+import parquet.io.api.RecordMaterializer;
+import parquet.schema.MessageType;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
- * Tajo implementation of {@link ParquetReader} to read Tajo records from a
- * Parquet file. Users should use {@link ParquetScanner} and not this class
- * directly.
+ * Reads Tajo records from a Parquet file row group by row group. Users should
+ * use {@link ParquetScanner} and not this class directly.
+ *
+ * <p>Given the column predicates of a search condition, it skips the row
+ * groups whose column statistics never satisfy them, and it filters records
+ * before they are materialized into tuples.</p>
  */
-public class TajoParquetReader extends ParquetReader<Tuple> {
+public class TajoParquetReader implements Closeable {
+  private static final Log LOG = LogFactory.getLog(TajoParquetReader.class);
+
+  private final ParquetFileReader reader;
+  private final MessageColumnIO columnIO;
+  private final RecordMaterializer<Tuple> materializer;
+  private final UnboundRecordFilter recordFilter;
+  private final int rowGroupNum;
+  private final int skippedRowGroupNum;
+
+  private RecordReader<Tuple> recordReader;
+  private long rowGroupRowNum;
+  private long rowGroupReadNum;
+
   /**
    * Creates a new TajoParquetReader.
    *
@@ -39,7 +71,7 @@ public class TajoParquetReader extends ParquetReader<Tuple> {
    * @param readSchema Tajo schema of the table.
    */
   public TajoParquetReader(Path file, Schema readSchema) throws IOException {
-    super(file, new TajoReadSupport(readSchema));
+    this(file, readSchema, readSchema);
   }
 
   /**
@@ -51,7 +83,7 @@ public class TajoParquetReader extends ParquetReader<Tuple> {
    */
   public TajoParquetReader(Path file, Schema readSchema,
                            Schema requestedSchema) throws IOException {
-    super(file, new TajoReadSupport(readSchema, requestedSchema));
+    this(new Configuration(), file, readSchema, requestedSchema, null, null);
   }
 
   /**
@@ -64,7 +96,7 @@ public class TajoParquetReader extends ParquetReader<Tuple> {
   public TajoParquetReader(Path file, Schema readSchema,
                            UnboundRecordFilter recordFilter)
       throws IOException {
-    super(file, new TajoReadSupport(readSchema), recordFilter);
+    this(file, readSchema, readSchema, recordFilter);
   }
 
   /**
@@ -79,7 +111,123 @@ public class TajoParquetReader extends ParquetReader<Tuple> {
                            Schema requestedSchema,
                            UnboundRecordFilter recordFilter)
       throws IOException {
-    super(file, new TajoReadSupport(readSchema, requestedSchema),
-          recordFilter);
+    this(new Configuration(), file, readSchema, requestedSchema, recordFilter,
+         null);
+  }
+
+  /**
+   * Creates a new TajoParquetReader.
+   *
+   * @param conf The configuration.
+   * @param file The file to read from.
+   * @param readSchema Tajo schema of the table.
+   * @param requestedSchema Tajo schema of the projection.
+   * @param predicates The column predicates of the search condition.
+   */
+  public TajoParquetReader(Configuration conf, Path file, Schema readSchema,
+                           Schema requestedSchema,
+                           ColumnPredicate[] predicates) throws IOException {
+    this(conf, file, readSchema, requestedSchema, null,
+         predicates == null ? null : new ParquetPredicateFilter(predicates));
+  }
+
+  private TajoParquetReader(Configuration conf, Path file, Schema readSchema,
+                            Schema requestedSchema,
+                            UnboundRecordFilter recordFilter,
+                            ParquetPredicateFilter predicateFilter)
+      throws IOException {
+    TajoReadSupport readSupport = new TajoReadSupport(readSchema,
+                                                      requestedSchema);
+    ParquetMetadata footer = ParquetFileReader.readFooter(conf, file);
+    MessageType fileSchema = footer.getFileMetaData().getSchema();
+    MessageType requestedParquetSchema =
+        readSupport.getRequestedParquetSchema();
+    this.materializer = readSupport.prepareForRead(conf,
+        footer.getFileMetaData().getKeyValueMetaData(), fileSchema,
+        new ReadSupport.ReadContext(requestedParquetSchema));
+    this.columnIO = new ColumnIOFactory().getColumnIO(requestedParquetSchema,
+                                                      fileSchema);
+
+    List<BlockMetaData> blocks = footer.getBlocks();
+    if (predicateFilter != null && !predicateFilter.isEmpty()) {
+      List<BlockMetaData> matchedBlocks = new ArrayList<BlockMetaData>();
+      for (BlockMetaData block : blocks) {
+        if (predicateFilter.canMatch(block, fileSchema)) {
+          matchedBlocks.add(block);
+        }
+      }
+      this.recordFilter = predicateFilter;
+      this.skippedRowGroupNum = blocks.size() - matchedBlocks.size();
+      LOG.info("Skipped " + skippedRowGroupNum + " of " + blocks.size()
+          + " row groups of " + file + " by statistics");
+      blocks = matchedBlocks;
+    } else {
+      this.recordFilter = recordFilter;
+      this.skippedRowGroupNum = 0;
+    }
+    this.rowGroupNum = blocks.size();
+    this.reader = new ParquetFileReader(conf, file, blocks,
+                                        requestedParquetSchema.getColumns());
+  }
+
+  /**
+   * Reads the next record.
+   *
+   * @return The next Tuple, or null if the end of the file is reached.
+   */
+  public Tuple read() throws IOException {
+    while (true) {
+      if (recordReader == null) {
+        PageReadStore pages = reader.readNextRowGroup();
+        if (pages == null) {
+          return null;
+        }
+        if (recordFilter == null) {
+          recordReader = columnIO.getRecordReader(pages, materializer);
+        } else {
+          recordReader = columnIO.getRecordReader(pages, materializer,
+                                                  recordFilter);
+        }
+        rowGroupRowNum = pages.getRowCount();
+        rowGroupReadNum = 0;
+      }
+
+      // A filtered record reader returns null when no more records in the
+      // row group satisfy the filter.
+      if (rowGroupReadNum < rowGroupRowNum) {
+        rowGroupReadNum++;
+        Tuple tuple = recordReader.read();
+        if (tuple != null) {
+          return tuple;
+        }
+      }
+      recordReader = null;
+    }
+  }
+
+  /**
+   * Returns the number of row groups to be read.
+   *
+   * @return The number of row groups except for skipped ones.
+   */
+  public int getRowGroupNum() {
+    return rowGroupNum;
+  }
+
+  /**
+   * Returns the number of row groups skipped by statistics.
+   *
+   * @return The number of skipped row groups.
+   */
+  public int getSkippedRowGroupNum() {
+    return skippedRowGroupNum;
+  }
+
+  /**
+   * Closes the reader.
+   */
+  @Override
+  public void close() throws IOException {
+    reader.close();
   }
 }
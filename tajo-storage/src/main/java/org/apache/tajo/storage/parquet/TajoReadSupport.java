@@ -77,13 +77,22 @@ public class TajoReadSupport extends ReadSupport<Tuple> {
    */
   @Override
   public ReadContext init(InitContext context) {
+    return new ReadContext(getRequestedParquetSchema());
+  }
+
+  /**
+   * Returns the Parquet schema of the requested projection.
+   *
+   * @return The Parquet schema of the requested projection.
+   */
+  MessageType getRequestedParquetSchema() {
     if (requestedSchema == null) {
       throw new RuntimeException("requestedSchema is null.");
     }
     MessageType requestedParquetSchema =
       new TajoSchemaConverter().convert(requestedSchema);
     LOG.debug("Reading data with projection:\n" + requestedParquetSchema);
-    return new ReadContext(requestedParquetSchema);
+    return requestedParquetSchema;
   }
 
   /**
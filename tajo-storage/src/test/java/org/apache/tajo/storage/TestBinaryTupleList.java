@@ -0,0 +1,182 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.storage;
+
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.SortSpec;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class TestBinaryTupleList {
+
+  private Schema createSchema() {
+    Schema schema = new Schema();
+    schema.addColumn("col1", Type.BOOLEAN);
+    schema.addColumn("col2", Type.INT2);
+    schema.addColumn("col3", Type.INT4);
+    schema.addColumn("col4", Type.INT8);
+    schema.addColumn("col5", Type.FLOAT4);
+    schema.addColumn("col6", Type.FLOAT8);
+    schema.addColumn("col7", Type.TEXT);
+    schema.addColumn("col8", Type.BLOB);
+    schema.addColumn("col9", Type.DATE);
+    schema.addColumn("col10", Type.TIMESTAMP);
+    schema.addColumn("col11", Type.INET4);
+    return schema;
+  }
+
+  private Tuple createTuple(int i) {
+    Tuple tuple = new VTuple(11);
+    tuple.put(new Datum[] {
+        DatumFactory.createBool(i % 2 == 0),
+        DatumFactory.createInt2((short) i),
+        i % 3 == 0 ? NullDatum.get() : DatumFactory.createInt4(-i),
+        DatumFactory.createInt8(Long.MAX_VALUE - i),
+        DatumFactory.createFloat4(i + 0.5f),
+        DatumFactory.createFloat8(i * 1.5d),
+        DatumFactory.createText("text_" + i),
+        i % 5 == 0 ? NullDatum.get() : DatumFactory.createBlob(("blob_" + i).getBytes()),
+        DatumFactory.createDate(String.format("2014-%02d-%02d", 1 + (i % 12), 1 + (i % 28))),
+        DatumFactory.createTimeStampFromMillis(1400000000000L + i),
+        DatumFactory.createInet4("192.168.0." + (i % 256))
+    });
+    return tuple;
+  }
+
+  @Test
+  public final void testAddAndGet() {
+    // a small page size makes rows span many pages
+    BinaryTupleList list = new BinaryTupleList(createSchema(), 256);
+    Tuple reused = new VTuple(11);
+    long bytes = 0;
+    for (int i = 0; i < 1000; i++) {
+      reused.put(createTuple(i).getValues());
+      bytes += list.addTuple(reused);
+    }
+    assertEquals(1000, list.size());
+    assertEquals(bytes, list.getUsedBytes());
+    assertTrue(list.getAllocatedBytes() >= list.getUsedBytes());
+
+    for (int i = 0; i < 1000; i++) {
+      Tuple expected = createTuple(i);
+      Tuple actual = list.get(i);
+      assertEquals(expected, actual);
+      assertEquals(i % 3 == 0, actual.isNull(2));
+      assertEquals(Long.MAX_VALUE - i, actual.getInt8(3));
+      assertEquals(i * 1.5d, actual.getFloat8(5), 0.0d);
+    }
+  }
+
+  @Test
+  public final void testSortAndClear() {
+    Schema schema = createSchema();
+    BinaryTupleList list = new BinaryTupleList(schema, 1024);
+    for (int i = 0; i < 100; i++) {
+      list.add(createTuple(i));
+    }
+
+    TupleComparator comparator = new TupleComparator(schema,
+        new SortSpec[] {new SortSpec(schema.getColumn("col4"), true, false)});
+    long usedBytes = list.getUsedBytes();
+    Collections.sort(list, comparator);
+    // sorting only changes the addresses of rows
+    assertEquals(usedBytes, list.getUsedBytes());
+    for (int i = 0; i < 100; i++) {
+      assertEquals(createTuple(99 - i), list.get(i));
+    }
+
+    long allocated = list.getAllocatedBytes();
+    list.clear();
+    assertEquals(0, list.size());
+    for (int i = 0; i < 100; i++) {
+      list.add(createTuple(i));
+    }
+    // pages are reused after clear()
+    assertEquals(allocated, list.getAllocatedBytes());
+    assertEquals(createTuple(10), list.get(10));
+  }
+
+  @Test
+  public final void testTypedGetters() {
+    BinaryTupleList list = new BinaryTupleList(createSchema(), 256);
+    for (int i = 0; i < 100; i++) {
+      list.add(createTuple(i));
+    }
+
+    for (int i = 0; i < 100; i++) {
+      Tuple expected = createTuple(i);
+      BinaryTuple actual = (BinaryTuple) list.get(i);
+      assertEquals(expected.get(1).asInt2(), actual.getInt2(1));
+      assertEquals(expected.get(2).asInt4(), actual.getInt4(2));
+      assertEquals(expected.get(3).asInt8(), actual.getInt8(3));
+      assertEquals(expected.get(4).asFloat4(), actual.getFloat4(4), 0.0f);
+      assertEquals(expected.get(4).asFloat8(), actual.getFloat8(4), 0.0d);
+      assertEquals(expected.get(6).asChars(), actual.getText(6));
+      assertArrayEquals(expected.get(6).asByteArray(), actual.getBytes(6));
+      assertEquals(expected.get(8).asInt8(), actual.getInt8(8));
+      assertEquals(expected.get(9).asInt8(), actual.getInt8(9));
+
+      byte [] text = expected.get(6).asByteArray();
+      assertEquals(Arrays.hashCode(text), actual.hashBytes(6));
+      assertTrue(actual.equalsBytes(6, text));
+      assertFalse(actual.equalsBytes(6, ("text_" + (i + 1)).getBytes()));
+    }
+  }
+
+  @Test
+  public final void testCompareInPage() {
+    Schema schema = createSchema();
+    BinaryTupleList list = new BinaryTupleList(schema, 256);
+    for (int i = 0; i < 50; i++) {
+      list.add(createTuple(i));
+    }
+
+    // integral keys with nulls, floating point, text, date and timestamp keys in both orders
+    for (String column : new String[] {"col3", "col6", "col7", "col9", "col10"}) {
+      for (boolean asc : new boolean[] {true, false}) {
+        TupleComparator comparator = new TupleComparator(schema,
+            new SortSpec[] {new SortSpec(schema.getColumn(column), asc, !asc)});
+        for (int i = 0; i < 50; i++) {
+          for (int j = 0; j < 50; j++) {
+            int expected = comparator.compare(createTuple(i), createTuple(j));
+            int actual = comparator.compare(list.get(i), list.get(j));
+            assertEquals(column + ": " + i + ", " + j, Integer.signum(expected), Integer.signum(actual));
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public final void testIsSupported() {
+    assertTrue(BinaryTupleList.isSupported(createSchema()));
+    Schema schema = new Schema();
+    schema.addColumn("col1", Type.INET6);
+    assertFalse(BinaryTupleList.isSupported(schema));
+  }
+}
@@ -18,9 +18,12 @@
 
 package org.apache.tajo.storage;
 
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IOUtils;
 import org.apache.hadoop.io.SequenceFile;
 import org.apache.hadoop.io.compress.*;
 import org.apache.hadoop.io.compress.zlib.ZlibFactory;
@@ -174,6 +177,64 @@ public class TestCompressionStorages {
     assertEquals(tupleNum, tupleCnt);
   }
 
+  @Test
+  public void testRawFileBlockCompression() throws IOException {
+    if(StoreType.CSV != storeType) return;
+
+    Schema schema = new Schema();
+    schema.addColumn("id", Type.INT4);
+    schema.addColumn("name", Type.TEXT);
+
+    TableMeta meta = CatalogUtil.newTableMeta(StoreType.RAW);
+    meta.putOption("compression.codec", DeflateCodec.class.getCanonicalName());
+
+    // two compressed files are concatenated like a fetched hash shuffle output.
+    int tupleNum = 100000;
+    Path concatenated = new Path(testDir, "RawBlockCompression");
+    FSDataOutputStream out = fs.create(concatenated);
+    long uncompressedBytes = 0;
+    for (int fileId = 0; fileId < 2; fileId++) {
+      Path filePath = new Path(testDir, "RawBlockCompression_" + fileId);
+      RawFile.RawFileAppender appender = new RawFile.RawFileAppender(conf, schema, meta, filePath);
+      appender.enableStats();
+      appender.init();
+      VTuple vTuple;
+      for (int i = 0; i < tupleNum; i++) {
+        vTuple = new VTuple(2);
+        vTuple.put(0, DatumFactory.createInt4(i + 1));
+        vTuple.put(1, DatumFactory.createText("name_" + (i % 100)));
+        appender.addTuple(vTuple);
+      }
+      appender.close();
+
+      assertTrue(appender.isCompressed());
+      assertEquals(fs.getFileStatus(filePath).getLen(), appender.getOffset());
+      assertTrue(appender.getOffset() < appender.getUncompressedBytes());
+      uncompressedBytes += appender.getUncompressedBytes();
+
+      FSDataInputStream in = fs.open(filePath);
+      IOUtils.copyBytes(in, out, conf, false);
+      in.close();
+    }
+    out.close();
+
+    RawFile.RawFileScanner scanner = new RawFile.RawFileScanner(conf, schema, meta, concatenated);
+    int tupleCnt = 0;
+    Tuple tuple;
+    while ((tuple = scanner.next()) != null) {
+      assertEquals((tupleCnt % tupleNum) + 1, tuple.get(0).asInt4());
+      assertEquals("name_" + ((tupleCnt % tupleNum) % 100), tuple.get(1).asChars());
+      tupleCnt++;
+    }
+    assertEquals(tupleNum * 2, tupleCnt);
+
+    // reset decompresses the file from the beginning.
+    scanner.reset();
+    assertEquals(1, scanner.next().get(0).asInt4());
+    scanner.close();
+    assertTrue(fs.getFileStatus(concatenated).getLen() < uncompressedBytes);
+  }
+
   private void storageCompressionTest(StoreType storeType, Class<? extends CompressionCodec> codec) throws IOException {
     Schema schema = new Schema();
     schema.addColumn("id", Type.INT4);
@@ -0,0 +1,125 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.storage;
+
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.SortSpec;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TestNormalizedKeyEncoder {
+  private static final int NUM_TUPLES = 300;
+
+  private Schema createSchema() {
+    Schema schema = new Schema();
+    schema.addColumn("col1", Type.INT4);
+    schema.addColumn("col2", Type.INT8);
+    schema.addColumn("col3", Type.FLOAT8);
+    schema.addColumn("col4", Type.TEXT);
+    schema.addColumn("col5", Type.FLOAT4);
+    return schema;
+  }
+
+  private Tuple [] createTuples(Random rnd) {
+    Tuple [] tuples = new Tuple[NUM_TUPLES];
+    String [] texts = {"", "a", "a\u0000", "a\u0000b", "ab", "b", "한글", "abc"};
+    for (int i = 0; i < NUM_TUPLES; i++) {
+      tuples[i] = new VTuple(5);
+      tuples[i].put(new Datum[] {
+          rnd.nextInt(10) == 0 ? NullDatum.get() : DatumFactory.createInt4(rnd.nextInt(7) - 3),
+          DatumFactory.createInt8(rnd.nextBoolean() ? Long.MIN_VALUE + rnd.nextInt(3) : rnd.nextLong() % 5),
+          DatumFactory.createFloat8(rnd.nextInt(5) - 2.5d),
+          rnd.nextInt(10) == 0 ? NullDatum.get() : DatumFactory.createText(texts[rnd.nextInt(texts.length)]),
+          DatumFactory.createFloat4(rnd.nextBoolean() ? -0.0f : rnd.nextFloat() - 0.5f)
+      });
+    }
+    return tuples;
+  }
+
+  private void assertSameOrder(Schema schema, SortSpec [] sortSpecs, Tuple [] tuples) {
+    TupleComparator comparator = new TupleComparator(schema, sortSpecs);
+    NormalizedKeyEncoder encoder = new NormalizedKeyEncoder(schema, sortSpecs);
+
+    NormalizedKey [] keys = new NormalizedKey[tuples.length];
+    for (int i = 0; i < tuples.length; i++) {
+      keys[i] = encoder.encode(tuples[i]);
+      assertSame(tuples[i], keys[i].getTuple());
+    }
+
+    for (int i = 0; i < tuples.length; i++) {
+      for (int j = 0; j < tuples.length; j++) {
+        int expected = Integer.signum(comparator.compare(tuples[i], tuples[j]));
+        int actual = Integer.signum(keys[i].compareTo(keys[j]));
+        assertEquals(tuples[i] + " vs " + tuples[j], expected, actual);
+        assertEquals(expected == 0, keys[i].equals(keys[j]));
+      }
+    }
+  }
+
+  @Test
+  public final void testAscending() {
+    Schema schema = createSchema();
+    SortSpec [] sortSpecs = {
+        new SortSpec(schema.getColumn("col1"), true, false),
+        new SortSpec(schema.getColumn("col4"), true, false),
+        new SortSpec(schema.getColumn("col2"), true, false)
+    };
+    assertSameOrder(schema, sortSpecs, createTuples(new Random(1)));
+  }
+
+  @Test
+  public final void testDescendingAndNullFirst() {
+    Schema schema = createSchema();
+    SortSpec [] sortSpecs = {
+        new SortSpec(schema.getColumn("col4"), false, true),
+        new SortSpec(schema.getColumn("col1"), false, false),
+        new SortSpec(schema.getColumn("col3"), true, true),
+        new SortSpec(schema.getColumn("col5"), false, false)
+    };
+    assertSameOrder(schema, sortSpecs, createTuples(new Random(2)));
+  }
+
+  @Test
+  public final void testIsSupported() {
+    Schema schema = createSchema();
+    schema.addColumn("col6", Type.BOOLEAN);
+    assertTrue(NormalizedKeyEncoder.isSupported(schema,
+        new SortSpec[] {new SortSpec(schema.getColumn("col1"))}));
+    assertFalse(NormalizedKeyEncoder.isSupported(schema,
+        new SortSpec[] {new SortSpec(schema.getColumn("col1")), new SortSpec(schema.getColumn("col6"))}));
+
+    Schema other = new Schema();
+    other.addColumn("col1", Type.INT2);
+    other.addColumn("col2", Type.FLOAT8);
+    NormalizedKeyEncoder encoder = new NormalizedKeyEncoder(schema,
+        new SortSpec[] {new SortSpec(schema.getColumn("col2"))});
+    assertTrue(encoder.isComparableTo(new NormalizedKeyEncoder(other,
+        new SortSpec[] {new SortSpec(other.getColumn("col1"))})));
+    assertFalse(encoder.isComparableTo(new NormalizedKeyEncoder(other,
+        new SortSpec[] {new SortSpec(other.getColumn("col2"))})));
+  }
+}
@@ -31,6 +31,7 @@ import org.apache.tajo.common.TajoDataTypes.Type;
 import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.datum.Datum;
 import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.storage.fragment.CombinedFileFragment;
 import org.apache.tajo.storage.fragment.FileFragment;
 import org.apache.tajo.util.CommonTestingUtil;
 import org.junit.After;
@@ -199,4 +200,46 @@ public class TestStorageManager {
       dir.delete();
     }
   }
+
+  @Test
+  public void testCombineSplits() throws IOException {
+    long targetSize = 40;
+    List<FileFragment> splits = Lists.newArrayList();
+    Path dirA = new Path(testDir, "testCombineSplits/a");
+    Path dirB = new Path(testDir, "testCombineSplits/b");
+    for (int i = 0; i < 10; i++) {
+      splits.add(new FileFragment("data", new Path(dirA, "file" + i), 0, 10,
+          new String[] {"host1", "host2"}, new int[] {i % 2, 0}));
+    }
+    splits.add(new FileFragment("data", new Path(dirA, "large"), 0, 100, new String[] {"host1", "host2"}));
+    for (int i = 0; i < 3; i++) {
+      splits.add(new FileFragment("data", new Path(dirB, "file" + i), 0, 10, new String[] {"host3"}));
+    }
+
+    List<CombinedFileFragment> combined = sm.combineSplits(splits, targetSize);
+    // the large split, 40 + 40 + 20 bytes of the small splits in a, and 30 bytes of the small splits in b
+    assertEquals(5, combined.size());
+
+    int fragmentNum = 0;
+    for (CombinedFileFragment group : combined) {
+      Path dir = group.getFragments().get(0).getPath().getParent();
+      for (FileFragment fragment : group.getFragments()) {
+        // a group never spans directories, i.e., partitions.
+        assertEquals(dir, fragment.getPath().getParent());
+      }
+      fragmentNum += group.getFragments().size();
+    }
+    assertEquals(splits.size(), fragmentNum);
+
+    assertEquals(100, combined.get(0).getLength());
+    assertEquals(2, combined.get(0).getDataLocations().size());
+    assertEquals(40, combined.get(1).getLength());
+    // the small splits in a are local to both volumes of host1.
+    assertEquals(2, combined.get(1).getDataLocations().size());
+    assertEquals("host1", combined.get(1).getDataLocations().get(0).getHost());
+    assertEquals(40, combined.get(2).getLength());
+    assertEquals(20, combined.get(3).getLength());
+    assertEquals(30, combined.get(4).getLength());
+    assertEquals(new DataLocation("host3", -1), combined.get(4).getDataLocations().get(0));
+  }
 }
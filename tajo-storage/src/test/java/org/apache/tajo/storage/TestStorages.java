@@ -116,6 +116,7 @@ public class TestStorages {
         {StoreType.PARQUET, false, false},
         {StoreType.SEQUENCEFILE, true, true},
         {StoreType.AVRO, false, false},
+        {StoreType.COLUMNFILE, true, true},
     });
   }
 
@@ -218,7 +219,8 @@ public class TestStorages {
           || storeType == StoreType.CSV
           || storeType == StoreType.PARQUET
           || storeType == StoreType.SEQUENCEFILE
-          || storeType == StoreType.AVRO) {
+          || storeType == StoreType.AVRO
+          || storeType == StoreType.COLUMNFILE) {
         assertTrue(tuple.get(0) == null);
       }
       assertTrue(tupleCnt + 2 == tuple.get(1).asInt8());
@@ -663,6 +665,59 @@ public class TestStorages {
     assertEquals(appender.getStats().getNumRows().longValue(), scanner.getInputStats().getNumRows().longValue());
   }
 
+  @Test
+  public void testCSVParserThreads() throws IOException {
+    if (storeType == StoreType.CSV) {
+      Schema schema = new Schema();
+      schema.addColumn("id", Type.INT4);
+      schema.addColumn("name", Type.TEXT);
+      schema.addColumn("age", Type.INT8);
+      schema.addColumn("score", Type.FLOAT8);
+
+      TableMeta meta = CatalogUtil.newTableMeta(storeType);
+      Path tablePath = new Path(testDir, "testCSVParserThreads.data");
+      Appender appender = StorageManagerFactory.getStorageManager(conf).getAppender(meta, schema, tablePath);
+      appender.init();
+      int tupleNum = 20000;
+      for (int i = 0; i < tupleNum; i++) {
+        VTuple tuple = new VTuple(4);
+        tuple.put(0, DatumFactory.createInt4(i));
+        tuple.put(1, i % 10 == 0 ? NullDatum.get() : DatumFactory.createText("name" + i));
+        tuple.put(2, DatumFactory.createInt8(Integer.MAX_VALUE + (long) i));
+        tuple.put(3, DatumFactory.createFloat8(i * 0.25));
+        appender.addTuple(tuple);
+      }
+      appender.close();
+
+      // lines of a page are split by four threads
+      TajoConf parserConf = new TajoConf(conf);
+      parserConf.setIntVar(TajoConf.ConfVars.CSVFILE_PARSER_THREAD_NUM, 4);
+      FileStatus status = fs.getFileStatus(tablePath);
+      FileFragment fragment = new FileFragment("table", tablePath, 0, status.getLen());
+      Schema target = new Schema();
+      target.addColumn("name", Type.TEXT);
+      target.addColumn("age", Type.INT8);
+      Scanner scanner = new CSVFile.CSVScanner(parserConf, schema, meta, fragment);
+      scanner.setTarget(target.toArray());
+      scanner.init();
+      int tupleCnt = 0;
+      Tuple tuple;
+      while ((tuple = scanner.next()) != null) {
+        assertTrue(tuple.get(0) == null);
+        if (tupleCnt % 10 == 0) {
+          assertTrue(tuple.isNull(1));
+        } else {
+          assertEquals("name" + tupleCnt, tuple.get(1).asChars());
+        }
+        assertEquals(Integer.MAX_VALUE + (long) tupleCnt, tuple.get(2).asInt8());
+        assertTrue(tuple.get(3) == null);
+        tupleCnt++;
+      }
+      scanner.close();
+      assertEquals(tupleNum, tupleCnt);
+    }
+  }
+
   @Test
   public void testTime() throws IOException {
     if (storeType == StoreType.CSV || storeType == StoreType.RAW) {
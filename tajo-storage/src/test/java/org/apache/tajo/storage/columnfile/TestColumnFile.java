@@ -0,0 +1,115 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage.columnfile;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.storage.*;
+import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class TestColumnFile {
+  private static final String TEST_PATH = "target/test-data/TestColumnFile";
+  private static final int ROW_NUM = 10000;
+  private static final int BLOCK_ROWS = 1000;
+
+  @Test
+  public void testBlockSkipping() throws IOException {
+    TajoConf conf = new TajoConf();
+    Path testDir = CommonTestingUtil.getTestDir(TEST_PATH);
+    FileSystem fs = testDir.getFileSystem(conf);
+
+    Schema schema = new Schema();
+    schema.addColumn("id", Type.INT4);
+    schema.addColumn("category", Type.TEXT);
+    schema.addColumn("flag", Type.INT8);
+    schema.addColumn("score", Type.FLOAT8);
+
+    TableMeta meta = CatalogUtil.newTableMeta(StoreType.COLUMNFILE);
+    meta.putOption(StorageConstants.COLUMNFILE_BLOCK_ROWS, String.valueOf(BLOCK_ROWS));
+    Path tablePath = new Path(testDir, "testBlockSkipping.data");
+    Appender appender = StorageManagerFactory.getStorageManager(conf).getAppender(meta, schema, tablePath);
+    appender.enableStats();
+    appender.init();
+    // ids, categories and flags are encoded in bit-packed, dictionary and rle respectively.
+    for (int i = 0; i < ROW_NUM; i++) {
+      Tuple tuple = new VTuple(4);
+      tuple.put(0, DatumFactory.createInt4(i));
+      tuple.put(1, DatumFactory.createText("category" + (i % 7)));
+      tuple.put(2, DatumFactory.createInt8(i / 300));
+      tuple.put(3, i % 3 == 0 ? NullDatum.get() : DatumFactory.createFloat8(i * 0.5));
+      appender.addTuple(tuple);
+    }
+    appender.close();
+    assertEquals(ROW_NUM, appender.getStats().getNumRows().longValue());
+
+    long fileLen = fs.getFileStatus(tablePath).getLen();
+    FileFragment fragment = new FileFragment("table", tablePath, 0, fileLen);
+
+    // all values are read back
+    Scanner scanner = StorageManagerFactory.getStorageManager(conf).getScanner(meta, schema, fragment);
+    scanner.init();
+    int rowIdx = 0;
+    Tuple tuple;
+    while ((tuple = scanner.next()) != null) {
+      assertEquals(rowIdx, tuple.get(0).asInt4());
+      assertEquals("category" + (rowIdx % 7), tuple.get(1).asChars());
+      assertEquals(rowIdx / 300, tuple.get(2).asInt8());
+      if (rowIdx % 3 == 0) {
+        assertTrue(tuple.get(3).isNull());
+      } else {
+        assertEquals(rowIdx * 0.5, tuple.get(3).asFloat8(), 0.0);
+      }
+      rowIdx++;
+    }
+    scanner.close();
+    assertEquals(ROW_NUM, rowIdx);
+
+    // only the last block is read for id >= 9500
+    Schema target = new Schema();
+    target.addColumn("id", Type.INT4);
+    ColumnFileScanner selected = (ColumnFileScanner) StorageManagerFactory.getStorageManager(conf).getScanner(meta,
+        schema, fragment, target);
+    selected.setSearchCondition(new ColumnPredicate[] {
+        new ColumnPredicate(schema.getColumn(0), ColumnPredicate.Op.GEQ, DatumFactory.createInt4(9500))});
+    selected.init();
+    int rowNum = 0;
+    while ((tuple = selected.next()) != null) {
+      assertTrue(tuple.get(0).asInt4() >= 9000);
+      assertNull(tuple.get(1));
+      rowNum++;
+    }
+    selected.close();
+    assertEquals(BLOCK_ROWS, rowNum);
+    assertEquals(ROW_NUM / BLOCK_ROWS - 1, selected.getSkippedBlockNum());
+  }
+}
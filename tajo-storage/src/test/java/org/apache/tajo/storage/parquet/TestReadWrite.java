@@ -28,13 +28,16 @@ import java.util.List;
 import org.apache.hadoop.fs.Path;
 import org.apache.tajo.catalog.Column;
 import org.apache.tajo.catalog.Schema;
+import org.apache.hadoop.conf.Configuration;
 import org.apache.tajo.common.TajoDataTypes.Type;
 import org.apache.tajo.datum.DatumFactory;
 import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.storage.ColumnPredicate;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.VTuple;
 
 import org.junit.Test;
+import parquet.hadoop.metadata.CompressionCodecName;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertArrayEquals;
@@ -106,4 +109,56 @@ public class TestReadWrite {
     assertArrayEquals(HELLO.getBytes(Charsets.UTF_8), tuple.getBytes(9));
     assertEquals(NullDatum.get(), tuple.get(10));
   }
+
+  @Test
+  public void testPredicatePushdown() throws Exception {
+    Path file = createTmpFile();
+    Column id = new Column("id", Type.INT8);
+    Column name = new Column("name", Type.TEXT);
+    Schema schema = new Schema(new Column[] {id, name});
+
+    // small row groups
+    TajoParquetWriter writer = new TajoParquetWriter(file, schema,
+        CompressionCodecName.UNCOMPRESSED, 1024, 1024);
+    for (int i = 0; i < 10000; i++) {
+      Tuple tuple = new VTuple(schema.size());
+      tuple.put(0, DatumFactory.createInt8(i));
+      tuple.put(1, i % 100 == 0 ? NullDatum.get() : DatumFactory.createText("name" + (i % 10)));
+      writer.write(tuple);
+    }
+    writer.close();
+
+    TajoParquetReader reader = new TajoParquetReader(file, schema);
+    assertTrue(reader.getRowGroupNum() > 1);
+    assertEquals(10000, countRows(reader));
+
+    // row groups are skipped by statistics
+    reader = new TajoParquetReader(new Configuration(), file, schema, schema, new ColumnPredicate[] {
+        new ColumnPredicate(id, ColumnPredicate.Op.GEQ, DatumFactory.createInt4(9000))});
+    assertTrue(reader.getSkippedRowGroupNum() > 0);
+    assertEquals(1000, countRows(reader));
+
+    // records are filtered in the remaining row groups, and null never satisfies a predicate
+    reader = new TajoParquetReader(new Configuration(), file, schema, schema, new ColumnPredicate[] {
+        new ColumnPredicate(id, ColumnPredicate.Op.LTH, DatumFactory.createInt8(1000)),
+        new ColumnPredicate(name, ColumnPredicate.Op.EQUAL, DatumFactory.createText("name0"))});
+    Tuple tuple;
+    int count = 0;
+    while ((tuple = reader.read()) != null) {
+      assertEquals(0, tuple.getInt8(0) % 10);
+      assertTrue(tuple.getInt8(0) % 100 != 0);
+      count++;
+    }
+    reader.close();
+    assertEquals(90, count);
+  }
+
+  private int countRows(TajoParquetReader reader) throws IOException {
+    int count = 0;
+    while (reader.read() != null) {
+      count++;
+    }
+    reader.close();
+    return count;
+  }
 }
@@ -0,0 +1,59 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.pullserver;
+
+import org.apache.tajo.storage.HashShuffleIndex;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * It keeps recently used {@link HashShuffleIndex}es, so that an index file is not read again for each
+ * partition requested from the same task output.
+ */
+public class HashShuffleIndexCache {
+  private final Map<String, HashShuffleIndex> cache;
+
+  public HashShuffleIndexCache(final int maxEntries) {
+    this.cache = new LinkedHashMap<String, HashShuffleIndex>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, HashShuffleIndex> eldest) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  public HashShuffleIndex get(File indexFile) throws IOException {
+    String key = indexFile.getAbsolutePath();
+    synchronized (cache) {
+      HashShuffleIndex index = cache.get(key);
+      if (index != null) {
+        return index;
+      }
+    }
+
+    HashShuffleIndex index = HashShuffleIndex.read(indexFile);
+    synchronized (cache) {
+      cache.put(key, index);
+    }
+    return index;
+  }
+}
@@ -38,6 +38,7 @@ import org.apache.hadoop.metrics2.lib.DefaultMetricsSystem;
 import org.apache.hadoop.metrics2.lib.MutableCounterInt;
 import org.apache.hadoop.metrics2.lib.MutableCounterLong;
 import org.apache.hadoop.metrics2.lib.MutableGaugeInt;
+import org.apache.hadoop.metrics2.lib.MutableRate;
 import org.apache.hadoop.security.ssl.SSLFactory;
 import org.apache.hadoop.yarn.api.records.ApplicationId;
 import org.apache.hadoop.yarn.service.AbstractService;
@@ -47,6 +48,7 @@ import org.apache.tajo.conf.TajoConf.ConfVars;
 import org.apache.tajo.pullserver.listener.FileCloseListener;
 import org.apache.tajo.pullserver.retriever.FileChunk;
 import org.apache.tajo.rpc.RpcChannelFactory;
+import org.apache.tajo.storage.HashShuffleIndex;
 import org.apache.tajo.storage.RowStoreUtil;
 import org.apache.tajo.storage.RowStoreUtil.RowStoreDecoder;
 import org.apache.tajo.storage.Tuple;
@@ -72,15 +74,20 @@ import java.net.URI;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
+import static org.jboss.netty.handler.codec.http.HttpHeaders.Names.ACCEPT_RANGES;
+import static org.jboss.netty.handler.codec.http.HttpHeaders.Names.CONTENT_RANGE;
 import static org.jboss.netty.handler.codec.http.HttpHeaders.Names.CONTENT_TYPE;
+import static org.jboss.netty.handler.codec.http.HttpHeaders.Names.RANGE;
 import static org.jboss.netty.handler.codec.http.HttpHeaders.isKeepAlive;
 import static org.jboss.netty.handler.codec.http.HttpHeaders.setContentLength;
 import static org.jboss.netty.handler.codec.http.HttpMethod.GET;
+import static org.jboss.netty.handler.codec.http.HttpMethod.POST;
 import static org.jboss.netty.handler.codec.http.HttpResponseStatus.*;
 import static org.jboss.netty.handler.codec.http.HttpVersion.HTTP_1_1;
 
@@ -123,6 +130,9 @@ public class TajoPullServerService extends AbstractService {
 
   public static final int DEFAULT_SUFFLE_SSL_FILE_BUFFER_SIZE = 60 * 1024;
 
+  /** the maximum number of hash shuffle indexes kept in memory */
+  private static final int HASH_SHUFFLE_INDEX_CACHE_SIZE = 1024;
+
   @Metrics(name="PullServerShuffleMetrics", about="PullServer output metrics", context="tajo")
   static class ShuffleMetrics implements ChannelFutureListener {
     @Metric({"OutputBytes","PullServer output in bytes"})
@@ -133,6 +143,8 @@ public class TajoPullServerService extends AbstractService {
     MutableCounterInt shuffleOutputsOK;
     @Metric({"Connections","# of current shuffle connections"})
     MutableGaugeInt shuffleConnections;
+    @Metric({"RequestTime","Time to serve a shuffle request in milliseconds"})
+    MutableRate shuffleRequestTime;
 
     @Override
     public void operationComplete(ChannelFuture future) throws Exception {
@@ -141,7 +153,40 @@ public class TajoPullServerService extends AbstractService {
       } else {
         shuffleOutputsFailed.incr();
       }
-      shuffleConnections.decr();
+    }
+  }
+
+  /**
+   * The transfer statistics of a shuffle connection. A keep-alive connection serves many requests.
+   */
+  static class ConnectionStats {
+    private final long openTime = System.currentTimeMillis();
+    private int requestNum = 0;
+    private long bytes = 0;
+    /** the total time spent on serving requests in milliseconds */
+    private long busyTime = 0;
+
+    synchronized void addRequest(long requestBytes, long elapsedTime) {
+      requestNum++;
+      bytes += requestBytes;
+      busyTime += elapsedTime;
+    }
+
+    synchronized int getRequestNum() {
+      return requestNum;
+    }
+
+    /**
+     * @return the throughput in MB/s while serving requests
+     */
+    synchronized float getThroughput() {
+      return busyTime == 0 ? 0 : (bytes / 1048576f) / (busyTime / 1000f);
+    }
+
+    @Override
+    public synchronized String toString() {
+      return requestNum + " requests, " + bytes + " bytes, " + busyTime + " ms busy of "
+          + (System.currentTimeMillis() - openTime) + " ms, " + String.format("%.2f", getThroughput()) + " MB/s";
     }
   }
 
@@ -209,9 +254,6 @@ public class TajoPullServerService extends AbstractService {
 
       localFS = new LocalFileSystem();
       super.init(new Configuration(conf));
-
-      this.getConfig().setInt(TajoConf.ConfVars.PULLSERVER_PORT.varname
-          , TajoConf.ConfVars.PULLSERVER_PORT.defaultIntVal);
     } catch (Throwable t) {
       LOG.error(t);
     }
@@ -315,6 +357,7 @@ public class TajoPullServerService extends AbstractService {
 
     private final Configuration conf;
 //    private final IndexCache indexCache;
+    private final HashShuffleIndexCache hashIndexCache = new HashShuffleIndexCache(HASH_SHUFFLE_INDEX_CACHE_SIZE);
     private final LocalDirAllocator lDirAlloc =
       new LocalDirAllocator(ConfVars.WORKER_TEMPORAL_DIR.varname);
     private int port;
@@ -346,24 +389,37 @@ public class TajoPullServerService extends AbstractService {
         throws Exception {
 
       accepted.add(evt.getChannel());
+      ctx.setAttachment(new ConnectionStats());
+      metrics.shuffleConnections.incr();
       LOG.info(String.format("Current number of shuffle connections (%d)", accepted.size()));
       super.channelOpen(ctx, evt);
 
     }
 
+    @Override
+    public void channelClosed(ChannelHandlerContext ctx, ChannelStateEvent evt)
+        throws Exception {
+      metrics.shuffleConnections.decr();
+      ConnectionStats stats = (ConnectionStats) ctx.getAttachment();
+      if (stats != null && stats.getRequestNum() > 0) {
+        LOG.info("Shuffle connection from " + evt.getChannel().getRemoteAddress() + " is closed: " + stats);
+      }
+      super.channelClosed(ctx, evt);
+    }
+
     @Override
     public void messageReceived(ChannelHandlerContext ctx, MessageEvent e)
         throws Exception {
 
+      final long startTime = System.currentTimeMillis();
       HttpRequest request = (HttpRequest) e.getMessage();
-      if (request.getMethod() != GET) {
+      if (request.getMethod() != GET && request.getMethod() != POST) {
         sendError(ctx, METHOD_NOT_ALLOWED);
         return;
       }
 
       // Parsing the URL into key-values
-      final Map<String, List<String>> params =
-          new QueryStringDecoder(request.getUri()).getParameters();
+      final Map<String, List<String>> params = getParameters(request);
       final List<String> types = params.get("type");
       final List<String> qids = params.get("qid");
       final List<String> taskIdList = params.get("ta");
@@ -424,15 +480,26 @@ public class TajoPullServerService extends AbstractService {
         // if a subquery requires a hash shuffle
       } else if (shuffleType.equals("h")) {
         for (String ta : taskIds) {
-          Path path = localFS.makeQualified(
-              lDirAlloc.getLocalPathToRead(queryBaseDir + "/" + sid + "/" +
-                  ta + "/output/" + partId, conf));
-          File file = new File(path.toUri());
-          FileChunk chunk = new FileChunk(file, 0, file.length());
-          chunks.add(chunk);
+          String outputDir = queryBaseDir + "/" + sid + "/" + ta + "/output/";
+          String indexPath = outputDir + HashShuffleIndex.INDEX_FILE_NAME;
+          if (lDirAlloc.ifExists(indexPath, conf)) {
+            // all partitions of the task are consolidated into a single data file
+            File indexFile = new File(localFS.makeQualified(lDirAlloc.getLocalPathToRead(indexPath, conf)).toUri());
+            File dataFile = new File(indexFile.getParentFile(), HashShuffleIndex.DATA_FILE_NAME);
+            HashShuffleIndex index = hashIndexCache.get(indexFile);
+            for (HashShuffleIndex.Segment segment : index.getSegments(Integer.parseInt(partId))) {
+              chunks.add(new FileChunk(dataFile, segment.getOffset(), segment.getLength()));
+            }
+          } else {
+            Path path = localFS.makeQualified(lDirAlloc.getLocalPathToRead(outputDir + partId, conf));
+            File file = new File(path.toUri());
+            FileChunk chunk = new FileChunk(file, 0, file.length());
+            chunks.add(chunk);
+          }
         }
       } else {
         LOG.error("Unknown shuffle type: " + shuffleType);
+        sendError(ctx, "Unknown shuffle type: " + shuffleType, BAD_REQUEST);
         return;
       }
 
@@ -446,12 +513,34 @@ public class TajoPullServerService extends AbstractService {
         }
       }  else {
         FileChunk[] file = chunks.toArray(new FileChunk[chunks.size()]);
-        HttpResponse response = new DefaultHttpResponse(HTTP_1_1, OK);
         long totalSize = 0;
         for (FileChunk chunk : file) {
           totalSize += chunk.length();
         }
-        setContentLength(response, totalSize);
+
+        HttpResponse response;
+        long contentLength = totalSize;
+        long [] range = request.getHeader(RANGE) == null ? null : parseRange(request.getHeader(RANGE), totalSize);
+        if (range == null) {
+          response = new DefaultHttpResponse(HTTP_1_1, OK);
+        } else if (range[0] > range[1]) {
+          response = new DefaultHttpResponse(HTTP_1_1, REQUESTED_RANGE_NOT_SATISFIABLE);
+          response.setHeader(CONTENT_RANGE, "bytes */" + totalSize);
+          setContentLength(response, 0);
+          ChannelFuture writeFuture = ch.write(response);
+          if (!isKeepAlive(request)) {
+            writeFuture.addListener(ChannelFutureListener.CLOSE);
+          }
+          return;
+        } else {
+          // a fetcher resumes an interrupted transfer by reading only the remaining bytes
+          contentLength = range[1] - range[0] + 1;
+          file = sliceChunks(file, range[0], contentLength);
+          response = new DefaultHttpResponse(HTTP_1_1, PARTIAL_CONTENT);
+          response.setHeader(CONTENT_RANGE, "bytes " + range[0] + "-" + range[1] + "/" + totalSize);
+        }
+        response.setHeader(ACCEPT_RANGES, HttpHeaders.Values.BYTES);
+        setContentLength(response, contentLength);
 
         // Write the initial line and the header.
         ch.write(response);
@@ -466,6 +555,20 @@ public class TajoPullServerService extends AbstractService {
           }
         }
 
+        final ConnectionStats stats = (ConnectionStats) ctx.getAttachment();
+        final long sentBytes = contentLength;
+        writeFuture.addListener(metrics);
+        writeFuture.addListener(new ChannelFutureListener() {
+          @Override
+          public void operationComplete(ChannelFuture future) {
+            long elapsedTime = System.currentTimeMillis() - startTime;
+            metrics.shuffleRequestTime.add(elapsedTime);
+            if (stats != null) {
+              stats.addRequest(sentBytes, elapsedTime);
+            }
+          }
+        });
+
         // Decide whether to close the connection or not.
         if (!isKeepAlive(request)) {
           // Close the connection when the whole content is written out.
@@ -474,6 +577,20 @@ public class TajoPullServerService extends AbstractService {
       }
     }
 
+    /**
+     * A fetcher with a keep-alive connection sends parameters as a POST body, because a long list of task ids
+     * does not fit in a request uri.
+     */
+    private Map<String, List<String>> getParameters(HttpRequest request) {
+      Map<String, List<String>> params =
+          new HashMap<String, List<String>>(new QueryStringDecoder(request.getUri()).getParameters());
+      if (request.getMethod() == POST && request.getContent().readable()) {
+        String body = request.getContent().toString(CharsetUtil.UTF_8);
+        params.putAll(new QueryStringDecoder(body, false).getParameters());
+      }
+      return params;
+    }
+
     private ChannelFuture sendFile(ChannelHandlerContext ctx,
                                    Channel ch,
                                    FileChunk file) throws IOException {
@@ -499,7 +616,6 @@ public class TajoPullServerService extends AbstractService {
             file.getFile().getAbsolutePath());
         writeFuture = ch.write(chunk);
       }
-      metrics.shuffleConnections.incr();
       metrics.shuffleOutputBytes.incr(file.length); // optimistic
       return writeFuture;
     }
@@ -538,6 +654,71 @@ public class TajoPullServerService extends AbstractService {
     }
   }
 
+  /**
+   * Parses a single byte range of a <code>Range</code> header, e.g., <code>bytes=100-199</code>,
+   * <code>bytes=100-</code> or <code>bytes=-100</code>.
+   *
+   * @param header the value of a <code>Range</code> header
+   * @param totalSize the total size of the requested content
+   * @return the first and last byte positions, where the first one is larger than the last one if the range
+   * is not satisfiable. Null if the header is malformed or has multiple ranges, in which case the header is ignored.
+   */
+  public static long [] parseRange(String header, long totalSize) {
+    String value = header.trim();
+    if (!value.startsWith("bytes=") || value.indexOf(',') >= 0) {
+      return null;
+    }
+    value = value.substring("bytes=".length()).trim();
+    int dash = value.indexOf('-');
+    if (dash < 0) {
+      return null;
+    }
+
+    try {
+      String first = value.substring(0, dash).trim();
+      String last = value.substring(dash + 1).trim();
+      if (first.isEmpty()) {
+        if (last.isEmpty()) {
+          return null;
+        }
+        // the last n bytes
+        long suffixLength = Long.parseLong(last);
+        if (suffixLength < 0) {
+          return null;
+        }
+        return new long[] {Math.max(0, totalSize - suffixLength), totalSize - 1};
+      }
+
+      long start = Long.parseLong(first);
+      long end = last.isEmpty() ? totalSize - 1 : Long.parseLong(last);
+      if (start < 0 || end < start) {
+        return null;
+      }
+      return new long[] {start, Math.min(end, totalSize - 1)};
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  /**
+   * @return the chunks covering the given range of the content which consists of the given chunks in order
+   */
+  public static FileChunk [] sliceChunks(FileChunk [] chunks, long offset, long length) throws IOException {
+    List<FileChunk> sliced = new ArrayList<FileChunk>();
+    long chunkStart = 0;
+    long end = offset + length;
+    for (FileChunk chunk : chunks) {
+      long chunkEnd = chunkStart + chunk.length();
+      long from = Math.max(offset, chunkStart);
+      long to = Math.min(end, chunkEnd);
+      if (from < to) {
+        sliced.add(new FileChunk(chunk.getFile(), chunk.startOffset() + (from - chunkStart), to - from));
+      }
+      chunkStart = chunkEnd;
+    }
+    return sliced.toArray(new FileChunk[sliced.size()]);
+  }
+
   public FileChunk getFileCunks(Path outDir,
                                       String startKey,
                                       String endKey,
@@ -573,6 +754,12 @@ public class TajoPullServerService extends AbstractService {
           + ", decoded byte size: " + endBytes.length, t);
     }
 
+    if(!comparator.isAscendingFirstKey()) {
+      Tuple tmpKey = start;
+      start = end;
+      end = tmpKey;
+    }
+
     LOG.info("GET Request for " + data.getAbsolutePath() + " (start="+start+", end="+ end +
         (last ? ", last=true" : "") + ")");
 